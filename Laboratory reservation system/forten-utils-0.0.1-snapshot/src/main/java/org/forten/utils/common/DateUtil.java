@@ -15,10 +15,23 @@
  */
 package org.forten.utils.common;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.log4j.Logger;
 import org.forten.utils.system.Assert;
@@ -26,6 +39,16 @@ import org.forten.utils.system.LogUtil;
 
 /**
  * 日期工具类
+ * <p>
+ * 日期与字符串的转换使用按格式定义样式缓存的、不可变且线程安全的{@link DateTimeFormatter}，
+ * 格式定义样式的语法与{@link java.text.SimpleDateFormat}基本相同；{@link #DATETIME_PATTERN}与
+ * {@link #DATE_PATTERN}两种最常用的格式不经过DateTimeFormatter，直接按数字计算。
+ * </p>
+ * <p>
+ * 解析比SimpleDateFormat的默认宽松模式严格：13月、25时这类超出范围的字段不会进位，解析失败返回null；
+ * 两种常用格式下2月30日这类不存在的日期同样返回null，其他格式按DateTimeFormatter的规则调整为当月最后一天。
+ * 格式中含有时区或偏移量（z、Z、X等）时按字符串中的时区换算，否则按JVM默认时区。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2012-5-7
@@ -37,6 +60,12 @@ public final class DateUtil {
 	private static final String DATA_FORMAT_NOT_EMPTY_MSG = "日期格式字符串不可为空";
 	private static final String DATA_STRING_NOT_EMPTY_MSG = "字符串日期不可为空";
 	private static final String DATA_FORMAT_ERROR_MSG = "日期格式解析错误:日期格式为[%s]";
+	private static final String DATA_PATTERN_ERROR_MSG = "非法的日期格式定义样式[%s]";
+
+	// 缓存的格式定义样式数量上限，防止动态拼接的样式无限占用内存
+	private static final int MAX_CACHED_FORMATTERS = 256;
+
+	private static final ConcurrentMap<String, DateTimeFormatter> formatterMap = new ConcurrentHashMap<String, DateTimeFormatter>();
 
 	// 私有构造器
 	private DateUtil() {
@@ -56,6 +85,34 @@ public final class DateUtil {
 	 */
 	public static final String DATETIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
 
+	/**
+	 * 获得格式定义样式对应的DateTimeFormatter，同一样式的DateTimeFormatter只创建一次
+	 * 
+	 * @param pattern
+	 *            格式定义样式字符串
+	 * @return 线程安全的DateTimeFormatter
+	 */
+	public static DateTimeFormatter getFormatter(String pattern) {
+		Assert.hasText(pattern, DATA_FORMAT_NOT_EMPTY_MSG);
+		DateTimeFormatter formatter = formatterMap.get(pattern);
+		if (formatter == null) {
+			try {
+				formatter = DateTimeFormatter.ofPattern(pattern);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(String.format(
+						DATA_PATTERN_ERROR_MSG, pattern), e);
+			}
+			if (formatterMap.size() < MAX_CACHED_FORMATTERS) {
+				DateTimeFormatter existing = formatterMap.putIfAbsent(pattern,
+						formatter);
+				if (existing != null) {
+					formatter = existing;
+				}
+			}
+		}
+		return formatter;
+	}
+
 	/**
 	 * 按格式定义样式把日期对象转成日期字符串
 	 * 
@@ -68,7 +125,18 @@ public final class DateUtil {
 	public static String convertDateToString(Date aDate, String pattern) {
 		Assert.notNull(aDate, DATA_NOT_EMPTY_MSG);
 		Assert.hasText(pattern, DATA_FORMAT_NOT_EMPTY_MSG);
-		return new SimpleDateFormat(pattern).format(aDate);
+		long millis = aDate.getTime();
+		boolean dateTime = DATETIME_PATTERN.equals(pattern);
+		if (dateTime || DATE_PATTERN.equals(pattern)) {
+			String str = fastFormat(millis, dateTime);
+			if (str != null) {
+				return str;
+			}
+		}
+		// java.sql.Date不支持toInstant()，因此通过毫秒数转换；带时区才能格式化Z、zzz等时区字段
+		return getFormatter(pattern).format(
+				ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis),
+						ZoneId.systemDefault()));
 	}
 
 	/**
@@ -83,38 +151,225 @@ public final class DateUtil {
 	}
 
 	/**
-	 * 按格式定义样式把日期字符串转成日期对象
+	 * 按格式定义样式把java.time日期对象（LocalDateTime、LocalDate、ZonedDateTime等）转成日期字符串
+	 * 
+	 * @param temporal
+	 *            java.time日期对象，必须包含格式定义样式中用到的全部字段
+	 * @param pattern
+	 *            格式定义样式字符串
+	 * @return 格式化后的日期字符串
+	 */
+	public static String convertDateToString(TemporalAccessor temporal,
+			String pattern) {
+		Assert.notNull(temporal, DATA_NOT_EMPTY_MSG);
+		return getFormatter(pattern).format(temporal);
+	}
+
+	/**
+	 * 按默认格式定义样式把LocalDateTime对象转成日期字符串
+	 * 
+	 * @param dateTime
+	 *            日期时间对象
+	 * @return 按默认格式定义样式格式化后的日期字符串
+	 */
+	public static String convertDateToString(LocalDateTime dateTime) {
+		return convertDateToString(dateTime, DATETIME_PATTERN);
+	}
+
+	/**
+	 * 按格式定义样式把日期字符串转成日期对象，日期字符串中缺少的日期部分按1970-01-01、时间部分按00:00:00补齐
 	 * 
 	 * @param strDate
 	 *            日期字符串
 	 * @param pattern
 	 *            格式定义样式字符串
-	 * @return 日期对象
+	 * @return 日期对象，解析失败时返回null
 	 */
 	public static Date convertStringToDate(String strDate, String pattern) {
+		ZonedDateTime dateTime = parse(strDate, pattern);
+		return dateTime == null ? null : new Date(dateTime.toInstant()
+				.toEpochMilli());
+	}
+
+	/**
+	 * 按默认格式定义样式把日期字符串转成日期对象
+	 * 
+	 * @param strDate
+	 *            日期字符串
+	 * @return 日期对象
+	 */
+	public static Date convertStringToDate(String strDate) {
+		return convertStringToDate(strDate, DATETIME_PATTERN);
+	}
+
+	/**
+	 * 按格式定义样式把日期字符串转成LocalDateTime对象，日期字符串中缺少的日期部分按1970-01-01、时间部分按00:00:00补齐，
+	 * 字符串中带有时区或偏移量时换算为JVM默认时区的本地时间
+	 * 
+	 * @param strDate
+	 *            日期字符串
+	 * @param pattern
+	 *            格式定义样式字符串
+	 * @return LocalDateTime对象，解析失败时返回null
+	 */
+	public static LocalDateTime convertStringToLocalDateTime(String strDate,
+			String pattern) {
+		ZonedDateTime dateTime = parse(strDate, pattern);
+		return dateTime == null ? null : dateTime.withZoneSameInstant(
+				ZoneId.systemDefault()).toLocalDateTime();
+	}
+
+	// 解析日期字符串，没有时区或偏移量时按JVM默认时区，解析失败时返回null
+	private static ZonedDateTime parse(String strDate, String pattern) {
 		Assert.hasText(strDate, DATA_STRING_NOT_EMPTY_MSG);
 		Assert.hasText(pattern, DATA_FORMAT_NOT_EMPTY_MSG);
-		Date date = null;
 		try {
-			date = new SimpleDateFormat(pattern).parse(strDate);
-		} catch (ParseException e) {
-			LogUtil.error(log, e, DATA_FORMAT_ERROR_MSG, pattern);
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
+			boolean dateTime = DATETIME_PATTERN.equals(pattern);
+			if (dateTime || DATE_PATTERN.equals(pattern)) {
+				LocalDateTime result = fastParse(strDate, dateTime);
+				if (result != null) {
+					return result.atZone(ZoneId.systemDefault());
+				}
 			}
+			// 与SimpleDateFormat一样，忽略日期字符串末尾多余的内容
+			TemporalAccessor temporal = getFormatter(pattern).parse(strDate,
+					new ParsePosition(0));
+			ZoneId zone = temporal.query(TemporalQueries.zone());
+			return ZonedDateTime.of(resolveDate(temporal),
+					resolveTime(temporal), zone == null ? ZoneId.systemDefault()
+							: zone);
+		} catch (DateTimeException e) {
+			LogUtil.error(log, e, DATA_FORMAT_ERROR_MSG, pattern);
 		}
-		return date;
+		return null;
 	}
 
 	/**
-	 * 按默认格式定义样式把日期字符串转成日期对象
+	 * 按格式定义样式把日期字符串转成LocalDate对象
 	 * 
 	 * @param strDate
 	 *            日期字符串
-	 * @return 日期对象
+	 * @param pattern
+	 *            格式定义样式字符串
+	 * @return LocalDate对象，解析失败时返回null
 	 */
-	public static Date convertStringToDate(String strDate) {
-		return convertStringToDate(strDate, DATETIME_PATTERN);
+	public static LocalDate convertStringToLocalDate(String strDate,
+			String pattern) {
+		LocalDateTime dateTime = convertStringToLocalDateTime(strDate, pattern);
+		return dateTime == null ? null : dateTime.toLocalDate();
+	}
+
+	// 按yyyy-MM-dd HH:mm:ss或yyyy-MM-dd直接计算各字段并写入字符数组，年份超出0-9999时返回null
+	private static String fastFormat(long millis, boolean withTime) {
+		long localMillis = millis + TimeZone.getDefault().getOffset(millis);
+		long epochDay = Math.floorDiv(localMillis, 86400000L);
+		int secondOfDay = (int) (Math.floorMod(localMillis, 86400000L) / 1000);
+
+		// 由1970-01-01起的天数推算公历年月日
+		long z = epochDay + 719468;
+		long era = Math.floorDiv(z, 146097);
+		long doe = z - era * 146097;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+		if (year < 0 || year > 9999) {
+			return null;
+		}
+
+		char[] chars = new char[withTime ? 19 : 10];
+		int y = (int) year;
+		chars[0] = (char) ('0' + y / 1000);
+		chars[1] = (char) ('0' + y / 100 % 10);
+		chars[2] = (char) ('0' + y / 10 % 10);
+		chars[3] = (char) ('0' + y % 10);
+		chars[4] = '-';
+		writeTwoDigits(chars, 5, month);
+		chars[7] = '-';
+		writeTwoDigits(chars, 8, day);
+		if (withTime) {
+			chars[10] = ' ';
+			writeTwoDigits(chars, 11, secondOfDay / 3600);
+			chars[13] = ':';
+			writeTwoDigits(chars, 14, secondOfDay / 60 % 60);
+			chars[16] = ':';
+			writeTwoDigits(chars, 17, secondOfDay % 60);
+		}
+		return new String(chars);
+	}
+
+	private static void writeTwoDigits(char[] chars, int offset, int value) {
+		chars[offset] = (char) ('0' + value / 10);
+		chars[offset + 1] = (char) ('0' + value % 10);
+	}
+
+	// 按yyyy-MM-dd HH:mm:ss或yyyy-MM-dd直接解析数字，格式不符时返回null交由DateTimeFormatter处理
+	private static LocalDateTime fastParse(String str, boolean withTime) {
+		int length = withTime ? 19 : 10;
+		if (str.length() < length || str.charAt(4) != '-'
+				|| str.charAt(7) != '-') {
+			return null;
+		}
+		int year = parseDigits(str, 0, 4);
+		int month = parseDigits(str, 5, 2);
+		int day = parseDigits(str, 8, 2);
+		if (year < 0 || month < 0 || day < 0) {
+			return null;
+		}
+		if (!withTime) {
+			return LocalDate.of(year, month, day).atStartOfDay();
+		}
+		if (str.charAt(10) != ' ' || str.charAt(13) != ':'
+				|| str.charAt(16) != ':') {
+			return null;
+		}
+		int hour = parseDigits(str, 11, 2);
+		int minute = parseDigits(str, 14, 2);
+		int second = parseDigits(str, 17, 2);
+		if (hour < 0 || minute < 0 || second < 0) {
+			return null;
+		}
+		return LocalDateTime.of(year, month, day, hour, minute, second);
+	}
+
+	private static int parseDigits(String str, int offset, int count) {
+		int value = 0;
+		for (int i = offset; i < offset + count; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private static LocalDate resolveDate(TemporalAccessor temporal) {
+		LocalDate date = temporal.query(TemporalQueries.localDate());
+		if (date != null) {
+			return date;
+		}
+		return LocalDate.of(getField(temporal, ChronoField.YEAR, 1970),
+				getField(temporal, ChronoField.MONTH_OF_YEAR, 1),
+				getField(temporal, ChronoField.DAY_OF_MONTH, 1));
+	}
+
+	private static LocalTime resolveTime(TemporalAccessor temporal) {
+		LocalTime time = temporal.query(TemporalQueries.localTime());
+		if (time != null) {
+			return time;
+		}
+		return LocalTime.of(getField(temporal, ChronoField.HOUR_OF_DAY, 0),
+				getField(temporal, ChronoField.MINUTE_OF_HOUR, 0),
+				getField(temporal, ChronoField.SECOND_OF_MINUTE, 0));
+	}
+
+	private static int getField(TemporalAccessor temporal, ChronoField field,
+			int defaultValue) {
+		return temporal.isSupported(field) ? temporal.get(field)
+				: defaultValue;
 	}
 
 	/**
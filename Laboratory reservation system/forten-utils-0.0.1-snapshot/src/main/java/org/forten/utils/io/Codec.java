@@ -0,0 +1,68 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.io;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 对象编解码器SPI。
+ * <p>
+ * 每种编解码器产生的字节流都必须以自己的标识开头，{@link SerializationUtil}据此判断应该由哪个编解码器来解码。
+ * 实现类必须是线程安全的。
+ * </p>
+ */
+public interface Codec {
+	/**
+	 * 是否能够编码该类型的对象
+	 * 
+	 * @param clazz
+	 *            对象类型
+	 * @return 能够编码则返回<code>true</code>
+	 */
+	boolean supports(Class<?> clazz);
+
+	/**
+	 * 字节流是否由本编解码器产生，只查看buffer当前位置开始的若干字节，不改变buffer的位置
+	 * 
+	 * @param buffer
+	 *            字节流
+	 * @return 由本编解码器产生则返回<code>true</code>
+	 */
+	boolean canDecode(ByteBuffer buffer);
+
+	/**
+	 * 把对象编码后写入buffer的当前位置
+	 * 
+	 * @param object
+	 *            将被编码的对象，不能为null
+	 * @param buffer
+	 *            目标缓冲区
+	 * @throws BufferOverflowException
+	 *             缓冲区剩余空间不足时抛出，调用者可以换用更大的缓冲区重试
+	 */
+	void encode(Object object, ByteBuffer buffer)
+			throws BufferOverflowException;
+
+	/**
+	 * 从buffer的当前位置读取并解码一个对象
+	 * 
+	 * @param buffer
+	 *            字节流
+	 * @return 解码后的对象
+	 */
+	Object decode(ByteBuffer buffer);
+}
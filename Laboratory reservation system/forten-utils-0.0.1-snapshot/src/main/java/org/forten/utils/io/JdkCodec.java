@@ -0,0 +1,123 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 使用JDK序列化机制的编解码器，可以处理一切实现了{@link Serializable}的对象，
+ * 作为{@link SchemaCodec}无法处理时的后备方案，同时负责读取旧版本{@link SerializationUtil}产生的字节流。
+ */
+public class JdkCodec implements Codec {
+	// ObjectOutputStream写出的流以0xACED开头
+	private static final byte STREAM_MAGIC_0 = (byte) 0xAC;
+	private static final byte STREAM_MAGIC_1 = (byte) 0xED;
+
+	@Override
+	public boolean supports(Class<?> clazz) {
+		return Serializable.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canDecode(ByteBuffer buffer) {
+		int pos = buffer.position();
+		return buffer.remaining() > 1 && buffer.get(pos) == STREAM_MAGIC_0
+				&& buffer.get(pos + 1) == STREAM_MAGIC_1;
+	}
+
+	@Override
+	public void encode(Object object, ByteBuffer buffer)
+			throws BufferOverflowException {
+		try {
+			ObjectOutputStream oos = new ObjectOutputStream(
+					new ByteBufferOutputStream(buffer));
+			oos.writeObject(object);
+			oos.flush();
+		} catch (IOException ex) {
+			throw new IllegalArgumentException(String.format(
+					"类型为: %s 的对象序列化失败", object.getClass()), ex);
+		}
+	}
+
+	@Override
+	public Object decode(ByteBuffer buffer) {
+		try {
+			ObjectInputStream ois = new ObjectInputStream(
+					new ByteBufferInputStream(buffer));
+			return ois.readObject();
+		} catch (IOException ex) {
+			throw new IllegalArgumentException("反序列化对象失败", ex);
+		} catch (ClassNotFoundException ex) {
+			throw new IllegalStateException("对象类型未找到，反序列化对象失败", ex);
+		}
+	}
+
+	private static final class ByteBufferOutputStream extends OutputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferOutputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			buffer.put(b, off, len);
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
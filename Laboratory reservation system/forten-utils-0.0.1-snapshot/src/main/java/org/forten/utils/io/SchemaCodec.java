@@ -0,0 +1,630 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.io;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于类结构（Schema）的紧凑二进制编解码器，用于缓存与Session中的VO等简单值对象。
+ * <p>
+ * 每个类第一次被编解码时，通过反射分析出它（包括父类）的全部非static、非transient属性并缓存起来，
+ * 之后按固定顺序逐个写出属性值：整数使用ZigZag变长编码，基本类型通过{@link Field#getInt(Object)}
+ * 等方法直接读写，不会产生装箱对象；字节流中不包含属性名。
+ * </p>
+ * <p>
+ * 字节流格式：魔数(1字节) + 格式版本(1字节) + 类名 + 类结构指纹(4字节) + 各属性值。
+ * 类结构指纹由属性名与属性类型计算得出，类结构变化后旧字节流会在解码时被拒绝，而不是被错误地读出。
+ * </p>
+ * <p>
+ * 只支持实现了{@link Serializable}、具有无参构造方法、没有自定义序列化方法（writeObject、readResolve等）、
+ * 属性类型全部为基本类型、包装类型、String、java.util.Date（及java.sql的日期子类）或枚举的类；
+ * 其它类型由{@link SerializationUtil}交给后续的编解码器（默认是JDK序列化）处理。
+ * 注意解码时会调用该类的无参构造方法，这一点与JDK序列化不同；字节流中的类名不满足上述条件时解码失败，
+ * 不会实例化任意的类。
+ * </p>
+ */
+public class SchemaCodec implements Codec {
+	private static final String UNKNOWN_FORMAT_MSG = "不支持的字节流格式版本：%d";
+	private static final String UNSUPPORTED_CLASS_MSG = "类型为: %s 的对象不能使用SchemaCodec编解码";
+	private static final String SCHEMA_CHANGED_MSG = "类型%s的结构已改变，无法解码旧的字节流";
+	private static final String CLASS_NOT_FOUND_MSG = "对象类型%s未找到，反序列化对象失败";
+	private static final String UNSUPPORTED_DATE_MSG = "不支持的日期类型：%s";
+
+	/**
+	 * 字节流的第一个字节，与JDK序列化流的魔数0xACED不同
+	 */
+	public static final byte MAGIC = (byte) 0xF7;
+
+	/**
+	 * 当前的字节流格式版本
+	 */
+	public static final byte FORMAT_VERSION = 1;
+
+	private static final String[] CUSTOM_SERIAL_METHODS = { "writeObject",
+			"readObject", "readObjectNoData", "writeReplace", "readResolve" };
+
+	// 不支持的类也被缓存，value为UNSUPPORTED
+	private final ConcurrentMap<Class<?>, Schema> schemaMap = new ConcurrentHashMap<Class<?>, Schema>();
+	private final ConcurrentMap<String, Schema> nameMap = new ConcurrentHashMap<String, Schema>();
+
+	private static final Schema UNSUPPORTED = new Schema(null, null,
+			new Field[0], new FieldType[0]);
+
+	@Override
+	public boolean supports(Class<?> clazz) {
+		return getSchema(clazz) != UNSUPPORTED;
+	}
+
+	@Override
+	public boolean canDecode(ByteBuffer buffer) {
+		return buffer.remaining() > 1 && buffer.get(buffer.position()) == MAGIC;
+	}
+
+	@Override
+	public void encode(Object object, ByteBuffer buffer)
+			throws BufferOverflowException {
+		Schema schema = getSchema(object.getClass());
+		if (schema == UNSUPPORTED) {
+			throw new IllegalArgumentException(String.format(
+					UNSUPPORTED_CLASS_MSG, object.getClass()));
+		}
+		buffer.put(MAGIC);
+		buffer.put(FORMAT_VERSION);
+		writeString(buffer, schema.className);
+		buffer.putInt(schema.fingerprint);
+		try {
+			for (int i = 0; i < schema.fields.length; i++) {
+				schema.types[i].write(schema.fields[i], object, buffer);
+			}
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public Object decode(ByteBuffer buffer) {
+		try {
+			byte magic = buffer.get();
+			byte version = buffer.get();
+			if (magic != MAGIC || version != FORMAT_VERSION) {
+				throw new IllegalArgumentException(String.format(
+						UNKNOWN_FORMAT_MSG, version));
+			}
+			String className = readString(buffer);
+			Schema schema = getSchema(className);
+			if (buffer.getInt() != schema.fingerprint) {
+				throw new IllegalArgumentException(String.format(
+						SCHEMA_CHANGED_MSG, className));
+			}
+			Object object = schema.constructor.newInstance();
+			for (int i = 0; i < schema.fields.length; i++) {
+				schema.types[i].read(schema.fields[i], object, buffer);
+			}
+			return object;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("反序列化对象失败，字节流不完整", e);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("反序列化对象失败", e);
+		}
+	}
+
+	private Schema getSchema(String className) {
+		Schema schema = nameMap.get(className);
+		if (schema == null) {
+			Class<?> clazz;
+			try {
+				ClassLoader loader = Thread.currentThread()
+						.getContextClassLoader();
+				clazz = Class.forName(className, false,
+						loader == null ? SchemaCodec.class.getClassLoader()
+								: loader);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(String.format(
+						CLASS_NOT_FOUND_MSG, className), e);
+			}
+			schema = getSchema(clazz);
+			if (schema == UNSUPPORTED) {
+				throw new IllegalArgumentException(String.format(
+						UNSUPPORTED_CLASS_MSG, className));
+			}
+			nameMap.putIfAbsent(className, schema);
+		}
+		return schema;
+	}
+
+	private Schema getSchema(Class<?> clazz) {
+		Schema schema = schemaMap.get(clazz);
+		if (schema == null) {
+			schema = buildSchema(clazz);
+			Schema existing = schemaMap.putIfAbsent(clazz, schema);
+			if (existing != null) {
+				schema = existing;
+			}
+		}
+		return schema;
+	}
+
+	private static Schema buildSchema(Class<?> clazz) {
+		int mod = clazz.getModifiers();
+		// 与JDK序列化一样只接受声明了可序列化的类
+		if (!Serializable.class.isAssignableFrom(clazz) || clazz.isArray() || clazz.isPrimitive() || clazz.isEnum()
+				|| clazz.isInterface() || Modifier.isAbstract(mod)
+				|| Externalizable.class.isAssignableFrom(clazz)
+				|| clazz.getName().startsWith("java.")) {
+			return UNSUPPORTED;
+		}
+		Constructor<?> constructor;
+		try {
+			constructor = clazz.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch (NoSuchMethodException e) {
+			return UNSUPPORTED;
+		} catch (SecurityException e) {
+			return UNSUPPORTED;
+		}
+
+		List<Field> fieldList = new ArrayList<Field>();
+		for (Class<?> c = clazz; c != Object.class; c = c.getSuperclass()) {
+			if (hasCustomSerialMethod(c)) {
+				return UNSUPPORTED;
+			}
+			List<Field> declared = new ArrayList<Field>();
+			for (Field f : c.getDeclaredFields()) {
+				int m = f.getModifiers();
+				if (!Modifier.isStatic(m) && !Modifier.isTransient(m)) {
+					declared.add(f);
+				}
+			}
+			// getDeclaredFields()不保证顺序，按属性名排序以保证编码与解码两端一致
+			Collections.sort(declared, FIELD_NAME_COMPARATOR);
+			fieldList.addAll(0, declared);
+		}
+
+		Field[] fields = fieldList.toArray(new Field[fieldList.size()]);
+		FieldType[] types = new FieldType[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			types[i] = FieldType.of(fields[i].getType());
+			if (types[i] == null) {
+				return UNSUPPORTED;
+			}
+			try {
+				fields[i].setAccessible(true);
+			} catch (SecurityException e) {
+				return UNSUPPORTED;
+			}
+		}
+		return new Schema(clazz, constructor, fields, types);
+	}
+
+	private static boolean hasCustomSerialMethod(Class<?> clazz) {
+		for (Method method : clazz.getDeclaredMethods()) {
+			for (String name : CUSTOM_SERIAL_METHODS) {
+				if (name.equals(method.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static final Comparator<Field> FIELD_NAME_COMPARATOR = new Comparator<Field>() {
+		@Override
+		public int compare(Field f1, Field f2) {
+			return f1.getName().compareTo(f2.getName());
+		}
+	};
+
+	/**
+	 * 一个类的编解码计划
+	 */
+	private static final class Schema {
+		final String className;
+		final Constructor<?> constructor;
+		final Field[] fields;
+		final FieldType[] types;
+		final int fingerprint;
+
+		Schema(Class<?> clazz, Constructor<?> constructor, Field[] fields,
+				FieldType[] types) {
+			this.className = clazz == null ? null : clazz.getName();
+			this.constructor = constructor;
+			this.fields = fields;
+			this.types = types;
+
+			StringBuilder sb = new StringBuilder(String.valueOf(className));
+			for (Field f : fields) {
+				sb.append(';').append(f.getName()).append(':')
+						.append(f.getType().getName());
+				if (f.getType().isEnum()) {
+					for (Object constant : f.getType().getEnumConstants()) {
+						sb.append(',').append(((Enum<?>) constant).name());
+					}
+				}
+			}
+			this.fingerprint = sb.toString().hashCode();
+		}
+	}
+
+	/**
+	 * 属性类型及其读写方式，基本类型使用Field的基本类型访问方法，不产生装箱对象
+	 */
+	private static enum FieldType {
+		BOOLEAN {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				buf.put(f.getBoolean(o) ? (byte) 1 : (byte) 0);
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setBoolean(o, buf.get() != 0);
+			}
+		},
+		BYTE {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				buf.put(f.getByte(o));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setByte(o, buf.get());
+			}
+		},
+		SHORT {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				writeVarLong(buf, zigZag(f.getShort(o)));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setShort(o, (short) unZigZag(readVarLong(buf)));
+			}
+		},
+		CHAR {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				writeVarLong(buf, f.getChar(o));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setChar(o, (char) readVarLong(buf));
+			}
+		},
+		INT {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				writeVarLong(buf, zigZag(f.getInt(o)));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setInt(o, (int) unZigZag(readVarLong(buf)));
+			}
+		},
+		LONG {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				writeVarLong(buf, zigZag(f.getLong(o)));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setLong(o, unZigZag(readVarLong(buf)));
+			}
+		},
+		FLOAT {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				buf.putFloat(f.getFloat(o));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setFloat(o, buf.getFloat());
+			}
+		},
+		DOUBLE {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				buf.putDouble(f.getDouble(o));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.setDouble(o, buf.getDouble());
+			}
+		},
+		STRING {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				writeString(buf, (String) f.get(o));
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				f.set(o, readString(buf));
+			}
+		},
+		DATE {
+			// 0:null，1:java.util.Date，2:java.sql.Timestamp，3:java.sql.Date，4:java.sql.Time
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				Date date = (Date) f.get(o);
+				if (date == null) {
+					buf.put((byte) 0);
+					return;
+				}
+				Class<?> c = date.getClass();
+				if (c == Date.class) {
+					buf.put((byte) 1);
+				} else if (c == Timestamp.class) {
+					buf.put((byte) 2);
+				} else if (c == java.sql.Date.class) {
+					buf.put((byte) 3);
+				} else if (c == Time.class) {
+					buf.put((byte) 4);
+				} else {
+					throw new IllegalArgumentException(String.format(
+							UNSUPPORTED_DATE_MSG, c));
+				}
+				writeVarLong(buf, zigZag(date.getTime()));
+				if (c == Timestamp.class) {
+					writeVarLong(buf, ((Timestamp) date).getNanos());
+				}
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				byte tag = buf.get();
+				if (tag == 0) {
+					f.set(o, null);
+					return;
+				}
+				long time = unZigZag(readVarLong(buf));
+				Date date;
+				switch (tag) {
+				case 1:
+					date = new Date(time);
+					break;
+				case 2:
+					Timestamp ts = new Timestamp(time);
+					ts.setNanos((int) readVarLong(buf));
+					date = ts;
+					break;
+				case 3:
+					date = new java.sql.Date(time);
+					break;
+				case 4:
+					date = new Time(time);
+					break;
+				default:
+					throw new IllegalArgumentException(String.format(
+							UNSUPPORTED_DATE_MSG, tag));
+				}
+				f.set(o, date);
+			}
+		},
+		ENUM {
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				Enum<?> e = (Enum<?>) f.get(o);
+				writeVarLong(buf, e == null ? 0 : e.ordinal() + 1);
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				int ordinal = (int) readVarLong(buf);
+				f.set(o, ordinal == 0 ? null : f.getType().getEnumConstants()[ordinal - 1]);
+			}
+		},
+		BOXED {
+			// 包装类型：1字节null标记 + 值
+			@Override
+			void write(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				Object v = f.get(o);
+				if (v == null) {
+					buf.put((byte) 0);
+					return;
+				}
+				buf.put((byte) 1);
+				Class<?> c = f.getType();
+				if (c == Integer.class) {
+					writeVarLong(buf, zigZag((Integer) v));
+				} else if (c == Long.class) {
+					writeVarLong(buf, zigZag((Long) v));
+				} else if (c == Short.class) {
+					writeVarLong(buf, zigZag((Short) v));
+				} else if (c == Byte.class) {
+					buf.put((Byte) v);
+				} else if (c == Character.class) {
+					writeVarLong(buf, (Character) v);
+				} else if (c == Boolean.class) {
+					buf.put((Boolean) v ? (byte) 1 : (byte) 0);
+				} else if (c == Float.class) {
+					buf.putFloat((Float) v);
+				} else {
+					buf.putDouble((Double) v);
+				}
+			}
+
+			@Override
+			void read(Field f, Object o, ByteBuffer buf)
+					throws IllegalAccessException {
+				if (buf.get() == 0) {
+					f.set(o, null);
+					return;
+				}
+				Class<?> c = f.getType();
+				Object v;
+				if (c == Integer.class) {
+					v = Integer.valueOf((int) unZigZag(readVarLong(buf)));
+				} else if (c == Long.class) {
+					v = Long.valueOf(unZigZag(readVarLong(buf)));
+				} else if (c == Short.class) {
+					v = Short.valueOf((short) unZigZag(readVarLong(buf)));
+				} else if (c == Byte.class) {
+					v = Byte.valueOf(buf.get());
+				} else if (c == Character.class) {
+					v = Character.valueOf((char) readVarLong(buf));
+				} else if (c == Boolean.class) {
+					v = Boolean.valueOf(buf.get() != 0);
+				} else if (c == Float.class) {
+					v = Float.valueOf(buf.getFloat());
+				} else {
+					v = Double.valueOf(buf.getDouble());
+				}
+				f.set(o, v);
+			}
+		};
+
+		abstract void write(Field f, Object o, ByteBuffer buf)
+				throws IllegalAccessException;
+
+		abstract void read(Field f, Object o, ByteBuffer buf)
+				throws IllegalAccessException;
+
+		static FieldType of(Class<?> c) {
+			if (c == int.class) {
+				return INT;
+			} else if (c == long.class) {
+				return LONG;
+			} else if (c == boolean.class) {
+				return BOOLEAN;
+			} else if (c == double.class) {
+				return DOUBLE;
+			} else if (c == float.class) {
+				return FLOAT;
+			} else if (c == short.class) {
+				return SHORT;
+			} else if (c == byte.class) {
+				return BYTE;
+			} else if (c == char.class) {
+				return CHAR;
+			} else if (c == String.class) {
+				return STRING;
+			} else if (Date.class.isAssignableFrom(c)) {
+				return DATE;
+			} else if (c.isEnum()) {
+				return ENUM;
+			} else if (c == Integer.class || c == Long.class
+					|| c == Boolean.class || c == Double.class
+					|| c == Float.class || c == Short.class
+					|| c == Byte.class || c == Character.class) {
+				return BOXED;
+			}
+			return null;
+		}
+	}
+
+	private static long zigZag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	private static long unZigZag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static void writeVarLong(ByteBuffer buf, long v) {
+		while ((v & ~0x7FL) != 0) {
+			buf.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		buf.put((byte) v);
+	}
+
+	private static long readVarLong(ByteBuffer buf) {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buf.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("反序列化对象失败，变长整数格式错误");
+	}
+
+	// 长度+1（0表示null）之后逐个写出字符的变长编码，ASCII字符只占1字节，不创建临时数组
+	private static void writeString(ByteBuffer buf, String s) {
+		if (s == null) {
+			writeVarLong(buf, 0);
+			return;
+		}
+		int length = s.length();
+		writeVarLong(buf, length + 1L);
+		for (int i = 0; i < length; i++) {
+			writeVarLong(buf, s.charAt(i));
+		}
+	}
+
+	private static String readString(ByteBuffer buf) {
+		long length = readVarLong(buf) - 1;
+		if (length < 0) {
+			return null;
+		}
+		if (length > buf.remaining()) {
+			throw new IllegalArgumentException("反序列化对象失败，字节流不完整");
+		}
+		char[] chars = new char[(int) length];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) readVarLong(buf);
+		}
+		return new String(chars);
+	}
+}
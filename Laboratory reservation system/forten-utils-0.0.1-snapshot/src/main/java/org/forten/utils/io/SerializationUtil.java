@@ -15,21 +15,57 @@
  */
 package org.forten.utils.io;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 序列化与反序列化工具类。参考springframework的util包下的SerializationUtils类写成，
  * 主要为了与springframework解耦。
+ * <p>
+ * 序列化时按顺序选用第一个支持该对象类型的{@link Codec}：默认先使用紧凑的{@link SchemaCodec}，
+ * 不支持时退回到JDK序列化（{@link JdkCodec}）；反序列化时根据字节流开头的标识选择编解码器，
+ * 因此旧版本产生的JDK序列化字节流仍然可以被读取。可以通过{@link #registerCodec(Codec)}加入自定义的编解码器。
+ * </p>
+ * <p>
+ * 编码时使用线程独享、可重复使用的{@link ByteBuffer}，每次序列化只创建最终结果的字节数组。
+ * </p>
  * 
  * @author Dave Syer
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2012-5-7
  */
 public abstract class SerializationUtil {
+	private static final String SERIALIZE_FAILED_MSG = "类型为: %s 的对象序列化失败";
+
+	// 线程缓冲区的初始大小与保留上限，超过上限的临时扩容不会被线程保留
+	private static final int INITIAL_BUFFER_SIZE = 512;
+	private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+	private static final List<Codec> codecs = new CopyOnWriteArrayList<Codec>(
+			new Codec[] { new SchemaCodec(), new JdkCodec() });
+
+	private static final ThreadLocal<ByteBuffer> bufferHolder = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+		}
+	};
+
+	/**
+	 * 注册自定义的编解码器，它将优先于已有的编解码器被选用
+	 * 
+	 * @param codec
+	 *            编解码器，产生的字节流必须能通过{@link Codec#canDecode(ByteBuffer)}与其它编解码器区分
+	 */
+	public static void registerCodec(Codec codec) {
+		if (codec == null) {
+			throw new IllegalArgumentException("编解码器不能为null");
+		}
+		codecs.add(0, codec);
+	}
+
 	/**
 	 * 将对象序列化为字节数组
 	 * 
@@ -41,17 +77,41 @@ public abstract class SerializationUtil {
 		if (object == null) {
 			return null;
 		}
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		try {
-			ObjectOutputStream oos = new ObjectOutputStream(baos);
-			oos.writeObject(object);
-			oos.flush();
-		} catch (IOException ex) {
-			ex.printStackTrace();
-			throw new IllegalArgumentException(String.format(
-					"类型为: %s 的对象序列化失败", object.getClass(), ex));
+		ByteBuffer buffer = bufferHolder.get();
+		while (true) {
+			buffer.clear();
+			try {
+				encode(object, buffer);
+				break;
+			} catch (BufferOverflowException e) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+				if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+					bufferHolder.set(buffer);
+				}
+			}
+		}
+		byte[] bytes = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * 将对象序列化后写入调用者提供的缓冲区的当前位置
+	 * 
+	 * @param object
+	 *            将被序列化的对象，不能为null
+	 * @param buffer
+	 *            目标缓冲区
+	 * @throws BufferOverflowException
+	 *             缓冲区剩余空间不足
+	 */
+	public static <T> void serialize(T object, ByteBuffer buffer)
+			throws BufferOverflowException {
+		if (object == null) {
+			throw new IllegalArgumentException("被序列化的对象不能为null");
 		}
-		return baos.toByteArray();
+		encode(object, buffer);
 	}
 
 	/**
@@ -61,19 +121,51 @@ public abstract class SerializationUtil {
 	 *            被序列化的对象字节数组
 	 * @return 对象字节数组反序列化后的对象
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T> T deserialize(byte[] bytes) {
 		if (bytes == null) {
 			return null;
 		}
-		try {
-			ObjectInputStream ois = new ObjectInputStream(
-					new ByteArrayInputStream(bytes));
-			return (T) ois.readObject();
-		} catch (IOException ex) {
-			throw new IllegalArgumentException("反序列化对象失败", ex);
-		} catch (ClassNotFoundException ex) {
-			throw new IllegalStateException("对象类型未找到，反序列化对象失败", ex);
+		return deserialize(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * 从缓冲区的当前位置读取并反序列化一个对象
+	 * 
+	 * @param buffer
+	 *            包含序列化字节的缓冲区
+	 * @return 反序列化后的对象
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T deserialize(ByteBuffer buffer) {
+		for (Codec codec : codecs) {
+			if (codec.canDecode(buffer)) {
+				return (T) codec.decode(buffer);
+			}
+		}
+		throw new IllegalArgumentException("反序列化对象失败，无法识别的字节流格式");
+	}
+
+	// 依次尝试支持该类型的编解码器，某个编解码器遇到无法处理的属性值时退回到下一个
+	private static void encode(Object object, ByteBuffer buffer)
+			throws BufferOverflowException {
+		Class<?> clazz = object.getClass();
+		int start = buffer.position();
+		IllegalArgumentException failure = null;
+		for (Codec codec : codecs) {
+			if (codec.supports(clazz)) {
+				try {
+					codec.encode(object, buffer);
+					return;
+				} catch (IllegalArgumentException e) {
+					failure = e;
+					buffer.position(start);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
 		}
+		throw new IllegalArgumentException(String.format(SERIALIZE_FAILED_MSG,
+				clazz));
 	}
 }
@@ -3,13 +3,21 @@
  */
 package org.forten.utils.security;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+
 import org.apache.log4j.Logger;
-import org.bouncycastle.util.encoders.Base64;
 import org.forten.utils.common.StringUtil;
 import org.forten.utils.system.LogUtil;
 
 /**
  * Base 64编解码工具类
+ * <p>
+ * 使用JDK的{@link Base64}实现，编码结果不换行；解码时忽略Base 64字母表以外的字符（如换行）。
+ * 流式方法逐段处理数据，适合对大文件编解码。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * 
@@ -25,6 +33,12 @@ public final class Base64Util {
 	private static final String TEXT_MSG = "BASE64编码前的文本：%s";
 	private static final String BASE64_TEXT_MSG = "BASE64编码后的文本：%s";
 
+	private static final Base64.Encoder ENCODER = Base64.getEncoder();
+	private static final Base64.Decoder DECODER = Base64.getMimeDecoder();
+
+	// 流式编解码时使用的缓冲区大小
+	private static final int BUFFER_SIZE = 8192;
+
 	private Base64Util() {
 
 	}
@@ -46,14 +60,11 @@ public final class Base64Util {
 		}
 		String codeText = null;
 		try {
-			codeText = new String(Base64.encode(origin.getBytes(charset)),
-					charset);
+			codeText = ENCODER.encodeToString(origin.getBytes(charset));
 		} catch (Exception e) {
 			LogUtil.error(log, ENCODING_ERROR_MSG, e.getClass().getName(),
 					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
+			LogUtil.debug(log, e, e.getMessage());
 			throw new RuntimeException(e.getMessage(), e);
 		}
 		LogUtil.debug(log, BASE64_TEXT_MSG, codeText);
@@ -77,14 +88,11 @@ public final class Base64Util {
 		}
 		String codeText = null;
 		try {
-			codeText = new String(Base64.decode(code.getBytes(charset)),
-					charset);
+			codeText = new String(DECODER.decode(code), charset);
 		} catch (Exception e) {
 			LogUtil.error(log, DECODING_ERROR_MSG, e.getClass().getName(),
 					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
+			LogUtil.debug(log, e, e.getMessage());
 			throw new RuntimeException(e.getMessage(), e);
 		}
 		LogUtil.debug(log, TEXT_MSG, codeText);
@@ -112,4 +120,77 @@ public final class Base64Util {
 	public static String decode(String code) {
 		return decode(code, "UTF-8");
 	}
+
+	/**
+	 * 逐段读取输入流，把Base 64编码后的内容写入输出流，两个流都不会被关闭
+	 * 
+	 * @param in
+	 *            原始内容的输入流
+	 * @param out
+	 *            编码结果的输出流
+	 * @throws IOException
+	 *             读写流出错
+	 */
+	public static void encode(InputStream in, OutputStream out)
+			throws IOException {
+		OutputStream encodeOut = ENCODER.wrap(new NonClosingOutputStream(out));
+		copy(in, encodeOut);
+		// 关闭包装流才会写出末尾不足3字节的部分及填充字符
+		encodeOut.close();
+	}
+
+	/**
+	 * 逐段读取Base 64编码的输入流，把解码后的内容写入输出流，两个流都不会被关闭
+	 * 
+	 * @param in
+	 *            Base 64编码内容的输入流
+	 * @param out
+	 *            解码结果的输出流
+	 * @throws IOException
+	 *             读写流出错
+	 */
+	public static void decode(InputStream in, OutputStream out)
+			throws IOException {
+		copy(DECODER.wrap(in), out);
+	}
+
+	private static void copy(InputStream in, OutputStream out)
+			throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+	}
+
+	/**
+	 * 关闭编码包装流时不关闭调用者的输出流
+	 */
+	private static final class NonClosingOutputStream extends OutputStream {
+		private final OutputStream out;
+
+		NonClosingOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.flush();
+		}
+	}
 }
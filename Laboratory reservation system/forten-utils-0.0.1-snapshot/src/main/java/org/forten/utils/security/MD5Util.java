@@ -3,6 +3,10 @@
  */
 package org.forten.utils.security;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -12,7 +16,13 @@ import org.forten.utils.common.StringUtil;
 import org.forten.utils.system.LogUtil;
 
 /**
- * 
+ * MD5摘要工具类
+ * <p>
+ * 每个线程复用自己的{@link MessageDigest}实例；UTF-8文本直接按字符编码后送入摘要，不创建中间字节数组。
+ * 除返回十六进制字符串的方法外，还提供把十六进制结果写入调用者字符数组的方法，以及逐段读取
+ * {@link InputStream}、{@link ByteBuffer}计算摘要的方法，用于大文件的校验和。
+ * 出于安全考虑，明文与密文都不会被写入日志。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * 
@@ -21,14 +31,32 @@ import org.forten.utils.system.LogUtil;
 public final class MD5Util {
 	private static Logger log = Logger.getLogger(MD5Util.class);
 
-	private static final String TEXT_MSG = "MD5加密前的明文：%s";
-	private static final String MD5_TEXT_MSG = "MD5加密后的密文：%s";
 	private static final String ORIGIN_IS_NULL_MSG = "加密前的明文不能是null，系统默认为其付值为空字符串";
 	private static final String ORIGIN_IS_EMPTY_MSG = "加密前的明文内容无效，系统默认返回空字符串";
 	private static final String ENCRYPT_ERROR_MSG = "加密错误：%s : %s";
 
-	private final static String[] hexDigits = { "0", "1", "2", "3", "4", "5",
-			"6", "7", "8", "9", "a", "b", "c", "d", "e", "f" };
+	/**
+	 * MD5摘要的字节数
+	 */
+	public static final int DIGEST_LENGTH = 16;
+
+	/**
+	 * MD5摘要十六进制表示的字符数
+	 */
+	public static final int HEX_LENGTH = DIGEST_LENGTH * 2;
+
+	private static final char[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5',
+			'6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+	// 读取流和编码UTF-8文本时使用的缓冲区大小
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final ThreadLocal<DigestContext> contextHolder = new ThreadLocal<DigestContext>() {
+		@Override
+		protected DigestContext initialValue() {
+			return new DigestContext();
+		}
+	};
 
 	private MD5Util() {
 
@@ -54,7 +82,6 @@ public final class MD5Util {
 	 */
 	public static String encrypt(String origin, String charset,
 			boolean doEmptyTextString) {
-		LogUtil.debug(log, TEXT_MSG, origin);
 		if (!doEmptyTextString) {
 			// 明文为null或""时，直接返回""
 			if (!StringUtil.hasText(origin)) {
@@ -68,21 +95,22 @@ public final class MD5Util {
 				origin = "";
 			}
 		}
-		String resultString = new String(origin);
+		DigestContext context = contextHolder.get();
+		MessageDigest md = context.digest;
 		try {
-			MessageDigest md = MessageDigest.getInstance("MD5");
-			resultString = byteArrayToString(md.digest(resultString
-					.getBytes(charset)));
+			if ("UTF-8".equalsIgnoreCase(charset)) {
+				context.updateUtf8(origin);
+			} else {
+				md.update(origin.getBytes(charset));
+			}
+			return context.finishHex();
 		} catch (Exception e) {
+			md.reset();
 			LogUtil.error(log, ENCRYPT_ERROR_MSG, e.getClass().getName(),
 					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
+			LogUtil.debug(log, e, e.getMessage());
 			throw new RuntimeException(e.getMessage(), e);
 		}
-		LogUtil.debug(log, MD5_TEXT_MSG, resultString);
-		return resultString;
 	}
 
 	/**
@@ -128,6 +156,15 @@ public final class MD5Util {
 		return encrypt(origin, "UTF-8", false);
 	}
 
+	/**
+	 * 对字节数组进行MD5加密
+	 * 
+	 * @param bytes
+	 *            明文字节数组
+	 * @param doEmptyTextString
+	 *            是否对空数组进行加密，为<code>false</code>时明文为null或空数组直接返回""
+	 * @return MD5密文
+	 */
 	public static String encrypt(byte[] bytes, boolean doEmptyTextString) {
 		if (!doEmptyTextString) {
 			// 明文为null或""时，直接返回""
@@ -141,40 +178,169 @@ public final class MD5Util {
 				bytes = ArrayUtil.EMPTY_BYTE_ARRAY;
 			}
 		}
-		String resultString = "";
-		try {
-			MessageDigest md = MessageDigest.getInstance("MD5");
-			resultString = byteArrayToString(md.digest(bytes));
-		} catch (NoSuchAlgorithmException e) {
-		}
-		return resultString;
+		DigestContext context = contextHolder.get();
+		context.digest.update(bytes);
+		return context.finishHex();
 	}
 
+	/**
+	 * 对字节数组进行MD5加密，明文为null或空数组时直接返回""
+	 * 
+	 * @param bytes
+	 *            明文字节数组
+	 * @return MD5密文
+	 */
 	public static String encrypt(byte[] bytes) {
 		return encrypt(bytes, false);
 	}
 
-	/*
-	 * 转换字节数组为十六进制字串
+	/**
+	 * 对字节数组的一部分进行MD5加密，并把32位十六进制密文写入调用者提供的字符数组，整个过程不创建对象
+	 * 
+	 * @param bytes
+	 *            明文字节数组
+	 * @param offset
+	 *            明文起始位置
+	 * @param length
+	 *            明文长度
+	 * @param dest
+	 *            存放密文的字符数组
+	 * @param destOffset
+	 *            密文的写入位置，从该位置起必须至少有{@link #HEX_LENGTH}个字符的空间
+	 */
+	public static void encrypt(byte[] bytes, int offset, int length,
+			char[] dest, int destOffset) {
+		DigestContext context = contextHolder.get();
+		context.digest.update(bytes, offset, length);
+		context.finish();
+		toHex(context.result, 0, DIGEST_LENGTH, dest, destOffset);
+	}
+
+	/**
+	 * 逐段读取输入流直到流结束，计算全部内容的MD5密文，输入流不会被关闭
+	 * 
+	 * @param in
+	 *            输入流
+	 * @return MD5密文
+	 * @throws IOException
+	 *             读取输入流出错
+	 */
+	public static String encrypt(InputStream in) throws IOException {
+		DigestContext context = contextHolder.get();
+		MessageDigest md = context.digest;
+		byte[] buffer = context.buffer;
+		try {
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				md.update(buffer, 0, n);
+			}
+		} catch (IOException e) {
+			md.reset();
+			throw e;
+		}
+		return context.finishHex();
+	}
+
+	/**
+	 * 计算缓冲区中剩余内容的MD5密文，缓冲区的位置将移动到limit
+	 * 
+	 * @param buffer
+	 *            缓冲区，可以是直接缓冲区或内存映射文件
+	 * @return MD5密文
+	 */
+	public static String encrypt(ByteBuffer buffer) {
+		DigestContext context = contextHolder.get();
+		context.digest.update(buffer);
+		return context.finishHex();
+	}
+
+	/**
+	 * 把字节数组的一部分转换为小写十六进制字符，写入调用者提供的字符数组
+	 * 
+	 * @param bytes
+	 *            字节数组
+	 * @param offset
+	 *            起始位置
+	 * @param length
+	 *            字节数
+	 * @param dest
+	 *            目标字符数组，从destOffset起必须至少有length*2个字符的空间
+	 * @param destOffset
+	 *            写入位置
 	 */
-	private static String byteArrayToString(byte[] b) {
-		StringBuffer resultSb = new StringBuffer();
-		for (int i = 0; i < b.length; i++) {
-			resultSb.append(byteToHexString(b[i]));
+	public static void toHex(byte[] bytes, int offset, int length,
+			char[] dest, int destOffset) {
+		for (int i = offset; i < offset + length; i++) {
+			int b = bytes[i];
+			dest[destOffset++] = HEX_DIGITS[(b >>> 4) & 0x0F];
+			dest[destOffset++] = HEX_DIGITS[b & 0x0F];
 		}
-		return resultSb.toString();
 	}
 
-	/*
-	 * 获取十六进制数字
+	/**
+	 * 每个线程一份的摘要实例与缓冲区
 	 */
-	private static String byteToHexString(byte b) {
-		int n = b;
-		if (n < 0) {
-			n = 256 + n;
+	private static final class DigestContext {
+		final MessageDigest digest;
+		final byte[] result = new byte[DIGEST_LENGTH];
+		final char[] hex = new char[HEX_LENGTH];
+		final byte[] buffer = new byte[BUFFER_SIZE];
+
+		DigestContext() {
+			try {
+				digest = MessageDigest.getInstance("MD5");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		// 完成摘要计算并把结果写入result，摘要实例随之复位
+		void finish() {
+			try {
+				digest.digest(result, 0, DIGEST_LENGTH);
+			} catch (DigestException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		String finishHex() {
+			finish();
+			toHex(result, 0, DIGEST_LENGTH, hex, 0);
+			return new String(hex);
+		}
+
+		// 按UTF-8编码字符串并分段送入摘要，不成对的代理字符按String.getBytes的方式替换为'?'
+		void updateUtf8(String s) {
+			byte[] buf = buffer;
+			int pos = 0;
+			int length = s.length();
+			for (int i = 0; i < length; i++) {
+				if (pos > BUFFER_SIZE - 4) {
+					digest.update(buf, 0, pos);
+					pos = 0;
+				}
+				char c = s.charAt(i);
+				if (c < 0x80) {
+					buf[pos++] = (byte) c;
+				} else if (c < 0x800) {
+					buf[pos++] = (byte) (0xC0 | (c >> 6));
+					buf[pos++] = (byte) (0x80 | (c & 0x3F));
+				} else if (Character.isHighSurrogate(c) && i + 1 < length
+						&& Character.isLowSurrogate(s.charAt(i + 1))) {
+					int cp = Character.toCodePoint(c, s.charAt(++i));
+					buf[pos++] = (byte) (0xF0 | (cp >> 18));
+					buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+					buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+					buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+				} else if (Character.isSurrogate(c)) {
+					buf[pos++] = '?';
+				} else {
+					buf[pos++] = (byte) (0xE0 | (c >> 12));
+					buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+					buf[pos++] = (byte) (0x80 | (c & 0x3F));
+				}
+			}
+			digest.update(buf, 0, pos);
 		}
-		int d1 = n / 16;
-		int d2 = n % 16;
-		return hexDigits[d1] + hexDigits[d2];
 	}
 }
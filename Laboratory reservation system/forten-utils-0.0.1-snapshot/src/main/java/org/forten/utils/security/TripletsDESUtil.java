@@ -3,7 +3,12 @@
  */
 package org.forten.utils.security;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.bouncycastle.crypto.BufferedBlockCipher;
@@ -17,7 +22,13 @@ import org.forten.utils.common.StringUtil;
 import org.forten.utils.system.LogUtil;
 
 /**
- * 
+ * 3DES加解密工具类，ECB方式，PKCS#7填充，密钥与密文都以16进制字符串表示
+ * <p>
+ * 每个线程按密钥缓存已经初始化好的加密与解密器（最多{@link #MAX_CACHED_KEYS}个密钥），
+ * 相同密钥的反复加解密不再重复转换密钥和创建加密器。批量方法{@link #encryptAll(String, Collection)}、
+ * {@link #decryptAll(String, Collection)}适合导出时逐行处理；byte[]与{@link ByteBuffer}方法不经过16进制字符串转换。
+ * 出于安全考虑，明文不会被写入日志。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * 
@@ -31,15 +42,36 @@ public final class TripletsDESUtil {
 	private static final String GENERATE_KEY_MSG = "生成密钥为：%s";
 	private static final String NOT_HEX_MSG = "密文不是16进制数字";
 	private static final String DATA_LENGHT_NOT_EVEN_MSG = "密文长度非偶数";
-	private static final String TEXT_MSG = "3DES加密前的明文：%s";
-	private static final String TRIPLETS_DES_TEXT_MSG = "3DES加密后的密文：%s";
 	private static final String ENCRYPT_STRING_IS_NULL_MSG = "加密前的明文不能是null，系统默认为其付值为空字符串";
 	private static final String ENCRYPT_STRING_IS_EMPTY_MSG = "加密前的明文是空或空字符串，系统默认返回空字符串";
 	private static final String DECRYPT_STRING_IS_NULL_MSG = "不能解密空字符串文本，系统直接返回空字符串";
 	private static final String ENCRYPT_ERROR_MSG = "加密错误： %s : %s";
 	private static final String DECRYPT_ERROR_MSG = "解密错误： %s : %s";
+	private static final String OUTPUT_TOO_SHORT_MSG = "输出缓冲区剩余空间不足，至少需要%d字节";
+
+	/**
+	 * 每个线程缓存的密钥数量上限
+	 */
+	public static final int MAX_CACHED_KEYS = 16;
 
 	private static String hexString = "0123456789ABCDEF";
+	private static final char[] HEX_DIGITS = hexString.toCharArray();
+
+	private static final ThreadLocal<Map<String, CipherPair>> cipherCache = new ThreadLocal<Map<String, CipherPair>>() {
+		@Override
+		protected Map<String, CipherPair> initialValue() {
+			return new LinkedHashMap<String, CipherPair>(MAX_CACHED_KEYS * 2,
+					0.75F, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String, CipherPair> eldest) {
+					return size() > MAX_CACHED_KEYS;
+				}
+			};
+		}
+	};
 
 	private TripletsDESUtil() {
 
@@ -67,40 +99,11 @@ public final class TripletsDESUtil {
 	 */
 	public static String encrypt(String key, String in, String charset,
 			boolean doEmptyTextString) {
-		LogUtil.debug(log, TEXT_MSG, in);
-		String result = "";
-		if (!doEmptyTextString) {
-			// 明文为null或""时，直接返回""
-			if (!StringUtil.hasText(in)) {
-				LogUtil.debug(log, ENCRYPT_STRING_IS_EMPTY_MSG);
-				return result;
-			}
-		} else {
-			// 明文为null时直接返回""；明文为""时跳出分支，进行后续的3DES加密
-			if (in == null) {
-				LogUtil.warn(log, ENCRYPT_STRING_IS_NULL_MSG);
-				in = "";
-			}
-		}
 		try {
-			byte[] hexkey = null;
-			byte[] out = null;
-			// 转换密钥
-			hexkey = string2Byte(key);
-			// 3DES加密
-			out = tripleDES(true, hexkey, in.getBytes(charset));
-			// 转换成hex字符串
-			result = byte2String(out);
-			LogUtil.debug(log, TRIPLETS_DES_TEXT_MSG, result);
+			return encrypt(getCipherPair(key), in, charset, doEmptyTextString);
 		} catch (Exception e) {
-			LogUtil.error(log, ENCRYPT_ERROR_MSG, e.getClass().getName(),
-					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
-			throw new RuntimeException(e.getMessage(), e);
+			throw encryptError(e);
 		}
-		return result;
 	}
 
 	/**
@@ -153,6 +156,75 @@ public final class TripletsDESUtil {
 		return encrypt(key, in, "UTF-8", false);
 	}
 
+	/**
+	 * 使用UTF-8字符集批量进行3DES加密，每个明文的处理方式与{@link #encrypt(String, String)}相同
+	 * 
+	 * @param key
+	 *            加密所使用的密钥
+	 * @param ins
+	 *            待加密明文的集合
+	 * @return 与明文顺序相同的密文列表
+	 */
+	public static List<String> encryptAll(String key, Collection<String> ins) {
+		List<String> result = new ArrayList<String>(ins.size());
+		try {
+			CipherPair pair = getCipherPair(key);
+			for (String in : ins) {
+				result.add(encrypt(pair, in, "UTF-8", false));
+			}
+		} catch (Exception e) {
+			throw encryptError(e);
+		}
+		return result;
+	}
+
+	/**
+	 * 3DES加密字节数组
+	 * 
+	 * @param key
+	 *            加密所使用的密钥
+	 * @param in
+	 *            待加密的字节数组
+	 * @return 密文字节数组
+	 */
+	public static byte[] encrypt(String key, byte[] in) {
+		try {
+			return process(getCipherPair(key).encryptor, in);
+		} catch (Exception e) {
+			throw encryptError(e);
+		}
+	}
+
+	/**
+	 * 3DES加密缓冲区中剩余的内容，密文写入输出缓冲区的当前位置
+	 * 
+	 * @param key
+	 *            加密所使用的密钥
+	 * @param in
+	 *            待加密内容，处理后位置移动到limit
+	 * @param out
+	 *            密文输出缓冲区，剩余空间至少为{@link #getEncryptedLength(int)}
+	 * @return 写入的密文字节数
+	 */
+	public static int encrypt(String key, ByteBuffer in, ByteBuffer out) {
+		try {
+			return process(getCipherPair(key).encryptor, in, out);
+		} catch (Exception e) {
+			throw encryptError(e);
+		}
+	}
+
+	/**
+	 * 计算明文加密后的密文字节数
+	 * 
+	 * @param length
+	 *            明文字节数
+	 * @return 密文字节数（按8字节分组填充）
+	 */
+	public static int getEncryptedLength(int length) {
+		return (length / 8 + 1) * 8;
+	}
+
 	/**
 	 * 3DES解密方法
 	 * 
@@ -165,33 +237,15 @@ public final class TripletsDESUtil {
 	 * @return 解密后的明文文本
 	 */
 	public static String decrypt(String key, String in, String charset) {
-		LogUtil.debug(log, TRIPLETS_DES_TEXT_MSG, in);
-		String result = "";
 		if (!StringUtil.hasText(in)) {
 			LogUtil.warn(log, DECRYPT_STRING_IS_NULL_MSG);
-			return result;
+			return "";
 		}
 		try {
-			byte[] hexkey = null;
-			byte[] cipher = null;
-			byte[] out = null;
-			// 转换密钥
-			hexkey = string2Byte(key);
-			// 转换密文
-			cipher = string2Byte(in);
-			// 解密
-			out = tripleDES(false, hexkey, cipher);
-			result = new String(out, charset);
-			LogUtil.debug(log, TEXT_MSG, result);
+			return decrypt(getCipherPair(key), in, charset);
 		} catch (Exception e) {
-			LogUtil.error(log, DECRYPT_ERROR_MSG, e.getClass().getName(),
-					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
-			throw new RuntimeException(e.getMessage(), e);
+			throw decryptError(e);
 		}
-		return result;
 	}
 
 	/**
@@ -207,6 +261,65 @@ public final class TripletsDESUtil {
 		return decrypt(key, in, "UTF-8");
 	}
 
+	/**
+	 * 使用UTF-8字符集批量进行3DES解密，每个密文的处理方式与{@link #decrypt(String, String)}相同
+	 * 
+	 * @param key
+	 *            解密所使用的密钥
+	 * @param ins
+	 *            待解密密文的集合
+	 * @return 与密文顺序相同的明文列表
+	 */
+	public static List<String> decryptAll(String key, Collection<String> ins) {
+		List<String> result = new ArrayList<String>(ins.size());
+		try {
+			CipherPair pair = getCipherPair(key);
+			for (String in : ins) {
+				result.add(StringUtil.hasText(in) ? decrypt(pair, in, "UTF-8")
+						: "");
+			}
+		} catch (Exception e) {
+			throw decryptError(e);
+		}
+		return result;
+	}
+
+	/**
+	 * 3DES解密字节数组
+	 * 
+	 * @param key
+	 *            解密所使用的密钥
+	 * @param in
+	 *            密文字节数组
+	 * @return 明文字节数组
+	 */
+	public static byte[] decrypt(String key, byte[] in) {
+		try {
+			return process(getCipherPair(key).decryptor, in);
+		} catch (Exception e) {
+			throw decryptError(e);
+		}
+	}
+
+	/**
+	 * 3DES解密缓冲区中剩余的内容，明文写入输出缓冲区的当前位置
+	 * 
+	 * @param key
+	 *            解密所使用的密钥
+	 * @param in
+	 *            密文，处理后位置移动到limit
+	 * @param out
+	 *            明文输出缓冲区，剩余空间至少为密文的字节数
+	 * @return 写入的明文字节数
+	 */
+	public static int decrypt(String key, ByteBuffer in, ByteBuffer out) {
+		try {
+			return process(getCipherPair(key).decryptor, in, out);
+		} catch (Exception e) {
+			throw decryptError(e);
+		}
+	}
+
 	/**
 	 * 随机生成密钥的方法
 	 * 
@@ -229,16 +342,66 @@ public final class TripletsDESUtil {
 		return result;
 	}
 
+	private static String encrypt(CipherPair pair, String in, String charset,
+			boolean doEmptyTextString) throws Exception {
+		if (!doEmptyTextString) {
+			// 明文为null或""时，直接返回""
+			if (!StringUtil.hasText(in)) {
+				LogUtil.debug(log, ENCRYPT_STRING_IS_EMPTY_MSG);
+				return "";
+			}
+		} else {
+			// 明文为null时直接返回""；明文为""时跳出分支，进行后续的3DES加密
+			if (in == null) {
+				LogUtil.warn(log, ENCRYPT_STRING_IS_NULL_MSG);
+				in = "";
+			}
+		}
+		return byte2String(process(pair.encryptor, in.getBytes(charset)));
+	}
+
+	private static String decrypt(CipherPair pair, String in, String charset)
+			throws Exception {
+		return new String(process(pair.decryptor, string2Byte(in)), charset);
+	}
+
+	private static RuntimeException encryptError(Exception e) {
+		LogUtil.error(log, ENCRYPT_ERROR_MSG, e.getClass().getName(),
+				e.getMessage());
+		LogUtil.debug(log, e, e.getMessage());
+		return new RuntimeException(e.getMessage(), e);
+	}
+
+	private static RuntimeException decryptError(Exception e) {
+		LogUtil.error(log, DECRYPT_ERROR_MSG, e.getClass().getName(),
+				e.getMessage());
+		LogUtil.debug(log, e, e.getMessage());
+		return new RuntimeException(e.getMessage(), e);
+	}
+
+	/*
+	 * 获得当前线程中该密钥对应的加密器与解密器，没有时创建并缓存
+	 */
+	private static CipherPair getCipherPair(String key) {
+		Map<String, CipherPair> cache = cipherCache.get();
+		CipherPair pair = cache.get(key);
+		if (pair == null) {
+			pair = new CipherPair(string2Byte(key));
+			cache.put(key, pair);
+		}
+		return pair;
+	}
+
 	/*
 	 * 16进制数据转换成字符串
 	 */
 	private static String byte2String(byte[] in) {
-		StringBuffer out = new StringBuffer();
+		char[] out = new char[in.length * 2];
 		for (int i = 0; i < in.length; i++) {
-			out.append(hexString.charAt((in[i] & 0xF0) >> 4));
-			out.append(hexString.charAt(in[i] & 0x0F));
+			out[i * 2] = HEX_DIGITS[(in[i] & 0xF0) >> 4];
+			out[i * 2 + 1] = HEX_DIGITS[in[i] & 0x0F];
 		}
-		return out.toString();
+		return new String(out);
 	}
 
 	/*
@@ -246,62 +409,133 @@ public final class TripletsDESUtil {
 	 */
 	private static byte[] string2Byte(String in) {
 		in = in.trim();
-		in = in.toUpperCase();
 		if (in.length() % 2 != 0) {
 			LogUtil.error(log, DATA_LENGHT_NOT_EVEN_MSG);
 			throw new DataLengthException(DATA_LENGHT_NOT_EVEN_MSG);
 		}
-		ByteArrayOutputStream baos = new ByteArrayOutputStream(in.length() / 2);
+		byte[] out = new byte[in.length() / 2];
 		// 将每2个16进制整数组装成一个字符
 		for (int i = 0; i < in.length(); i += 2) {
-			int hb = hexString.indexOf(in.charAt(i)) << 4;
-			int lb = hexString.indexOf(in.charAt(i + 1));
+			int hb = hexDigit(in.charAt(i));
+			int lb = hexDigit(in.charAt(i + 1));
 			if ((hb == -1) || (lb == -1)) {
 				LogUtil.error(log, NOT_HEX_MSG);
 				throw new IllegalArgumentException(NOT_HEX_MSG);
 			}
-			baos.write(hb | lb);
+			out[i / 2] = (byte) ((hb << 4) | lb);
 		}
-		return baos.toByteArray();
+		return out;
+	}
+
+	// 只接受ASCII的0-9、A-F、a-f，Character.digit会把全角数字等其他Unicode数字也当作16进制数字
+	private static int hexDigit(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		return -1;
 	}
 
 	/*
-	 * 3DES 算法实现，ECB方式 PKCS#7填充
-	 * 
-	 * @throws InvalidCipherTextException
+	 * 使用已初始化的加密器处理全部数据，出错时复位加密器以便继续使用
 	 */
-	private static byte[] tripleDES(boolean isEncrypt, byte[] key, byte[] in)
+	private static byte[] process(BufferedBlockCipher cipher, byte[] in)
 			throws InvalidCipherTextException {
-		BufferedBlockCipher cipher;
-		KeyParameter keypara;
-
-		// 初始化，使用PKCS7方式填充
-		cipher = new PaddedBufferedBlockCipher(new DESedeEngine());
+		try {
+			// 计算输出缓冲区大小
+			int outsize = cipher.getOutputSize(in.length);
+			byte[] out = new byte[outsize];
+			// 处理数据（不包含最后一包输出）
+			int outlen = cipher.processBytes(in, 0, in.length, out, 0);
+			// 处理最后一包输出
+			outlen += cipher.doFinal(out, outlen);
+			// 如果是解密，长度会小于size，因为有填充
+			if (outlen < outsize) {
+				// 去掉冗余的字符
+				byte[] tmp = new byte[outlen];
+				System.arraycopy(out, 0, tmp, 0, outlen);
+				out = tmp;
+			}
+			return out;
+		} catch (InvalidCipherTextException e) {
+			cipher.reset();
+			throw e;
+		} catch (RuntimeException e) {
+			cipher.reset();
+			throw e;
+		}
+	}
 
-		// 数组key的长度应该是16或24个字符
-		if ((key.length != 16) && (key.length != 24)) {
-			LogUtil.error(log, KEY_LENGTH_ERROR_MSG);
-			throw new DataLengthException(KEY_LENGTH_ERROR_MSG);
+	private static int process(BufferedBlockCipher cipher, ByteBuffer in,
+			ByteBuffer out) throws InvalidCipherTextException {
+		byte[] inArray;
+		int inOffset;
+		int length = in.remaining();
+		if (in.hasArray()) {
+			inArray = in.array();
+			inOffset = in.arrayOffset() + in.position();
+		} else {
+			inArray = new byte[length];
+			in.duplicate().get(inArray);
+			inOffset = 0;
+		}
+		try {
+			byte[] outArray;
+			int outOffset;
+			int outsize = cipher.getOutputSize(length);
+			if (out.remaining() < outsize) {
+				throw new DataLengthException(String.format(
+						OUTPUT_TOO_SHORT_MSG, outsize));
+			}
+			if (out.hasArray()) {
+				outArray = out.array();
+				outOffset = out.arrayOffset() + out.position();
+			} else {
+				outArray = new byte[outsize];
+				outOffset = 0;
+			}
+			int outlen = cipher.processBytes(inArray, inOffset, length,
+					outArray, outOffset);
+			outlen += cipher.doFinal(outArray, outOffset + outlen);
+			if (!out.hasArray()) {
+				out.put(outArray, 0, outlen);
+			} else {
+				out.position(out.position() + outlen);
+			}
+			in.position(in.limit());
+			return outlen;
+		} catch (InvalidCipherTextException e) {
+			cipher.reset();
+			throw e;
+		} catch (RuntimeException e) {
+			cipher.reset();
+			throw e;
 		}
-		// 初始化密钥
-		keypara = new KeyParameter(key);
-		// 设置加解密方式和密钥
-		cipher.init(isEncrypt, keypara);
-
-		// 计算输出缓冲区大小
-		int outsize = cipher.getOutputSize(in.length);
-		byte[] out = new byte[outsize];
-		// 处理数据（不包含最后一包输出）
-		int outlen = cipher.processBytes(in, 0, in.length, out, 0);
-		// 处理最后一包输出
-		outlen += cipher.doFinal(out, outlen);
-		// 如果是解密，长度会小于size，因为有填充
-		if (outlen < outsize) {
-			// 去掉冗余的字符
-			byte[] tmp = new byte[outlen];
-			System.arraycopy(out, 0, tmp, 0, outlen);
-			out = tmp;
+	}
+
+	/**
+	 * 同一密钥的加密器与解密器，3DES算法，ECB方式，PKCS7填充
+	 */
+	private static final class CipherPair {
+		final BufferedBlockCipher encryptor;
+		final BufferedBlockCipher decryptor;
+
+		CipherPair(byte[] key) {
+			// 数组key的长度应该是16或24个字符
+			if ((key.length != 16) && (key.length != 24)) {
+				LogUtil.error(log, KEY_LENGTH_ERROR_MSG);
+				throw new DataLengthException(KEY_LENGTH_ERROR_MSG);
+			}
+			KeyParameter keypara = new KeyParameter(key);
+			encryptor = new PaddedBufferedBlockCipher(new DESedeEngine());
+			encryptor.init(true, keypara);
+			decryptor = new PaddedBufferedBlockCipher(new DESedeEngine());
+			decryptor.init(false, keypara);
 		}
-		return out;
 	}
 }
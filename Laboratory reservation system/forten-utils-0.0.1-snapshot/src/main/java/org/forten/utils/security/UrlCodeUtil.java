@@ -3,6 +3,10 @@
  */
 package org.forten.utils.security;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import org.apache.commons.codec.net.URLCodec;
 import org.apache.log4j.Logger;
 import org.forten.utils.common.StringUtil;
@@ -25,6 +29,35 @@ public final class UrlCodeUtil {
 	private static final String TEXT_MSG = "URL编码前的文本：%s";
 	private static final String URL_CODE_TEXT_MSG = "URL编码后的文本：%s";
 
+	private static final String ILLEGAL_CODE_MSG = "URL编码文本格式错误，位置：%d";
+
+	// URLCodec是线程安全的，编解码时只使用调用时传入的字符集
+	private static final URLCodec CODEC = new URLCodec();
+
+	private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5',
+			'6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+	// 与URLCodec相同的application/x-www-form-urlencoded安全字符集
+	private static final boolean[] SAFE = new boolean[128];
+	static {
+		for (int c = 'a'; c <= 'z'; c++) {
+			SAFE[c] = true;
+		}
+		for (int c = 'A'; c <= 'Z'; c++) {
+			SAFE[c] = true;
+		}
+		for (int c = '0'; c <= '9'; c++) {
+			SAFE[c] = true;
+		}
+		SAFE['-'] = true;
+		SAFE['_'] = true;
+		SAFE['.'] = true;
+		SAFE['*'] = true;
+	}
+
+	// 流式编解码时使用的缓冲区大小
+	private static final int BUFFER_SIZE = 8192;
+
 	private UrlCodeUtil() {
 
 	}
@@ -46,13 +79,11 @@ public final class UrlCodeUtil {
 		}
 		String result = null;
 		try {
-			result = new URLCodec().encode(origin, charset);
+			result = CODEC.encode(origin, charset);
 		} catch (Exception e) {
 			LogUtil.error(log, ENCODING_ERROR_MSG, e.getClass().getName(),
 					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
+			LogUtil.debug(log, e, e.getMessage());
 			throw new RuntimeException(e.getMessage(), e);
 		}
 		LogUtil.debug(log, URL_CODE_TEXT_MSG, result);
@@ -76,13 +107,11 @@ public final class UrlCodeUtil {
 		}
 		String result = null;
 		try {
-			result = new URLCodec().decode(code, charset);
+			result = CODEC.decode(code, charset);
 		} catch (Exception e) {
 			LogUtil.error(log, DECODING_ERROR_MSG, e.getClass().getName(),
 					e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
+			LogUtil.debug(log, e, e.getMessage());
 			throw new RuntimeException(e.getMessage(), e);
 		}
 		LogUtil.debug(log, TEXT_MSG, result);
@@ -110,4 +139,88 @@ public final class UrlCodeUtil {
 	public static String decode(String code) {
 		return decode(code, "UTF-8");
 	}
+
+	/**
+	 * 逐段读取输入流，把URL编码（application/x-www-form-urlencoded）后的内容写入输出流，两个流都不会被关闭。
+	 * 输入流中的内容应当是已经按所需字符集编码的文本字节
+	 * 
+	 * @param in
+	 *            原始内容的输入流
+	 * @param out
+	 *            编码结果的输出流
+	 * @throws IOException
+	 *             读写流出错
+	 */
+	public static void encode(InputStream in, OutputStream out)
+			throws IOException {
+		byte[] inBuf = new byte[BUFFER_SIZE];
+		// 每个字节最多编码为3个字节
+		byte[] outBuf = new byte[BUFFER_SIZE * 3];
+		int n;
+		while ((n = in.read(inBuf)) != -1) {
+			int pos = 0;
+			for (int i = 0; i < n; i++) {
+				int b = inBuf[i] & 0xFF;
+				if (b < 128 && SAFE[b]) {
+					outBuf[pos++] = (byte) b;
+				} else if (b == ' ') {
+					outBuf[pos++] = '+';
+				} else {
+					outBuf[pos++] = '%';
+					outBuf[pos++] = HEX_DIGITS[b >>> 4];
+					outBuf[pos++] = HEX_DIGITS[b & 0x0F];
+				}
+			}
+			out.write(outBuf, 0, pos);
+		}
+	}
+
+	/**
+	 * 逐段读取URL编码的输入流，把解码后的字节写入输出流，两个流都不会被关闭
+	 * 
+	 * @param in
+	 *            URL编码内容的输入流
+	 * @param out
+	 *            解码结果的输出流
+	 * @throws IOException
+	 *             读写流出错，或者编码文本格式错误
+	 */
+	public static void decode(InputStream in, OutputStream out)
+			throws IOException {
+		byte[] inBuf = new byte[BUFFER_SIZE];
+		byte[] outBuf = new byte[BUFFER_SIZE];
+		// %XX可能被分在两段中，pending记录已读到的部分：-1表示没有，0表示已读到%，其它为第一位十六进制数+1
+		int pending = -1;
+		long position = 0;
+		int n;
+		while ((n = in.read(inBuf)) != -1) {
+			int pos = 0;
+			for (int i = 0; i < n; i++, position++) {
+				int b = inBuf[i];
+				if (pending >= 0) {
+					int digit = Character.digit(b, 16);
+					if (digit < 0) {
+						throw new IOException(String.format(ILLEGAL_CODE_MSG,
+								position));
+					}
+					if (pending == 0) {
+						pending = digit + 1;
+					} else {
+						outBuf[pos++] = (byte) (((pending - 1) << 4) + digit);
+						pending = -1;
+					}
+				} else if (b == '%') {
+					pending = 0;
+				} else if (b == '+') {
+					outBuf[pos++] = ' ';
+				} else {
+					outBuf[pos++] = (byte) b;
+				}
+			}
+			out.write(outBuf, 0, pos);
+		}
+		if (pending >= 0) {
+			throw new IOException(String.format(ILLEGAL_CODE_MSG, position));
+		}
+	}
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * 异步输出的控制台Appender，可以在log4j.properties中直接替换ConsoleAppender。
+ * <p>
+ * 记录日志的线程只把事件放入定长的环形缓冲区，格式化与控制台输出都由后台线程完成，一批事件只flush一次。
+ * Log4j在调用Appender时已经持有Appender的锁，所以写入端总是单线程，缓冲区只需要两个序号，不需要再加锁。
+ * 缓冲区已满时新事件被直接丢弃而不是阻塞调用线程，后台线程在空闲时输出一条警告说明丢弃的条数。
+ * 后台线程不持有Appender的锁，它与替换writer、同步输出等操作之间由单独的写锁互斥。
+ * </p>
+ * <p>
+ * 可配置项：BufferSize（缓冲区大小，向上取整为2的幂，默认8192），
+ * LocationInfo（是否在调用线程上提取%C、%L等位置信息，默认false）。
+ * 后台线程是守护线程，关闭Appender或调用LogManager.shutdown()时会先输出缓冲区中剩余的事件；
+ * 控制台输出阻塞、后台线程没有按时结束时，writer由后台线程结束后关闭。
+ * </p>
+ */
+public class AsyncConsoleAppender extends ConsoleAppender {
+	private static final String DROPPED_MSG = "日志缓冲区已满，丢弃了%d条日志";
+
+	/**
+	 * 默认缓冲区大小
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	// 没有事件时后台线程的最长休眠时间，防止错过唤醒
+	private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+	// 后台线程退出时与close()交接关闭writer的状态，保证writer只在后台线程结束后关闭
+	private static final int CONSUMER_RUNNING = 0;
+	private static final int CONSUMER_EXITED = 1;
+	private static final int CLOSE_ON_EXIT = 2;
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private boolean locationInfo;
+
+	private LoggingEvent[] buffer;
+	private int mask;
+	// 下一个要输出的序号，只由后台线程推进
+	private final AtomicLong head = new AtomicLong();
+	// 下一个要写入的序号，只在持有Appender锁时推进
+	private final AtomicLong tail = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+	private long reportedDropped;
+	private volatile boolean running;
+	private volatile boolean waiting;
+	private Thread consumer;
+	private AtomicInteger consumerState;
+	private final Object writeLock = new Object();
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public boolean getLocationInfo() {
+		return locationInfo;
+	}
+
+	public void setLocationInfo(boolean locationInfo) {
+		this.locationInfo = locationInfo;
+	}
+
+	/**
+	 * @return 因缓冲区已满而丢弃的事件总数
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	@Override
+	public synchronized void activateOptions() {
+		if (!stopConsumer()) {
+			// 旧的后台线程还在使用缓冲区，不能重建，之后的事件改为同步输出
+			LogLog.warn("AsyncConsoleAppender[" + getName() + "]的后台线程没有按时结束，改为同步输出");
+			synchronized (writeLock) {
+				super.activateOptions();
+			}
+			return;
+		}
+		// 后台线程每输出一批flush一次，不必每条事件都flush
+		setImmediateFlush(false);
+		super.activateOptions();
+		int size = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+		buffer = new LoggingEvent[size];
+		mask = size - 1;
+		head.set(0);
+		tail.set(0);
+		running = true;
+		AtomicInteger state = new AtomicInteger(CONSUMER_RUNNING);
+		consumerState = state;
+		consumer = new Thread(() -> drain(state), "AsyncConsoleAppender-" + getName());
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	@Override
+	public void append(LoggingEvent event) {
+		if (!running) {
+			synchronized (writeLock) {
+				super.append(event);
+				flush();
+			}
+			return;
+		}
+		// 与调用线程相关的信息必须在当前线程上取得
+		event.getNDC();
+		event.getThreadName();
+		event.getMDCCopy();
+		if (locationInfo) {
+			event.getLocationInformation();
+		}
+		long t = tail.get();
+		if (t - head.get() > mask) {
+			dropped.increment();
+			return;
+		}
+		buffer[(int) t & mask] = event;
+		tail.set(t + 1);
+		if (waiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	@Override
+	public synchronized void setWriter(Writer writer) {
+		synchronized (writeLock) {
+			super.setWriter(writer);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (stopConsumer() || !consumerState.compareAndSet(CONSUMER_RUNNING, CLOSE_ON_EXIT)) {
+			super.close();
+		} else {
+			LogLog.warn("AsyncConsoleAppender[" + getName() + "]的后台线程没有按时结束，writer将在后台线程结束后关闭");
+		}
+	}
+
+	/**
+	 * @return 后台线程是否已经结束，等待超时时后台线程可能仍在输出
+	 */
+	private boolean stopConsumer() {
+		Thread thread = consumer;
+		if (thread == null) {
+			return true;
+		}
+		running = false;
+		LockSupport.unpark(thread);
+		try {
+			thread.join(STOP_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		consumer = null;
+		return !thread.isAlive();
+	}
+
+	private void drain(AtomicInteger state) {
+		try {
+			drain();
+		} finally {
+			if (!state.compareAndSet(CONSUMER_RUNNING, CONSUMER_EXITED)) {
+				// close()等待超时，由后台线程关闭writer
+				super.close();
+			}
+		}
+	}
+
+	private void drain() {
+		while (true) {
+			long h = head.get();
+			long t = tail.get();
+			if (h == t) {
+				reportDropped();
+				if (!running && tail.get() == h) {
+					return;
+				}
+				waiting = true;
+				if (tail.get() == h && running) {
+					LockSupport.parkNanos(this, PARK_NANOS);
+				}
+				waiting = false;
+				continue;
+			}
+			synchronized (writeLock) {
+				for (; h < t; h++) {
+					int index = (int) h & mask;
+					LoggingEvent event = buffer[index];
+					buffer[index] = null;
+					head.lazySet(h + 1);
+					super.append(event);
+				}
+				flush();
+			}
+		}
+	}
+
+	private void reportDropped() {
+		long total = dropped.sum();
+		if (total > reportedDropped) {
+			synchronized (writeLock) {
+				super.append(new LoggingEvent(AsyncConsoleAppender.class.getName(),
+						Logger.getLogger(AsyncConsoleAppender.class), Level.WARN,
+						String.format(DROPPED_MSG, total - reportedDropped), null));
+				flush();
+			}
+			reportedDropped = total;
+		}
+	}
+
+	private void flush() {
+		if (qw != null) {
+			qw.flush();
+		}
+	}
+}
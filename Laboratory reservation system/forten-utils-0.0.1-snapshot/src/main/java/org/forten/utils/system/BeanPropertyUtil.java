@@ -15,11 +15,33 @@
  */
 package org.forten.utils.system;
 
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.beanutils.DynaBean;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.log4j.Logger;
 
 /**
  * Java Bean属性拷贝工具
+ * <p>
+ * 拷贝原始对象中所有可读、且在目标对象中同名可写的属性。每一对（原始类型，目标类型）只在第一次拷贝时
+ * 分析一次属性，生成由{@link MethodHandle}组成的拷贝计划并缓存，之后的拷贝直接调用getter与setter。
+ * 类型不兼容的同名属性不被拷贝；null值不会被拷贝到基本类型的属性中。
+ * Map与DynaBean仍交给commons-beanutils处理。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2012-5-7
@@ -28,6 +50,16 @@ public final class BeanPropertyUtil {
 	private static Logger log = Logger.getLogger(BeanPropertyUtil.class);
 
 	private static final String OBJECT_NOT_NULL_MSG = "对象不可为null";
+	private static final String PROPERTY_NOT_FOUND_MSG = "属性[%s]不能从%s拷贝到%s";
+	private static final String TYPE_MISMATCH_MSG = "属性[%s]的类型不兼容，不从%s拷贝到%s";
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(
+			Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(
+			void.class, Object.class, Object.class);
+
+	// 原始类型 -> 目标类型 -> 拷贝计划
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, CopyPlan>> planMap = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, CopyPlan>>();
 
 	private BeanPropertyUtil() {
 
@@ -42,16 +74,222 @@ public final class BeanPropertyUtil {
 	 *            原始对象
 	 */
 	public static void copy(Object dist, Object orig) {
+		copy(dist, orig, false);
+	}
+
+	/**
+	 * Java Bean属性拷贝，值为null的属性不拷贝，目标对象中对应的属性保持原值
+	 * 
+	 * @param dist
+	 *            目标对象
+	 * @param orig
+	 *            原始对象
+	 */
+	public static void copyNotNull(Object dist, Object orig) {
+		copy(dist, orig, true);
+	}
+
+	/**
+	 * Java Bean属性拷贝，只拷贝指定的属性
+	 * 
+	 * @param dist
+	 *            目标对象
+	 * @param orig
+	 *            原始对象
+	 * @param properties
+	 *            要拷贝的属性名，必须在原始对象中可读且在目标对象中可写
+	 */
+	public static void copy(Object dist, Object orig, String... properties) {
+		copy(dist, orig, false, properties);
+	}
+
+	/**
+	 * Java Bean属性拷贝
+	 * 
+	 * @param dist
+	 *            目标对象
+	 * @param orig
+	 *            原始对象
+	 * @param skipNull
+	 *            为<code>true</code>时值为null的属性不拷贝
+	 * @param properties
+	 *            要拷贝的属性名，为空时拷贝全部属性
+	 */
+	public static void copy(Object dist, Object orig, boolean skipNull,
+			String... properties) {
 		Assert.notNull(dist, OBJECT_NOT_NULL_MSG);
 		Assert.notNull(orig, OBJECT_NOT_NULL_MSG);
 		try {
-			PropertyUtils.copyProperties(dist, orig);
-		} catch (Exception e) {
-			LogUtil.error(log, e, e.getMessage());
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
+			if (orig instanceof Map || orig instanceof DynaBean
+					|| dist instanceof DynaBean) {
+				copyByPropertyUtils(dist, orig, skipNull, properties);
+				return;
+			}
+			CopyPlan plan = getPlan(orig.getClass(), dist.getClass());
+			if (properties == null || properties.length == 0) {
+				for (PropertyCopier copier : plan.copiers) {
+					copier.copy(dist, orig, skipNull);
+				}
+			} else {
+				for (String property : properties) {
+					PropertyCopier copier = plan.copierMap.get(property);
+					if (copier == null) {
+						throw new IllegalArgumentException(String.format(
+								PROPERTY_NOT_FOUND_MSG, property,
+								orig.getClass().getName(), dist.getClass()
+										.getName()));
+					}
+					copier.copy(dist, orig, skipNull);
+				}
 			}
+		} catch (IllegalArgumentException e) {
+			throw e;
+		} catch (Throwable e) {
+			LogUtil.error(log, e, e.getMessage());
 			throw new RuntimeException(e.getMessage());
 		}
 	}
+
+	private static void copyByPropertyUtils(Object dist, Object orig,
+			boolean skipNull, String... properties) throws Exception {
+		if (!skipNull && (properties == null || properties.length == 0)) {
+			PropertyUtils.copyProperties(dist, orig);
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Map<String, Object> values = orig instanceof Map ? (Map<String, Object>) orig
+				: PropertyUtils.describe(orig);
+		List<String> names = new ArrayList<String>();
+		if (properties == null || properties.length == 0) {
+			names.addAll(values.keySet());
+		} else {
+			for (String property : properties) {
+				names.add(property);
+			}
+		}
+		for (String name : names) {
+			Object value = values.get(name);
+			if ((value != null || !skipNull) && !"class".equals(name)
+					&& PropertyUtils.isWriteable(dist, name)) {
+				PropertyUtils.setSimpleProperty(dist, name, value);
+			}
+		}
+	}
+
+	private static CopyPlan getPlan(Class<?> origClass, Class<?> distClass)
+			throws IntrospectionException {
+		ConcurrentMap<Class<?>, CopyPlan> distMap = planMap.get(origClass);
+		if (distMap == null) {
+			distMap = new ConcurrentHashMap<Class<?>, CopyPlan>();
+			ConcurrentMap<Class<?>, CopyPlan> existing = planMap.putIfAbsent(
+					origClass, distMap);
+			if (existing != null) {
+				distMap = existing;
+			}
+		}
+		CopyPlan plan = distMap.get(distClass);
+		if (plan == null) {
+			plan = buildPlan(origClass, distClass);
+			CopyPlan existing = distMap.putIfAbsent(distClass, plan);
+			if (existing != null) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+
+	private static CopyPlan buildPlan(Class<?> origClass, Class<?> distClass)
+			throws IntrospectionException {
+		Map<String, PropertyDescriptor> writeable = new HashMap<String, PropertyDescriptor>();
+		for (PropertyDescriptor pd : getPropertyDescriptors(distClass)) {
+			if (pd.getWriteMethod() != null) {
+				writeable.put(pd.getName(), pd);
+			}
+		}
+		List<PropertyCopier> copiers = new ArrayList<PropertyCopier>();
+		for (PropertyDescriptor origPd : getPropertyDescriptors(origClass)) {
+			Method getter = origPd.getReadMethod();
+			PropertyDescriptor distPd = writeable.get(origPd.getName());
+			if (getter == null || distPd == null) {
+				continue;
+			}
+			Method setter = distPd.getWriteMethod();
+			Class<?> valueType = getter.getReturnType();
+			Class<?> paramType = setter.getParameterTypes()[0];
+			if (!wrap(paramType).isAssignableFrom(wrap(valueType))) {
+				LogUtil.warn(log, TYPE_MISMATCH_MSG, origPd.getName(),
+						origClass.getName(), distClass.getName());
+				continue;
+			}
+			copiers.add(new PropertyCopier(origPd.getName(), unreflect(getter)
+					.asType(GETTER_TYPE), unreflect(setter)
+					.asType(SETTER_TYPE), paramType.isPrimitive()));
+		}
+		return new CopyPlan(copiers);
+	}
+
+	private static PropertyDescriptor[] getPropertyDescriptors(Class<?> clazz)
+			throws IntrospectionException {
+		BeanInfo beanInfo = Introspector.getBeanInfo(clazz, Object.class);
+		return beanInfo.getPropertyDescriptors();
+	}
+
+	private static MethodHandle unreflect(Method method) {
+		try {
+			// public方法所在的类可能不是public的（如匿名类、包内可见的类）
+			method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Class<?> wrap(Class<?> clazz) {
+		if (!clazz.isPrimitive()) {
+			return clazz;
+		}
+		return MethodType.methodType(clazz).wrap().returnType();
+	}
+
+	/**
+	 * 一对（原始类型，目标类型）的拷贝计划
+	 */
+	private static final class CopyPlan {
+		final PropertyCopier[] copiers;
+		final Map<String, PropertyCopier> copierMap = new HashMap<String, PropertyCopier>();
+
+		CopyPlan(List<PropertyCopier> copierList) {
+			this.copiers = copierList.toArray(new PropertyCopier[copierList
+					.size()]);
+			for (PropertyCopier copier : copiers) {
+				copierMap.put(copier.name, copier);
+			}
+		}
+	}
+
+	/**
+	 * 单个属性的拷贝，getter与setter已经被适配为(Object)Object与(Object,Object)void
+	 */
+	private static final class PropertyCopier {
+		final String name;
+		final MethodHandle getter;
+		final MethodHandle setter;
+		final boolean primitive;
+
+		PropertyCopier(String name, MethodHandle getter, MethodHandle setter,
+				boolean primitive) {
+			this.name = name;
+			this.getter = getter;
+			this.setter = setter;
+			this.primitive = primitive;
+		}
+
+		void copy(Object dist, Object orig, boolean skipNull) throws Throwable {
+			Object value = (Object) getter.invokeExact(orig);
+			if (value == null && (skipNull || primitive)) {
+				return;
+			}
+			setter.invokeExact(dist, value);
+		}
+	}
 }
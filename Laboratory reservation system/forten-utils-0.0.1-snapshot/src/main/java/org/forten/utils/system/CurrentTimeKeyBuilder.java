@@ -27,7 +27,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2012-10-22
+ * @deprecated 该生成器使用全局锁和共享的SimpleDateFormat，吞吐量低，请使用无锁的{@link SnowflakeKeyBuilder}
  */
+@Deprecated
 public final class CurrentTimeKeyBuilder {
 	// PK生成锁,用来限定同一时刻只有一个线程进入PK生成计算
 	private final Lock LOCK = new ReentrantLock();
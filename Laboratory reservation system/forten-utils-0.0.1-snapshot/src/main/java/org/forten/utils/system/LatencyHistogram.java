@@ -0,0 +1,201 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数-线性延迟直方图，桶的划分方式与HdrHistogram相同。
+ * <p>
+ * 小于2^significantBits的值每个值一个桶；更大的值按2的幂分段，每段再均分为2^(significantBits-1)个桶，
+ * 因此任何记录值的相对误差都不超过2^(1-significantBits)，默认7位时约为1.6%。
+ * 桶计数保存在{@link AtomicLongArray}中，{@link #record(long)}只做一次原子自增加上两次{@link LongAdder}累加，
+ * 不加锁也不创建对象，可以在请求处理路径上直接调用。
+ * </p>
+ * <p>
+ * 读取分位数时逐个桶读取计数，并发写入时得到的是近似一致的快照，适合监控用途。
+ * </p>
+ */
+public final class LatencyHistogram {
+	private static final String ARGUMENT_OUT_OF_RANGE_MSG = "有效位数[%d]必须在1-14之间，最大可记录值[%d]必须大于0";
+
+	/**
+	 * 默认最大可记录值：1小时对应的纳秒数
+	 */
+	public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toNanos(1);
+
+	/**
+	 * 默认有效位数
+	 */
+	public static final int DEFAULT_SIGNIFICANT_BITS = 7;
+
+	private final long highestTrackableValue;
+	private final int significantBits;
+	private final int subBucketHalfCount;
+	private final AtomicLongArray counts;
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder totalSum = new LongAdder();
+	private final AtomicLong maxValue = new AtomicLong();
+
+	/**
+	 * 创建一个使用默认参数的直方图，适合记录纳秒级延迟
+	 */
+	public LatencyHistogram() {
+		this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_BITS);
+	}
+
+	/**
+	 * @param highestTrackableValue
+	 *            最大可记录值，更大的值按该值计入直方图（最大值与总和仍按原值统计）
+	 * @param significantBits
+	 *            有效位数，决定相对误差与桶数量
+	 */
+	public LatencyHistogram(long highestTrackableValue, int significantBits) {
+		if (significantBits < 1 || significantBits > 14 || highestTrackableValue < 1) {
+			throw new IllegalArgumentException(
+					String.format(ARGUMENT_OUT_OF_RANGE_MSG, significantBits, highestTrackableValue));
+		}
+		this.highestTrackableValue = highestTrackableValue;
+		this.significantBits = significantBits;
+		this.subBucketHalfCount = 1 << (significantBits - 1);
+		this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+	}
+
+	/**
+	 * 记录一个值，负数按0记录
+	 *
+	 * @param value
+	 *            要记录的值，通常是纳秒数
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(indexOf(Math.min(value, highestTrackableValue)));
+		totalCount.increment();
+		totalSum.add(value);
+		long max = maxValue.get();
+		// 只有出现新的最大值时才需要CAS，绝大多数调用只有一次volatile读
+		while (value > max && !maxValue.compareAndSet(max, value)) {
+			max = maxValue.get();
+		}
+	}
+
+	/**
+	 * @return 已记录的值的个数
+	 */
+	public long getCount() {
+		return totalCount.sum();
+	}
+
+	/**
+	 * @return 已记录的值的总和
+	 */
+	public long getSum() {
+		return totalSum.sum();
+	}
+
+	/**
+	 * @return 已记录的最大值，没有记录时为0
+	 */
+	public long getMax() {
+		return maxValue.get();
+	}
+
+	/**
+	 * @return 已记录的值的平均值，没有记录时为0
+	 */
+	public double getMean() {
+		long count = totalCount.sum();
+		return count == 0 ? 0 : (double) totalSum.sum() / count;
+	}
+
+	/**
+	 * 返回指定百分位的值，即不超过该值的记录数占比达到percentile的最小桶的上界
+	 *
+	 * @param percentile
+	 *            百分位，取值0-100
+	 * @return 分位数，没有记录时为0
+	 */
+	public long getValueAtPercentile(double percentile) {
+		return getValuesAtPercentiles(percentile)[0];
+	}
+
+	/**
+	 * 在同一份计数快照上计算多个分位数
+	 *
+	 * @param percentiles
+	 *            百分位，取值0-100，必须按升序排列
+	 * @return 与percentiles一一对应的分位数
+	 */
+	public long[] getValuesAtPercentiles(double... percentiles) {
+		int length = counts.length();
+		long[] snapshot = new long[length];
+		long total = 0;
+		for (int i = 0; i < length; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		long max = maxValue.get();
+		long[] values = new long[percentiles.length];
+		if (total == 0) {
+			return values;
+		}
+		int index = 0;
+		long accumulated = snapshot[0];
+		for (int p = 0; p < percentiles.length; p++) {
+			long target = Math.max(1, (long) Math.ceil(Math.min(percentiles[p], 100.0) / 100.0 * total));
+			while (accumulated < target && index < length - 1) {
+				accumulated += snapshot[++index];
+			}
+			// 最后一个桶还包含超出最大可记录值的记录，以实际最大值为准
+			values[p] = index == length - 1 ? max : Math.min(highestEquivalentValue(index), max);
+		}
+		return values;
+	}
+
+	/**
+	 * 清空所有记录
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		totalCount.reset();
+		totalSum.reset();
+		maxValue.set(0);
+	}
+
+	int indexOf(long value) {
+		if (value < (subBucketHalfCount << 1)) {
+			return (int) value;
+		}
+		int shift = 64 - Long.numberOfLeadingZeros(value) - significantBits;
+		return (shift * subBucketHalfCount) + (int) (value >>> shift);
+	}
+
+	long highestEquivalentValue(int index) {
+		if (index < (subBucketHalfCount << 1)) {
+			return index;
+		}
+		int shift = index / subBucketHalfCount - 1;
+		long subBucket = index - shift * subBucketHalfCount;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
@@ -15,105 +15,117 @@
  */
 package org.forten.utils.system;
 
+import java.util.function.Supplier;
+
+import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.forten.utils.collection.ArrayUtil;
 
 /**
  * Log4j日志记录工具类
+ * <p>
+ * 先检查日志级别，级别未开启时不做任何格式化。带参数的消息不在调用线程上调用String.format，
+ * 而是作为消息对象交给Log4j，直到Appender输出时才格式化；配合{@link AsyncConsoleAppender}，
+ * 格式化和输出都在后台线程完成。因此参数应当是不可变对象，或在调用后不再修改。
+ * 构造消息本身就有开销时，可以使用接收{@link Supplier}的重载，只有级别开启时才调用。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2012-4-20
  */
 public final class LogUtil {
+	private static final String FQCN = LogUtil.class.getName();
+
 	private LogUtil() {
 
 	}
 
 	public static void debug(Logger log, String msg, Object... params) {
-		if (log.isDebugEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.debug(msg);
-			} else {
-				log.debug(String.format(msg, params));
-			}
+		log(log, Level.DEBUG, null, msg, params);
 	}
 
 	public static void debug(Logger log, Throwable e, String msg,
 			Object... params) {
-		if (log.isDebugEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.debug(msg, e);
-			} else {
-				log.debug(String.format(msg, params), e);
-			}
+		log(log, Level.DEBUG, e, msg, params);
+	}
+
+	public static void debug(Logger log, Supplier<String> msg) {
+		if (log.isDebugEnabled()) {
+			log.log(FQCN, Level.DEBUG, msg.get(), null);
+		}
 	}
 
 	public static void info(Logger log, String msg, Object... params) {
-		if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.info(msg);
-			} else {
-				log.info(String.format(msg, params));
-			}
+		log(log, Level.INFO, null, msg, params);
 	}
 
 	public static void info(Logger log, Throwable e, String msg,
 			Object... params) {
-		if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.info(msg, e);
-			} else {
-				log.info(String.format(msg, params), e);
-			}
+		log(log, Level.INFO, e, msg, params);
+	}
+
+	public static void info(Logger log, Supplier<String> msg) {
+		if (log.isInfoEnabled()) {
+			log.log(FQCN, Level.INFO, msg.get(), null);
+		}
 	}
 
 	public static void warn(Logger log, String msg, Object... params) {
-		if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.warn(msg);
-			} else {
-				log.warn(String.format(msg, params));
-			}
+		log(log, Level.WARN, null, msg, params);
 	}
 
 	public static void warn(Logger log, Throwable e, String msg,
 			Object... params) {
-		if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.warn(msg, e);
-			} else {
-				log.warn(String.format(msg, params), e);
-			}
+		log(log, Level.WARN, e, msg, params);
 	}
 
 	public static void error(Logger log, String msg, Object... params) {
-		if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.error(msg);
-			} else {
-				log.error(String.format(msg, params));
-			}
+		log(log, Level.ERROR, null, msg, params);
 	}
 
 	public static void error(Logger log, Throwable e, String msg,
 			Object... params) {
-		if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.error(msg, e);
-			} else {
-				log.error(String.format(msg, params), e);
-			}
+		log(log, Level.ERROR, e, msg, params);
 	}
 
+	/**
+	 * 以ERROR级别记录异常消息和堆栈，堆栈同样经由Appender输出，不再直接写到标准错误
+	 */
 	public static void exception(Logger log, Throwable e, String msg,
 			Object... params) {
-		if (log.isDebugEnabled())
-			e.printStackTrace();
-		else if (log.isInfoEnabled())
-			if (ArrayUtil.isEmpty(params)) {
-				log.error(msg, e);
-			} else {
-				log.error(String.format(msg, params), e);
+		log(log, Level.ERROR, e, msg, params);
+	}
+
+	private static void log(Logger log, Level level, Throwable e, String msg,
+			Object[] params) {
+		if (!log.isEnabledFor(level)) {
+			return;
+		}
+		Object message = ArrayUtil.isEmpty(params) ? msg
+				: new FormattedMessage(msg, params);
+		// 传入FQCN，%C、%L等位置信息仍然指向调用LogUtil的代码
+		log.log(FQCN, level, message, e);
+	}
+
+	/**
+	 * 延迟格式化的日志消息，第一次调用toString时才执行String.format
+	 */
+	private static final class FormattedMessage {
+		private final String pattern;
+		private final Object[] params;
+		private String formatted;
+
+		FormattedMessage(String pattern, Object[] params) {
+			this.pattern = pattern;
+			this.params = params;
+		}
+
+		@Override
+		public String toString() {
+			if (formatted == null) {
+				formatted = String.format(pattern, params);
 			}
+			return formatted;
+		}
 	}
 }
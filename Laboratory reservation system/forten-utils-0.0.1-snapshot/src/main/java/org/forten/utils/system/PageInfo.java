@@ -194,7 +194,7 @@ public class PageInfo {
 			page.setLastResultNum(page.getFirstResultNum() + page.getPageSize());
 		}
 
-		LogUtil.debug(log, page.toString());
+		LogUtil.debug(log, page::toString);
 		return page;
 	}
 
@@ -47,9 +47,7 @@ public abstract class PropertiesFileReader {
 			result = ResourceBundle.getBundle(resourceFile).getString(key);
 		} catch (MissingResourceException e) {
 			LogUtil.error(log, LOAD_VALUE_ERROR_MSG, resourceFile, key);
-			if (log.isDebugEnabled()) {
-				e.printStackTrace();
-			}
+			LogUtil.debug(log, e, e.getMessage());
 		}
 		return result;
 	}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Snowflake风格的无锁主键生成器，用来取代{@link CurrentTimeKeyBuilder}。
+ * <p>
+ * 生成的long PK由三部分组成（从高位到低位）：相对于{@link #EPOCH}的毫秒数 + 节点号 + 毫秒内序列号。
+ * 默认布局为41位时间戳、10位节点号、12位序列号；也可以通过
+ * {@link #getInstance(int, int, int)}缩小节点号与序列号的位数，例如5+7位时生成的PK不超过53位，
+ * 可以被JavaScript的Number类型无损表示。
+ * </p>
+ * <p>
+ * 时间戳与序列号被打包在同一个{@link AtomicLong}中，通过CAS推进，生成PK时不加锁也不创建对象。
+ * 当系统时钟回拨时，生成器继续沿用上一次的逻辑时间并递增序列号，保证PK单调递增且不重复；
+ * 序列号用尽时逻辑时间自动前进1毫秒。
+ * </p>
+ */
+public final class SnowflakeKeyBuilder {
+	private static Logger log = Logger.getLogger(SnowflakeKeyBuilder.class);
+
+	private static final String NODE_ID_OUT_OF_RANGE_MSG = "节点号[%d]超出范围，%d位节点号的取值范围是0-%d";
+	private static final String BITS_OUT_OF_RANGE_MSG = "节点号位数[%d]与序列号位数[%d]之和必须在1-22之间";
+	private static final String CLOCK_BACKWARDS_MSG = "检测到系统时钟回拨或序列号耗尽，逻辑时间领先系统时间%d毫秒";
+
+	/**
+	 * 时间戳的起始时间：2012-01-01 00:00:00 UTC
+	 */
+	public static final long EPOCH = 1325376000000L;
+
+	/**
+	 * 默认节点号位数
+	 */
+	public static final int DEFAULT_NODE_BITS = 10;
+
+	/**
+	 * 默认序列号位数
+	 */
+	public static final int DEFAULT_SEQUENCE_BITS = 12;
+
+	// 逻辑时间领先系统时间超过该毫秒数时输出警告
+	private static final long DRIFT_WARN_MILLIS = 1000L;
+
+	private static final ConcurrentMap<Long, SnowflakeKeyBuilder> instanceMap = new ConcurrentHashMap<Long, SnowflakeKeyBuilder>();
+
+	private final int sequenceBits;
+	private final int timestampShift;
+	private final long sequenceMask;
+	private final long nodePart;
+
+	// 高位是逻辑时间戳，低sequenceBits位是序列号
+	private final AtomicLong state = new AtomicLong();
+
+	// 必须提供正确的参数,以保证 nodeId 在集群环境的唯一性
+	private SnowflakeKeyBuilder(int nodeId, int nodeBits, int sequenceBits) {
+		this.sequenceBits = sequenceBits;
+		this.timestampShift = nodeBits + sequenceBits;
+		this.sequenceMask = (1L << sequenceBits) - 1;
+		this.nodePart = ((long) nodeId) << sequenceBits;
+	}
+
+	/**
+	 * 获得使用默认位布局（10位节点号，12位序列号）的主键生成器实例
+	 *
+	 * 在集群环境中,不同的机器必须提供不同的 nodeId 来保证生成的ID的唯一性
+	 *
+	 * @param nodeId
+	 *            节点号，范围0-1023
+	 * @return 主键生成器实例
+	 */
+	public static SnowflakeKeyBuilder getInstance(int nodeId) {
+		return getInstance(nodeId, DEFAULT_NODE_BITS, DEFAULT_SEQUENCE_BITS);
+	}
+
+	/**
+	 * 获得指定位布局的主键生成器实例，相同参数总是返回同一个实例
+	 *
+	 * @param nodeId
+	 *            节点号，范围0 - 2^nodeBits-1
+	 * @param nodeBits
+	 *            节点号位数
+	 * @param sequenceBits
+	 *            毫秒内序列号位数
+	 * @return 主键生成器实例
+	 */
+	public static SnowflakeKeyBuilder getInstance(int nodeId, int nodeBits,
+			int sequenceBits) {
+		if (nodeBits < 0 || sequenceBits < 1
+				|| nodeBits + sequenceBits > 22) {
+			throw new IllegalArgumentException(String.format(
+					BITS_OUT_OF_RANGE_MSG, nodeBits, sequenceBits));
+		}
+		int maxNodeId = (1 << nodeBits) - 1;
+		if (nodeId < 0 || nodeId > maxNodeId) {
+			throw new IllegalArgumentException(String.format(
+					NODE_ID_OUT_OF_RANGE_MSG, nodeId, nodeBits, maxNodeId));
+		}
+		Long key = ((long) nodeId << 16) | (nodeBits << 8) | sequenceBits;
+		SnowflakeKeyBuilder builder = instanceMap.get(key);
+		if (builder == null) {
+			builder = new SnowflakeKeyBuilder(nodeId, nodeBits, sequenceBits);
+			SnowflakeKeyBuilder existing = instanceMap.putIfAbsent(key,
+					builder);
+			if (existing != null) {
+				builder = existing;
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * 返回下一个 long 型 PK
+	 *
+	 * @return long PK
+	 */
+	public long nextPK() {
+		long current;
+		long next;
+		do {
+			current = state.get();
+			long now = (System.currentTimeMillis() - EPOCH) << sequenceBits;
+			// 时钟回拨或同一毫秒内，在上一次的基础上递增，序列号溢出时自然进位到时间戳
+			next = now > current ? now : current + 1;
+		} while (!state.compareAndSet(current, next));
+
+		long timestamp = next >>> sequenceBits;
+		long sequence = next & sequenceMask;
+		// 只在每个逻辑毫秒的首个PK上检查，避免回拨期间刷屏
+		if (sequence == 0) {
+			long drift = timestamp - (System.currentTimeMillis() - EPOCH);
+			if (drift > DRIFT_WARN_MILLIS) {
+				LogUtil.warn(log, CLOCK_BACKWARDS_MSG, drift);
+			}
+		}
+		return (timestamp << timestampShift) | nodePart | sequence;
+	}
+
+	/**
+	 * 从PK中解析出生成时的时间（毫秒）
+	 *
+	 * @param pk
+	 *            由本生成器生成的PK
+	 * @return 生成该PK时的逻辑时间（毫秒）
+	 */
+	public long extractTimeMillis(long pk) {
+		return (pk >>> timestampShift) + EPOCH;
+	}
+}
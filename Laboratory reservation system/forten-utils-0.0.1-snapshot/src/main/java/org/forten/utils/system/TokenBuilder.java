@@ -15,15 +15,47 @@
  */
 package org.forten.utils.system;
 
-import org.forten.utils.security.MD5Util;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 
 /**
- * 
+ * 随机令牌生成器
+ * <p>
+ * 每个线程持有一个独立的SHA1PRNG随机数生成器（由共享的SecureRandom播种）以及可重用的缓冲区，
+ * 生成令牌时线程之间没有任何锁竞争。令牌使用URL安全的Base64字母表（A-Z a-z 0-9 - _），
+ * 每个字符携带6位随机信息，可以直接用在URL、Cookie和表单中。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2012-10-22
  */
 public final class TokenBuilder {
+	private static final String LENGTH_MSG = "令牌长度必须在1-%d之间，而输入的参数值是%d";
+	private static final String BUFFER_MSG = "目标缓冲区从offset[%d]开始放不下长度为%d的令牌";
+
+	/**
+	 * 默认令牌长度，32个字符即192位随机信息
+	 */
+	public static final int DEFAULT_TOKEN_LENGTH = 32;
+
+	/**
+	 * 令牌最大长度
+	 */
+	public static final int MAX_TOKEN_LENGTH = 1024;
+
+	private static final char[] URL_SAFE_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+			.toCharArray();
+
+	// 只用来为各线程的生成器播种
+	private static final SecureRandom SEEDER = new SecureRandom();
+
+	private static final ThreadLocal<TokenSource> SOURCE = new ThreadLocal<TokenSource>() {
+		@Override
+		protected TokenSource initialValue() {
+			return new TokenSource();
+		}
+	};
+
 	private volatile static TokenBuilder instance;
 
 	private TokenBuilder() {
@@ -41,9 +73,89 @@ public final class TokenBuilder {
 		return instance;
 	}
 
+	/**
+	 * 生成默认长度的令牌
+	 * 
+	 * @return 长度为{@link #DEFAULT_TOKEN_LENGTH}的令牌
+	 */
 	public String getToken() {
-		Long currentTime = CurrentTimeKeyBuilder.getInstance().nextPK();
-		String token = MD5Util.encrypt(currentTime.toString().getBytes());
-		return token;
+		return getToken(DEFAULT_TOKEN_LENGTH);
+	}
+
+	/**
+	 * 生成指定长度的令牌
+	 * 
+	 * @param length
+	 *            令牌字符数，范围1-{@link #MAX_TOKEN_LENGTH}
+	 * @return 令牌
+	 */
+	public String getToken(int length) {
+		checkLength(length);
+		TokenSource source = SOURCE.get();
+		source.fill(source.chars, 0, length);
+		return new String(source.chars, 0, length);
+	}
+
+	/**
+	 * 把令牌直接写入调用者提供的缓冲区，不创建任何对象
+	 * 
+	 * @param dest
+	 *            目标缓冲区
+	 * @param offset
+	 *            写入的起始位置
+	 * @param length
+	 *            令牌字符数，范围1-{@link #MAX_TOKEN_LENGTH}
+	 */
+	public void nextToken(char[] dest, int offset, int length) {
+		Assert.notNull(dest);
+		checkLength(length);
+		// 只在抛出异常时才格式化消息，正常调用不创建对象
+		if (offset < 0 || dest.length - offset < length) {
+			throw new IllegalArgumentException(String.format(BUFFER_MSG,
+					offset, length));
+		}
+		SOURCE.get().fill(dest, offset, length);
+	}
+
+	private static void checkLength(int length) {
+		if (length < 1 || length > MAX_TOKEN_LENGTH) {
+			throw new IllegalArgumentException(String.format(LENGTH_MSG,
+					MAX_TOKEN_LENGTH, length));
+		}
+	}
+
+	/*
+	 * 线程私有的随机源与缓冲区
+	 */
+	private static final class TokenSource {
+		private final SecureRandom random;
+		// 随机字节池，用完后整体重新填充，摊薄每次调用SecureRandom的开销
+		private final byte[] pool = new byte[256];
+		private int position = pool.length;
+		private final char[] chars = new char[MAX_TOKEN_LENGTH];
+
+		TokenSource() {
+			SecureRandom r;
+			try {
+				r = SecureRandom.getInstance("SHA1PRNG");
+			} catch (NoSuchAlgorithmException e) {
+				r = new SecureRandom();
+			}
+			byte[] seed = new byte[32];
+			SEEDER.nextBytes(seed);
+			r.setSeed(seed);
+			this.random = r;
+		}
+
+		void fill(char[] dest, int offset, int length) {
+			// 只取随机字节的低6位，64能整除256，所以每个字符的分布是均匀的
+			for (int i = 0; i < length; i++) {
+				if (position == pool.length) {
+					random.nextBytes(pool);
+					position = 0;
+				}
+				dest[offset + i] = URL_SAFE_ALPHABET[pool[position++] & 0x3F];
+			}
+		}
 	}
 }
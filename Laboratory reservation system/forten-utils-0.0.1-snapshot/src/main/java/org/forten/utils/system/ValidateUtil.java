@@ -16,34 +16,106 @@
 package org.forten.utils.system;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
 
+import org.apache.log4j.Logger;
 import org.forten.utils.collection.CollectionUtil;
+import org.hibernate.validator.HibernateValidator;
 
 /**
  * Bean格式校验工具类，依赖于Hibernate Validator框架。
+ * <p>
+ * 校验器工厂在第一次使用时创建并在全局共享，直到调用{@link #close()}；
+ * 每个类是否带有约束的判断结果被缓存，不带约束的Bean直接跳过校验。
+ * 可以在系统启动时调用{@link #warmUp(Class...)}预先加载常用类的约束元数据，避免首次请求时的解析开销。
+ * 快速失败模式（failFast）在遇到第一个校验失败时即停止校验。
+ * </p>
  * 
  * @author <a href="mailto:du_yi@bbn.cn">Duyi</a>
  * @since 2014-1-22
  */
 public class ValidateUtil {
+	private static Logger log = Logger.getLogger(ValidateUtil.class);
+
+	private static final String BEAN_NOT_NULL_MSG = "待校验的Bean不能为null";
+	private static final String WARM_UP_MSG = "已预先加载%d个类的校验元数据，其中%d个类带有约束";
+	private static final String CLOSE_MSG = "校验器工厂已关闭";
+
+	private static volatile Validators validators;
+
 	// 私有构造器
 	private ValidateUtil() {
 
 	}
 
 	/**
-	 * 获得校验器
+	 * 获得校验器，该校验器是线程安全的，全局共享同一个实例
 	 * 
 	 * @return 校验器
 	 */
 	public static Validator getValidator() {
-		return Validation.buildDefaultValidatorFactory().getValidator();
+		return getValidators().validator;
+	}
+
+	/**
+	 * 获得快速失败模式的校验器，遇到第一个校验失败时即停止校验
+	 * 
+	 * @return 快速失败模式的校验器
+	 */
+	public static Validator getFailFastValidator() {
+		return getValidators().failFastValidator;
+	}
+
+	/**
+	 * 预先加载类的约束元数据，通常在系统启动时调用
+	 * 
+	 * @param classes
+	 *            需要校验的Bean的类型
+	 */
+	public static void warmUp(Class<?>... classes) {
+		Validators v = getValidators();
+		int constrained = 0;
+		for (Class<?> clazz : classes) {
+			if (v.isConstrained(clazz)) {
+				// 两个工厂各自缓存元数据
+				v.failFastValidator.getConstraintsForClass(clazz);
+				constrained++;
+			}
+		}
+		LogUtil.debug(log, WARM_UP_MSG, classes.length, constrained);
+	}
+
+	/**
+	 * 判断该类型的Bean是否需要校验（自身或属性上带有约束，或有需要级联校验的属性）
+	 * 
+	 * @param clazz
+	 *            Bean的类型
+	 * @return 需要校验则返回<code>true</code>
+	 */
+	public static boolean isConstrained(Class<?> clazz) {
+		return getValidators().isConstrained(clazz);
+	}
+
+	/**
+	 * 关闭校验器工厂并清除缓存的元数据，通常在系统停止时调用；关闭后再次校验会重新创建校验器工厂
+	 */
+	public static synchronized void close() {
+		Validators v = validators;
+		if (v != null) {
+			validators = null;
+			v.factory.close();
+			v.failFastFactory.close();
+			LogUtil.debug(log, CLOSE_MSG);
+		}
 	}
 
 	/**
@@ -54,7 +126,20 @@ public class ValidateUtil {
 	 * @return 返回校验后的消息List，如果校验全部成功则返回一个空的String列表
 	 */
 	public static <T> List<String> validate(T bean) {
-		Set<ConstraintViolation<T>> cvSet = getValidator().validate(bean);
+		return validate(bean, false);
+	}
+
+	/**
+	 * 校验Bean中的数据，返回校验失败的消息列表
+	 * 
+	 * @param bean
+	 *            待校验的Bean
+	 * @param failFast
+	 *            是否使用快速失败模式，为<code>true</code>时最多返回一条消息
+	 * @return 返回校验后的消息List，如果校验全部成功则返回一个空的String列表
+	 */
+	public static <T> List<String> validate(T bean, boolean failFast) {
+		Set<ConstraintViolation<T>> cvSet = doValidate(bean, failFast);
 		List<String> msgList = new ArrayList<String>();
 		if (!CollectionUtil.isEmpty(cvSet)) {
 			for (ConstraintViolation<T> cv : cvSet) {
@@ -74,13 +159,78 @@ public class ValidateUtil {
 	 *             可以把带有校验失败信息的字符串装入这个List
 	 */
 	public static <T> void validateThrow(T bean) throws ValidateException {
-		Set<ConstraintViolation<T>> cvSet = getValidator().validate(bean);
-		List<String> msgList = new ArrayList<String>();
-		if (!CollectionUtil.isEmpty(cvSet)) {
-			for (ConstraintViolation<T> cv : cvSet) {
-				msgList.add(cv.getMessage());
-			}
+		validateThrow(bean, false);
+	}
+
+	/**
+	 * 校验Bean中的数据，如果出现校验失败，则抛出异常
+	 * 
+	 * @param bean
+	 *            待校验的Bean
+	 * @param failFast
+	 *            是否使用快速失败模式，为<code>true</code>时异常中只有一条消息
+	 * @throws ValidateException
+	 *             如果出现校验失败，则抛出该异常，此异常中的messages是一个字符串List，
+	 *             可以把带有校验失败信息的字符串装入这个List
+	 */
+	public static <T> void validateThrow(T bean, boolean failFast)
+			throws ValidateException {
+		List<String> msgList = validate(bean, failFast);
+		if (!msgList.isEmpty()) {
 			throw new ValidateException(msgList);
 		}
 	}
+
+	private static <T> Set<ConstraintViolation<T>> doValidate(T bean,
+			boolean failFast) {
+		Assert.notNull(bean, BEAN_NOT_NULL_MSG);
+		Validators v = getValidators();
+		if (!v.isConstrained(bean.getClass())) {
+			return Collections.emptySet();
+		}
+		return (failFast ? v.failFastValidator : v.validator).validate(bean);
+	}
+
+	private static Validators getValidators() {
+		Validators v = validators;
+		if (v == null) {
+			synchronized (ValidateUtil.class) {
+				v = validators;
+				if (v == null) {
+					v = new Validators();
+					validators = v;
+				}
+			}
+		}
+		return v;
+	}
+
+	/**
+	 * 共享的校验器工厂、校验器以及每个类是否带有约束的缓存
+	 */
+	private static final class Validators {
+		final ValidatorFactory factory;
+		final ValidatorFactory failFastFactory;
+		final Validator validator;
+		final Validator failFastValidator;
+		final ConcurrentMap<Class<?>, Boolean> constrainedMap = new ConcurrentHashMap<Class<?>, Boolean>();
+
+		Validators() {
+			factory = Validation.buildDefaultValidatorFactory();
+			failFastFactory = Validation.byProvider(HibernateValidator.class)
+					.configure().failFast(true).buildValidatorFactory();
+			validator = factory.getValidator();
+			failFastValidator = failFastFactory.getValidator();
+		}
+
+		boolean isConstrained(Class<?> clazz) {
+			Boolean constrained = constrainedMap.get(clazz);
+			if (constrained == null) {
+				constrained = validator.getConstraintsForClass(clazz)
+						.isBeanConstrained();
+				constrainedMap.putIfAbsent(clazz, constrained);
+			}
+			return constrained;
+		}
+	}
 }
@@ -16,9 +16,17 @@
 package org.forten.utils.common;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -83,4 +91,116 @@ public class DateUtilTest {
 		assertEquals(after.toString(),
 				DateUtil.calculateDate(date, 1, Calendar.YEAR).toString());
 	}
-}
+
+	@Test
+	public void testConvertDateToStringWithPattern() throws Exception {
+		Date date = DateUtil.getCommonTime(2012, 1, 2, 15, 22, 30);
+		assertEquals("2012年01月02日", DateUtil.convertDateToString(date,
+				"yyyy年MM月dd日"));
+		assertEquals("2012年01月02日 15:22:30", DateUtil.convertDateToString(
+				date, "yyyy年MM月dd日 HH:mm:ss"));
+		assertEquals("2012-01-02", DateUtil.convertDateToString(date,
+				DateUtil.DATE_PATTERN));
+		assertEquals("15:22:30", DateUtil.convertDateToString(date,
+				DateUtil.TIME_PATTERN));
+		// java.sql的日期子类
+		assertEquals("2012-01-02", DateUtil.convertDateToString(
+				new java.sql.Date(date.getTime()), DateUtil.DATE_PATTERN));
+		assertEquals("2012/01/02", DateUtil.convertDateToString(
+				new java.sql.Date(date.getTime()), "yyyy/MM/dd"));
+	}
+
+	@Test
+	public void testConvertDateToStringWithZone() throws Exception {
+		// 时区字段与SimpleDateFormat的结果一致
+		Date date = DateUtil.getCommonTime(2012, 1, 2, 15, 22, 30);
+		String zonePattern = "yyyy-MM-dd HH:mm:ss Z";
+		assertEquals(new SimpleDateFormat(zonePattern).format(date),
+				DateUtil.convertDateToString(date, zonePattern));
+		String zoneNamePattern = "yyyy-MM-dd HH:mm:ss zzz";
+		assertEquals(new SimpleDateFormat(zoneNamePattern).format(date),
+				DateUtil.convertDateToString(date, zoneNamePattern));
+		assertEquals(new SimpleDateFormat(zonePattern).format(date),
+				DateUtil.convertDateToString(new java.sql.Date(date.getTime()),
+						zonePattern));
+	}
+
+	@Test
+	public void testConvertStringToDateWithZone() throws Exception {
+		// 带时区或偏移量的字符串按其中的时区换算，与SimpleDateFormat的结果一致
+		assertEquals(1577836800000L, DateUtil.convertStringToDate(
+				"2020-01-01 00:00:00 +0000", "yyyy-MM-dd HH:mm:ss Z").getTime());
+		String[][] cases = { { "2020-01-01 00:00:00 +0000", "yyyy-MM-dd HH:mm:ss Z" },
+				{ "2020-01-01 08:30:00 -05:00", "yyyy-MM-dd HH:mm:ss XXX" },
+				{ "2020-07-01 12:00:00 GMT", "yyyy-MM-dd HH:mm:ss z" } };
+		for (String[] c : cases) {
+			Date expected = new SimpleDateFormat(c[1]).parse(c[0]);
+			assertEquals(expected, DateUtil.convertStringToDate(c[0], c[1]));
+			assertEquals(LocalDateTime.ofInstant(expected.toInstant(),
+					ZoneId.systemDefault()), DateUtil
+					.convertStringToLocalDateTime(c[0], c[1]));
+		}
+		// 超出范围的字段不像SimpleDateFormat那样进位
+		assertNull(DateUtil.convertStringToDate("2012/13/01", "yyyy/MM/dd"));
+	}
+
+	@Test
+	public void testFastPathSameAsSimpleDateFormat() throws Exception {
+		// DATETIME_PATTERN与DATE_PATTERN的直接计算结果必须与SimpleDateFormat一致
+		SimpleDateFormat dateTimeFormat = new SimpleDateFormat(
+				DateUtil.DATETIME_PATTERN);
+		SimpleDateFormat dateFormat = new SimpleDateFormat(
+				DateUtil.DATE_PATTERN);
+		Random random = new Random(20120507L);
+		long min = DateUtil.getCommonTime(1900, 1, 1).getTime();
+		long max = DateUtil.getCommonTime(2100, 1, 1).getTime();
+		for (int i = 0; i < 10000; i++) {
+			Date date = new Date(min + (long) (random.nextDouble() * (max - min)));
+			assertEquals(dateTimeFormat.format(date),
+					DateUtil.convertDateToString(date));
+			assertEquals(dateFormat.format(date), DateUtil.convertDateToString(
+					date, DateUtil.DATE_PATTERN));
+		}
+	}
+
+	@Test
+	public void testConvertStringToDateWithPattern() throws Exception {
+		Date date = DateUtil.getCommonTime(2012, 1, 2);
+		assertEquals(date.getTime() / 1000, DateUtil.convertStringToDate(
+				"2012-01-02", DateUtil.DATE_PATTERN).getTime() / 1000);
+		assertEquals(date.getTime() / 1000, DateUtil.convertStringToDate(
+				"2012年01月02日", "yyyy年MM月dd日").getTime() / 1000);
+		// 格式不符时返回null
+		assertNull(DateUtil.convertStringToDate("2012/01/02 00:00:00"));
+		assertNull(DateUtil.convertStringToDate("2012-02-30",
+				DateUtil.DATE_PATTERN));
+	}
+
+	@Test
+	public void testLocalDateTime() throws Exception {
+		LocalDateTime dateTime = LocalDateTime.of(2012, 1, 2, 15, 22, 30);
+		assertEquals("2012-01-02 15:22:30",
+				DateUtil.convertDateToString(dateTime));
+		assertEquals("2012年01月02日", DateUtil.convertDateToString(
+				dateTime.toLocalDate(), "yyyy年MM月dd日"));
+		assertEquals(dateTime, DateUtil.convertStringToLocalDateTime(
+				"2012-01-02 15:22:30", DateUtil.DATETIME_PATTERN));
+		assertEquals(LocalDate.of(2012, 1, 2), DateUtil.convertStringToLocalDate(
+				"2012年01月02日", "yyyy年MM月dd日"));
+		assertEquals(LocalDateTime.of(1970, 1, 1, 15, 22, 30),
+				DateUtil.convertStringToLocalDateTime("15:22:30",
+						DateUtil.TIME_PATTERN));
+	}
+
+	@Test
+	public void testGetFormatter() throws Exception {
+		// 同一样式只创建一个DateTimeFormatter
+		assertSame(DateUtil.getFormatter("yyyy年MM月dd日"),
+				DateUtil.getFormatter("yyyy年MM月dd日"));
+		try {
+			DateUtil.getFormatter("yyyy-MM-dd{");
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
\ No newline at end of file
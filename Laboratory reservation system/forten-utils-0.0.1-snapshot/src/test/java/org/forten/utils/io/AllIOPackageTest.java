@@ -26,7 +26,7 @@ import org.junit.runners.Suite.SuiteClasses;
  * @since 1.0
  */
 @RunWith(Suite.class)
-@SuiteClasses({ SerializationUtilTest.class })
+@SuiteClasses({ SerializationUtilTest.class, SchemaCodecTest.class })
 public class AllIOPackageTest {
 
 }
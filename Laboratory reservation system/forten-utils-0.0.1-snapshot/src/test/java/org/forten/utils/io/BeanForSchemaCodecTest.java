@@ -0,0 +1,45 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.io;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * 为进行SchemaCodec单元测试而定义的Bean，包含SchemaCodec支持的各种属性类型
+ */
+public class BeanForSchemaCodecTest extends BeanForSerializationUtilTest {
+	private static final long serialVersionUID = -2930581473366016178L;
+
+	static enum Level {
+		LOW, HIGH
+	}
+
+	long pk;
+	boolean enabled;
+	byte b;
+	short s;
+	char c;
+	float f;
+	double d;
+	String text;
+	Date date;
+	Timestamp timestamp;
+	Level level;
+	Integer boxedInt;
+	Long boxedLong;
+	transient String ignored;
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.Test;
+
+/**
+ * SchemaCodec单元测试
+ */
+public class SchemaCodecTest {
+	private SchemaCodec codec = new SchemaCodec();
+
+	@Test
+	public void testSupports() {
+		// 简单值对象
+		assertTrue(codec.supports(BeanForSerializationUtilTest.class));
+		assertTrue(codec.supports(BeanForSchemaCodecTest.class));
+		// JDK类、集合、没有无参构造方法的类
+		assertFalse(codec.supports(String.class));
+		assertFalse(codec.supports(ArrayList.class));
+		assertFalse(codec.supports(Integer.class));
+		assertFalse(codec.supports(NoDefaultConstructor.class));
+		// 没有实现Serializable的类
+		assertFalse(codec.supports(NotSerializable.class));
+	}
+
+	@Test
+	public void testDecodeNotSerializable() {
+		// 字节流中的类没有实现Serializable时不实例化，直接拒绝
+		String className = NotSerializable.class.getName();
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		buffer.put(SchemaCodec.MAGIC);
+		buffer.put(SchemaCodec.FORMAT_VERSION);
+		// 类名长度与字符都小于128，各占1个字节
+		buffer.put((byte) (className.length() + 1));
+		for (int i = 0; i < className.length(); i++) {
+			buffer.put((byte) className.charAt(i));
+		}
+		buffer.putInt(0);
+		buffer.flip();
+		NotSerializable.created = false;
+		try {
+			codec.decode(buffer);
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+		assertFalse(NotSerializable.created);
+	}
+
+	@Test
+	public void testEncodeAndDecode() {
+		BeanForSchemaCodecTest bean = new BeanForSchemaCodecTest();
+		bean.setId(-7);
+		bean.setName("杜毅");
+		bean.pk = Long.MIN_VALUE;
+		bean.enabled = true;
+		bean.b = -1;
+		bean.s = Short.MAX_VALUE;
+		bean.c = '实';
+		bean.f = 1.5F;
+		bean.d = -0.25D;
+		bean.text = "实验室 A-101";
+		bean.date = new Date(1325376000000L);
+		bean.timestamp = new Timestamp(1325376000123L);
+		bean.timestamp.setNanos(123456789);
+		bean.level = BeanForSchemaCodecTest.Level.HIGH;
+		bean.boxedLong = 42L;
+		bean.ignored = "ignored";
+
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		codec.encode(bean, buffer);
+		buffer.flip();
+		assertTrue(codec.canDecode(buffer));
+		BeanForSchemaCodecTest result = (BeanForSchemaCodecTest) codec
+				.decode(buffer);
+		assertFalse(buffer.hasRemaining());
+
+		assertEquals(-7, result.getId());
+		assertEquals("杜毅", result.getName());
+		assertEquals(Long.MIN_VALUE, result.pk);
+		assertTrue(result.enabled);
+		assertEquals(-1, result.b);
+		assertEquals(Short.MAX_VALUE, result.s);
+		assertEquals('实', result.c);
+		assertEquals(1.5F, result.f, 0F);
+		assertEquals(-0.25D, result.d, 0D);
+		assertEquals("实验室 A-101", result.text);
+		assertEquals(Date.class, result.date.getClass());
+		assertEquals(bean.date, result.date);
+		assertEquals(bean.timestamp, result.timestamp);
+		assertEquals(BeanForSchemaCodecTest.Level.HIGH, result.level);
+		assertNull(result.boxedInt);
+		assertEquals(Long.valueOf(42L), result.boxedLong);
+		// transient属性不被编码
+		assertNull(result.ignored);
+	}
+
+	@Test
+	public void testBufferOverflow() {
+		// 缓冲区不足时抛出BufferOverflowException，由调用者扩容重试
+		try {
+			codec.encode(new BeanForSerializationUtilTest(1, "Duyi"),
+					ByteBuffer.allocate(8));
+			fail("未捕获到应抛出的Exception");
+		} catch (BufferOverflowException e) {
+		}
+	}
+
+	@Test
+	public void testDecodeTruncated() {
+		// 不完整的字节流
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		codec.encode(new BeanForSerializationUtilTest(1, "Duyi"), buffer);
+		buffer.flip();
+		buffer.limit(buffer.limit() - 2);
+		try {
+			codec.decode(buffer);
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testDecodeSchemaChanged() {
+		// 类结构指纹不一致的字节流被拒绝
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		codec.encode(new BeanForSerializationUtilTest(1, "Duyi"), buffer);
+		buffer.flip();
+		int fingerprintPos = 2 + 1 + BeanForSerializationUtilTest.class
+				.getName().length();
+		buffer.putInt(fingerprintPos, buffer.getInt(fingerprintPos) + 1);
+		try {
+			codec.decode(buffer);
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	static class NotSerializable {
+		static boolean created;
+		int id;
+
+		NotSerializable() {
+			created = true;
+		}
+	}
+
+	static class NoDefaultConstructor {
+		int id;
+
+		NoDefaultConstructor(int id) {
+			this.id = id;
+		}
+	}
+}
@@ -16,6 +16,15 @@
 package org.forten.utils.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -35,4 +44,83 @@ public class SerializationUtilTest {
 				.deserialize(byteArr);
 		assertEquals(bean, deserBean);
 	}
+
+	@Test
+	public void testSerializeSmallerThanJdk() throws Exception {
+		// 简单值对象使用SchemaCodec，结果比JDK序列化紧凑
+		BeanForSerializationUtilTest bean = new BeanForSerializationUtilTest(1,
+				"Duyi");
+		byte[] byteArr = SerializationUtil.serialize(bean);
+		assertEquals(SchemaCodec.MAGIC, byteArr[0]);
+		assertTrue(byteArr.length < jdkSerialize(bean).length);
+	}
+
+	@Test
+	public void testDeserializeJdkBytes() throws Exception {
+		// 旧版本产生的JDK序列化字节流仍然可以读取
+		BeanForSerializationUtilTest bean = new BeanForSerializationUtilTest(1,
+				"Duyi");
+		BeanForSerializationUtilTest deserBean = SerializationUtil
+				.deserialize(jdkSerialize(bean));
+		assertEquals(bean, deserBean);
+	}
+
+	@Test
+	public void testFallbackToJdk() throws Exception {
+		// SchemaCodec不支持的类型退回到JDK序列化
+		List<String> list = new ArrayList<String>(Arrays.asList("a", "b"));
+		byte[] byteArr = SerializationUtil.serialize(list);
+		assertEquals((byte) 0xAC, byteArr[0]);
+		List<String> deserList = SerializationUtil.deserialize(byteArr);
+		assertEquals(list, deserList);
+	}
+
+	@Test
+	public void testSerializeLargeObject() throws Exception {
+		// 超出线程缓冲区初始大小的对象
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			sb.append(i % 10);
+		}
+		BeanForSerializationUtilTest bean = new BeanForSerializationUtilTest(1,
+				sb.toString());
+		BeanForSerializationUtilTest deserBean = SerializationUtil
+				.deserialize(SerializationUtil.serialize(bean));
+		assertEquals(bean, deserBean);
+	}
+
+	@Test
+	public void testSerializeIntoBuffer() throws Exception {
+		// 写入调用者提供的缓冲区，可以连续写入多个对象
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		SerializationUtil.serialize(new BeanForSerializationUtilTest(1, "a"),
+				buffer);
+		SerializationUtil.serialize(new BeanForSerializationUtilTest(2, "b"),
+				buffer);
+		buffer.flip();
+		BeanForSerializationUtilTest first = SerializationUtil
+				.deserialize(buffer);
+		BeanForSerializationUtilTest second = SerializationUtil
+				.deserialize(buffer);
+		assertEquals(1, first.getId());
+		assertEquals(2, second.getId());
+	}
+
+	@Test
+	public void testSerializeNotSerializable() throws Exception {
+		// 两种编解码器都不支持的类型
+		try {
+			SerializationUtil.serialize(new Object());
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	private static byte[] jdkSerialize(Object object) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(object);
+		oos.flush();
+		return baos.toByteArray();
+	}
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ package org.forten.utils.security;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
 import org.junit.Test;
 
 /**
@@ -42,4 +45,23 @@ public class Base64UtilTest {
 		Base64Util.encode("中华人民共和国", "gbks");
 		fail("未捕获到应抛出的RuntimeException");
 	}
-}
+
+	@Test
+	public void testEncodeAndDecodeStream() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append("中华人民共和国").append(i);
+		}
+		String text = sb.toString();
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		Base64Util.encode(new ByteArrayInputStream(text.getBytes("UTF-8")),
+				encoded);
+		// 流式编码与字符串编码的结果一致
+		assertEquals(Base64Util.encode(text), encoded.toString("UTF-8"));
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		Base64Util.decode(new ByteArrayInputStream(encoded.toByteArray()),
+				decoded);
+		assertEquals(text, decoded.toString("UTF-8"));
+	}
+}
\ No newline at end of file
@@ -6,6 +6,9 @@ package org.forten.utils.security;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 
 /**
@@ -61,4 +64,59 @@ public class MD5UtilTest {
 		result = MD5Util.encrypt(str.getBytes(), true);
 		assertEquals(32, result.length());
 	}
-}
+
+	@Test
+	public void testEncryptKnownValue() throws Exception {
+		assertEquals("e10adc3949ba59abbe56e057f20f883e",
+				MD5Util.encrypt("123456"));
+		assertEquals("d41d8cd98f00b204e9800998ecf8427e",
+				MD5Util.encrypt("", true));
+	}
+
+	@Test
+	public void testEncryptUtf8() throws Exception {
+		// UTF-8文本直接编码的结果与先转为字节数组再计算的结果一致，包括增补字符和不成对的代理字符
+		String[] texts = { "中华人民共和国", "a\u00e9\u0800\uffff",
+				"\ud83d\ude00 smile", "lone \ud83d surrogate", "end\ud83d" };
+		for (String text : texts) {
+			assertEquals(MD5Util.encrypt(text.getBytes("UTF-8")),
+					MD5Util.encrypt(text));
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			sb.append("实验室");
+		}
+		String longText = sb.toString();
+		assertEquals(MD5Util.encrypt(longText.getBytes("UTF-8")),
+				MD5Util.encrypt(longText));
+		assertEquals(MD5Util.encrypt(longText.getBytes("GBK")),
+				MD5Util.encrypt(longText, "GBK"));
+	}
+
+	@Test
+	public void testEncryptStreamAndBuffer() throws Exception {
+		byte[] bytes = new byte[100000];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		String expected = MD5Util.encrypt(bytes);
+		assertEquals(expected,
+				MD5Util.encrypt(new ByteArrayInputStream(bytes)));
+		assertEquals(expected, MD5Util.encrypt(ByteBuffer.wrap(bytes)));
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes).flip();
+		assertEquals(expected, MD5Util.encrypt(direct));
+	}
+
+	@Test
+	// 写入调用者提供的字符数组，不覆盖范围外的内容
+	public void testEncryptIntoCharArray() throws Exception {
+		byte[] bytes = "x123456x".getBytes("UTF-8");
+		char[] dest = new char[MD5Util.HEX_LENGTH + 2];
+		MD5Util.encrypt(bytes, 1, 6, dest, 1);
+		assertEquals(0, dest[0]);
+		assertEquals("e10adc3949ba59abbe56e057f20f883e", new String(dest, 1,
+				MD5Util.HEX_LENGTH));
+		assertEquals(0, dest[dest.length - 1]);
+	}
+}
\ No newline at end of file
@@ -5,6 +5,10 @@ package org.forten.utils.security;
 
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 /**
@@ -73,4 +77,84 @@ public class TripletsDESUtilTest {
 		TripletsDESUtil.decrypt(key, "asdft");
 		fail("未捕获到应抛出的RuntimeException");
 	}
-}
+
+	@Test
+	public void testNonAsciiHexDigits() throws Exception {
+		// 全角数字、阿拉伯-印度数字等不是合法的16进制字符
+		String cipher = TripletsDESUtil.encrypt(key, "123456");
+		for (char digit : new char[] { '\uFF10', '\u0660' }) {
+			try {
+				TripletsDESUtil.decrypt(key, digit + cipher.substring(1));
+				fail("未捕获到应抛出的RuntimeException");
+			} catch (RuntimeException e) {
+				assertTrue(e.getCause() instanceof IllegalArgumentException);
+			}
+		}
+	}
+
+	@Test
+	public void testEncryptAllAndDecryptAll() throws Exception {
+		List<String> emails = Arrays.asList("student01@example.com", "",
+				null, "学生02@example.com");
+		List<String> enTexts = TripletsDESUtil.encryptAll(key, emails);
+		assertEquals(4, enTexts.size());
+		// 批量加密的结果与逐个加密相同
+		for (int i = 0; i < emails.size(); i++) {
+			assertEquals(TripletsDESUtil.encrypt(key, emails.get(i)),
+					enTexts.get(i));
+		}
+		List<String> deTexts = TripletsDESUtil.decryptAll(key, enTexts);
+		assertEquals(Arrays.asList("student01@example.com", "", "",
+				"学生02@example.com"), deTexts);
+	}
+
+	@Test
+	public void testEncryptBytesAndBuffer() throws Exception {
+		byte[] plain = "student01@example.com".getBytes("UTF-8");
+		byte[] cipher = TripletsDESUtil.encrypt(key, plain);
+		assertEquals(TripletsDESUtil.getEncryptedLength(plain.length),
+				cipher.length);
+		assertArrayEquals(plain, TripletsDESUtil.decrypt(key, cipher));
+
+		ByteBuffer out = ByteBuffer.allocateDirect(64);
+		int n = TripletsDESUtil.encrypt(key, ByteBuffer.wrap(plain), out);
+		assertEquals(cipher.length, n);
+		out.flip();
+		byte[] bufferCipher = new byte[n];
+		out.duplicate().get(bufferCipher);
+		assertArrayEquals(cipher, bufferCipher);
+
+		ByteBuffer decrypted = ByteBuffer.allocate(64);
+		n = TripletsDESUtil.decrypt(key, out, decrypted);
+		assertEquals(plain.length, n);
+		assertEquals("student01@example.com", new String(decrypted.array(), 0,
+				n, "UTF-8"));
+	}
+
+	@Test
+	public void testDecryptAfterError() throws Exception {
+		// 解密出错后缓存的解密器仍然可以继续使用
+		String enText = TripletsDESUtil.encrypt(key, "中华人民共和国");
+		try {
+			TripletsDESUtil.decrypt(key, enText.substring(0, 14));
+			fail("未捕获到应抛出的RuntimeException");
+		} catch (RuntimeException e) {
+		}
+		assertEquals("中华人民共和国", TripletsDESUtil.decrypt(key, enText));
+		// 小写的16进制密文
+		assertEquals("中华人民共和国",
+				TripletsDESUtil.decrypt(key, enText.toLowerCase()));
+	}
+
+	@Test
+	public void testKeyLength() throws Exception {
+		try {
+			TripletsDESUtil.encrypt("5A45615B3D22", "123456");
+			fail("未捕获到应抛出的RuntimeException");
+		} catch (RuntimeException e) {
+		}
+		String key16 = TripletsDESUtil.generateKey(16);
+		assertEquals("123456", TripletsDESUtil.decrypt(key16,
+				TripletsDESUtil.encrypt(key16, "123456")));
+	}
+}
\ No newline at end of file
@@ -5,6 +5,10 @@ package org.forten.utils.security;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
 import org.junit.Test;
 
 /**
@@ -41,4 +45,40 @@ public class UrlCodeUtilTest {
 		UrlCodeUtil.encode("中华人民共和国", "gbks");
 		fail("未捕获到应抛出的RuntimeException");
 	}
-}
+
+	@Test
+	public void testEncodeAndDecodeStream() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			sb.append("实验室 name=a&b*c-d_e.f~").append(i);
+		}
+		String text = sb.toString();
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		UrlCodeUtil.encode(new ByteArrayInputStream(text.getBytes("UTF-8")),
+				encoded);
+		// 流式编码与字符串编码的结果一致
+		assertEquals(UrlCodeUtil.encode(text), encoded.toString("UTF-8"));
+
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		UrlCodeUtil.decode(new ByteArrayInputStream(encoded.toByteArray()),
+				decoded);
+		assertEquals(text, decoded.toString("UTF-8"));
+	}
+
+	@Test
+	public void testDecodeIllegalStream() throws Exception {
+		// 不完整的%XX
+		try {
+			UrlCodeUtil.decode(new ByteArrayInputStream("abc%4".getBytes()),
+					new ByteArrayOutputStream());
+			fail("未捕获到应抛出的Exception");
+		} catch (IOException e) {
+		}
+		try {
+			UrlCodeUtil.decode(new ByteArrayInputStream("abc%4G".getBytes()),
+					new ByteArrayOutputStream());
+			fail("未捕获到应抛出的Exception");
+		} catch (IOException e) {
+		}
+	}
+}
\ No newline at end of file
@@ -26,7 +26,11 @@ import org.junit.runners.Suite.SuiteClasses;
  * @since 1.0
  */
 @RunWith(Suite.class)
-@SuiteClasses({ PropertiesFileReaderTest.class })
+@SuiteClasses({ BeanPropertyUtilTest.class, PropertiesFileReaderTest.class,
+		AsyncConsoleAppenderTest.class, LatencyHistogramTest.class,
+		LogUtilTest.class, SnowflakeKeyBuilderTest.class,
+		TokenBuilderTest.class,
+		ValidateUtilTest.class })
 public class AllSystemPackageTest {
 
 }
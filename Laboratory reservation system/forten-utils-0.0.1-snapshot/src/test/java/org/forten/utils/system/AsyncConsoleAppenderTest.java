@@ -0,0 +1,203 @@
+/*
+ * Copyright 2003-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 异步控制台Appender单元测试
+ */
+public class AsyncConsoleAppenderTest {
+	private AsyncConsoleAppender appender;
+	private Logger log;
+
+	@Before
+	public void setUp() {
+		appender = new AsyncConsoleAppender();
+		appender.setName("test");
+		appender.setLayout(new PatternLayout("%m%n"));
+	}
+
+	@After
+	public void tearDown() {
+		if (log != null) {
+			log.removeAllAppenders();
+		}
+		appender.close();
+	}
+
+	// 测试方法是并行执行的，每个方法使用各自的Logger，互不影响additivity
+	private void attach(String name) {
+		log = Logger.getLogger(getClass().getName() + "." + name);
+		log.setAdditivity(false);
+		log.addAppender(appender);
+	}
+
+	@Test
+	// 所有事件按记录顺序输出，关闭时缓冲区中的事件不会丢失
+	public void testAppendInOrder() throws Exception {
+		StringWriter writer = new StringWriter();
+		appender.activateOptions();
+		appender.setWriter(writer);
+		attach("inOrder");
+		for (int i = 0; i < 1000; i++) {
+			LogUtil.info(log, "第%d条", i);
+		}
+		appender.close();
+		String[] lines = writer.toString().split(System.lineSeparator());
+		assertEquals(1000, lines.length);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("第" + i + "条", lines[i]);
+		}
+		assertEquals(0, appender.getDroppedCount());
+	}
+
+	@Test
+	// 输出被阻塞时缓冲区写满后丢弃新事件，调用线程不被阻塞
+	public void testDropOnOverflow() throws Exception {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final StringWriter output = new StringWriter();
+		Writer writer = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				output.write(cbuf, off, len);
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		appender.setBufferSize(5);
+		appender.activateOptions();
+		appender.setWriter(writer);
+		attach("overflow");
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 100; i++) {
+			log.info("event" + i);
+		}
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		// 缓冲区大小取整为8，后台线程最多取走一批
+		assertTrue(appender.getDroppedCount() >= 100 - 8 * 2);
+		blocked.countDown();
+		appender.close();
+		String text = output.toString();
+		assertTrue(text.startsWith("event0"));
+		assertTrue(text.contains("日志缓冲区已满，丢弃了" + appender.getDroppedCount() + "条日志"));
+	}
+
+	@Test
+	// 每批事件只flush一次，而不是每条事件flush一次
+	public void testFlushPerBatch() throws Exception {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final AtomicInteger flushes = new AtomicInteger();
+		final StringWriter output = new StringWriter();
+		Writer writer = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				output.write(cbuf, off, len);
+			}
+
+			@Override
+			public void flush() {
+				flushes.incrementAndGet();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		appender.activateOptions();
+		appender.setWriter(writer);
+		attach("flushPerBatch");
+		for (int i = 0; i < 100; i++) {
+			log.info("event" + i);
+		}
+		blocked.countDown();
+		appender.close();
+		assertEquals(100, output.toString().split(System.lineSeparator()).length);
+		assertTrue(flushes.get() < 10);
+	}
+
+	@Test
+	// 后台线程没有按时结束时close()不关闭writer，由后台线程输出完剩余事件后关闭
+	public void testCloseAfterConsumerStops() throws Exception {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch closed = new CountDownLatch(1);
+		final StringWriter output = new StringWriter();
+		Writer writer = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				if (closed.getCount() == 0) {
+					throw new IOException("writer已关闭");
+				}
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				output.write(cbuf, off, len);
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+				closed.countDown();
+			}
+		};
+		appender.setFollow(true);
+		appender.activateOptions();
+		appender.setWriter(writer);
+		attach("closeAfterConsumer");
+		log.info("event0");
+		log.info("event1");
+		appender.close();
+		assertEquals(1, closed.getCount());
+		blocked.countDown();
+		assertTrue(closed.await(5, TimeUnit.SECONDS));
+		assertTrue(output.toString().contains("event1"));
+	}
+}
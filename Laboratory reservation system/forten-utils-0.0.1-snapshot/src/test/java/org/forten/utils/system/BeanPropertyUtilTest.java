@@ -0,0 +1,208 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Java Bean属性拷贝工具单元测试
+ */
+public class BeanPropertyUtilTest {
+	@Test
+	public void testCopy() throws Exception {
+		Date date = new Date();
+		Vo vo = new Vo(1L, "物理实验室", date, 30);
+		Entity entity = new Entity();
+		entity.setRemark("备注");
+		BeanPropertyUtil.copy(entity, vo);
+		// 目标对象中只读的id不拷贝，null值覆盖原值
+		assertEquals(0L, entity.getId());
+		assertEquals("物理实验室", entity.getName());
+		assertEquals(date, entity.getOrderTime());
+		assertEquals(Integer.valueOf(30), entity.getMaxNumber());
+		assertNull(entity.getRemark());
+	}
+
+	@Test
+	public void testCopyNotNull() throws Exception {
+		Vo vo = new Vo(1L, null, null, 30);
+		Entity entity = new Entity();
+		entity.setName("化学实验室");
+		entity.setRemark("备注");
+		BeanPropertyUtil.copyNotNull(entity, vo);
+		// 值为null的属性保持原值
+		assertEquals("化学实验室", entity.getName());
+		assertEquals("备注", entity.getRemark());
+		assertEquals(Integer.valueOf(30), entity.getMaxNumber());
+	}
+
+	@Test
+	public void testCopyWithProperties() throws Exception {
+		Vo vo = new Vo(1L, "物理实验室", new Date(), 30);
+		Entity entity = new Entity();
+		BeanPropertyUtil.copy(entity, vo, "name");
+		assertEquals("物理实验室", entity.getName());
+		assertNull(entity.getOrderTime());
+		assertNull(entity.getMaxNumber());
+		// 不能拷贝的属性
+		try {
+			BeanPropertyUtil.copy(entity, vo, "id");
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void testCopyPrimitive() throws Exception {
+		// 包装类型与基本类型之间可以互相拷贝，null值不拷贝到基本类型
+		Entity entity = new Entity();
+		Vo vo = new Vo(1L, "物理实验室", null, 0);
+		entity.setMaxNumber(20);
+		BeanPropertyUtil.copy(vo, entity);
+		assertEquals(20, vo.getMaxNumber());
+		entity.setMaxNumber(null);
+		BeanPropertyUtil.copy(vo, entity);
+		assertEquals(20, vo.getMaxNumber());
+	}
+
+	@Test
+	public void testCopyFromMap() throws Exception {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("name", "物理实验室");
+		map.put("remark", null);
+		Entity entity = new Entity();
+		entity.setRemark("备注");
+		BeanPropertyUtil.copyNotNull(entity, map);
+		assertEquals("物理实验室", entity.getName());
+		assertEquals("备注", entity.getRemark());
+	}
+
+	@Test
+	public void testCopyNull() throws Exception {
+		try {
+			BeanPropertyUtil.copy(new Entity(), null);
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	public static class Vo {
+		private long id;
+		private String name;
+		private Date orderTime;
+		private int maxNumber;
+		private String remark;
+
+		public Vo(long id, String name, Date orderTime, int maxNumber) {
+			this.id = id;
+			this.name = name;
+			this.orderTime = orderTime;
+			this.maxNumber = maxNumber;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Date getOrderTime() {
+			return orderTime;
+		}
+
+		public void setOrderTime(Date orderTime) {
+			this.orderTime = orderTime;
+		}
+
+		public int getMaxNumber() {
+			return maxNumber;
+		}
+
+		public void setMaxNumber(int maxNumber) {
+			this.maxNumber = maxNumber;
+		}
+
+		public String getRemark() {
+			return remark;
+		}
+
+		public void setRemark(String remark) {
+			this.remark = remark;
+		}
+	}
+
+	public static class Entity {
+		private long id;
+		private String name;
+		private Date orderTime;
+		private Integer maxNumber;
+		private String remark;
+
+		public long getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public Date getOrderTime() {
+			return orderTime;
+		}
+
+		public void setOrderTime(Date orderTime) {
+			this.orderTime = orderTime;
+		}
+
+		public Integer getMaxNumber() {
+			return maxNumber;
+		}
+
+		public void setMaxNumber(Integer maxNumber) {
+			this.maxNumber = maxNumber;
+		}
+
+		public String getRemark() {
+			return remark;
+		}
+
+		public void setRemark(String remark) {
+			this.remark = remark;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2003-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * 延迟直方图单元测试
+ */
+public class LatencyHistogramTest {
+	@Test
+	// 桶的上界与记录值之间的相对误差不超过2^(1-significantBits)
+	public void testRelativeError() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value < LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE; value = value * 3 + 1) {
+			long upper = histogram.highestEquivalentValue(histogram.indexOf(value));
+			assertTrue(upper >= value);
+			assertTrue((double) (upper - value) / value <= 1.0 / 64);
+		}
+	}
+
+	@Test
+	// 相邻的值落在相同或相邻的桶中，桶号随值单调不减
+	public void testIndexMonotonic() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram(1 << 20, 3);
+		int last = 0;
+		for (long value = 0; value <= 1 << 20; value++) {
+			int index = histogram.indexOf(value);
+			assertTrue(index == last || index == last + 1);
+			last = index;
+		}
+	}
+
+	@Test
+	public void testPercentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value * 1000);
+		}
+		assertEquals(10000, histogram.getCount());
+		assertEquals(10000000, histogram.getMax());
+		assertEquals(5000500.0, histogram.getMean(), 0.001);
+		long[] values = histogram.getValuesAtPercentiles(50, 99, 100);
+		assertEquals(5000000, values[0], 5000000 / 64);
+		assertEquals(9900000, values[1], 9900000 / 64);
+		assertEquals(10000000, values[2]);
+		assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+	}
+
+	@Test
+	// 超出最大可记录值的记录计入最后一个桶，最大值仍按原值统计
+	public void testOverflowAndReset() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram(1000, 7);
+		histogram.record(-5);
+		histogram.record(5000);
+		assertEquals(5000, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(5000, histogram.getValueAtPercentile(100));
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalArgument() throws Exception {
+		new LatencyHistogram(1000, 0);
+	}
+
+	@Test
+	// 多线程并发记录不丢失计数
+	public void testRecordConcurrently() throws Exception {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		final int threads = 8;
+		final int perThread = 100000;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < perThread; i++) {
+						histogram.record(i);
+					}
+					latch.countDown();
+				}
+			}.start();
+		}
+		latch.await();
+		assertEquals(threads * perThread, histogram.getCount());
+		assertEquals(perThread - 1, histogram.getMax());
+		assertEquals(perThread - 1, histogram.getValueAtPercentile(100));
+	}
+}
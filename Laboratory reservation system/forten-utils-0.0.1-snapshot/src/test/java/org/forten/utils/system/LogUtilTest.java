@@ -0,0 +1,129 @@
+/*
+ * Copyright 2003-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+/**
+ * 日志工具类单元测试
+ */
+public class LogUtilTest {
+	@Rule
+	public TestName testName = new TestName();
+	private final List<LoggingEvent> events = new ArrayList<LoggingEvent>();
+	private Logger log;
+
+	@Before
+	public void setUp() {
+		// 测试方法是并行执行的，每个方法使用各自的Logger
+		log = Logger.getLogger(LogUtilTest.class.getName() + "."
+				+ testName.getMethodName());
+		log.setAdditivity(false);
+		log.addAppender(new AppenderSkeleton() {
+			@Override
+			protected void append(LoggingEvent event) {
+				// 位置信息必须在记录日志的调用栈上提取
+				event.getLocationInformation();
+				events.add(event);
+			}
+
+			@Override
+			public boolean requiresLayout() {
+				return false;
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		log.removeAllAppenders();
+		log.setAdditivity(true);
+		log.setLevel(null);
+	}
+
+	@Test
+	// 级别未开启时不格式化，也不调用参数的toString
+	public void testDisabledLevelNotFormatted() throws Exception {
+		log.setLevel(Level.ERROR);
+		Counter counter = new Counter();
+		LogUtil.debug(log, "%s", counter);
+		LogUtil.info(log, "%s", counter);
+		LogUtil.warn(log, "%s", counter);
+		LogUtil.debug(log, () -> counter.toString());
+		assertEquals(0, counter.count);
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	// 带参数的消息在输出时才格式化，位置信息指向调用LogUtil的代码
+	public void testFormatDeferred() throws Exception {
+		log.setLevel(Level.DEBUG);
+		Counter counter = new Counter();
+		LogUtil.info(log, "计数%s，数字%d", counter, 42);
+		assertEquals(1, events.size());
+		assertEquals(0, counter.count);
+		LoggingEvent event = events.get(0);
+		assertFalse(event.getMessage() instanceof String);
+		assertEquals("计数counter，数字42", event.getRenderedMessage());
+		assertEquals(1, counter.count);
+		assertEquals(LogUtilTest.class.getName(), event.getLocationInformation().getClassName());
+	}
+
+	@Test
+	public void testLevelsAndThrowable() throws Exception {
+		log.setLevel(Level.WARN);
+		RuntimeException e = new RuntimeException("出错了");
+		LogUtil.warn(log, "无参数");
+		LogUtil.error(log, e, "异常%s", "A");
+		LogUtil.exception(log, e, "异常");
+		LogUtil.info(log, "不输出");
+		assertEquals(3, events.size());
+		assertEquals(Level.WARN, events.get(0).getLevel());
+		assertEquals("无参数", events.get(0).getMessage());
+		assertEquals("异常A", events.get(1).getRenderedMessage());
+		assertEquals(e, events.get(1).getThrowableInformation().getThrowable());
+		assertEquals(Level.ERROR, events.get(2).getLevel());
+	}
+
+	private static class Counter {
+		int count;
+
+		@Override
+		public String toString() {
+			count++;
+			return "counter";
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2003-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * Snowflake主键生成器单元测试
+ */
+public class SnowflakeKeyBuilderTest {
+	@Test
+	// 单线程下PK严格递增
+	public void testNextPKIncreasing() throws Exception {
+		SnowflakeKeyBuilder builder = SnowflakeKeyBuilder.getInstance(1);
+		long last = builder.nextPK();
+		for (int i = 0; i < 100000; i++) {
+			long pk = builder.nextPK();
+			assertTrue(pk > last);
+			last = pk;
+		}
+	}
+
+	@Test
+	// 多线程下PK不重复
+	public void testNextPKUniqueConcurrently() throws Exception {
+		final SnowflakeKeyBuilder builder = SnowflakeKeyBuilder.getInstance(2);
+		final Set<Long> pks = Collections
+				.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+		final int threads = 8;
+		final int perThread = 20000;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < perThread; i++) {
+						pks.add(builder.nextPK());
+					}
+					latch.countDown();
+				}
+			}.start();
+		}
+		latch.await();
+		assertEquals(threads * perThread, pks.size());
+	}
+
+	@Test
+	// 节点号写入PK中，时间可以从PK中解析出来
+	public void testLayout() throws Exception {
+		SnowflakeKeyBuilder builder = SnowflakeKeyBuilder.getInstance(5, 5, 7);
+		long before = System.currentTimeMillis();
+		long pk = builder.nextPK();
+		long after = System.currentTimeMillis();
+		assertEquals(5, (pk >>> 7) & 31);
+		long time = builder.extractTimeMillis(pk);
+		assertTrue(time >= before && time <= after + 1);
+		// 5+7位布局下生成的PK可以被JavaScript的Number无损表示
+		assertTrue(pk < (1L << 53));
+	}
+
+	@Test
+	// 相同参数返回同一个实例
+	public void testGetInstance() throws Exception {
+		assertSame(SnowflakeKeyBuilder.getInstance(3),
+				SnowflakeKeyBuilder.getInstance(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	// 节点号超出范围
+	public void testGetInstanceNodeIdOutOfRange() throws Exception {
+		SnowflakeKeyBuilder.getInstance(1024);
+		fail("未捕获到应抛出的Exception");
+	}
+}
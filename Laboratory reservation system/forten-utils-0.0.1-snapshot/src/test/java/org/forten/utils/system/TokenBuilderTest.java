@@ -0,0 +1,73 @@
+/*
+ * Copyright 2003-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * 随机令牌生成器单元测试
+ */
+public class TokenBuilderTest {
+	@Test
+	public void testGetToken() throws Exception {
+		Set<String> tokens = new HashSet<String>();
+		for (int i = 0; i < 10000; i++) {
+			String token = TokenBuilder.getInstance().getToken();
+			assertEquals(TokenBuilder.DEFAULT_TOKEN_LENGTH, token.length());
+			assertTrue(token.matches("[A-Za-z0-9_-]+"));
+			tokens.add(token);
+		}
+		assertEquals(10000, tokens.size());
+	}
+
+	@Test
+	public void testGetTokenWithLength() throws Exception {
+		assertEquals(1, TokenBuilder.getInstance().getToken(1).length());
+		assertEquals(300, TokenBuilder.getInstance().getToken(300).length());
+	}
+
+	@Test
+	// 写入调用者提供的缓冲区，不覆盖范围外的内容
+	public void testNextToken() throws Exception {
+		char[] buf = new char[10];
+		TokenBuilder.getInstance().nextToken(buf, 2, 6);
+		assertEquals(0, buf[0]);
+		assertEquals(0, buf[1]);
+		assertTrue(new String(buf, 2, 6).matches("[A-Za-z0-9_-]{6}"));
+		assertEquals(0, buf[8]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	// 长度超出范围
+	public void testGetTokenIllegalLength() throws Exception {
+		TokenBuilder.getInstance().getToken(0);
+		fail("未捕获到应抛出的Exception");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	// 缓冲区放不下令牌
+	public void testNextTokenBufferTooSmall() throws Exception {
+		TokenBuilder.getInstance().nextToken(new char[4], 2, 4);
+		fail("未捕获到应抛出的Exception");
+	}
+}
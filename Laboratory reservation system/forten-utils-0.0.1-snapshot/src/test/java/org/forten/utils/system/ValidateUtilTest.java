@@ -0,0 +1,106 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.NotBlank;
+import org.junit.Test;
+
+/**
+ * Bean格式校验工具类单元测试
+ */
+public class ValidateUtilTest {
+	@Test
+	public void testGetValidator() throws Exception {
+		// 校验器全局共享
+		assertSame(ValidateUtil.getValidator(), ValidateUtil.getValidator());
+		assertSame(ValidateUtil.getFailFastValidator(),
+				ValidateUtil.getFailFastValidator());
+	}
+
+	@Test
+	public void testValidate() throws Exception {
+		assertTrue(ValidateUtil.validate(new Bean("实验室名称")).isEmpty());
+		// 同一属性上的两个约束都不满足
+		List<String> msgList = ValidateUtil.validate(new Bean(""));
+		assertEquals(2, msgList.size());
+		assertTrue(msgList.contains("名称不能为空"));
+		assertTrue(msgList.contains("字符长度为4~12之间"));
+	}
+
+	@Test
+	public void testValidateFailFast() throws Exception {
+		// 快速失败模式只返回第一个校验失败的消息
+		assertEquals(1, ValidateUtil.validate(new Bean(""), true).size());
+		try {
+			ValidateUtil.validateThrow(new Bean(""), true);
+			fail("未捕获到应抛出的Exception");
+		} catch (ValidateException e) {
+			assertEquals(1, e.getMessages().size());
+		}
+	}
+
+	@Test
+	public void testValidateThrow() throws Exception {
+		ValidateUtil.validateThrow(new Bean("实验室名称"));
+		try {
+			ValidateUtil.validateThrow(new Bean("abc"));
+			fail("未捕获到应抛出的Exception");
+		} catch (ValidateException e) {
+			assertEquals("字符长度为4~12之间", e.getMessages().get(0));
+		}
+	}
+
+	@Test
+	public void testIsConstrained() throws Exception {
+		ValidateUtil.warmUp(Bean.class, String.class, Long[].class);
+		assertTrue(ValidateUtil.isConstrained(Bean.class));
+		assertFalse(ValidateUtil.isConstrained(String.class));
+		// 不带约束的Bean直接通过校验
+		assertTrue(ValidateUtil.validate(Long.valueOf(1)).isEmpty());
+	}
+
+	@Test
+	public void testValidateNull() throws Exception {
+		try {
+			ValidateUtil.validate(null);
+			fail("未捕获到应抛出的Exception");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	public static class Bean {
+		@NotBlank(message = "名称不能为空")
+		@Length(min = 4, max = 12, message = "字符长度为4~12之间")
+		private String name;
+
+		public Bean(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行全部（或命令行指定的）基准测试，输出机器可读的结果，并可与上一次的基线比较。
+ * <p>
+ * 用法：<code>java -cp target/benchmarks.jar org.forten.utils.BenchmarkRunner [JMH参数]</code>，
+ * JMH参数与直接运行benchmarks.jar时相同，例如用正则表达式只运行部分基准测试。
+ * 未指定-rf/-rff时，结果以JSON格式写入结果目录下的jmh-result.json；
+ * 同时写出以基准测试、参数和线程数为键、得分为值的jmh-baseline.properties，
+ * 保存下来即可作为下一次运行的基线。
+ * </p>
+ * <p>
+ * 支持的系统属性：
+ * <ul>
+ * <li>benchmark.resultDir：结果目录，默认为target/jmh</li>
+ * <li>benchmark.baseline：基线文件路径，指定后逐项比较，有任何一项退化超过阈值时以状态码1退出</li>
+ * <li>benchmark.threshold：允许的退化比例，默认为0.10，即10%</li>
+ * </ul>
+ * </p>
+ */
+public final class BenchmarkRunner {
+	private static final String RESULT_FILE = "jmh-result.json";
+	private static final String BASELINE_FILE = "jmh-baseline.properties";
+	private static final double DEFAULT_THRESHOLD = 0.10;
+
+	private static final String REGRESSION_MSG = "[退化] %s：基线%.3f，本次%.3f %s（%+.1f%%）%n";
+	private static final String MISSING_MSG = "[缺失] 基线中没有%s，跳过比较%n";
+	private static final String SUMMARY_MSG = "与基线%s比较了%d项，%d项退化超过%.0f%%%n";
+
+	private BenchmarkRunner() {
+
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException,
+			RunnerException, IOException {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		File resultDir = new File(System.getProperty("benchmark.resultDir",
+				"target/jmh"));
+		if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+			throw new IOException("无法创建结果目录：" + resultDir);
+		}
+
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(cmd);
+		if (!cmd.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmd.getResult().hasValue()) {
+			builder.result(new File(resultDir, RESULT_FILE).getPath());
+		}
+		Collection<RunResult> results = new Runner(builder.build()).run();
+
+		Properties current = toProperties(results);
+		store(current, new File(resultDir, BASELINE_FILE));
+
+		String baselinePath = System.getProperty("benchmark.baseline");
+		if (baselinePath != null) {
+			double threshold = Double.parseDouble(System.getProperty(
+					"benchmark.threshold", String.valueOf(DEFAULT_THRESHOLD)));
+			if (compare(results, load(new File(baselinePath)), threshold,
+					baselinePath) > 0) {
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * 生成基准测试结果的唯一键：基准测试方法全名、参数（按名称排序）和线程数
+	 * 
+	 * @param params
+	 *            基准测试参数
+	 * @return 结果键
+	 */
+	static String keyOf(BenchmarkParams params) {
+		StringBuilder sb = new StringBuilder(params.getBenchmark());
+		for (String name : new TreeSet<String>(params.getParamsKeys())) {
+			sb.append(';').append(name).append('=')
+					.append(params.getParam(name));
+		}
+		sb.append(";threads=").append(params.getThreads());
+		return sb.toString();
+	}
+
+	private static Properties toProperties(Collection<RunResult> results) {
+		Properties properties = new Properties();
+		for (RunResult result : results) {
+			properties.setProperty(keyOf(result.getParams()),
+					String.valueOf(result.getPrimaryResult().getScore()));
+		}
+		return properties;
+	}
+
+	// 返回退化超过阈值的项数
+	private static int compare(Collection<RunResult> results,
+			Properties baseline, double threshold, String baselinePath) {
+		List<String> regressions = new ArrayList<String>();
+		int compared = 0;
+		for (RunResult result : results) {
+			String key = keyOf(result.getParams());
+			String value = baseline.getProperty(key);
+			if (value == null) {
+				System.out.printf(MISSING_MSG, key);
+				continue;
+			}
+			compared++;
+			double before = Double.parseDouble(value);
+			double after = result.getPrimaryResult().getScore();
+			if (before <= 0) {
+				continue;
+			}
+			double change = (after - before) / before;
+			// 吞吐量越高越好，其余模式（平均耗时、采样耗时等）越低越好
+			boolean higherIsBetter = result.getParams().getMode() == Mode.Throughput;
+			double regression = higherIsBetter ? -change : change;
+			if (regression > threshold) {
+				regressions.add(key);
+				System.out.printf(REGRESSION_MSG, key, before, after, result
+						.getPrimaryResult().getScoreUnit(), change * 100);
+			}
+		}
+		System.out.printf(SUMMARY_MSG, baselinePath, compared,
+				regressions.size(), threshold * 100);
+		return regressions.size();
+	}
+
+	private static Properties load(File file) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return properties;
+	}
+
+	private static void store(Properties properties, File file)
+			throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, "forten-utils benchmark baseline");
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.collection;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 数组排重基准测试。
+ * <p>
+ * 数组中约一半元素重复，size覆盖从单页查询结果到整个学期预约记录的规模，
+ * 用来观察耗时是否随数组长度线性增长。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayUtilBenchmark {
+	@Param({ "16", "1024", "65536" })
+	private int size;
+
+	private Long[] ids;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(20121022L);
+		ids = new Long[size];
+		for (int i = 0; i < size; i++) {
+			ids[i] = Long.valueOf(random.nextInt(size / 2 + 1));
+		}
+	}
+
+	@Benchmark
+	public Object[] getWithoutDuplicatesArray() {
+		return ArrayUtil.getWithoutDuplicatesArray(ids);
+	}
+
+	@Benchmark
+	public Long[] getWithoutDuplicatesTypedArray() {
+		return ArrayUtil.getWithoutDuplicatesArray(Long.class, ids);
+	}
+}
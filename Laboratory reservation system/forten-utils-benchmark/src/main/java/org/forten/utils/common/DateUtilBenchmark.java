@@ -0,0 +1,95 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.common;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 日期格式化与解析基准测试。
+ * <p>
+ * legacy组复现了原先每次调用都创建SimpleDateFormat的实现，作为对照；
+ * 中文格式与LaboratoryVo、NotebookVo中使用的格式相同；
+ * maxThreads组测量全部CPU核心同时读取共享DateTimeFormatter缓存时的耗时。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateUtilBenchmark {
+	private static final String CHINESE_DATETIME_PATTERN = "yyyy年MM月dd日 HH:mm:ss";
+
+	private final Date date = DateUtil.getCommonTime(2012, 5, 7, 15, 22, 30);
+	private final String dateTimeStr = "2012-05-07 15:22:30";
+
+	@Benchmark
+	public String formatDateTime() {
+		return DateUtil.convertDateToString(date);
+	}
+
+	@Benchmark
+	public String formatDate() {
+		return DateUtil.convertDateToString(date, DateUtil.DATE_PATTERN);
+	}
+
+	@Benchmark
+	public String formatChinese() {
+		return DateUtil.convertDateToString(date, CHINESE_DATETIME_PATTERN);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String formatChinese_maxThreads() {
+		return DateUtil.convertDateToString(date, CHINESE_DATETIME_PATTERN);
+	}
+
+	@Benchmark
+	public Date parseDateTime() {
+		return DateUtil.convertStringToDate(dateTimeStr);
+	}
+
+	@Benchmark
+	public String legacy_formatDateTime() {
+		return new SimpleDateFormat(DateUtil.DATETIME_PATTERN).format(date);
+	}
+
+	@Benchmark
+	public String legacy_formatChinese() {
+		return new SimpleDateFormat(CHINESE_DATETIME_PATTERN).format(date);
+	}
+
+	@Benchmark
+	public Date legacy_parseDateTime() throws ParseException {
+		return new SimpleDateFormat(DateUtil.DATETIME_PATTERN)
+				.parse(dateTimeStr);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 字符串工具基准测试。
+ * <p>
+ * 覆盖BO中校验查询条件的hasLength、hasText，以及拼接、替换和正则匹配等较重的方法；
+ * isMatch每次调用都重新编译正则表达式，precompiled组给出预编译Pattern时的耗时作为对照。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringUtilBenchmark {
+	private static final String EMAIL_PATTERN = "^[\\w.-]+@[\\w-]+(\\.[\\w-]+)+$";
+
+	private final String laboratoryName = "  计算机网络实验室 301  ";
+	private final String email = "student0001@example.com";
+	private final String address = "主楼 3层 301室 东侧 靠窗";
+	private final String[] names = { "student0001", "student0002",
+			"student0003", "student0004", "student0005", "student0001",
+			"student0006", "student0002" };
+	private final Pattern emailPattern = Pattern.compile(EMAIL_PATTERN);
+
+	@Benchmark
+	public boolean hasLength() {
+		return StringUtil.hasLength(laboratoryName);
+	}
+
+	@Benchmark
+	public boolean hasText() {
+		return StringUtil.hasText(laboratoryName);
+	}
+
+	@Benchmark
+	public String trimWhitespace() {
+		return StringUtil.trimWhitespace(laboratoryName);
+	}
+
+	@Benchmark
+	public String trimAllWhitespace() {
+		return StringUtil.trimAllWhitespace(address);
+	}
+
+	@Benchmark
+	public String replace() {
+		return StringUtil.replace(address, " ", "");
+	}
+
+	@Benchmark
+	public String[] removeDuplicateStrings() {
+		return StringUtil.removeDuplicateStrings(names);
+	}
+
+	@Benchmark
+	public String joinArrayElementToString() {
+		return StringUtil.joinArrayElementToString("'", "'", ",", true, names);
+	}
+
+	@Benchmark
+	public boolean isMatch() {
+		return StringUtil.isMatch(email, EMAIL_PATTERN);
+	}
+
+	@Benchmark
+	public boolean precompiled_isMatch() {
+		return emailPattern.matcher(email).matches();
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 序列化耗时与结果大小基准测试。
+ * <p>
+ * 被测对象与web应用中放入缓存和Session的LaboratoryVo、NotebookVo、LoginedAdminVo结构相同；
+ * jdk组直接使用ObjectOutputStream/ObjectInputStream，即原先SerializationUtil的实现，作为对照。
+ * 两种方式序列化后的字节数在Setup阶段输出；maxThreads组测量全部CPU核心同时使用线程本地缓冲区时的耗时。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationUtilBenchmark {
+	@Param({ "laboratory", "notebook", "admin" })
+	private String payload;
+
+	private Object object;
+	private byte[] codecBytes;
+	private byte[] jdkBytes;
+	private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		if ("laboratory".equals(payload)) {
+			object = new LaboratoryVo(635423012311842816L, "物理实验室",
+					"实验楼A区301", new Date(), 5, 30, "第3-4节");
+		} else if ("notebook".equals(payload)) {
+			object = new NotebookVo(635423012311842817L, "实验报告提交说明",
+					"teacher01", "请在实验结束后一周内提交实验报告，逾期不予受理。", new Date(),
+					635423012311842818L);
+		} else {
+			object = new LoginedAdminVo(635423012311842819L, "teacher01",
+					"e10adc3949ba59abbe56e057f20f883e", "teacher",
+					"teacher01@example.com");
+		}
+		codecBytes = SerializationUtil.serialize(object);
+		jdkBytes = jdkSerialize(object);
+		System.out.printf("%n%s: SerializationUtil %d bytes, JDK %d bytes%n",
+				payload, codecBytes.length, jdkBytes.length);
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		return SerializationUtil.serialize(object);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public byte[] serialize_maxThreads() {
+		return SerializationUtil.serialize(object);
+	}
+
+	@Benchmark
+	public ByteBuffer serializeIntoBuffer() {
+		buffer.clear();
+		SerializationUtil.serialize(object, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		return SerializationUtil.deserialize(codecBytes);
+	}
+
+	@Benchmark
+	public byte[] jdk_serialize() throws IOException {
+		return jdkSerialize(object);
+	}
+
+	@Benchmark
+	public Object jdk_deserialize() throws IOException, ClassNotFoundException {
+		return new ObjectInputStream(new ByteArrayInputStream(jdkBytes))
+				.readObject();
+	}
+
+	private static byte[] jdkSerialize(Object object) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(object);
+		oos.flush();
+		return baos.toByteArray();
+	}
+
+	public static class LaboratoryVo implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private long id;
+		private String laboratoryName;
+		private String laboratoryAddress;
+		private Date orderTime;
+		private int minNumber;
+		private int maxNumber;
+		private String classTime;
+
+		public LaboratoryVo() {
+		}
+
+		public LaboratoryVo(long id, String laboratoryName,
+				String laboratoryAddress, Date orderTime, int minNumber,
+				int maxNumber, String classTime) {
+			this.id = id;
+			this.laboratoryName = laboratoryName;
+			this.laboratoryAddress = laboratoryAddress;
+			this.orderTime = orderTime;
+			this.minNumber = minNumber;
+			this.maxNumber = maxNumber;
+			this.classTime = classTime;
+		}
+	}
+
+	public static class NotebookVo implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private long id;
+		private String title;
+		private String username;
+		private String contentText;
+		private Date createTime;
+		private long notebookId;
+
+		public NotebookVo() {
+		}
+
+		public NotebookVo(long id, String title, String username,
+				String contentText, Date createTime, long notebookId) {
+			this.id = id;
+			this.title = title;
+			this.username = username;
+			this.contentText = contentText;
+			this.createTime = createTime;
+			this.notebookId = notebookId;
+		}
+	}
+
+	public static class LoginedAdminVo implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private long id;
+		private String adminName;
+		private String password;
+		private String roleName;
+		private String email;
+
+		public LoginedAdminVo() {
+		}
+
+		public LoginedAdminVo(long id, String adminName, String password,
+				String roleName, String email) {
+			this.id = id;
+			this.adminName = adminName;
+			this.password = password;
+			this.roleName = roleName;
+			this.email = email;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.security;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MD5摘要基准测试。
+ * <p>
+ * 输入为登录时常见的密码长度；legacy组复现了原先每次调用都获取MessageDigest、
+ * 经由String.format逐字节转换十六进制的实现，作为对照。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MD5UtilBenchmark {
+	private final String password = "teacher01-P@ssw0rd";
+	private final char[] hex = new char[MD5Util.HEX_LENGTH];
+	private byte[] passwordBytes;
+
+	@Setup
+	public void setUp() throws UnsupportedEncodingException {
+		passwordBytes = password.getBytes("UTF-8");
+	}
+
+	@Benchmark
+	public String encryptString() {
+		return MD5Util.encrypt(password);
+	}
+
+	@Benchmark
+	public String encryptBytes() {
+		return MD5Util.encrypt(passwordBytes);
+	}
+
+	@Benchmark
+	public char[] encryptIntoBuffer() {
+		MD5Util.encrypt(passwordBytes, 0, passwordBytes.length, hex, 0);
+		return hex;
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String encryptString_maxThreads() {
+		return MD5Util.encrypt(password);
+	}
+
+	@Benchmark
+	public String legacy_encryptString() throws Exception {
+		return legacyEncrypt(password);
+	}
+
+	private static String legacyEncrypt(String origin)
+			throws NoSuchAlgorithmException, UnsupportedEncodingException {
+		MessageDigest md = MessageDigest.getInstance("MD5");
+		byte[] digest = md.digest(origin.getBytes("UTF-8"));
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest) {
+			sb.append(String.format("%02x", b & 0xff));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.security;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.DESedeEngine;
+import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 3DES加解密的单行耗时基准测试。
+ * <p>
+ * 模拟导出学生列表时逐行加密Email：encryptAll一次处理{@link #ROWS}行，结果按行折算；
+ * legacy组复现了原先每次调用都转换密钥、创建并初始化加密器的实现，作为对照。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TripletsDESUtilBenchmark {
+	private static final int ROWS = 1000;
+	private static final String KEY = "5A45615B3D22156B6D1433275C231A346F5D41371C7B5F42";
+
+	private final String email = "student0001@example.com";
+	private final String cipherText = TripletsDESUtil.encrypt(KEY, email);
+	private byte[] emailBytes;
+	private final List<String> emails = new ArrayList<String>();
+
+	@Setup
+	public void setUp() throws UnsupportedEncodingException {
+		emailBytes = email.getBytes("UTF-8");
+		for (int i = 0; i < ROWS; i++) {
+			emails.add(String.format("student%04d@example.com", i));
+		}
+	}
+
+	@Benchmark
+	public String encrypt() {
+		return TripletsDESUtil.encrypt(KEY, email);
+	}
+
+	@Benchmark
+	public String decrypt() {
+		return TripletsDESUtil.decrypt(KEY, cipherText);
+	}
+
+	@Benchmark
+	public byte[] encryptBytes() {
+		return TripletsDESUtil.encrypt(KEY, emailBytes);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public List<String> encryptAll() {
+		return TripletsDESUtil.encryptAll(KEY, emails);
+	}
+
+	@Benchmark
+	public byte[] legacy_encrypt() throws Exception {
+		return legacyTripleDES(true, hexToBytes(KEY), emailBytes);
+	}
+
+	private static byte[] legacyTripleDES(boolean isEncrypt, byte[] key,
+			byte[] in) throws InvalidCipherTextException {
+		BufferedBlockCipher cipher = new PaddedBufferedBlockCipher(
+				new DESedeEngine());
+		cipher.init(isEncrypt, new KeyParameter(key));
+		byte[] out = new byte[cipher.getOutputSize(in.length)];
+		int outlen = cipher.processBytes(in, 0, in.length, out, 0);
+		cipher.doFinal(out, outlen);
+		return out;
+	}
+
+	private static byte[] hexToBytes(String hex) {
+		byte[] out = new byte[hex.length() / 2];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2),
+					16);
+		}
+		return out;
+	}
+}
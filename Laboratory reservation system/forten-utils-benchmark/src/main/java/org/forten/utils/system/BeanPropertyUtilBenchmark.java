@@ -0,0 +1,169 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Java Bean属性拷贝基准测试。
+ * <p>
+ * 被拷贝的Bean与web应用中LaboratoryBo.doUpdate使用的LaboratoryVoForUpdate、Laboratory结构相同；
+ * legacy组直接调用commons-beanutils的PropertyUtils.copyProperties，即原先的实现，作为对照；
+ * maxThreads组测量全部CPU核心同时查找共享拷贝计划缓存时的耗时。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BeanPropertyUtilBenchmark {
+	private final Vo vo = new Vo();
+	private final Entity entity = new Entity();
+
+	public BeanPropertyUtilBenchmark() {
+		vo.setId(635423012311842816L);
+		vo.setLaboratoryName("物理实验室");
+		vo.setLaboratoryAddress("实验楼A区301");
+		vo.setOrderTime(new Date());
+		vo.setMinNumber(5);
+		vo.setMaxNumber(30);
+		vo.setClassTime("第3-4节");
+	}
+
+	@Benchmark
+	public Entity copy() {
+		BeanPropertyUtil.copy(entity, vo);
+		return entity;
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Entity copy_maxThreads() {
+		BeanPropertyUtil.copy(entity, vo);
+		return entity;
+	}
+
+	@Benchmark
+	public Entity copyNotNull() {
+		BeanPropertyUtil.copyNotNull(entity, vo);
+		return entity;
+	}
+
+	@Benchmark
+	public Entity copyWithProperties() {
+		BeanPropertyUtil.copy(entity, vo, "laboratoryName", "maxNumber");
+		return entity;
+	}
+
+	@Benchmark
+	public Entity legacy_copy() throws Exception {
+		PropertyUtils.copyProperties(entity, vo);
+		return entity;
+	}
+
+	public static class Vo {
+		private long id;
+		private String laboratoryName;
+		private String laboratoryAddress;
+		private Date orderTime;
+		private int minNumber;
+		private int maxNumber;
+		private String classTime;
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getLaboratoryName() {
+			return laboratoryName;
+		}
+
+		public void setLaboratoryName(String laboratoryName) {
+			this.laboratoryName = laboratoryName;
+		}
+
+		public String getLaboratoryAddress() {
+			return laboratoryAddress;
+		}
+
+		public void setLaboratoryAddress(String laboratoryAddress) {
+			this.laboratoryAddress = laboratoryAddress;
+		}
+
+		public Date getOrderTime() {
+			return orderTime;
+		}
+
+		public void setOrderTime(Date orderTime) {
+			this.orderTime = orderTime;
+		}
+
+		public int getMinNumber() {
+			return minNumber;
+		}
+
+		public void setMinNumber(int minNumber) {
+			this.minNumber = minNumber;
+		}
+
+		public int getMaxNumber() {
+			return maxNumber;
+		}
+
+		public void setMaxNumber(int maxNumber) {
+			this.maxNumber = maxNumber;
+		}
+
+		public String getClassTime() {
+			return classTime;
+		}
+
+		public void setClassTime(String classTime) {
+			this.classTime = classTime;
+		}
+	}
+
+	public static class Entity extends Vo {
+		private String remark;
+
+		public String getRemark() {
+			return remark;
+		}
+
+		public void setRemark(String remark) {
+			this.remark = remark;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 主键生成吞吐量基准测试。
+ * <p>
+ * CurrentTimeKeyBuilder在全局锁内格式化时间，多线程时吞吐量不随线程数增长；
+ * 同时测量取代它的SnowflakeKeyBuilder，两者在1个线程和全部CPU核心上的结果可直接对比。
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class CurrentTimeKeyBuilderBenchmark {
+	private final CurrentTimeKeyBuilder currentTimeKeyBuilder = CurrentTimeKeyBuilder
+			.getInstance(1);
+	private final SnowflakeKeyBuilder snowflakeKeyBuilder = SnowflakeKeyBuilder
+			.getInstance(1);
+
+	@Benchmark
+	@Threads(1)
+	public long currentTime_1thread() {
+		return currentTimeKeyBuilder.nextPK();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public long currentTime_maxThreads() {
+		return currentTimeKeyBuilder.nextPK();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public long snowflake_1thread() {
+		return snowflakeKeyBuilder.nextPK();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public long snowflake_maxThreads() {
+		return snowflakeKeyBuilder.nextPK();
+	}
+}
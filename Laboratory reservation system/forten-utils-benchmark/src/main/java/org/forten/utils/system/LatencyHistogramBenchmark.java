@@ -0,0 +1,65 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 延迟直方图记录开销基准测试。
+ * <p>
+ * 每次记录前后各取一次System.nanoTime()，与拦截器在请求处理路径上的用法相同；
+ * 多线程变体共享同一个直方图，用来观察桶计数上的竞争。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatencyHistogramBenchmark {
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	@Benchmark
+	@Threads(1)
+	public void record_1thread() {
+		long start = System.nanoTime();
+		histogram.record(System.nanoTime() - start);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void record_maxThreads() {
+		long start = System.nanoTime();
+		histogram.record(System.nanoTime() - start);
+	}
+
+	@Benchmark
+	public long[] percentiles() {
+		return histogram.getValuesAtPercentiles(50, 90, 99, 99.9);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2003-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.forten.utils.system;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forten.utils.security.MD5Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 令牌生成吞吐量基准测试。
+ * <p>
+ * 分别在1、4个线程和全部CPU核心上运行，TokenBuilder的总吞吐量应随线程数线性增长；
+ * legacy组复现了原先经过CurrentTimeKeyBuilder全局锁再做MD5的实现，作为对照。
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenBuilderBenchmark {
+	private final TokenBuilder builder = TokenBuilder.getInstance();
+	private final char[] buffer = new char[TokenBuilder.DEFAULT_TOKEN_LENGTH];
+
+	@Benchmark
+	@Threads(1)
+	public String token_1thread() {
+		return builder.getToken();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String token_4threads() {
+		return builder.getToken();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String token_maxThreads() {
+		return builder.getToken();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public char[] tokenIntoBuffer_maxThreads() {
+		builder.nextToken(buffer, 0, buffer.length);
+		return buffer;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String legacy_1thread() {
+		return legacyToken();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String legacy_maxThreads() {
+		return legacyToken();
+	}
+
+	@SuppressWarnings("deprecation")
+	private static String legacyToken() {
+		Long currentTime = CurrentTimeKeyBuilder.getInstance().nextPK();
+		return MD5Util.encrypt(currentTime.toString().getBytes());
+	}
+}
@@ -50,7 +50,7 @@ INSERT INTO `test_course` VALUES (4,'HTML','主楼','2015-12-09',6,'杜老师'),
 
 DROP TABLE IF EXISTS `test_laboratory`;
 CREATE TABLE `test_laboratory` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `id` bigint(20) NOT NULL,
   `laboratory_address` varchar(255) DEFAULT NULL,
   `laboratory_name` varchar(255) DEFAULT NULL,
   `max_number` int(11) DEFAULT NULL,
@@ -58,7 +58,7 @@ CREATE TABLE `test_laboratory` (
   `order_time` datetime DEFAULT NULL,
   `class_time` varchar(255) DEFAULT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=15 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 #
 # Data for table "test_laboratory"
@@ -72,10 +72,10 @@ INSERT INTO `test_laboratory` VALUES (2,'主楼六层01618','嵌入式实验室'
 
 DROP TABLE IF EXISTS `test_laboratoryname`;
 CREATE TABLE `test_laboratoryname` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `id` bigint(20) NOT NULL,
   `laboratory_name` varchar(12) NOT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=4 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 #
 # Data for table "test_laboratoryname"
@@ -89,13 +89,13 @@ INSERT INTO `test_laboratoryname` VALUES (2,'单片机实验室'),(3,'嵌入式
 
 DROP TABLE IF EXISTS `test_notebook`;
 CREATE TABLE `test_notebook` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `id` bigint(20) NOT NULL,
   `content_text` varchar(255) DEFAULT NULL,
   `create_time` datetime DEFAULT NULL,
   `title` varchar(255) DEFAULT NULL,
   `username` varchar(255) DEFAULT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=15 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 #
 # Data for table "test_notebook"
@@ -109,11 +109,11 @@ INSERT INTO `test_notebook` VALUES (14,'老师您好，请问我收到此系统
 
 DROP TABLE IF EXISTS `test_notebook_response`;
 CREATE TABLE `test_notebook_response` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `id` bigint(20) NOT NULL,
   `context_text` varchar(255) DEFAULT NULL,
-  `notebook_id` int(11) DEFAULT NULL,
+  `notebook_id` bigint(20) DEFAULT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=5 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 #
 # Data for table "test_notebook_response"
@@ -127,7 +127,7 @@ INSERT INTO `test_notebook_response` VALUES (4,'同学您好，因为你预约
 
 DROP TABLE IF EXISTS `test_student`;
 CREATE TABLE `test_student` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `id` bigint(20) NOT NULL,
   `email` varchar(255) DEFAULT NULL,
   `gender` varchar(255) DEFAULT NULL,
   `name` varchar(255) DEFAULT NULL,
@@ -135,7 +135,7 @@ CREATE TABLE `test_student` (
   `password` varchar(255) DEFAULT NULL,
   `role_name` varchar(255) DEFAULT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=7 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 #
 # Data for table "test_student"
@@ -149,13 +149,13 @@ INSERT INTO `test_student` VALUES (1,'请填写否则无法接收系统邮件','
 
 DROP TABLE IF EXISTS `test_student_laboratory_relation`;
 CREATE TABLE `test_student_laboratory_relation` (
-  `id` int(11) NOT NULL AUTO_INCREMENT,
-  `laboratory_id` int(11) DEFAULT NULL,
+  `id` bigint(20) NOT NULL,
+  `laboratory_id` bigint(20) DEFAULT NULL,
   `laboratoryOrderStatus` int(11) DEFAULT NULL,
   `ordered_time` datetime DEFAULT NULL,
-  `student_id` int(11) DEFAULT NULL,
+  `student_id` bigint(20) DEFAULT NULL,
   PRIMARY KEY (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=7 DEFAULT CHARSET=utf8;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 #
 # Data for table "test_student_laboratory_relation"
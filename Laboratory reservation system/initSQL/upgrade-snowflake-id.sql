@@ -0,0 +1,17 @@
+#
+# 已有数据库的升级脚本：主键改由SnowflakeIdGenerator生成后，id及引用它的列需要从INT扩大为BIGINT
+# hibernate.hbm2ddl.auto=update不会修改已有列的类型，部署新版本前执行一次；新安装直接使用test.sql即可。
+# 主键去掉AUTO_INCREMENT，已有记录的id保持不变，新记录的id由应用生成。
+#
+
+/*!40101 SET NAMES utf8 */;
+
+ALTER TABLE `test_laboratory` MODIFY `id` bigint(20) NOT NULL;
+ALTER TABLE `test_laboratoryname` MODIFY `id` bigint(20) NOT NULL;
+ALTER TABLE `test_notebook` MODIFY `id` bigint(20) NOT NULL;
+ALTER TABLE `test_notebook_response` MODIFY `id` bigint(20) NOT NULL,
+  MODIFY `notebook_id` bigint(20) DEFAULT NULL;
+ALTER TABLE `test_student` MODIFY `id` bigint(20) NOT NULL;
+ALTER TABLE `test_student_laboratory_relation` MODIFY `id` bigint(20) NOT NULL,
+  MODIFY `laboratory_id` bigint(20) DEFAULT NULL,
+  MODIFY `student_id` bigint(20) DEFAULT NULL;
@@ -0,0 +1,146 @@
+package org.forten.sample.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.aspect.SystemAspect;
+import org.forten.sample.bo.LaboratoryBo;
+import org.forten.sample.bo.NotebookBo;
+import org.forten.sample.bo.StudentBo;
+import org.forten.sample.entity.StudentLaboratoryRelation;
+import org.forten.sample.qo.LaboratoryQo;
+import org.forten.sample.vo.MessageVo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * BO层基准测试
+ * 
+ * 在H2内存数据库上启动完整的Spring容器，准备测试数据后依次运行各个BO方法，
+ * 输出吞吐量、p50/p99延迟和每次操作执行的SQL语句数，结果同时以JSON格式写入文件。
+ * 
+ * 用法：java -jar target/lab-benchmarks.jar，可用以下系统属性调整：
+ * bench.include（场景名正则，默认全部）、bench.threads（线程数列表，默认1,4）、
+ * bench.warmup、bench.measure（预热与测量秒数，默认3和10）、bench.seed、
+ * bench.scale（DatasetGenerator的比例因子，默认0.1）、bench.result（JSON结果文件）。
+ * 
+ * SystemAspect.before会创建和删除临时表test_demo，只在单线程下运行。
+ */
+public class BoBenchmark {
+	private static final Logger log = Logger.getLogger(BoBenchmark.class);
+
+	private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+	public static void main(String[] args) throws Exception {
+		Pattern include = Pattern.compile(System.getProperty("bench.include", ".*"));
+		int[] threadCounts = parseThreads(System.getProperty("bench.threads", "1,4"));
+		int warmup = Integer.getInteger("bench.warmup", 3);
+		int measure = Integer.getInteger("bench.measure", 10);
+		long seed = Long.getLong("bench.seed", 20161119L);
+		File resultFile = new File(System.getProperty("bench.result", "target/bo-benchmark.json"));
+
+		try (EmbeddedContext context = new EmbeddedContext()) {
+			DatasetGenerator generator = new DatasetGenerator(seed,
+					Double.parseDouble(System.getProperty("bench.scale", "0.1")));
+			try (DatasetSink sink = new JdbcDatasetSink(context.getDataSource())) {
+				generator.generate(sink);
+			}
+
+			Map<String, Scenario> scenarios = scenarios(context, generator.getLaboratoryIds(),
+					generator.getStudentIds());
+			ScenarioRunner runner = new ScenarioRunner(context.getInstrumentedDataSource(), warmup, measure, seed);
+			List<ScenarioResult> results = new ArrayList<>();
+			for (Entry<String, Scenario> entry : scenarios.entrySet()) {
+				String name = entry.getKey();
+				if (!include.matcher(name).find()) {
+					continue;
+				}
+				for (int threads : threadCounts) {
+					if (threads > 1 && name.startsWith("SystemAspect")) {
+						continue;
+					}
+					log.info("运行场景" + name + "，线程数" + threads);
+					results.add(runner.run(name, threads, entry.getValue()));
+				}
+			}
+
+			System.out.println();
+			System.out.println(ScenarioResult.HEADER);
+			for (ScenarioResult result : results) {
+				System.out.println(result);
+			}
+			writeJson(results, resultFile);
+		}
+	}
+
+	private static Map<String, Scenario> scenarios(EmbeddedContext context, final long[] laboratoryIds,
+			final long[] studentIds) {
+		final LaboratoryBo laboratoryBo = context.getBean(LaboratoryBo.class);
+		final StudentBo studentBo = context.getBean(StudentBo.class);
+		final NotebookBo notebookBo = context.getBean(NotebookBo.class);
+		final SystemAspect systemAspect = context.getBean(SystemAspect.class);
+		final long now = System.currentTimeMillis();
+
+		Map<String, Scenario> scenarios = new LinkedHashMap<>();
+		// 教师端实验室列表：一半请求按名称和时间段筛选，页码随机
+		scenarios.put("LaboratoryBo.queryBy", random -> {
+			LaboratoryQo qo = new LaboratoryQo();
+			if (random.nextBoolean()) {
+				qo.setLaboratoryName(DatasetGenerator.LABORATORY_NAMES[random.nextInt(DatasetGenerator.LABORATORY_NAMES.length)]);
+				qo.setFromOrderTime(new Date(now));
+				qo.setToOrderTime(new Date(now + 60 * DAY_MILLIS));
+			}
+			qo.setPageNo(1 + random.nextInt(3));
+			laboratoryBo.queryBy(qo);
+		});
+		scenarios.put("StudentBo.doSave", random -> {
+			StudentLaboratoryRelation relation = new StudentLaboratoryRelation(
+					laboratoryIds[random.nextInt(laboratoryIds.length)]);
+			relation.setStudentId(studentIds[random.nextInt(studentIds.length)]);
+			MessageVo vo = studentBo.doSave(relation);
+			// 随机选择的实验室场次可能与学生已有的预约时间冲突，被拒绝也是正常结果
+			if (!vo.getMessage().contains("时间冲突")) {
+				check(vo, "预约成功！");
+			}
+		});
+		scenarios.put("StudentBo.queryAll", random -> studentBo.queryAll(studentIds[random.nextInt(studentIds.length)]));
+		scenarios.put("NotebookBo.queryAll", random -> notebookBo.queryAll());
+		scenarios.put("SystemAspect.before", random -> systemAspect.before());
+		return scenarios;
+	}
+
+	// BO捕获了异常并以MessageVo返回，需要检查消息才能把失败计为错误
+	private static void check(MessageVo vo, String expected) {
+		if (!expected.equals(vo.getMessage())) {
+			throw new IllegalStateException(vo.getMessage());
+		}
+	}
+
+	private static int[] parseThreads(String value) {
+		String[] parts = value.split(",");
+		int[] threads = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			threads[i] = Integer.parseInt(parts[i].trim());
+		}
+		return threads;
+	}
+
+	private static void writeJson(List<ScenarioResult> results, File file) throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("无法创建目录：" + dir);
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, results);
+		log.info("结果已写入" + file.getAbsolutePath());
+	}
+}
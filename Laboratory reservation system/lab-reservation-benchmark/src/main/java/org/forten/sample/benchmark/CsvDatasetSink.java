@@ -0,0 +1,88 @@
+package org.forten.sample.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.forten.utils.common.DateUtil;
+
+/**
+ * 把数据写成每张表一个CSV文件，供数据库批量装载
+ * 
+ * CSV不带表头，UTF-8编码，字符串用双引号括起，日期格式为yyyy-MM-dd HH:mm:ss。
+ * 关闭时在同一目录下生成装载脚本：load-mysql.sql使用LOAD DATA LOCAL INFILE，
+ * load-h2.sql使用CSVREAD。两个脚本都需要在CSV所在目录下执行，且表结构已经存在。
+ */
+public class CsvDatasetSink implements DatasetSink {
+	private final File dir;
+	private final Map<DatasetTable, Writer> writers = new EnumMap<>(DatasetTable.class);
+
+	public CsvDatasetSink(File dir) throws IOException {
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("无法创建目录：" + dir);
+		}
+		this.dir = dir;
+	}
+
+	@Override
+	public void write(DatasetTable table, Object... values) throws IOException {
+		Writer writer = writers.get(table);
+		if (writer == null) {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileOf(table)),
+					StandardCharsets.UTF_8), 1 << 16);
+			writers.put(table, writer);
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			Object value = values[i];
+			if (value instanceof String) {
+				writer.write('"');
+				writer.write(((String) value).replace("\"", "\"\""));
+				writer.write('"');
+			} else if (value instanceof Date) {
+				writer.write(DateUtil.convertDateToString((Date) value));
+			} else {
+				writer.write(String.valueOf(value));
+			}
+		}
+		writer.write('\n');
+	}
+
+	private File fileOf(DatasetTable table) {
+		return new File(dir, table.getTableName() + ".csv");
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Writer writer : writers.values()) {
+			writer.close();
+		}
+		try (Writer mysql = scriptWriter("load-mysql.sql"); Writer h2 = scriptWriter("load-h2.sql")) {
+			mysql.write("SET NAMES utf8;\n");
+			mysql.write(DatasetTable.CREATE_ADMIN_SQL + ";\n");
+			h2.write(DatasetTable.CREATE_ADMIN_SQL + ";\n");
+			for (DatasetTable table : writers.keySet()) {
+				String file = fileOf(table).getName();
+				mysql.write(String.format(
+						"LOAD DATA LOCAL INFILE '%s' INTO TABLE %s CHARACTER SET utf8 FIELDS TERMINATED BY ',' "
+								+ "OPTIONALLY ENCLOSED BY '\"' LINES TERMINATED BY '\\n' (%s);\n",
+						file, table.getTableName(), table.getColumnList()));
+				h2.write(String.format("INSERT INTO %s (%s) SELECT * FROM CSVREAD('%s', '%s', 'charset=UTF-8');\n",
+						table.getTableName(), table.getColumnList(), file, table.getColumnList()));
+			}
+		}
+	}
+
+	private Writer scriptWriter(String name) throws IOException {
+		return new OutputStreamWriter(new FileOutputStream(new File(dir, name)), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,260 @@
+package org.forten.sample.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.entity.enums.LaboratoryOrderStatus;
+import org.forten.utils.system.SnowflakeKeyBuilder;
+
+/**
+ * 合成测试数据生成器
+ * 
+ * 数据规模由比例因子决定，比例为1时包含2万名学生、按实验室名称目录开设的2000个实验室场次、
+ * 100万条预约记录和2000条留言；同一个随机种子与比例总是生成相同的数据（主键除外）。
+ * 
+ * 预约数据模拟真实的分布：
+ * 场次热度服从Zipf分布（指数{@value #ZIPF_EXPONENT}），单个场次的预约数不超过学生总数，超出部分顺延给热度较低的场次；
+ * 每个场次在开放预约后的几分钟内集中涌入大部分预约（指数分布，均值{@value #BURST_MEAN_SECONDS}秒），
+ * 其余预约均匀分布在开放后的{@value #WINDOW_DAYS}天内；
+ * 预约状态按到达顺序确定，与SystemAspect的审核规则一致：人数达到下限时前max_number个为预约成功，其余排队，
+ * 未达到下限时全部为已预约。
+ * 
+ * 另外生成{@value #TEACHERS}个教师账号（admin与teacher001起），密码与学生相同，均为{@value #PASSWORD}。
+ * 主键使用与SnowflakeIdGenerator相同的位布局，节点号固定为31，不会与应用生成的主键冲突。
+ * 
+ * 命令行用法：java -cp target/lab-benchmarks.jar org.forten.sample.benchmark.DatasetGenerator，
+ * 系统属性gen.scale、gen.seed指定比例与种子；gen.csv指定目录时写出CSV与装载脚本，
+ * 否则通过app-core.xml的数据源直接写入数据库（用-Djdbc.url等指向文件型H2或MySQL，表结构由hbm2ddl生成）。
+ */
+public class DatasetGenerator {
+	private static final Logger log = Logger.getLogger(DatasetGenerator.class);
+
+	public static final String[] LABORATORY_NAMES = { "单片机实验室", "嵌入式实验室", "电机拖动实验室", "数字电路实验室", "模拟电路实验室",
+			"计算机网络实验室", "操作系统实验室", "数据库实验室", "物理光学实验室", "电磁学实验室", "化学分析实验室", "机械原理实验室" };
+
+	public static final String PASSWORD = "123456";
+
+	static final double ZIPF_EXPONENT = 1.0;
+	static final int BURST_MEAN_SECONDS = 90;
+	static final int WINDOW_DAYS = 14;
+	static final int TEACHERS = 20;
+
+	private static final double BURST_RATIO = 0.7;
+	private static final int STUDENTS_PER_SCALE = 20000;
+	private static final int LABORATORIES_PER_SCALE = 2000;
+	private static final int RESERVATIONS_PER_SCALE = 1000000;
+	private static final int NOTEBOOKS_PER_SCALE = 2000;
+
+	private static final String[] CLASS_TIMES = { "第1-2节", "第3-4节", "第5-6节", "第7-8节", "第9-10节" };
+	private static final String[] SURNAMES = { "王", "李", "张", "刘", "陈", "杨", "黄", "赵", "吴", "周", "徐", "孙", "马", "朱", "胡",
+			"郭", "何", "林", "罗", "高" };
+	private static final String GIVEN_NAME_CHARS = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉兰晨宇浩然思远嘉欣子涵";
+	private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+	private final long seed;
+	private final int students;
+	private final int laboratories;
+	private final int reservations;
+	private final int notebooks;
+	private final SnowflakeKeyBuilder keyBuilder = SnowflakeKeyBuilder.getInstance(31, 5, 7);
+
+	private long[] laboratoryIds;
+	private int[] maxNumbers;
+	private long[] studentIds;
+	private String[] studentNumbers;
+	private int reservationsWritten;
+
+	public DatasetGenerator(long seed, double scale) {
+		if (scale <= 0) {
+			throw new IllegalArgumentException("比例因子必须大于0：" + scale);
+		}
+		this.seed = seed;
+		this.students = Math.max(1, (int) (STUDENTS_PER_SCALE * scale));
+		this.laboratories = Math.max(1, (int) (LABORATORIES_PER_SCALE * scale));
+		this.reservations = (int) Math.min((long) (RESERVATIONS_PER_SCALE * scale), (long) students * laboratories);
+		this.notebooks = (int) (NOTEBOOKS_PER_SCALE * scale);
+	}
+
+	public long[] getLaboratoryIds() {
+		return laboratoryIds;
+	}
+
+	public long[] getStudentIds() {
+		return studentIds;
+	}
+
+	public String[] getStudentNumbers() {
+		return studentNumbers;
+	}
+
+	public void generate(DatasetSink sink) throws IOException {
+		long start = System.currentTimeMillis();
+		Random random = new Random(seed);
+		long now = start;
+		writeAdmins(sink);
+		writeLaboratoryNames(sink);
+		Date[] orderTimes = writeLaboratories(sink, random, now);
+		writeStudents(sink, random);
+		writeReservations(sink, random, orderTimes);
+		writeNotebooks(sink, random, now);
+		log.info(String.format("测试数据生成完成：实验室%d个，学生%d名，预约%d条，留言%d条，耗时%dms", laboratories, students,
+				reservationsWritten, notebooks, System.currentTimeMillis() - start));
+	}
+
+	private void writeAdmins(DatasetSink sink) throws IOException {
+		sink.write(DatasetTable.ADMIN, 1001L, "admin", "teacher", PASSWORD);
+		for (int i = 1; i < TEACHERS; i++) {
+			sink.write(DatasetTable.ADMIN, 1001L + i, String.format("teacher%03d", i), "teacher", PASSWORD);
+		}
+	}
+
+	private void writeLaboratoryNames(DatasetSink sink) throws IOException {
+		for (String name : LABORATORY_NAMES) {
+			sink.write(DatasetTable.LABORATORY_NAME, keyBuilder.nextPK(), name);
+		}
+	}
+
+	// 场次的可预约时间分布在过去90天到未来30天之间
+	private Date[] writeLaboratories(DatasetSink sink, Random random, long now) throws IOException {
+		laboratoryIds = new long[laboratories];
+		maxNumbers = new int[laboratories];
+		Date[] orderTimes = new Date[laboratories];
+		for (int i = 0; i < laboratories; i++) {
+			laboratoryIds[i] = keyBuilder.nextPK();
+			orderTimes[i] = new Date(now + (random.nextInt(120) - 90) * DAY_MILLIS);
+			int maxNumber = 20 + random.nextInt(41);
+			maxNumbers[i] = maxNumber;
+			sink.write(DatasetTable.LABORATORY, laboratoryIds[i], LABORATORY_NAMES[i % LABORATORY_NAMES.length],
+					String.format("实验楼%c区%d", (char) ('A' + random.nextInt(4)), 101 + random.nextInt(500)),
+					orderTimes[i], CLASS_TIMES[random.nextInt(CLASS_TIMES.length)], maxNumber / 4, maxNumber);
+		}
+		return orderTimes;
+	}
+
+	private void writeStudents(DatasetSink sink, Random random) throws IOException {
+		studentIds = new long[students];
+		studentNumbers = new String[students];
+		for (int i = 0; i < students; i++) {
+			studentIds[i] = keyBuilder.nextPK();
+			studentNumbers[i] = String.format("2016%06d", i);
+			String name = SURNAMES[random.nextInt(SURNAMES.length)]
+					+ GIVEN_NAME_CHARS.charAt(random.nextInt(GIVEN_NAME_CHARS.length()))
+					+ (random.nextBoolean() ? String.valueOf(GIVEN_NAME_CHARS.charAt(random.nextInt(GIVEN_NAME_CHARS.length()))) : "");
+			sink.write(DatasetTable.STUDENT, studentIds[i], studentNumbers[i], PASSWORD, name,
+					"s" + studentNumbers[i] + "@example.com", random.nextBoolean() ? "男" : "女", "student");
+		}
+	}
+
+	private void writeReservations(DatasetSink sink, Random random, Date[] orderTimes) throws IOException {
+		int[] counts = reservationCounts(random);
+		// 共用一个学生下标的排列，每个场次做一次部分洗牌即可无重复地选出学生
+		int[] permutation = new int[students];
+		for (int i = 0; i < students; i++) {
+			permutation[i] = i;
+		}
+		long[] arrivals = new long[students];
+		for (int lab = 0; lab < laboratories; lab++) {
+			int n = counts[lab];
+			long opening = orderTimes[lab].getTime() - WINDOW_DAYS * DAY_MILLIS;
+			for (int i = 0; i < n; i++) {
+				int j = i + random.nextInt(students - i);
+				int tmp = permutation[i];
+				permutation[i] = permutation[j];
+				permutation[j] = tmp;
+				arrivals[i] = opening + arrivalOffset(random);
+			}
+			// 被选中的学生本身是随机顺序，只需把到达时间排序后依次分配
+			Arrays.sort(arrivals, 0, n);
+			int maxNumber = maxNumbers[lab];
+			boolean enough = n >= maxNumber / 4;
+			for (int i = 0; i < n; i++) {
+				LaboratoryOrderStatus status;
+				if (!enough) {
+					status = LaboratoryOrderStatus.SUBMIT;
+				} else {
+					status = i < maxNumber ? LaboratoryOrderStatus.SUCCESS : LaboratoryOrderStatus.QUEUE;
+				}
+				sink.write(DatasetTable.RESERVATION, keyBuilder.nextPK(), laboratoryIds[lab],
+						studentIds[permutation[i]], new Date(arrivals[i]), status.ordinal());
+			}
+			reservationsWritten += n;
+		}
+	}
+
+	/**
+	 * 按Zipf分布把预约总数分配到各场次，热度排名与场次顺序无关
+	 * 
+	 * 从最热门的场次开始分配，单个场次不超过学生总数，超出的部分按剩余权重顺延给后面的场次。
+	 */
+	int[] reservationCounts(Random random) {
+		int[] rankOf = new int[laboratories];
+		for (int i = 0; i < laboratories; i++) {
+			rankOf[i] = i;
+		}
+		for (int i = laboratories - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = rankOf[i];
+			rankOf[i] = rankOf[j];
+			rankOf[j] = tmp;
+		}
+		double[] weights = new double[laboratories];
+		double remainingWeight = 0;
+		for (int rank = 0; rank < laboratories; rank++) {
+			weights[rank] = 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+			remainingWeight += weights[rank];
+		}
+		int[] counts = new int[laboratories];
+		long remaining = reservations;
+		for (int rank = 0; rank < laboratories; rank++) {
+			long n = Math.round(remaining * weights[rank] / remainingWeight);
+			n = Math.min(Math.min(n, students), remaining);
+			counts[rankOf[rank]] = (int) n;
+			remaining -= n;
+			remainingWeight -= weights[rank];
+		}
+		return counts;
+	}
+
+	// 相对于开放时间的毫秒数：大部分集中在开放后的几分钟内，其余均匀分布在整个预约窗口
+	private static long arrivalOffset(Random random) {
+		if (random.nextDouble() < BURST_RATIO) {
+			return (long) (-Math.log(1 - random.nextDouble()) * BURST_MEAN_SECONDS * 1000);
+		}
+		return (long) (random.nextDouble() * WINDOW_DAYS * DAY_MILLIS);
+	}
+
+	private void writeNotebooks(DatasetSink sink, Random random, long now) throws IOException {
+		for (int i = 0; i < notebooks; i++) {
+			long id = keyBuilder.nextPK();
+			String laboratoryName = LABORATORY_NAMES[random.nextInt(LABORATORY_NAMES.length)];
+			sink.write(DatasetTable.NOTEBOOK, id, laboratoryName + "开放时间咨询",
+					studentNumbers[random.nextInt(students)], "请问" + laboratoryName + "是否可以增加晚上的开放场次？",
+					new Date(now - random.nextInt(60) * DAY_MILLIS - random.nextInt((int) DAY_MILLIS)));
+			if (random.nextInt(3) > 0) {
+				sink.write(DatasetTable.NOTEBOOK_RESPONSE, keyBuilder.nextPK(), id, "已收到，会在下周的教学会议上讨论。");
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		long seed = Long.getLong("gen.seed", 20161119L);
+		double scale = Double.parseDouble(System.getProperty("gen.scale", "1"));
+		String csvDir = System.getProperty("gen.csv");
+		DatasetGenerator generator = new DatasetGenerator(seed, scale);
+		if (csvDir != null) {
+			try (DatasetSink sink = new CsvDatasetSink(new File(csvDir))) {
+				generator.generate(sink);
+			}
+			return;
+		}
+		try (EmbeddedContext context = new EmbeddedContext();
+				DatasetSink sink = new JdbcDatasetSink(context.getDataSource())) {
+			generator.generate(sink);
+		}
+	}
+}
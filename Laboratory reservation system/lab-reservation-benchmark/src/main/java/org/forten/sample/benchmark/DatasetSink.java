@@ -0,0 +1,19 @@
+package org.forten.sample.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 生成器的输出目标，每次写入一行
+ */
+public interface DatasetSink extends Closeable {
+	/**
+	 * 写入一行数据
+	 * 
+	 * @param table
+	 *            目标表
+	 * @param values
+	 *            按{@link DatasetTable#getColumns()}顺序排列的值，日期使用java.util.Date
+	 */
+	void write(DatasetTable table, Object... values) throws IOException;
+}
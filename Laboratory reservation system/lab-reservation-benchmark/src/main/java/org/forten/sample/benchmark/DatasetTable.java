@@ -0,0 +1,50 @@
+package org.forten.sample.benchmark;
+
+/**
+ * 生成器写出的表及其列，列的顺序即写入时值的顺序
+ * 
+ * 除test_admin外，表结构与实体由hibernate.hbm2ddl生成的一致；test_admin没有对应的实体，
+ * 结构取自initSQL/test.sql。
+ */
+public enum DatasetTable {
+	ADMIN("test_admin", "Id", "admin_name", "role_name", "password"),
+	LABORATORY_NAME("test_laboratoryName", "id", "laboratory_name"),
+	LABORATORY("test_laboratory", "id", "laboratory_name", "laboratory_address", "order_time", "class_time",
+			"min_number", "max_number"),
+	STUDENT("test_student", "id", "number", "password", "name", "email", "gender", "role_name"),
+	RESERVATION("test_student_laboratory_relation", "id", "laboratory_id", "student_id", "ordered_time",
+			"laboratoryOrderStatus"),
+	NOTEBOOK("test_notebook", "id", "title", "username", "content_text", "create_time"),
+	NOTEBOOK_RESPONSE("test_notebook_response", "id", "notebook_id", "context_text");
+
+	/**
+	 * test_admin的建表语句，MySQL与H2都支持
+	 */
+	public static final String CREATE_ADMIN_SQL = "CREATE TABLE IF NOT EXISTS test_admin (Id bigint NOT NULL, "
+			+ "admin_name varchar(255) NOT NULL DEFAULT '', role_name varchar(255) NOT NULL DEFAULT '', "
+			+ "password varchar(255) DEFAULT NULL, PRIMARY KEY (Id))";
+
+	private final String tableName;
+	private final String[] columns;
+
+	private DatasetTable(String tableName, String... columns) {
+		this.tableName = tableName;
+		this.columns = columns;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public String[] getColumns() {
+		return columns.clone();
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public String getColumnList() {
+		return String.join(",", columns);
+	}
+}
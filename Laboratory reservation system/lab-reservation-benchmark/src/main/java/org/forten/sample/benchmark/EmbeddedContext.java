@@ -0,0 +1,80 @@
+package org.forten.sample.benchmark;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.dao.InstrumentedDataSource;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * 以app-core.xml启动Spring容器，数据源指向MySQL兼容模式的H2内存数据库
+ * 
+ * 连接参数通过同名系统属性覆盖db.properties（Spring的Environment优先于属性文件），
+ * 启动前已经设置了的系统属性不会被改写，因此也可以用-Djdbc.url=...指向真实的MySQL。
+ * 表结构由hibernate.hbm2ddl.auto=create根据实体重新生成。
+ */
+public class EmbeddedContext implements Closeable {
+	private static final Logger log = Logger.getLogger(EmbeddedContext.class);
+
+	public static final String H2_URL = "jdbc:h2:mem:labReservation;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	private static final String CONFIG_LOCATION = "classpath:spring/app-core.xml";
+
+	private final ClassPathXmlApplicationContext context;
+
+	public EmbeddedContext() {
+		applyDefaultProperties();
+		log.info("启动Spring容器，数据库：" + System.getProperty("jdbc.url"));
+		context = new ClassPathXmlApplicationContext(CONFIG_LOCATION);
+	}
+
+	/**
+	 * 把指向H2的连接参数设置为系统属性，已经设置过的属性保持不变
+	 */
+	public static void applyDefaultProperties() {
+		for (Entry<String, String> entry : defaultProperties().entrySet()) {
+			if (System.getProperty(entry.getKey()) == null) {
+				System.setProperty(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private static Map<String, String> defaultProperties() {
+		Map<String, String> props = new LinkedHashMap<>();
+		props.put("jdbc.driverClassName", "org.h2.Driver");
+		props.put("jdbc.url", H2_URL);
+		props.put("jdbc.username", "sa");
+		props.put("jdbc.password", "");
+		props.put("jdbc.initialSize", "8");
+		props.put("jdbc.minIdle", "8");
+		props.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		props.put("hibernate.hbm2ddl.auto", "create");
+		props.put("hibernate.show_sql", "false");
+		return props;
+	}
+
+	public <T> T getBean(Class<T> clazz) {
+		return context.getBean(clazz);
+	}
+
+	public DataSource getDataSource() {
+		return context.getBean("dataSource", DataSource.class);
+	}
+
+	/**
+	 * @return app-core.xml中统计SQL执行情况的数据源，BO层访问数据库都经过它
+	 */
+	public InstrumentedDataSource getInstrumentedDataSource() {
+		return context.getBean("instrumentedDataSource", InstrumentedDataSource.class);
+	}
+
+	@Override
+	public void close() {
+		context.close();
+	}
+}
@@ -0,0 +1,79 @@
+package org.forten.sample.benchmark;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import javax.servlet.ServletException;
+import javax.sql.DataSource;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.log4j.Logger;
+import org.forten.sample.filter.AuthFilter;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.FrameworkServlet;
+
+/**
+ * 在嵌入式Tomcat中启动web应用，数据库参数与{@link EmbeddedContext}相同
+ * 
+ * 文档根目录使用源码中的src/main/webapp，web.xml与JSP都与生产环境一致；类从当前classpath加载，
+ * 因此可以直接取得web应用中Spring容器的Bean。AuthFilter通过@WebFilter声明，
+ * 而注解扫描只覆盖WEB-INF/classes和WEB-INF/lib，这里在web.xml声明的过滤器之后以相同的URL模式注册。
+ */
+public class EmbeddedWebapp implements Closeable {
+	private static final Logger log = Logger.getLogger(EmbeddedWebapp.class);
+
+	private static final String SERVLET_NAME = "appServlet";
+
+	private final Tomcat tomcat = new Tomcat();
+	private final Context context;
+	private final File baseDir;
+
+	public EmbeddedWebapp(File docBase, int port, int maxThreads) throws ServletException, IOException {
+		if (!new File(docBase, "WEB-INF/web.xml").isFile()) {
+			throw new IOException("不是web应用目录：" + docBase.getAbsolutePath());
+		}
+		EmbeddedContext.applyDefaultProperties();
+		baseDir = Files.createTempDirectory("lab-tomcat").toFile();
+		tomcat.setBaseDir(baseDir.getAbsolutePath());
+		tomcat.setPort(port);
+		tomcat.getConnector().setAttribute("maxThreads", maxThreads);
+		context = tomcat.addWebapp("", docBase.getAbsolutePath());
+		context.addServletContainerInitializer((classes, servletContext) -> servletContext
+				.addFilter("authFilter", AuthFilter.class)
+				.addMappingForUrlPatterns(null, true, "/teacher/*", "/student/*"), null);
+	}
+
+	public void start() throws LifecycleException {
+		long start = System.currentTimeMillis();
+		// web.xml中DispatcherServlet配置了load-on-startup，Spring容器随Tomcat一起启动
+		tomcat.start();
+		log.info(String.format("web应用已启动，端口%d，耗时%dms", getPort(), System.currentTimeMillis() - start));
+	}
+
+	public int getPort() {
+		return tomcat.getConnector().getLocalPort();
+	}
+
+	public WebApplicationContext getApplicationContext() {
+		return (WebApplicationContext) context.getServletContext()
+				.getAttribute(FrameworkServlet.SERVLET_CONTEXT_PREFIX + SERVLET_NAME);
+	}
+
+	public DataSource getDataSource() {
+		return getApplicationContext().getBean("dataSource", DataSource.class);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			tomcat.stop();
+			tomcat.destroy();
+		} catch (LifecycleException e) {
+			throw new IOException("停止Tomcat时出错", e);
+		}
+	}
+}
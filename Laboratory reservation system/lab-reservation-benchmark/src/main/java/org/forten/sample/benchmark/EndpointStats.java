@@ -0,0 +1,98 @@
+package org.forten.sample.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个接口的请求数、错误数与延迟分布，延迟单位为微秒
+ */
+public class EndpointStats {
+	// 直方图的桶上界（毫秒），最后一个桶收集其余所有请求
+	private static final long[] BUCKET_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+	private final String endpoint;
+	private final LongAdder errors = new LongAdder();
+	private long[] latencies = new long[1024];
+	private int count;
+	private boolean sorted;
+
+	public EndpointStats(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	public synchronized void record(long nanos, boolean success) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = nanos;
+		sorted = false;
+		if (!success) {
+			errors.increment();
+		}
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	public synchronized long getRequests() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public synchronized double getErrorRate() {
+		return count == 0 ? 0 : (double) errors.sum() / count;
+	}
+
+	public double getP50() {
+		return percentile(0.50);
+	}
+
+	public double getP90() {
+		return percentile(0.90);
+	}
+
+	public double getP99() {
+		return percentile(0.99);
+	}
+
+	public double getMax() {
+		return percentile(1.0);
+	}
+
+	/**
+	 * 按{@link #BUCKET_MILLIS}统计的直方图，第i个元素是耗时不超过第i个上界（且超过前一个上界）的请求数，
+	 * 最后一个元素是超过最大上界的请求数
+	 */
+	public synchronized long[] getHistogram() {
+		long[] histogram = new long[BUCKET_MILLIS.length + 1];
+		for (int i = 0; i < count; i++) {
+			int bucket = 0;
+			while (bucket < BUCKET_MILLIS.length && latencies[i] > BUCKET_MILLIS[bucket] * 1000000) {
+				bucket++;
+			}
+			histogram[bucket]++;
+		}
+		return histogram;
+	}
+
+	public static long[] getBucketMillis() {
+		return BUCKET_MILLIS.clone();
+	}
+
+	// 最近秩法
+	private synchronized double percentile(double p) {
+		if (count == 0) {
+			return 0;
+		}
+		if (!sorted) {
+			Arrays.sort(latencies, 0, count);
+			sorted = true;
+		}
+		int rank = (int) Math.ceil(p * count);
+		return latencies[Math.max(rank - 1, 0)] / 1000.0;
+	}
+}
@@ -0,0 +1,107 @@
+package org.forten.sample.benchmark;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * 通过批量INSERT写入数据库
+ * 
+ * 每张表一个PreparedStatement，每{@value #BATCH_SIZE}行提交一次批处理，每{@value #COMMIT_ROWS}行提交一次事务。
+ * 写入MySQL时应在连接URL中加上rewriteBatchedStatements=true，驱动才会把批处理合并成多值INSERT。
+ */
+public class JdbcDatasetSink implements DatasetSink {
+	private static final int BATCH_SIZE = 1000;
+	private static final int COMMIT_ROWS = 50000;
+
+	private final Connection connection;
+	private final Map<DatasetTable, PreparedStatement> statements = new EnumMap<>(DatasetTable.class);
+	private final Map<DatasetTable, Integer> pending = new EnumMap<>(DatasetTable.class);
+	private int uncommitted;
+
+	public JdbcDatasetSink(DataSource dataSource) throws IOException {
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			try (Statement st = connection.createStatement()) {
+				st.execute(DatasetTable.CREATE_ADMIN_SQL);
+			}
+		} catch (SQLException e) {
+			throw new IOException("无法连接数据库", e);
+		}
+	}
+
+	@Override
+	public void write(DatasetTable table, Object... values) throws IOException {
+		try {
+			PreparedStatement ps = statements.get(table);
+			if (ps == null) {
+				ps = connection.prepareStatement(insertSql(table));
+				statements.put(table, ps);
+				pending.put(table, 0);
+			}
+			for (int i = 0; i < values.length; i++) {
+				Object value = values[i];
+				if (value instanceof Date) {
+					ps.setTimestamp(i + 1, new Timestamp(((Date) value).getTime()));
+				} else {
+					ps.setObject(i + 1, value);
+				}
+			}
+			ps.addBatch();
+			int n = pending.get(table) + 1;
+			if (n == BATCH_SIZE) {
+				ps.executeBatch();
+				n = 0;
+			}
+			pending.put(table, n);
+			if (++uncommitted == COMMIT_ROWS) {
+				flush();
+			}
+		} catch (SQLException e) {
+			throw new IOException("写入" + table.getTableName() + "时出错", e);
+		}
+	}
+
+	private static String insertSql(DatasetTable table) {
+		StringBuilder sb = new StringBuilder("INSERT INTO ").append(table.getTableName()).append(" (")
+				.append(table.getColumnList()).append(") VALUES (");
+		for (int i = 0; i < table.getColumnCount(); i++) {
+			sb.append(i == 0 ? "?" : ",?");
+		}
+		return sb.append(')').toString();
+	}
+
+	// 按枚举顺序执行剩余的批处理，保证父表先于子表写入
+	private void flush() throws SQLException {
+		for (Map.Entry<DatasetTable, PreparedStatement> entry : statements.entrySet()) {
+			if (pending.get(entry.getKey()) > 0) {
+				entry.getValue().executeBatch();
+				pending.put(entry.getKey(), 0);
+			}
+		}
+		connection.commit();
+		uncommitted = 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			for (PreparedStatement ps : statements.values()) {
+				ps.close();
+			}
+			connection.close();
+		} catch (SQLException e) {
+			throw new IOException("提交数据时出错", e);
+		}
+	}
+}
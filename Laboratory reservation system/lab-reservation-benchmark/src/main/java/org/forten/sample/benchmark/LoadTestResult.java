@@ -0,0 +1,69 @@
+package org.forten.sample.benchmark;
+
+import java.util.Map;
+
+import org.forten.sample.vo.PoolMetricsVo;
+
+/**
+ * 一次预约高峰压测的结果
+ */
+public class LoadTestResult {
+	private final int students;
+	private final int completed;
+	private final double seconds;
+	private final Map<String, EndpointStats> endpoints;
+	private final int poolMaxActive;
+	private final int poolPeakActive;
+	private final double poolMeanActive;
+	private final double poolSaturatedRatio;
+	private final PoolMetricsVo poolMetrics;
+
+	public LoadTestResult(int students, int completed, double seconds, Map<String, EndpointStats> endpoints,
+			PoolMonitor pool, PoolMetricsVo poolMetrics) {
+		this.students = students;
+		this.completed = completed;
+		this.seconds = seconds;
+		this.endpoints = endpoints;
+		this.poolMaxActive = pool.getMaxActive();
+		this.poolPeakActive = pool.getPeakActive();
+		this.poolMeanActive = pool.getMeanActive();
+		this.poolSaturatedRatio = pool.getSaturatedRatio();
+		this.poolMetrics = poolMetrics;
+	}
+
+	public int getStudents() {
+		return students;
+	}
+
+	public int getCompleted() {
+		return completed;
+	}
+
+	public double getSeconds() {
+		return seconds;
+	}
+
+	public Map<String, EndpointStats> getEndpoints() {
+		return endpoints;
+	}
+
+	public int getPoolMaxActive() {
+		return poolMaxActive;
+	}
+
+	public int getPoolPeakActive() {
+		return poolPeakActive;
+	}
+
+	public double getPoolMeanActive() {
+		return poolMeanActive;
+	}
+
+	public double getPoolSaturatedRatio() {
+		return poolSaturatedRatio;
+	}
+
+	public PoolMetricsVo getPoolMetrics() {
+		return poolMetrics;
+	}
+}
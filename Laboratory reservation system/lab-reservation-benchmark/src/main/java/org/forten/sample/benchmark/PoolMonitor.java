@@ -0,0 +1,61 @@
+package org.forten.sample.benchmark;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp.BasicDataSource;
+
+/**
+ * 定时采样commons-dbcp连接池的活动连接数，统计峰值、均值和连接池被占满的时间比例
+ */
+public class PoolMonitor implements Closeable {
+	private final BasicDataSource dataSource;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "pool-monitor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private long samples;
+	private long saturatedSamples;
+	private long activeSum;
+	private int peakActive;
+
+	public PoolMonitor(BasicDataSource dataSource, long intervalMillis) {
+		this.dataSource = dataSource;
+		scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized void sample() {
+		int active = dataSource.getNumActive();
+		samples++;
+		activeSum += active;
+		peakActive = Math.max(peakActive, active);
+		if (active >= dataSource.getMaxActive()) {
+			saturatedSamples++;
+		}
+	}
+
+	public int getMaxActive() {
+		return dataSource.getMaxActive();
+	}
+
+	public synchronized int getPeakActive() {
+		return peakActive;
+	}
+
+	public synchronized double getMeanActive() {
+		return samples == 0 ? 0 : (double) activeSum / samples;
+	}
+
+	public synchronized double getSaturatedRatio() {
+		return samples == 0 ? 0 : (double) saturatedSamples / samples;
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+}
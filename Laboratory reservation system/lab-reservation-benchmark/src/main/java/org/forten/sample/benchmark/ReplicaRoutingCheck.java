@@ -0,0 +1,190 @@
+package org.forten.sample.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.bo.LaboratoryBo;
+import org.forten.sample.bo.StudentBo;
+import org.forten.sample.dao.ReplicaRoutingDataSource;
+import org.forten.sample.entity.Laboratory;
+import org.forten.sample.entity.StudentLaboratoryRelation;
+
+/**
+ * 读写分离的本地验证，主库和从库是两个独立的H2内存数据库
+ *
+ * 生成测试数据后用H2的SCRIPT把主库整体复制到从库，再从从库删除一名学生的全部预约作为标记：
+ * StudentBo.queryAll查到空列表说明读的是从库，查到预约说明读的是主库。之后由一个线程每100毫秒把主库的心跳同步到从库，模拟正常的复制。
+ * 依次验证：复制正常时只读事务使用从库、写事务使用主库；停止同步超过maxLagMillis后只读事务回退到主库；恢复同步后重新使用从库。
+ * 任何一步不符合预期时以非0状态退出。
+ *
+ * 用法：java -cp target/lab-benchmarks.jar org.forten.sample.benchmark.ReplicaRoutingCheck，
+ * 系统属性check.scale指定DatasetGenerator的比例因子（默认0.01），check.reads指定每一步的只读调用次数（默认50）。
+ */
+public class ReplicaRoutingCheck {
+	private static final Logger log = Logger.getLogger(ReplicaRoutingCheck.class);
+
+	public static final String REPLICA_URL = "jdbc:h2:mem:labReplica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	private static final long LAG_CHECK_MILLIS = 200;
+	private static final long MAX_LAG_MILLIS = 1000;
+	private static final long REPLICATE_MILLIS = 100;
+	private static final long WAIT_MILLIS = 10000;
+
+	private final List<String> failures = new ArrayList<>();
+
+	public static void main(String[] args) throws Exception {
+		System.setProperty("jdbc.replica.urls", REPLICA_URL);
+		System.setProperty("jdbc.replica.lagCheckMillis", String.valueOf(LAG_CHECK_MILLIS));
+		System.setProperty("jdbc.replica.maxLagMillis", String.valueOf(MAX_LAG_MILLIS));
+		double scale = Double.parseDouble(System.getProperty("check.scale", "0.01"));
+		int reads = Integer.getInteger("check.reads", 50);
+
+		ReplicaRoutingCheck check = new ReplicaRoutingCheck();
+		try (EmbeddedContext context = new EmbeddedContext()) {
+			DatasetGenerator generator = new DatasetGenerator(20161119L, scale);
+			try (DatasetSink sink = new JdbcDatasetSink(context.getDataSource())) {
+				generator.generate(sink);
+			}
+			check.run(context, generator, reads);
+		}
+		if (!check.failures.isEmpty()) {
+			for (String failure : check.failures) {
+				log.error(failure);
+			}
+			System.exit(1);
+		}
+		log.info("读写分离验证通过");
+	}
+
+	private void run(EmbeddedContext context, DatasetGenerator generator, int reads) throws Exception {
+		ReplicaRoutingDataSource routing = context.getBean(ReplicaRoutingDataSource.class);
+		StudentBo studentBo = context.getBean(StudentBo.class);
+		DataSource primary = routing.getPrimary();
+
+		long markedStudent = copyToReplica(primary);
+		log.info("主库已复制到从库，从库中删除了学生" + markedStudent + "的预约");
+
+		ScheduledExecutorService replicator = startReplicator(primary);
+		waitFor("从库恢复使用", () -> routing.snapshot().get(0).isHealthy());
+		long replicaBefore = replicaConnections(routing);
+		long fallbacksBefore = routing.getFallbacks();
+		for (int i = 0; i < reads; i++) {
+			expect(studentBo.queryAll(markedStudent).isEmpty(), "复制正常时只读事务应读取从库");
+		}
+		expect(replicaConnections(routing) - replicaBefore == reads, "复制正常时每个只读事务借用一个从库连接");
+		expect(routing.getFallbacks() == fallbacksBefore, "复制正常时只读事务不应回退到主库");
+
+		// 新开一个远期的实验室场次，避免与学生已有的预约时间冲突
+		Laboratory laboratory = new Laboratory(DatasetGenerator.LABORATORY_NAMES[0], "读写分离验证",
+				new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1000)), 1, 10, "第一大节");
+		context.getBean(LaboratoryBo.class).doSave(laboratory);
+		replicaBefore = replicaConnections(routing);
+		StudentLaboratoryRelation relation = new StudentLaboratoryRelation(laboratory.getId());
+		relation.setStudentId(generator.getStudentIds()[0]);
+		expect("预约成功！".equals(studentBo.doSave(relation).getMessage()), "写事务应在主库执行成功");
+		expect(replicaConnections(routing) == replicaBefore, "写事务不应使用从库");
+
+		replicator.shutdownNow();
+		waitFor("从库因复制延迟暂停使用", () -> !routing.snapshot().get(0).isHealthy());
+		replicaBefore = replicaConnections(routing);
+		fallbacksBefore = routing.getFallbacks();
+		for (int i = 0; i < reads; i++) {
+			expect(!studentBo.queryAll(markedStudent).isEmpty(), "复制中断时只读事务应读取主库");
+		}
+		expect(replicaConnections(routing) == replicaBefore, "复制中断时不应使用从库");
+		expect(routing.getFallbacks() - fallbacksBefore == reads, "复制中断时每个只读事务都回退到主库");
+
+		replicator = startReplicator(primary);
+		waitFor("从库恢复使用", () -> routing.snapshot().get(0).isHealthy());
+		expect(studentBo.queryAll(markedStudent).isEmpty(), "复制恢复后只读事务应重新读取从库");
+		replicator.shutdownNow();
+
+		log.info("从库状态：lagMillis=" + routing.snapshot().get(0).getLagMillis() + "，只读连接"
+				+ routing.getReadOnlyConnections() + "个，其中回退到主库" + routing.getFallbacks() + "个");
+	}
+
+	// 用SCRIPT导出主库的表结构与数据并在从库执行，返回被删除了预约的学生ID
+	private static long copyToReplica(DataSource primary) throws SQLException {
+		long studentId;
+		try (Connection source = primary.getConnection();
+				Connection target = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+			try (Statement read = source.createStatement();
+					ResultSet rs = read.executeQuery("SCRIPT");
+					Statement write = target.createStatement()) {
+				while (rs.next()) {
+					write.execute(rs.getString(1));
+				}
+			}
+			try (Statement st = source.createStatement();
+					ResultSet rs = st.executeQuery("SELECT student_id FROM test_student_laboratory_relation LIMIT 1")) {
+				if (!rs.next()) {
+					throw new IllegalStateException("测试数据中没有预约记录");
+				}
+				studentId = rs.getLong(1);
+			}
+			try (PreparedStatement ps = target
+					.prepareStatement("DELETE FROM test_student_laboratory_relation WHERE student_id=?")) {
+				ps.setLong(1, studentId);
+				ps.executeUpdate();
+			}
+		}
+		return studentId;
+	}
+
+	// 模拟复制：只把主库的心跳同步到从库
+	private static ScheduledExecutorService startReplicator(DataSource primary) {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+		executor.scheduleWithFixedDelay(() -> {
+			try (Connection source = primary.getConnection();
+					Connection target = DriverManager.getConnection(REPLICA_URL, "sa", "");
+					Statement st = source.createStatement();
+					ResultSet rs = st.executeQuery("SELECT beat_time FROM test_replica_heartbeat WHERE id=1")) {
+				if (rs.next()) {
+					try (PreparedStatement ps = target.prepareStatement(
+							"MERGE INTO test_replica_heartbeat (id, beat_time) KEY(id) VALUES (1, ?)")) {
+						ps.setLong(1, rs.getLong(1));
+						ps.executeUpdate();
+					}
+				}
+			} catch (SQLException e) {
+				log.warn("同步心跳失败：" + e.getMessage());
+			}
+		}, 0, REPLICATE_MILLIS, TimeUnit.MILLISECONDS);
+		return executor;
+	}
+
+	private static long replicaConnections(ReplicaRoutingDataSource routing) {
+		return routing.snapshot().get(0).getConnections();
+	}
+
+	private void waitFor(String description, BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new IllegalStateException("等待超时：" + description);
+			}
+			Thread.sleep(50);
+		}
+		log.info(description);
+	}
+
+	private void expect(boolean condition, String description) {
+		if (!condition && !failures.contains(description)) {
+			failures.add(description);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package org.forten.sample.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.dao.AdaptivePoolSizer;
+import org.forten.sample.dao.InstrumentedDataSource;
+import org.forten.sample.dao.PoolStatisticsDataSource;
+import org.forten.sample.vo.PoolMetricsVo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * 预约高峰压测
+ * 
+ * 在嵌入式Tomcat中启动web应用，用{@link DatasetGenerator}准备数据后，让大量{@link VirtualStudent}
+ * 在ramp时间内陆续到达，经真实的HTTP接口登录并抢订少数几个热门实验室的场次。
+ * 结束后按接口输出请求数、错误率、延迟分位数和延迟直方图，以及数据库连接池的饱和情况，结果同时以JSON格式写入文件。
+ * 
+ * 用法：java -cp target/lab-benchmarks.jar org.forten.sample.benchmark.RushLoadTest，可用以下系统属性调整：
+ * load.students（虚拟学生数，默认1000）、load.threads（并发客户端线程数，默认64）、
+ * load.rampSeconds（学生到达的时间窗口，默认5秒，0表示同时到达）、load.rounds（每名学生查询并预约的次数，默认1）、
+ * load.thinkMillis（步骤之间的停顿，默认0）、load.hotLaboratories（被争抢的实验室名称数，默认3）、
+ * load.tomcatThreads（Tomcat工作线程数，默认200）、load.scale、load.seed、load.port（默认0即随机端口）、
+ * load.webapp（web应用目录，默认../src/main/webapp）、load.result（JSON结果文件）。
+ * 数据库连接池大小等参数可以用jdbc.*系统属性覆盖，加上-Dpool.adaptive.enabled=true可以观察连接池的自适应调整。
+ */
+public class RushLoadTest {
+	private static final Logger log = Logger.getLogger(RushLoadTest.class);
+
+	public static void main(String[] args) throws Exception {
+		int students = Integer.getInteger("load.students", 1000);
+		int threads = Integer.getInteger("load.threads", 64);
+		int rampSeconds = Integer.getInteger("load.rampSeconds", 5);
+		int rounds = Integer.getInteger("load.rounds", 1);
+		long thinkMillis = Long.getLong("load.thinkMillis", 0L);
+		int hotLaboratories = Integer.getInteger("load.hotLaboratories", 3);
+		long seed = Long.getLong("load.seed", 20161119L);
+		File resultFile = new File(System.getProperty("load.result", "target/load-test.json"));
+
+		try (EmbeddedWebapp webapp = new EmbeddedWebapp(new File(System.getProperty("load.webapp", "../src/main/webapp")),
+				Integer.getInteger("load.port", 0), Integer.getInteger("load.tomcatThreads", 200))) {
+			webapp.start();
+			InstrumentedDataSource dataSource = webapp.getApplicationContext().getBean("instrumentedDataSource",
+					InstrumentedDataSource.class);
+			PoolStatisticsDataSource primaryDataSource = webapp.getApplicationContext().getBean("primaryDataSource",
+					PoolStatisticsDataSource.class);
+			AdaptivePoolSizer sizer = webapp.getApplicationContext().getBean(AdaptivePoolSizer.class);
+			DatasetGenerator generator = new DatasetGenerator(seed,
+					Double.parseDouble(System.getProperty("load.scale", "0.1")));
+			try (DatasetSink sink = new JdbcDatasetSink(dataSource)) {
+				generator.generate(sink);
+			}
+			String[] numbers = generator.getStudentNumbers();
+			if (students > numbers.length) {
+				log.warn(String.format("数据集中只有%d名学生，虚拟学生数从%d减少为%d", numbers.length, students, numbers.length));
+				students = numbers.length;
+			}
+			String[] laboratoryNames = Arrays.copyOf(DatasetGenerator.LABORATORY_NAMES,
+					Math.min(hotLaboratories, DatasetGenerator.LABORATORY_NAMES.length));
+
+			Map<String, EndpointStats> stats = new LinkedHashMap<>();
+			for (String endpoint : new String[] { VirtualStudent.LOGIN, VirtualStudent.HOME, VirtualStudent.LIST,
+					VirtualStudent.SAVE }) {
+				stats.put(endpoint, new EndpointStats(endpoint));
+			}
+
+			String baseUrl = "http://localhost:" + webapp.getPort();
+			log.info(String.format("%d名虚拟学生在%d秒内到达，客户端线程%d，热门实验室%s", students, rampSeconds, threads,
+					Arrays.toString(laboratoryNames)));
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads);
+			CountDownLatch done = new CountDownLatch(students);
+			AtomicInteger completed = new AtomicInteger();
+			Random random = new Random(seed);
+			long start;
+			try (PoolMonitor pool = new PoolMonitor(primaryDataSource.getBasicDataSource(), 10)) {
+				start = System.nanoTime();
+				for (int i = 0; i < students; i++) {
+					VirtualStudent student = new VirtualStudent(baseUrl, numbers[i]);
+					String laboratoryName = laboratoryNames[random.nextInt(laboratoryNames.length)];
+					Random studentRandom = new Random(random.nextLong());
+					long delay = TimeUnit.SECONDS.toMillis(rampSeconds) * i / students;
+					executor.schedule(() -> {
+						try {
+							if (student.rush(laboratoryName, rounds, studentRandom, stats, thinkMillis)) {
+								completed.incrementAndGet();
+							}
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						} catch (RuntimeException e) {
+							log.warn("虚拟学生执行出错", e);
+						} finally {
+							done.countDown();
+						}
+					}, delay, TimeUnit.MILLISECONDS);
+				}
+				done.await();
+				executor.shutdown();
+				double seconds = (System.nanoTime() - start) / 1e9;
+
+				PoolMetricsVo poolMetrics = primaryDataSource.poolSnapshot();
+				poolMetrics.setAdaptive(sizer.isEnabled());
+				poolMetrics.setAdjustments(sizer.getAdjustments());
+				poolMetrics.setLastAdjustment(sizer.getLastAdjustment());
+				poolMetrics.setSqlLatencyBaselineMicros(sizer.getLatencyBaselineMicros());
+				LoadTestResult result = new LoadTestResult(students, completed.get(), seconds, stats, pool,
+						poolMetrics);
+				print(result);
+				writeJson(result, resultFile);
+			}
+		}
+	}
+
+	private static void print(LoadTestResult result) {
+		System.out.println();
+		System.out.println(String.format("虚拟学生%d，完成%d，耗时%.1fs，完成速率%.1f/s", result.getStudents(),
+				result.getCompleted(), result.getSeconds(), result.getCompleted() / result.getSeconds()));
+		System.out.println(String.format("%-45s %8s %8s %10s %10s %10s %10s", "Endpoint", "Requests", "Errors",
+				"p50(us)", "p90(us)", "p99(us)", "max(us)"));
+		for (EndpointStats stats : result.getEndpoints().values()) {
+			System.out.println(String.format("%-45s %8d %7.2f%% %10.0f %10.0f %10.0f %10.0f", stats.getEndpoint(),
+					stats.getRequests(), stats.getErrorRate() * 100, stats.getP50(), stats.getP90(), stats.getP99(),
+					stats.getMax()));
+		}
+
+		long[] bounds = EndpointStats.getBucketMillis();
+		System.out.println();
+		StringBuilder header = new StringBuilder(String.format("%-45s", "Latency(ms)"));
+		for (long bound : bounds) {
+			header.append(String.format(" %6s", "<=" + bound));
+		}
+		header.append(String.format(" %6s", ">" + bounds[bounds.length - 1]));
+		System.out.println(header);
+		for (EndpointStats stats : result.getEndpoints().values()) {
+			StringBuilder row = new StringBuilder(String.format("%-45s", stats.getEndpoint()));
+			for (long count : stats.getHistogram()) {
+				row.append(String.format(" %6d", count));
+			}
+			System.out.println(row);
+		}
+
+		System.out.println();
+		System.out.println(String.format("连接池：maxActive=%d，峰值活动连接%d，平均活动连接%.1f，饱和时间占比%.1f%%",
+				result.getPoolMaxActive(), result.getPoolPeakActive(), result.getPoolMeanActive(),
+				result.getPoolSaturatedRatio() * 100));
+		PoolMetricsVo poolMetrics = result.getPoolMetrics();
+		System.out.println(String.format("借用连接：等待p50=%dus，p99=%dus，max=%dus，超时%d次；持有连接p50=%dus，p99=%dus；自适应调整%d次，最终maxActive=%d",
+				poolMetrics.getWaitP50Micros(), poolMetrics.getWaitP99Micros(), poolMetrics.getWaitMaxMicros(),
+				poolMetrics.getTimeouts(), poolMetrics.getHoldP50Micros(), poolMetrics.getHoldP99Micros(),
+				poolMetrics.getAdjustments(), poolMetrics.getMaxActive()));
+	}
+
+	private static void writeJson(LoadTestResult result, File file) throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("无法创建目录：" + dir);
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+		log.info("结果已写入" + file.getAbsolutePath());
+	}
+}
@@ -0,0 +1,17 @@
+package org.forten.sample.benchmark;
+
+import java.util.Random;
+
+/**
+ * 一次被计时的操作
+ */
+@FunctionalInterface
+public interface Scenario {
+	/**
+	 * 执行一次操作，抛出的异常计为错误
+	 * 
+	 * @param random
+	 *            当前线程独占的随机数生成器，用来挑选本次操作的参数
+	 */
+	void execute(Random random) throws Exception;
+}
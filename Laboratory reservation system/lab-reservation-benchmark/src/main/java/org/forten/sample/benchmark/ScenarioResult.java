@@ -0,0 +1,86 @@
+package org.forten.sample.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * 一个场景的测量结果，延迟单位为微秒
+ */
+public class ScenarioResult {
+	public static final String HEADER = String.format("%-28s %7s %10s %10s %10s %10s %10s %8s", "Scenario", "Threads",
+			"ops/s", "p50(us)", "p99(us)", "max(us)", "SQL/op", "errors");
+
+	private final String name;
+	private final int threads;
+	private final long operations;
+	private final long errors;
+	private final double throughput;
+	private final double p50;
+	private final double p99;
+	private final double max;
+	private final double statementsPerOperation;
+
+	public ScenarioResult(String name, int threads, long[] latencyNanos, long errors, long elapsedNanos,
+			long statements) {
+		Arrays.sort(latencyNanos);
+		this.name = name;
+		this.threads = threads;
+		this.operations = latencyNanos.length;
+		this.errors = errors;
+		this.throughput = operations * 1e9 / elapsedNanos;
+		this.p50 = percentile(latencyNanos, 0.50) / 1000.0;
+		this.p99 = percentile(latencyNanos, 0.99) / 1000.0;
+		this.max = latencyNanos.length == 0 ? 0 : latencyNanos[latencyNanos.length - 1] / 1000.0;
+		this.statementsPerOperation = operations == 0 ? 0 : (double) statements / operations;
+	}
+
+	// 最近秩法，sorted必须已经排好序
+	private static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.max(rank - 1, 0)];
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getOperations() {
+		return operations;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public double getThroughput() {
+		return throughput;
+	}
+
+	public double getP50() {
+		return p50;
+	}
+
+	public double getP99() {
+		return p99;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	public double getStatementsPerOperation() {
+		return statementsPerOperation;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-28s %7d %10.1f %10.1f %10.1f %10.1f %10.2f %8d", name, threads, throughput, p50, p99,
+				max, statementsPerOperation, errors);
+	}
+}
@@ -0,0 +1,127 @@
+package org.forten.sample.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.dao.InstrumentedDataSource;
+
+/**
+ * 按固定时长运行场景：所有线程先预热，再同时进入测量阶段，记录每次操作的耗时
+ * 
+ * 测量阶段前后各有一道屏障，SQL语句数取两道屏障之间数据源语句计数的差值，不含预热阶段的语句。
+ */
+public class ScenarioRunner {
+	private static final Logger log = Logger.getLogger(ScenarioRunner.class);
+
+	private final InstrumentedDataSource dataSource;
+	private final long warmupNanos;
+	private final long measureNanos;
+	private final long seed;
+
+	public ScenarioRunner(InstrumentedDataSource dataSource, int warmupSeconds, int measureSeconds, long seed) {
+		this.dataSource = dataSource;
+		this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+		this.measureNanos = TimeUnit.SECONDS.toNanos(measureSeconds);
+		this.seed = seed;
+	}
+
+	public ScenarioResult run(String name, int threads, Scenario scenario) throws InterruptedException {
+		final CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+		final LongAdder errors = new LongAdder();
+		final List<Worker> workers = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			Worker worker = new Worker(name + "-" + i, scenario, new Random(seed + i), barrier, errors);
+			workers.add(worker);
+			worker.start();
+		}
+		try {
+			// 预热结束
+			barrier.await();
+			errors.reset();
+			long statementsBefore = dataSource.getStatementCount();
+			long start = System.nanoTime();
+			// 测量开始
+			barrier.await();
+			// 测量结束
+			barrier.await();
+			long elapsed = System.nanoTime() - start;
+			long statements = dataSource.getStatementCount() - statementsBefore;
+			for (Worker worker : workers) {
+				worker.join();
+			}
+			long[] latencies = new long[0];
+			for (Worker worker : workers) {
+				latencies = concat(latencies, worker.latencies, worker.count);
+			}
+			return new ScenarioResult(name, threads, latencies, errors.sum(), elapsed, statements);
+		} catch (BrokenBarrierException e) {
+			throw new IllegalStateException("场景" + name + "的工作线程异常退出", e);
+		}
+	}
+
+	private static long[] concat(long[] a, long[] b, int bLength) {
+		long[] result = Arrays.copyOf(a, a.length + bLength);
+		System.arraycopy(b, 0, result, a.length, bLength);
+		return result;
+	}
+
+	private class Worker extends Thread {
+		private final Scenario scenario;
+		private final Random random;
+		private final CyclicBarrier barrier;
+		private final LongAdder errors;
+		private long[] latencies = new long[1024];
+		private int count;
+
+		Worker(String name, Scenario scenario, Random random, CyclicBarrier barrier, LongAdder errors) {
+			super(name);
+			this.scenario = scenario;
+			this.random = random;
+			this.barrier = barrier;
+			this.errors = errors;
+		}
+
+		@Override
+		public void run() {
+			try {
+				loop(System.nanoTime() + warmupNanos, false);
+				barrier.await();
+				barrier.await();
+				loop(System.nanoTime() + measureNanos, true);
+				barrier.await();
+			} catch (InterruptedException | BrokenBarrierException e) {
+				barrier.reset();
+			}
+		}
+
+		private void loop(long deadline, boolean record) {
+			long now = System.nanoTime();
+			while (now < deadline) {
+				try {
+					scenario.execute(random);
+				} catch (Exception e) {
+					errors.increment();
+					// 每个场景只输出第一个错误，避免刷屏
+					if (errors.sum() == 1) {
+						log.warn(getName() + "执行出错", e);
+					}
+				}
+				long end = System.nanoTime();
+				if (record) {
+					if (count == latencies.length) {
+						latencies = Arrays.copyOf(latencies, count * 2);
+					}
+					latencies[count++] = end - now;
+				}
+				now = end;
+			}
+		}
+	}
+}
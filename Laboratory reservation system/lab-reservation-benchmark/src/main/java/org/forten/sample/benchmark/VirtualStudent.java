@@ -0,0 +1,169 @@
+package org.forten.sample.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 一名虚拟学生，持有自己的会话Cookie，按浏览器中的顺序调用预约流程上的接口
+ * 
+ * 登录 → 打开学生主页 → 按实验室名称查询场次 → 预约其中一个场次。
+ * 任何一步失败（状态码不符、被AuthFilter重定向到登录页、业务返回失败消息）都计为该接口的错误，并放弃后续步骤。
+ */
+public class VirtualStudent {
+	public static final String LOGIN = "/login.do";
+	public static final String HOME = "/student/laboratoryName/listForSelect.do";
+	public static final String LIST = "/teacher/list.do";
+	public static final String SAVE = "/student/save.do";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final String baseUrl;
+	private final String number;
+	private String cookie;
+
+	public VirtualStudent(String baseUrl, String number) {
+		this.baseUrl = baseUrl;
+		this.number = number;
+	}
+
+	/**
+	 * 执行一次完整的预约流程
+	 * 
+	 * @param laboratoryName
+	 *            要预约的实验室名称
+	 * @param rounds
+	 *            登录后重复查询和预约的次数
+	 * @return 所有步骤都成功时返回true
+	 */
+	public boolean rush(String laboratoryName, int rounds, Random random, Map<String, EndpointStats> stats,
+			long thinkMillis) throws InterruptedException {
+		Response login = call(stats.get(LOGIN), "POST", LOGIN, "application/x-www-form-urlencoded",
+				"adminName=" + encode(number) + "&password=" + encode(DatasetGenerator.PASSWORD));
+		if (!login.check(login.status == 302 && login.location != null && login.location.contains(HOME))) {
+			return false;
+		}
+		Thread.sleep(thinkMillis);
+		Response home = call(stats.get(HOME), "GET", HOME, null, null);
+		if (!home.check(home.status == 200)) {
+			return false;
+		}
+		for (int i = 0; i < rounds; i++) {
+			Thread.sleep(thinkMillis);
+			Response list = call(stats.get(LIST), "POST", LIST, "application/json",
+					"{\"laboratoryName\":\"" + laboratoryName + "\",\"pageNo\":1,\"pageSize\":10}");
+			long laboratoryId = list.status == 200 ? pickLaboratory(list.body, random) : 0;
+			if (!list.check(laboratoryId != 0)) {
+				return false;
+			}
+			Thread.sleep(thinkMillis);
+			Response save = call(stats.get(SAVE), "POST", SAVE, "application/json",
+					"{\"laboratoryId\":" + laboratoryId + "}");
+			// 与已有预约时间冲突时服务端拒绝预约，也是正常响应
+			if (!save.check(save.status == 200
+					&& (save.body.contains("预约成功") || save.body.contains("时间冲突")))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long pickLaboratory(String body, Random random) {
+		try {
+			JsonNode dataList = MAPPER.readTree(body).path("dataList");
+			if (dataList.size() == 0) {
+				return 0;
+			}
+			return dataList.get(random.nextInt(dataList.size())).path("id").asLong();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private Response call(EndpointStats stats, String method, String path, String contentType, String body) {
+		Response response = new Response(stats);
+		long start = System.nanoTime();
+		try {
+			HttpURLConnection conn = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+			conn.setInstanceFollowRedirects(false);
+			conn.setRequestMethod(method);
+			if (cookie != null) {
+				conn.setRequestProperty("Cookie", cookie);
+			}
+			if (body != null) {
+				conn.setDoOutput(true);
+				conn.setRequestProperty("Content-Type", contentType + ";charset=UTF-8");
+				try (OutputStream out = conn.getOutputStream()) {
+					out.write(body.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			response.status = conn.getResponseCode();
+			response.location = conn.getHeaderField("Location");
+			List<String> setCookies = conn.getHeaderFields().get("Set-Cookie");
+			if (setCookies != null) {
+				for (String setCookie : setCookies) {
+					if (setCookie.startsWith("JSESSIONID=")) {
+						cookie = setCookie.substring(0, setCookie.indexOf(';') < 0 ? setCookie.length()
+								: setCookie.indexOf(';'));
+					}
+				}
+			}
+			// 读完响应体，连接才能被keep-alive复用
+			InputStream in = response.status >= 400 ? conn.getErrorStream() : conn.getInputStream();
+			response.body = in == null ? "" : readFully(in);
+		} catch (IOException e) {
+			response.status = -1;
+			response.body = "";
+		}
+		response.nanos = System.nanoTime() - start;
+		return response;
+	}
+
+	private static String readFully(InputStream in) throws IOException {
+		try (InputStream input = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = input.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static String encode(String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class Response {
+		private final EndpointStats stats;
+		private int status;
+		private String location;
+		private String body;
+		private long nanos;
+
+		Response(EndpointStats stats) {
+			this.stats = stats;
+		}
+
+		boolean check(boolean success) {
+			stats.record(nanos, success);
+			return success;
+		}
+	}
+}
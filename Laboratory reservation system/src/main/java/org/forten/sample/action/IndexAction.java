@@ -5,7 +5,9 @@ import java.util.Map;
 
 import javax.annotation.Resource;
 
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.bo.IndexBo;
+import org.forten.sample.interceptor.ConditionalGet;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -16,6 +18,7 @@ public class IndexAction {
 	@Resource
 	private IndexBo bo;
 
+	@ConditionalGet(Domain.LABORATORY)
 	@RequestMapping("orderTimesForIndex")
 	public @ResponseBody Map<Integer, List<String>> orderTimesForIndex() {
 		return bo.orderTimesForIndex();
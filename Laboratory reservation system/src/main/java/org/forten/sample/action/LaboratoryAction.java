@@ -1,6 +1,8 @@
 package org.forten.sample.action;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 
@@ -10,26 +12,41 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.apache.poi.ss.usermodel.Workbook;
+import org.forten.sample.bo.ArchiveBo;
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.bo.LaboratoryBo;
+import org.forten.sample.bo.StudentProvisioner;
 import org.forten.sample.entity.Laboratory;
 import org.forten.sample.entity.Student;
+import org.forten.sample.interceptor.ConditionalGet;
 import org.forten.sample.qo.LaboratoryQo;
 import org.forten.sample.ro.RoWithPageInfo;
+import org.forten.sample.vo.ImportReportVo;
+import org.forten.sample.vo.LaboratorySeriesVo;
 import org.forten.sample.vo.LaboratoryVo;
 import org.forten.sample.vo.LaboratoryVoForUpdate;
 import org.forten.sample.vo.LoginedAdminVo;
 import org.forten.sample.vo.MessageVo;
+import org.forten.sample.vo.ProvisionJobVo;
+import org.forten.sample.vo.StudentLaboratoryRelationVo;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
 
 @Controller
 @RequestMapping("/teacher")
 public class LaboratoryAction {
 	@Resource
 	private LaboratoryBo bo;
+	@Resource
+	private ArchiveBo archiveBo;
+	@Resource
+	private StudentProvisioner studentProvisioner;
 
+	@ConditionalGet({ Domain.LABORATORY, Domain.BOOKING })
 	@RequestMapping("listForEcharts")
 	public @ResponseBody List<Integer> listForEcharts() {
 		return bo.listForEcharts();
@@ -37,10 +54,16 @@ public class LaboratoryAction {
 
 	@RequestMapping("studentList")
 	public @ResponseBody List<Student> studentList(HttpServletRequest request) {
-		int id = Integer.valueOf(request.getParameter("id"));
+		long id = Long.valueOf(request.getParameter("id"));
 		return bo.studentList(id);
 	}
 
+	@RequestMapping("history")
+	public @ResponseBody List<StudentLaboratoryRelationVo> history(HttpServletRequest request) {
+		long id = Long.valueOf(request.getParameter("id"));
+		return archiveBo.queryHistoryOfLaboratory(id);
+	}
+
 	@RequestMapping("list")
 	public @ResponseBody RoWithPageInfo<LaboratoryVo> list(@RequestBody LaboratoryQo qo, HttpSession session) {
 		LoginedAdminVo loginedAdmin = (LoginedAdminVo) session.getAttribute("loginedAdmin");
@@ -55,7 +78,7 @@ public class LaboratoryAction {
 	}
 
 	@RequestMapping("delete")
-	public @ResponseBody MessageVo delete(@RequestBody Integer... ids) {
+	public @ResponseBody MessageVo delete(@RequestBody Long... ids) {
 		return bo.doDelete(ids);
 	}
 
@@ -64,6 +87,41 @@ public class LaboratoryAction {
 		return bo.doUpdate(vo);
 	}
 
+	@RequestMapping("series/list")
+	public @ResponseBody List<LaboratorySeriesVo> listSeries() {
+		return bo.listSeries();
+	}
+
+	@RequestMapping("series/save")
+	public @ResponseBody MessageVo saveSeries(@RequestBody LaboratorySeriesVo vo) {
+		return bo.saveSeries(vo);
+	}
+
+	@RequestMapping("series/update")
+	public @ResponseBody MessageVo updateSeries(@RequestBody LaboratorySeriesVo vo) {
+		return bo.updateSeries(vo);
+	}
+
+	@RequestMapping("import")
+	public @ResponseBody ImportReportVo importData(@RequestParam("file") MultipartFile file) throws IOException {
+		try (InputStream in = file.getInputStream()) {
+			return bo.importData(in, file.getOriginalFilename());
+		}
+	}
+
+	@RequestMapping("student/provision")
+	public @ResponseBody ProvisionJobVo provision(@RequestParam("file") MultipartFile file) throws IOException {
+		// 请求结束后上传的临时文件会被删除，先转存一份交给后台任务
+		File csv = File.createTempFile("students", ".csv");
+		file.transferTo(csv);
+		return studentProvisioner.submit(csv, file.getOriginalFilename());
+	}
+
+	@RequestMapping("student/provision/progress")
+	public @ResponseBody ProvisionJobVo provisionProgress(HttpServletRequest request) {
+		return studentProvisioner.progress(request.getParameter("id"));
+	}
+
 	@RequestMapping("export")
 	public void export(HttpServletResponse response) {
 		try (OutputStream out = response.getOutputStream(); Workbook wb = bo.exportData()) {
@@ -77,7 +135,7 @@ public class LaboratoryAction {
 
 	@RequestMapping("exportForStudent")
 	public void exportForStudent(HttpServletRequest request, HttpServletResponse response) {
-		int id = Integer.valueOf(request.getParameter("id"));
+		long id = Long.valueOf(request.getParameter("id"));
 		try (OutputStream out = response.getOutputStream(); Workbook wb = bo.exportForStudent(id)) {
 			response.setContentType("application/x-msexcel");
 			response.setHeader("Content-Disposition", "attachment;filename=student.xls");
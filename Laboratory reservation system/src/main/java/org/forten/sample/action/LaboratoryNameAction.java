@@ -9,8 +9,10 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.apache.poi.ss.usermodel.Workbook;
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.bo.LaboratoryNameBo;
 import org.forten.sample.entity.LaboratoryName;
+import org.forten.sample.interceptor.ConditionalGet;
 import org.forten.sample.ro.RoForLaboratoryName;
 import org.forten.sample.vo.LaboratoryNameVo;
 import org.forten.sample.vo.LoginedAdminVo;
@@ -27,6 +29,7 @@ public class LaboratoryNameAction {
 	@Resource(name = "laboratoryNameBo")
 	private LaboratoryNameBo bo;
 
+	@ConditionalGet(value = Domain.LABORATORY_NAME, perUser = true)
 	@RequestMapping("list")
 	public @ResponseBody RoForLaboratoryName list(HttpSession session) {
 		List<LaboratoryNameVo> nameVoList = bo.queryAll();
@@ -49,7 +52,7 @@ public class LaboratoryNameAction {
 	}
 
 	@RequestMapping("delete")
-	public @ResponseBody MessageVo delete(@RequestBody Integer... ids) {
+	public @ResponseBody MessageVo delete(@RequestBody Long... ids) {
 		return bo.doDelete(ids);
 	}
 
@@ -0,0 +1,266 @@
+package org.forten.sample.action;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.forten.sample.dao.AdaptivePoolSizer;
+import org.forten.sample.dao.InstrumentedDataSource;
+import org.forten.sample.dao.PoolStatisticsDataSource;
+import org.forten.sample.dao.ReplicaRoutingDataSource;
+import org.forten.sample.interceptor.MetricsInterceptor;
+import org.forten.sample.vo.EndpointMetricsVo;
+import org.forten.sample.vo.LoginedAdminVo;
+import org.forten.sample.vo.PoolMetricsVo;
+import org.forten.sample.vo.ReplicaMetricsVo;
+import org.forten.sample.vo.SqlMetricsVo;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * 各*.do接口的延迟与吞吐量统计，只有教师可以访问
+ * 
+ * /metrics.do返回JSON，/metrics.do?format=prometheus返回Prometheus文本格式，
+ * /metrics/sql.do返回按SQL指纹聚合的统计，/metrics/pool.do返回主库连接池的统计和自适应调整状态，
+ * /metrics/replica.do返回各从库的可用状态、复制延迟和连接池的统计。
+ */
+@Controller
+public class MetricsAction {
+	private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=UTF-8";
+
+	@Resource
+	private MetricsInterceptor metricsInterceptor;
+	@Resource
+	private InstrumentedDataSource instrumentedDataSource;
+	@Resource
+	private PoolStatisticsDataSource primaryDataSource;
+	@Resource
+	private AdaptivePoolSizer adaptivePoolSizer;
+	@Resource
+	private ReplicaRoutingDataSource routingDataSource;
+
+	@RequestMapping("metrics")
+	public @ResponseBody List<EndpointMetricsVo> metrics(HttpSession session, HttpServletResponse response) {
+		if (!isTeacher(session, response)) {
+			return null;
+		}
+		return metricsInterceptor.snapshot();
+	}
+
+	@RequestMapping("metrics/sql")
+	public @ResponseBody List<SqlMetricsVo> sql(HttpSession session, HttpServletResponse response) {
+		if (!isTeacher(session, response)) {
+			return null;
+		}
+		return instrumentedDataSource.snapshot();
+	}
+
+	@RequestMapping("metrics/pool")
+	public @ResponseBody PoolMetricsVo pool(HttpSession session, HttpServletResponse response) {
+		if (!isTeacher(session, response)) {
+			return null;
+		}
+		return poolSnapshot();
+	}
+
+	@RequestMapping("metrics/replica")
+	public @ResponseBody List<ReplicaMetricsVo> replica(HttpSession session, HttpServletResponse response) {
+		if (!isTeacher(session, response)) {
+			return null;
+		}
+		return routingDataSource.snapshot();
+	}
+
+	@RequestMapping(value = "metrics", params = "format=prometheus", produces = PROMETHEUS_CONTENT_TYPE)
+	public @ResponseBody String prometheus(HttpSession session, HttpServletResponse response) {
+		if (!isTeacher(session, response)) {
+			return null;
+		}
+		List<EndpointMetricsVo> list = metricsInterceptor.snapshot();
+		StringBuilder sb = new StringBuilder(256 + list.size() * 512);
+		sb.append("# HELP lab_http_requests_total 处理完成的请求数\n");
+		sb.append("# TYPE lab_http_requests_total counter\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_requests_total", vo, null, vo.getRequests());
+		}
+		sb.append("# HELP lab_http_request_errors_total 抛出异常或返回5xx的请求数\n");
+		sb.append("# TYPE lab_http_request_errors_total counter\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_request_errors_total", vo, null, vo.getErrors());
+		}
+		sb.append("# HELP lab_http_requests_in_flight 正在处理的请求数\n");
+		sb.append("# TYPE lab_http_requests_in_flight gauge\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_requests_in_flight", vo, null, vo.getInFlight());
+		}
+		sb.append("# HELP lab_http_request_duration_seconds 请求处理时间\n");
+		sb.append("# TYPE lab_http_request_duration_seconds summary\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_request_duration_seconds", vo, "0.5", vo.getP50Micros() / 1e6);
+			appendSample(sb, "lab_http_request_duration_seconds", vo, "0.9", vo.getP90Micros() / 1e6);
+			appendSample(sb, "lab_http_request_duration_seconds", vo, "0.99", vo.getP99Micros() / 1e6);
+			appendSample(sb, "lab_http_request_duration_seconds", vo, "0.999", vo.getP999Micros() / 1e6);
+			appendSample(sb, "lab_http_request_duration_seconds_sum", vo, null, vo.getSumMicros() / 1e6);
+			appendSample(sb, "lab_http_request_duration_seconds_count", vo, null, vo.getRequests());
+		}
+		sb.append("# HELP lab_http_request_sql_statements_total 请求中执行的SQL语句数\n");
+		sb.append("# TYPE lab_http_request_sql_statements_total counter\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_request_sql_statements_total", vo, null, vo.getSqlStatements());
+		}
+
+		sb.append("# HELP lab_http_request_connection_wait_seconds_total 请求中借用数据库连接的等待时间\n");
+		sb.append("# TYPE lab_http_request_connection_wait_seconds_total counter\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_request_connection_wait_seconds_total", vo, null,
+					vo.getConnectionWaitMicros() / 1e6);
+		}
+		sb.append("# HELP lab_http_request_connection_hold_seconds_total 请求中持有数据库连接的时间\n");
+		sb.append("# TYPE lab_http_request_connection_hold_seconds_total counter\n");
+		for (EndpointMetricsVo vo : list) {
+			appendSample(sb, "lab_http_request_connection_hold_seconds_total", vo, null,
+					vo.getConnectionHoldMicros() / 1e6);
+		}
+
+		PoolMetricsVo pool = poolSnapshot();
+		appendPoolSample(sb, "lab_pool_active_connections", "gauge", "活动连接数", pool.getActive());
+		appendPoolSample(sb, "lab_pool_idle_connections", "gauge", "空闲连接数", pool.getIdle());
+		appendPoolSample(sb, "lab_pool_max_active_connections", "gauge", "连接池上限maxActive", pool.getMaxActive());
+		appendPoolSample(sb, "lab_pool_borrows_total", "counter", "成功借用连接的次数", pool.getBorrows());
+		appendPoolSample(sb, "lab_pool_timeouts_total", "counter", "在maxWait内借不到连接的次数", pool.getTimeouts());
+		appendPoolSample(sb, "lab_pool_borrow_errors_total", "counter", "其他借用失败的次数", pool.getBorrowErrors());
+		appendPoolSample(sb, "lab_pool_adjustments_total", "counter", "自适应调整maxActive的次数", pool.getAdjustments());
+		sb.append("# HELP lab_pool_wait_seconds 借用连接的等待时间\n");
+		sb.append("# TYPE lab_pool_wait_seconds summary\n");
+		sb.append("lab_pool_wait_seconds{quantile=\"0.5\"} ").append(pool.getWaitP50Micros() / 1e6).append('\n');
+		sb.append("lab_pool_wait_seconds{quantile=\"0.99\"} ").append(pool.getWaitP99Micros() / 1e6).append('\n');
+		sb.append("# HELP lab_pool_hold_seconds 持有连接的时间\n");
+		sb.append("# TYPE lab_pool_hold_seconds summary\n");
+		sb.append("lab_pool_hold_seconds{quantile=\"0.5\"} ").append(pool.getHoldP50Micros() / 1e6).append('\n');
+		sb.append("lab_pool_hold_seconds{quantile=\"0.99\"} ").append(pool.getHoldP99Micros() / 1e6).append('\n');
+
+		appendPoolSample(sb, "lab_replica_read_only_connections_total", "counter", "只读事务借用的连接数",
+				routingDataSource.getReadOnlyConnections());
+		appendPoolSample(sb, "lab_replica_fallbacks_total", "counter", "只读事务回退到主库的次数", routingDataSource.getFallbacks());
+		List<ReplicaMetricsVo> replicaList = routingDataSource.snapshot();
+		if (!replicaList.isEmpty()) {
+			sb.append("# HELP lab_replica_up 从库是否可用\n");
+			sb.append("# TYPE lab_replica_up gauge\n");
+			for (ReplicaMetricsVo vo : replicaList) {
+				appendReplicaSample(sb, "lab_replica_up", vo, vo.isHealthy() ? 1 : 0);
+			}
+			sb.append("# HELP lab_replica_lag_seconds 从库的复制延迟，心跳查询失败时为-1\n");
+			sb.append("# TYPE lab_replica_lag_seconds gauge\n");
+			for (ReplicaMetricsVo vo : replicaList) {
+				appendReplicaSample(sb, "lab_replica_lag_seconds", vo,
+						vo.getLagMillis() < 0 ? -1 : vo.getLagMillis() / 1e3);
+			}
+			sb.append("# HELP lab_replica_connections_total 发往从库的连接数\n");
+			sb.append("# TYPE lab_replica_connections_total counter\n");
+			for (ReplicaMetricsVo vo : replicaList) {
+				appendReplicaSample(sb, "lab_replica_connections_total", vo, vo.getConnections());
+			}
+		}
+
+		List<SqlMetricsVo> sqlList = instrumentedDataSource.snapshot();
+		sb.append("# HELP lab_sql_executions_total SQL执行次数\n");
+		sb.append("# TYPE lab_sql_executions_total counter\n");
+		for (SqlMetricsVo vo : sqlList) {
+			appendSqlSample(sb, "lab_sql_executions_total", vo, vo.getExecutions());
+		}
+		sb.append("# HELP lab_sql_errors_total SQL执行失败次数\n");
+		sb.append("# TYPE lab_sql_errors_total counter\n");
+		for (SqlMetricsVo vo : sqlList) {
+			appendSqlSample(sb, "lab_sql_errors_total", vo, vo.getErrors());
+		}
+		sb.append("# HELP lab_sql_duration_seconds_total SQL执行总耗时\n");
+		sb.append("# TYPE lab_sql_duration_seconds_total counter\n");
+		for (SqlMetricsVo vo : sqlList) {
+			appendSqlSample(sb, "lab_sql_duration_seconds_total", vo, vo.getSumMicros() / 1e6);
+		}
+		sb.append("# HELP lab_sql_rows_total 查询读取的行数\n");
+		sb.append("# TYPE lab_sql_rows_total counter\n");
+		for (SqlMetricsVo vo : sqlList) {
+			appendSqlSample(sb, "lab_sql_rows_total", vo, vo.getRows());
+		}
+		sb.append("# HELP lab_sql_slow_queries_total 超过慢查询阈值的执行次数\n");
+		sb.append("# TYPE lab_sql_slow_queries_total counter\n");
+		for (SqlMetricsVo vo : sqlList) {
+			appendSqlSample(sb, "lab_sql_slow_queries_total", vo, vo.getSlowQueries());
+		}
+		sb.append("# HELP lab_sql_n_plus_one_suspects_total 被判定为疑似N+1查询的请求数\n");
+		sb.append("# TYPE lab_sql_n_plus_one_suspects_total counter\n");
+		for (SqlMetricsVo vo : sqlList) {
+			appendSqlSample(sb, "lab_sql_n_plus_one_suspects_total", vo, vo.getSuspectedNPlusOne());
+		}
+		return sb.toString();
+	}
+
+	private static void appendSample(StringBuilder sb, String name, EndpointMetricsVo vo, String quantile,
+			Object value) {
+		sb.append(name).append("{handler=\"");
+		appendLabelValue(sb, vo.getHandler());
+		sb.append("\",pattern=\"");
+		appendLabelValue(sb, vo.getPattern());
+		sb.append('"');
+		if (quantile != null) {
+			sb.append(",quantile=\"").append(quantile).append('"');
+		}
+		sb.append("} ").append(value).append('\n');
+	}
+
+	private static void appendPoolSample(StringBuilder sb, String name, String type, String help, Object value) {
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		sb.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void appendReplicaSample(StringBuilder sb, String name, ReplicaMetricsVo vo, Object value) {
+		sb.append(name).append("{url=\"").append(vo.getUrl().replace("\\", "\\\\").replace("\"", "\\\""))
+				.append("\"} ").append(value).append('\n');
+	}
+
+	private static void appendSqlSample(StringBuilder sb, String name, SqlMetricsVo vo, Object value) {
+		sb.append(name).append("{fingerprint=\"");
+		appendLabelValue(sb, vo.getFingerprint());
+		sb.append("\"} ").append(value).append('\n');
+	}
+
+	// 按Prometheus文本格式转义标签值，null输出为空字符串
+	private static void appendLabelValue(StringBuilder sb, String value) {
+		if (value == null) {
+			return;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' || c == '"') {
+				sb.append('\\').append(c);
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else {
+				sb.append(c);
+			}
+		}
+	}
+
+	private PoolMetricsVo poolSnapshot() {
+		PoolMetricsVo vo = primaryDataSource.poolSnapshot();
+		vo.setAdaptive(adaptivePoolSizer.isEnabled());
+		vo.setAdjustments(adaptivePoolSizer.getAdjustments());
+		vo.setLastAdjustment(adaptivePoolSizer.getLastAdjustment());
+		vo.setSqlLatencyBaselineMicros(adaptivePoolSizer.getLatencyBaselineMicros());
+		return vo;
+	}
+
+	private static boolean isTeacher(HttpSession session, HttpServletResponse response) {
+		LoginedAdminVo loginedAdmin = (LoginedAdminVo) session.getAttribute("loginedAdmin");
+		if (loginedAdmin == null || !"teacher".equals(loginedAdmin.getRoleName())) {
+			response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+			return false;
+		}
+		return true;
+	}
+}
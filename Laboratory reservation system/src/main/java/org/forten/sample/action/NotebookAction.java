@@ -5,9 +5,11 @@ import java.util.Map;
 
 import javax.annotation.Resource;
 
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.bo.NotebookBo;
 import org.forten.sample.entity.Notebook;
 import org.forten.sample.entity.NotebookResponse;
+import org.forten.sample.interceptor.ConditionalGet;
 import org.forten.sample.vo.MsgVo;
 import org.forten.sample.vo.NotebookVo;
 import org.forten.sample.vo.NotebookVoForUpdate;
@@ -34,13 +36,14 @@ public class NotebookAction {
 		return vo;
 	}
 
+	@ConditionalGet(Domain.NOTEBOOK)
 	@RequestMapping("list")
 	public @ResponseBody Map<Integer,List<NotebookVo>> list() {
 		return bo.queryAll();
 	}
 
 	@RequestMapping("gotoUpdate")
-	public @ResponseBody NotebookVoForUpdate gotoUpdate(int id) {
+	public @ResponseBody NotebookVoForUpdate gotoUpdate(long id) {
 		return bo.queryForUpdate(id);
 	}
 
@@ -50,7 +53,7 @@ public class NotebookAction {
 	}
 
 	@RequestMapping("delete")
-	public @ResponseBody MsgVo delete(int id) {
+	public @ResponseBody MsgVo delete(long id) {
 		MsgVo vo = bo.doDelete(id);
 		return vo;
 	}
@@ -6,10 +6,13 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpSession;
 
 import org.forten.sample.aspect.SwitchStatus;
+import org.forten.sample.bo.ArchiveBo;
 import org.forten.sample.bo.LaboratoryNameBo;
 import org.forten.sample.bo.StudentBo;
 import org.forten.sample.entity.Student;
 import org.forten.sample.entity.StudentLaboratoryRelation;
+import org.forten.sample.qo.LaboratoryQo;
+import org.forten.sample.vo.LaboratoryAvailabilityVo;
 import org.forten.sample.vo.LaboratoryNameVo;
 import org.forten.sample.vo.LoginedAdminVo;
 import org.forten.sample.vo.MessageVo;
@@ -28,6 +31,9 @@ public class StudentAction {
 	
 	@Resource(name = "laboratoryNameBo")
 	private LaboratoryNameBo laboratoryNameBo;
+
+	@Resource(name = "archiveBo")
+	private ArchiveBo archiveBo;
 	
 	@RequestMapping("student/laboratoryName/listForSelect")
 	public ModelAndView listForSelect(HttpSession session) {
@@ -64,4 +70,15 @@ public class StudentAction {
 		return bo.queryAll(loginedAdmin.getId());
 	}
 
+	@RequestMapping("student/availability")
+	public @ResponseBody List<LaboratoryAvailabilityVo> availability(@RequestBody LaboratoryQo qo) {
+		return bo.queryAvailable(qo);
+	}
+
+	@RequestMapping("student/history")
+	public @ResponseBody List<StudentLaboratoryRelationVo> history(HttpSession session) {
+		LoginedAdminVo loginedAdmin = (LoginedAdminVo) session.getAttribute("loginedAdmin");
+		return archiveBo.queryHistoryOfStudent(loginedAdmin.getId());
+	}
+
 }
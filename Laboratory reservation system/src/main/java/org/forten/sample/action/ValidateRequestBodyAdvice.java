@@ -0,0 +1,77 @@
+package org.forten.sample.action;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.vo.MessageVo;
+import org.forten.utils.system.ValidateException;
+import org.forten.utils.system.ValidateUtil;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * 对所有@RequestBody参数按其上的约束注解进行快速失败校验，校验失败时直接返回第一条校验消息。
+ * 启动时预先加载所有@RequestBody参数类型的约束元数据，停止时关闭校验器工厂。
+ */
+@ControllerAdvice
+public class ValidateRequestBodyAdvice extends RequestBodyAdviceAdapter
+		implements ApplicationListener<ContextRefreshedEvent> {
+	private static Logger log = Logger.getLogger(ValidateRequestBodyAdvice.class);
+
+	@Resource
+	private RequestMappingHandlerMapping handlerMapping;
+
+	@Override
+	public boolean supports(MethodParameter methodParameter, Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+			Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+		ValidateUtil.validateThrow(body, true);
+		return body;
+	}
+
+	@ExceptionHandler(ValidateException.class)
+	public @ResponseBody MessageVo handleValidateException(ValidateException e) {
+		return new MessageVo(e.getMessages().get(0));
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		Set<Class<?>> classes = new LinkedHashSet<>();
+		for (HandlerMethod method : handlerMapping.getHandlerMethods().values()) {
+			for (MethodParameter parameter : method.getMethodParameters()) {
+				if (parameter.hasParameterAnnotation(RequestBody.class)) {
+					classes.add(parameter.getParameterType());
+				}
+			}
+		}
+		ValidateUtil.warmUp(classes.toArray(new Class<?>[classes.size()]));
+		if (log.isDebugEnabled()) {
+			log.debug("已预先加载@RequestBody参数类型的校验元数据：" + classes);
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		ValidateUtil.close();
+	}
+}
@@ -69,15 +69,15 @@ public class SendEmail {
 			String sql = "SELECT student_id FROM test_student_laboratory_relation WHERE laboratoryOrderStatus=:laboratoryOrderStatus";
 			Map<String, Object> params1 = new HashMap<>();
 			params1.put("laboratoryOrderStatus", laboratoryOrderStatus);
-			List<Integer> studentIdList = jdbcDao.findBy(sql, params1, new RowMapper<Integer>() {
+			List<Long> studentIdList = jdbcDao.findBy(sql, params1, new RowMapper<Long>() {
 				
 				@Override
-				public Integer mapRow(ResultSet rs, int rowNum) throws SQLException {
-					int studentId = rs.getInt("student_id");
+				public Long mapRow(ResultSet rs, int rowNum) throws SQLException {
+					long studentId = rs.getLong("student_id");
 					return studentId;
 				}
 			});
-			for (Integer studentId : studentIdList) {
+			for (Long studentId : studentIdList) {
 				String sql2 = "SELECT email FROM test_student WHERE id=:studentId";
 				Map<String, Object> params2 = new HashMap<>();
 				params2.put("studentId", studentId);
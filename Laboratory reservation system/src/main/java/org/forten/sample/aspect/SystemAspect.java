@@ -11,6 +11,7 @@ import javax.annotation.Resource;
 import org.apache.taglibs.standard.tei.ForEachTEI;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.forten.sample.bo.WaitlistRegistry;
 import org.forten.sample.dao.JDBCDao;
 import org.forten.sample.vo.StudentLaboratoryRelationVo;
 import org.springframework.jdbc.core.RowMapper;
@@ -21,20 +22,22 @@ import org.springframework.stereotype.Component;
 public class SystemAspect {
 	@Resource
 	private JDBCDao jdbcDao;
+	@Resource
+	private WaitlistRegistry waitlistRegistry;
 
 	@Before("@annotation(org.forten.sample.aspect.SwitchStatus)")
 	public void before() {
 		String sql = "SELECT id FROM test_laboratory ";
 		Map<String, Object> params = new HashMap<>();
-		List<Integer> laboratoryIdList = jdbcDao.findBy(sql, params, new RowMapper<Integer>() {
+		List<Long> laboratoryIdList = jdbcDao.findBy(sql, params, new RowMapper<Long>() {
 
 			@Override
-			public Integer mapRow(ResultSet rs, int rowNum) throws SQLException {
-				int laboratoryId = rs.getInt("id");
+			public Long mapRow(ResultSet rs, int rowNum) throws SQLException {
+				long laboratoryId = rs.getLong("id");
 				return laboratoryId;
 			}
 		});
-		for (Integer id : laboratoryIdList) {
+		for (Long id : laboratoryIdList) {
 			String sql1 = "SELECT count(id) FROM test_student_laboratory_relation WHERE test_student_laboratory_relation.laboratory_id=:laboratoryId";
 			Map<String, Object> params2 = new HashMap<>();
 			params2.put("laboratoryId", id);
@@ -65,7 +68,7 @@ public class SystemAspect {
 				}
 			});
 			if (!(count < minNumber)) {
-				String sql2 = "CREATE TABLE test_demo (SELECT id FROM test_student_laboratory_relation WHERE laboratory_id=:laboratoryId ORDER BY ordered_time LIMIT 0,:maxNumber )";
+				String sql2 = "CREATE TABLE test_demo AS SELECT id FROM test_student_laboratory_relation WHERE laboratory_id=:laboratoryId ORDER BY ordered_time LIMIT 0,:maxNumber";
 				params2.put("maxNumber", maxNumber);
 				jdbcDao.update(sql2, params2);
 
@@ -86,5 +89,7 @@ public class SystemAspect {
 				jdbcDao.update(sql6, params6);
 			}
 		}
+		// 排队状态已重新计算，排队名单需要重新加载
+		waitlistRegistry.invalidate();
 	}
 }
@@ -0,0 +1,119 @@
+package org.forten.sample.bo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.forten.sample.bo.DataVersions.Domain;
+import org.forten.sample.dao.JDBCDao;
+import org.forten.sample.vo.StudentLaboratoryRelationVo;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 预约记录的冷热分离
+ *
+ * 可预约时间早于保留期限的实验室场次，其预约记录由ReservationArchiver分批搬入test_student_laboratory_relation_archive，
+ * 每批一个事务：先复制再删除，主键不变。在线的预约、退选、状态计算只访问热表，历史记录通过queryHistory*查询。
+ */
+@Service("archiveBo")
+public class ArchiveBo {
+	private static final String SELECT_BATCH_SQL = "SELECT test_student_laboratory_relation.id FROM test_student_laboratory_relation JOIN test_laboratory ON (test_laboratory.id=test_student_laboratory_relation.laboratory_id) WHERE test_laboratory.order_time<:horizon LIMIT :batchSize";
+	private static final String COPY_SQL = "INSERT INTO test_student_laboratory_relation_archive (id,laboratory_id,student_id,ordered_time,laboratoryOrderStatus,archived_time) "
+			+ "SELECT id,laboratory_id,student_id,ordered_time,laboratoryOrderStatus,:archivedTime FROM test_student_laboratory_relation WHERE id IN (:ids)";
+	private static final String DELETE_SQL = "DELETE FROM test_student_laboratory_relation WHERE id IN (:ids)";
+	private static final String HISTORY_SQL = "SELECT test_student_laboratory_relation_archive.id,test_student_laboratory_relation_archive.laboratory_id,test_student_laboratory_relation_archive.student_id,test_laboratory.laboratory_name,test_laboratory.laboratory_address,test_laboratory.max_number,test_laboratory.min_number,test_laboratory.class_time,test_student_laboratory_relation_archive.ordered_time,(CASE WHEN test_student_laboratory_relation_archive.laboratoryOrderStatus=0 THEN '已预约' WHEN test_student_laboratory_relation_archive.laboratoryOrderStatus=1 THEN '排队中' WHEN test_student_laboratory_relation_archive.laboratoryOrderStatus=2 THEN '预约成功' "
+			+ " END)laboratoryOrderStatus FROM test_student_laboratory_relation_archive LEFT JOIN test_laboratory ON (test_laboratory.id=test_student_laboratory_relation_archive.laboratory_id) WHERE ";
+
+	@Resource
+	private JDBCDao jdbcDao;
+	@Resource
+	private DataVersions dataVersions;
+
+	/**
+	 * 归档一批预约记录
+	 *
+	 * @param horizon
+	 *            保留期限，可预约时间早于该时间的实验室场次的预约被归档
+	 * @param batchSize
+	 *            本批最多归档的条数
+	 * @return 本批归档的条数，小于batchSize时说明已经没有需要归档的预约
+	 */
+	@Transactional
+	public int archiveBatch(Date horizon, int batchSize) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("horizon", horizon);
+		params.put("batchSize", batchSize);
+		List<Long> ids = jdbcDao.findBy(SELECT_BATCH_SQL, params, new RowMapper<Long>() {
+
+			@Override
+			public Long mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return rs.getLong("id");
+			}
+		});
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		params = new HashMap<>();
+		params.put("ids", ids);
+		params.put("archivedTime", new Date());
+		int copied = jdbcDao.update(COPY_SQL, params);
+		int deleted = jdbcDao.update(DELETE_SQL, params);
+		if (copied != deleted) {
+			// 抛出异常使本批回滚，避免预约记录丢失或重复
+			throw new IllegalStateException(
+					String.format("归档预约记录时复制了%d条却删除了%d条，本批已回滚", copied, deleted));
+		}
+		dataVersions.bump(Domain.BOOKING);
+		return deleted;
+	}
+
+	/**
+	 * 查询学生已归档的预约记录
+	 */
+	@Transactional(readOnly = true)
+	public List<StudentLaboratoryRelationVo> queryHistoryOfStudent(long studentId) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("studentId", studentId);
+		return jdbcDao.findBy(HISTORY_SQL
+				+ "test_student_laboratory_relation_archive.student_id=:studentId ORDER BY test_student_laboratory_relation_archive.ordered_time DESC",
+				params, HISTORY_MAPPER);
+	}
+
+	/**
+	 * 查询实验室场次已归档的预约记录
+	 */
+	@Transactional(readOnly = true)
+	public List<StudentLaboratoryRelationVo> queryHistoryOfLaboratory(long laboratoryId) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("laboratoryId", laboratoryId);
+		return jdbcDao.findBy(HISTORY_SQL
+				+ "test_student_laboratory_relation_archive.laboratory_id=:laboratoryId ORDER BY test_student_laboratory_relation_archive.ordered_time",
+				params, HISTORY_MAPPER);
+	}
+
+	private static final RowMapper<StudentLaboratoryRelationVo> HISTORY_MAPPER = new RowMapper<StudentLaboratoryRelationVo>() {
+
+		@Override
+		public StudentLaboratoryRelationVo mapRow(ResultSet rs, int rowNum) throws SQLException {
+			StudentLaboratoryRelationVo studentLaboratoryRelationVo = new StudentLaboratoryRelationVo();
+			studentLaboratoryRelationVo.setId(rs.getLong("id"));
+			studentLaboratoryRelationVo.setLaboratoryId(rs.getLong("laboratory_id"));
+			studentLaboratoryRelationVo.setStudentId(rs.getLong("student_id"));
+			studentLaboratoryRelationVo.setLaboratoryName(rs.getString("laboratory_name"));
+			studentLaboratoryRelationVo.setLaboratoryAddress(rs.getString("laboratory_address"));
+			studentLaboratoryRelationVo.setMaxNumber(rs.getInt("max_number"));
+			studentLaboratoryRelationVo.setMinNumber(rs.getInt("min_number"));
+			studentLaboratoryRelationVo.setClassTime(rs.getString("class_time"));
+			studentLaboratoryRelationVo.setOrderedTime(rs.getTimestamp("ordered_time"));
+			studentLaboratoryRelationVo.setLaboratoryOrderStatusDesc(rs.getString("laboratoryOrderStatus"));
+			return studentLaboratoryRelationVo;
+		}
+	};
+}
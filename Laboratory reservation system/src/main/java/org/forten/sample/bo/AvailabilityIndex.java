@@ -0,0 +1,269 @@
+package org.forten.sample.bo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.dao.JDBCDao;
+import org.forten.sample.entity.Laboratory;
+import org.forten.sample.vo.LaboratoryAvailabilityVo;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 实验室场次的空余名额索引，供学生按日期范围查找还能预约的场次
+ *
+ * 所有场次按可预约时间（相同时按主键）放在一个跳表里，每个场次带有当前的预约人数，日期范围查询O(log n + k)，不访问数据库。
+ * 场次的添加、修改、删除以及预约、退选在事务提交后同步到索引；由于启动加载与并发写入之间可能有少量偏差，
+ * 另由app-core.xml中的task:scheduled定期调用{@link #refresh()}从数据库整体重建。
+ */
+@Component("availabilityIndex")
+public class AvailabilityIndex {
+	private static final Logger log = Logger.getLogger(AvailabilityIndex.class);
+
+	private static final String LOAD_LABORATORIES_SQL = "SELECT id,laboratory_name,laboratory_address,order_time,min_number,max_number,class_time FROM test_laboratory";
+	private static final String LOAD_RESERVED_SQL = "SELECT laboratory_id,COUNT(*) reserved FROM test_student_laboratory_relation GROUP BY laboratory_id";
+
+	private static final Comparator<Session> SESSION_ORDER = Comparator.comparingLong((Session s) -> s.orderTime)
+			.thenComparingLong(s -> s.id);
+
+	@Resource
+	private JDBCDao jdbcDao;
+
+	private volatile Sessions sessions;
+
+	/**
+	 * 查询可预约时间在[from, to]之间、还有空余名额的实验室场次，按可预约时间排序
+	 *
+	 * @param laboratoryName
+	 *            实验室名称，为null时不限
+	 */
+	public List<LaboratoryAvailabilityVo> queryAvailable(Date from, Date to, String laboratoryName) {
+		Sessions current = loaded();
+		List<LaboratoryAvailabilityVo> result = new ArrayList<>();
+		for (Session session : current.byTime.subSet(new Session(from.getTime(), Long.MIN_VALUE), true,
+				new Session(to.getTime(), Long.MAX_VALUE), true)) {
+			if (laboratoryName != null && !laboratoryName.equals(session.laboratoryName)) {
+				continue;
+			}
+			int free = session.maxNumber - session.reserved.get();
+			if (free > 0) {
+				result.add(new LaboratoryAvailabilityVo(session.id, session.laboratoryName, session.laboratoryAddress,
+						new Date(session.orderTime), session.minNumber, session.maxNumber, session.classTime, free));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 从数据库重建索引；还没有被使用过时跳过
+	 */
+	public void refresh() {
+		if (sessions != null) {
+			sessions = load();
+		}
+	}
+
+	/**
+	 * 丢弃索引，下次查询时从数据库重新加载；在事务中调用时等到事务提交后再丢弃
+	 */
+	public void invalidate() {
+		afterCommit(() -> sessions = null);
+	}
+
+	/**
+	 * 预约了实验室场次，当前事务提交后预约人数加1
+	 */
+	public void reserved(long laboratoryId) {
+		afterCommit(() -> adjust(laboratoryId, 1));
+	}
+
+	/**
+	 * 退选了实验室场次的预约，当前事务提交后预约人数减1
+	 */
+	public void released(long laboratoryId) {
+		afterCommit(() -> adjust(laboratoryId, -1));
+	}
+
+	/**
+	 * 添加或修改了实验室场次，当前事务提交后更新索引，预约人数不变
+	 */
+	public void saved(Laboratory laboratory) {
+		Session session = new Session(laboratory.getId(), laboratory.getLaboratoryName(),
+				laboratory.getLaboratoryAddress(), laboratory.getOrderTime(), laboratory.getMinNumber(),
+				laboratory.getMaxNumber(), laboratory.getClassTime());
+		afterCommit(() -> {
+			Sessions current = sessions;
+			if (current != null) {
+				Session old = current.put(session);
+				if (old != null) {
+					session.reserved.set(old.reserved.get());
+				}
+			}
+		});
+	}
+
+	/**
+	 * 删除了实验室场次，当前事务提交后从索引中删除
+	 */
+	public void removed(Long... laboratoryIds) {
+		afterCommit(() -> {
+			Sessions current = sessions;
+			if (current != null) {
+				for (Long id : laboratoryIds) {
+					current.remove(id);
+				}
+			}
+		});
+	}
+
+	private void adjust(long laboratoryId, int delta) {
+		Sessions current = sessions;
+		if (current != null) {
+			Session session = current.byId.get(laboratoryId);
+			if (session != null) {
+				session.reserved.addAndGet(delta);
+			}
+		}
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private Sessions loaded() {
+		Sessions current = sessions;
+		if (current == null) {
+			synchronized (this) {
+				current = sessions;
+				if (current == null) {
+					current = load();
+					sessions = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	private Sessions load() {
+		long start = System.currentTimeMillis();
+		Map<Long, Integer> reserved = new HashMap<>();
+		jdbcDao.findBy(LOAD_RESERVED_SQL, new HashMap<>(), new RowMapper<Void>() {
+
+			@Override
+			public Void mapRow(ResultSet rs, int rowNum) throws SQLException {
+				reserved.put(rs.getLong("laboratory_id"), rs.getInt("reserved"));
+				return null;
+			}
+		});
+		List<Session> loaded = jdbcDao.findBy(LOAD_LABORATORIES_SQL, new HashMap<>(), new RowMapper<Session>() {
+
+			@Override
+			public Session mapRow(ResultSet rs, int rowNum) throws SQLException {
+				Timestamp orderTime = rs.getTimestamp("order_time");
+				return new Session(rs.getLong("id"), rs.getString("laboratory_name"),
+						rs.getString("laboratory_address"), orderTime, rs.getInt("min_number"),
+						rs.getInt("max_number"), rs.getString("class_time"));
+			}
+		});
+		Sessions result = new Sessions(loaded);
+		for (Map.Entry<Long, Integer> entry : reserved.entrySet()) {
+			Session session = result.byId.get(entry.getKey());
+			if (session != null) {
+				session.reserved.set(entry.getValue());
+			}
+		}
+		if (log.isDebugEnabled()) {
+			log.debug(String.format("加载了%d个实验室场次的空余名额，用时%dms", loaded.size(),
+					System.currentTimeMillis() - start));
+		}
+		return result;
+	}
+
+	private static class Sessions {
+		final NavigableSet<Session> byTime = new ConcurrentSkipListSet<>(SESSION_ORDER);
+		final ConcurrentMap<Long, Session> byId = new ConcurrentHashMap<>();
+
+		Sessions(Collection<Session> sessions) {
+			for (Session session : sessions) {
+				put(session);
+			}
+		}
+
+		Session put(Session session) {
+			Session old = byId.put(session.id, session);
+			if (old != null) {
+				byTime.remove(old);
+			}
+			byTime.add(session);
+			return old;
+		}
+
+		void remove(long id) {
+			Session old = byId.remove(id);
+			if (old != null) {
+				byTime.remove(old);
+			}
+		}
+	}
+
+	private static class Session {
+		final long id;
+		final String laboratoryName;
+		final String laboratoryAddress;
+		// 没有可预约时间的场次排在最前面，不会出现在日期范围查询中
+		final long orderTime;
+		final int minNumber;
+		final int maxNumber;
+		final String classTime;
+		final AtomicInteger reserved = new AtomicInteger();
+
+		// 只用于范围查询的边界
+		Session(long orderTime, long id) {
+			this(id, null, null, null, 0, 0, null, orderTime);
+		}
+
+		Session(long id, String laboratoryName, String laboratoryAddress, Date orderTime, int minNumber,
+				int maxNumber, String classTime) {
+			this(id, laboratoryName, laboratoryAddress, orderTime, minNumber, maxNumber, classTime,
+					orderTime == null ? Long.MIN_VALUE : orderTime.getTime());
+		}
+
+		private Session(long id, String laboratoryName, String laboratoryAddress, Date orderTime, int minNumber,
+				int maxNumber, String classTime, long orderTimeMillis) {
+			this.id = id;
+			this.laboratoryName = laboratoryName;
+			this.laboratoryAddress = laboratoryAddress;
+			this.orderTime = orderTimeMillis;
+			this.minNumber = minNumber;
+			this.maxNumber = maxNumber;
+			this.classTime = classTime;
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package org.forten.sample.bo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Resource;
+
+import org.forten.sample.dao.JDBCDao;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 学生预约的时间冲突索引
+ *
+ * 实验室场次的时间由可预约日期order_time和开放时间class_time决定，class_time解析为当天的节次区间（“第一大节”为第1-2节，
+ * “第3-4节”为第3-4节），无法解析的开放时间不参与冲突检查。每个学生的预约按区间起点放在一个TreeSet里，
+ * 第一次预约时从数据库加载，之后在预约、退选时同步更新，冲突检查O(log n)，不访问数据库。
+ * 实验室场次的时间在第一次使用时整体加载，实验室场次被修改、删除或预约被归档后调用{@link #invalidate()}。
+ */
+@Component("bookingConflictIndex")
+public class BookingConflictIndex {
+	private static final String LOAD_LABORATORIES_SQL = "SELECT id,order_time,class_time FROM test_laboratory";
+	private static final String LOAD_LABORATORY_SQL = "SELECT id,order_time,class_time FROM test_laboratory WHERE id=:laboratoryId";
+	private static final String LOAD_BOOKINGS_SQL = "SELECT id,laboratory_id FROM test_student_laboratory_relation WHERE student_id=:studentId";
+
+	// 区间端点为 日期序号*PERIODS_PER_DAY+节次，节次从1开始，同一天的区间跨度小于PERIODS_PER_DAY
+	private static final int PERIODS_PER_DAY = 64;
+	private static final Pattern MAJOR_PERIOD = Pattern.compile("第([一二三四五六七八九十]+)大节");
+	private static final Pattern PERIOD_RANGE = Pattern.compile("第(\\d+)(?:-(\\d+))?节");
+	private static final String CHINESE_DIGITS = "一二三四五六七八九";
+
+	private static final Comparator<Booking> BOOKING_ORDER = Comparator.comparingLong((Booking b) -> b.slot.start)
+			.thenComparingLong(b -> b.relationId);
+
+	@Resource
+	private JDBCDao jdbcDao;
+
+	private final ConcurrentMap<Long, Slot> slots = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Long, StudentBookings> students = new ConcurrentHashMap<>();
+	private volatile boolean slotsLoaded;
+
+	/**
+	 * 检查学生是否已经预约了时间重叠的实验室场次，没有冲突时调用saver保存预约并加入索引
+	 *
+	 * 同一学生的检查与保存是串行的；保存所在的事务回滚时丢弃该学生的索引。
+	 *
+	 * @param studentId
+	 *            学生ID
+	 * @param laboratoryId
+	 *            要预约的实验室场次ID
+	 * @param saver
+	 *            保存预约并返回预约ID
+	 * @return 与之冲突的实验室场次的时间说明，没有冲突时返回null
+	 */
+	public String tryBook(long studentId, long laboratoryId, LongSupplier saver) {
+		Slot slot = slotOf(laboratoryId);
+		StudentBookings bookings = bookingsOf(studentId);
+		synchronized (bookings) {
+			if (slot != null) {
+				Booking conflict = bookings.findOverlap(slot);
+				if (conflict != null) {
+					return conflict.slot.description;
+				}
+			}
+			long relationId = saver.getAsLong();
+			bookings.add(new Booking(relationId, slot));
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status != STATUS_COMMITTED) {
+						students.remove(studentId);
+					}
+				}
+			});
+		}
+		return null;
+	}
+
+	/**
+	 * 预约被退选，当前事务提交后从学生的索引中删除
+	 */
+	public void cancel(long studentId, long relationId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			remove(studentId, relationId);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				remove(studentId, relationId);
+			}
+		});
+	}
+
+	/**
+	 * 丢弃所有索引，下次使用时从数据库重新加载；在事务中调用时等到事务提交后再丢弃
+	 */
+	public void invalidate() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			clear();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				clear();
+			}
+		});
+	}
+
+	private void clear() {
+		slotsLoaded = false;
+		slots.clear();
+		students.clear();
+	}
+
+	private void remove(long studentId, long relationId) {
+		StudentBookings bookings = students.get(studentId);
+		if (bookings != null) {
+			synchronized (bookings) {
+				bookings.remove(relationId);
+			}
+		}
+	}
+
+	private StudentBookings bookingsOf(long studentId) {
+		StudentBookings bookings = students.get(studentId);
+		if (bookings != null) {
+			return bookings;
+		}
+		Map<String, Object> params = new HashMap<>();
+		params.put("studentId", studentId);
+		List<long[]> loaded = jdbcDao.findBy(LOAD_BOOKINGS_SQL, params, new RowMapper<long[]>() {
+
+			@Override
+			public long[] mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return new long[] { rs.getLong("id"), rs.getLong("laboratory_id") };
+			}
+		});
+		bookings = new StudentBookings();
+		for (long[] row : loaded) {
+			bookings.add(new Booking(row[0], slotOf(row[1])));
+		}
+		StudentBookings existing = students.putIfAbsent(studentId, bookings);
+		return existing == null ? bookings : existing;
+	}
+
+	private Slot slotOf(long laboratoryId) {
+		if (!slotsLoaded) {
+			loadSlots();
+		}
+		Slot slot = slots.get(laboratoryId);
+		if (slot == null) {
+			// 加载之后新添加的实验室场次
+			Map<String, Object> params = new HashMap<>();
+			params.put("laboratoryId", laboratoryId);
+			slot = jdbcDao.findSingleObjectBy(LOAD_LABORATORY_SQL, params, SLOT_MAPPER);
+			if (slot != null) {
+				slots.put(laboratoryId, slot);
+			}
+		}
+		return slot == null || slot.start < 0 ? null : slot;
+	}
+
+	private synchronized void loadSlots() {
+		if (slotsLoaded) {
+			return;
+		}
+		for (Slot slot : jdbcDao.findBy(LOAD_LABORATORIES_SQL, new HashMap<>(), SLOT_MAPPER)) {
+			slots.put(slot.laboratoryId, slot);
+		}
+		slotsLoaded = true;
+	}
+
+	private static final RowMapper<Slot> SLOT_MAPPER = new RowMapper<Slot>() {
+
+		@Override
+		public Slot mapRow(ResultSet rs, int rowNum) throws SQLException {
+			return Slot.of(rs.getLong("id"), rs.getTimestamp("order_time"), rs.getString("class_time"));
+		}
+	};
+
+	/**
+	 * 把开放时间解析为节次区间，返回{起始节次, 结束节次}，无法解析时返回null
+	 */
+	private static int[] parsePeriods(String classTime) {
+		if (classTime == null) {
+			return null;
+		}
+		String text = classTime.trim();
+		Matcher matcher = MAJOR_PERIOD.matcher(text);
+		if (matcher.matches()) {
+			int major = parseChineseNumber(matcher.group(1));
+			if (major <= 0 || major * 2 >= PERIODS_PER_DAY) {
+				return null;
+			}
+			return new int[] { major * 2 - 1, major * 2 };
+		}
+		matcher = PERIOD_RANGE.matcher(text);
+		if (matcher.matches()) {
+			int first = Integer.parseInt(matcher.group(1));
+			int last = matcher.group(2) == null ? first : Integer.parseInt(matcher.group(2));
+			if (first <= 0 || last < first || last >= PERIODS_PER_DAY) {
+				return null;
+			}
+			return new int[] { first, last };
+		}
+		return null;
+	}
+
+	// 只支持一到九十九
+	private static int parseChineseNumber(String text) {
+		int ten = text.indexOf('十');
+		if (ten < 0) {
+			return text.length() == 1 ? CHINESE_DIGITS.indexOf(text.charAt(0)) + 1 : -1;
+		}
+		int tens = ten == 0 ? 1 : (ten == 1 ? CHINESE_DIGITS.indexOf(text.charAt(0)) + 1 : -1);
+		int ones = ten == text.length() - 1 ? 0
+				: (ten == text.length() - 2 ? CHINESE_DIGITS.indexOf(text.charAt(ten + 1)) + 1 : -1);
+		return tens <= 0 || ones < 0 ? -1 : tens * 10 + ones;
+	}
+
+	private static class Slot {
+		final long laboratoryId;
+		// 无法解析的时间为-1
+		final long start;
+		final long end;
+		final String description;
+
+		Slot(long laboratoryId, long start, long end, String description) {
+			this.laboratoryId = laboratoryId;
+			this.start = start;
+			this.end = end;
+			this.description = description;
+		}
+
+		static Slot of(long laboratoryId, Date orderTime, String classTime) {
+			int[] periods = parsePeriods(classTime);
+			if (orderTime == null || periods == null) {
+				return new Slot(laboratoryId, -1, -1, null);
+			}
+			long millis = orderTime.getTime();
+			long day = Math.floorDiv(millis + TimeZone.getDefault().getOffset(millis), TimeUnit.DAYS.toMillis(1));
+			return new Slot(laboratoryId, day * PERIODS_PER_DAY + periods[0], day * PERIODS_PER_DAY + periods[1],
+					String.format("%tF %s", orderTime, classTime));
+		}
+	}
+
+	private static class Booking {
+		final long relationId;
+		final Slot slot;
+
+		Booking(long relationId, Slot slot) {
+			this.relationId = relationId;
+			this.slot = slot;
+		}
+	}
+
+	private static class StudentBookings {
+		final NavigableSet<Booking> byStart = new TreeSet<>(BOOKING_ORDER);
+		final Map<Long, Booking> byRelation = new HashMap<>();
+
+		void add(Booking booking) {
+			// 时间无法解析的预约不参与冲突检查
+			if (booking.slot != null) {
+				byStart.add(booking);
+				byRelation.put(booking.relationId, booking);
+			}
+		}
+
+		void remove(long relationId) {
+			Booking booking = byRelation.remove(relationId);
+			if (booking != null) {
+				byStart.remove(booking);
+			}
+		}
+
+		// 起点在 [slot.start-PERIODS_PER_DAY, slot.end] 内的预约才可能与slot重叠
+		Booking findOverlap(Slot slot) {
+			Booking from = new Booking(Long.MIN_VALUE, new Slot(0, slot.start - PERIODS_PER_DAY, 0, null));
+			Booking to = new Booking(Long.MAX_VALUE, new Slot(0, slot.end, 0, null));
+			for (Booking booking : byStart.subSet(from, true, to, true)) {
+				if (booking.slot.end >= slot.start) {
+					return booking;
+				}
+			}
+			return null;
+		}
+	}
+}
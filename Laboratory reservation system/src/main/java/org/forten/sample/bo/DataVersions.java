@@ -0,0 +1,89 @@
+package org.forten.sample.bo;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 按数据种类记录的版本号，用于只读JSON接口的条件请求
+ *
+ * 各BO写入某类数据后调用{@link #bump(Domain...)}，版本号在事务提交后才加1：读请求先取版本号再查询，
+ * 提交前取到旧版本号的请求最多把新数据标记为旧版本，下次请求时版本号已经变化，不会把旧数据标记为新版本。
+ * ETag由启动时间和各版本号组成，重启后不会与重启前发出的ETag相同。版本号只在本进程内有效，
+ * 与AvailabilityIndex等索引一样假定应用只部署一个实例。
+ */
+@Component("dataVersions")
+public class DataVersions {
+	public enum Domain {
+		/** 实验室场次的增删改 */
+		LABORATORY,
+		/** 实验室名称的增删改 */
+		LABORATORY_NAME,
+		/** 预约记录的增删（含归档），不含预约状态的变化 */
+		BOOKING,
+		/** 留言及回复的增删改 */
+		NOTEBOOK
+	}
+
+	private final long startedTime = System.currentTimeMillis();
+	private final AtomicLongArray versions = new AtomicLongArray(Domain.values().length);
+	private final AtomicLongArray modifiedTimes = new AtomicLongArray(Domain.values().length);
+
+	public DataVersions() {
+		for (int i = 0; i < modifiedTimes.length(); i++) {
+			modifiedTimes.set(i, startedTime);
+		}
+	}
+
+	/**
+	 * 在事务中调用时于提交后生效，回滚时不生效；不在事务中时立即生效
+	 */
+	public void bump(Domain... domains) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					doBump(domains);
+				}
+			});
+		} else {
+			doBump(domains);
+		}
+	}
+
+	private void doBump(Domain... domains) {
+		long now = System.currentTimeMillis();
+		for (Domain domain : domains) {
+			versions.incrementAndGet(domain.ordinal());
+			modifiedTimes.set(domain.ordinal(), now);
+		}
+	}
+
+	public long version(Domain domain) {
+		return versions.get(domain.ordinal());
+	}
+
+	/**
+	 * @return 由启动时间和各种数据的版本号组成的ETag，不含引号
+	 */
+	public String etag(Domain... domains) {
+		StringBuilder etag = new StringBuilder(Long.toString(startedTime, 36));
+		for (Domain domain : domains) {
+			etag.append('-').append(version(domain));
+		}
+		return etag.toString();
+	}
+
+	/**
+	 * @return 各种数据中最近一次修改的时间，从未修改过时为启动时间
+	 */
+	public long lastModified(Domain... domains) {
+		long lastModified = startedTime;
+		for (Domain domain : domains) {
+			lastModified = Math.max(lastModified, modifiedTimes.get(domain.ordinal()));
+		}
+		return lastModified;
+	}
+}
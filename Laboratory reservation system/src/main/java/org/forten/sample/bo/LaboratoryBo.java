@@ -1,45 +1,88 @@
 package org.forten.sample.bo;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import javax.annotation.Resource;
+import javax.validation.ConstraintViolation;
 
 import org.apache.log4j.Logger;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.dao.HibernateDao;
 import org.forten.sample.dao.JDBCDao;
 import org.forten.sample.entity.Laboratory;
+import org.forten.sample.entity.LaboratorySeries;
 import org.forten.sample.entity.Student;
 import org.forten.sample.qo.LaboratoryQo;
 import org.forten.sample.ro.RoWithPageInfo;
+import org.forten.sample.util.SheetRowReader;
+import org.forten.sample.vo.ImportReportVo;
+import org.forten.sample.vo.LaboratoryImportRow;
+import org.forten.sample.vo.LaboratorySeriesVo;
 import org.forten.sample.vo.LaboratoryVo;
 import org.forten.sample.vo.LaboratoryVoForUpdate;
 import org.forten.sample.vo.MessageVo;
 import org.forten.utils.common.StringUtil;
 import org.forten.utils.system.BeanPropertyUtil;
 import org.forten.utils.system.PageInfo;
+import org.forten.utils.system.ValidateUtil;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 @Service("laboratoryBo")
 public class LaboratoryBo {
 	private static final Logger log = Logger.getLogger(LaboratoryBo.class);
 
+	private static final int IMPORT_BATCH_SIZE = 500;
+	// 依次为常用写法、导出文件中的写法和Excel默认的短日期格式
+	private static final DateTimeFormatter[] IMPORT_DATE_FORMATS = { DateTimeFormatter.ofPattern("yyyy-M-d"),
+			DateTimeFormatter.ofPattern("yyyy/M/d"), DateTimeFormatter.ofPattern("yyyy年M月d日"),
+			DateTimeFormatter.ofPattern("M/d/yy") };
+	// 重复开放的日期范围不能超过一年，一次最多生成53个场次
+	private static final int MAX_SERIES_DAYS = 366;
+	private static final String FUTURE_OCCURRENCES_HQL = "SELECT id,orderTime FROM Laboratory WHERE seriesId=:seriesId AND orderTime>=:today";
+	private static final String UPDATE_FUTURE_OCCURRENCES_HQL = "UPDATE Laboratory SET laboratoryName=:laboratoryName,laboratoryAddress=:laboratoryAddress,"
+			+ "classTime=:classTime,minNumber=:minNumber,maxNumber=:maxNumber WHERE seriesId=:seriesId AND orderTime>=:today";
+	private static final String DELETE_UNRESERVED_OCCURRENCES_HQL = "DELETE FROM Laboratory l WHERE l.id IN (:ids) "
+			+ "AND NOT EXISTS (SELECT r.id FROM StudentLaboratoryRelation r WHERE r.laboratoryId=l.id)";
+
 	@Resource
 	private HibernateDao dao;
 
 	@Resource
 	private JDBCDao jdbcDao;
+	@Resource
+	private BookingConflictIndex bookingConflictIndex;
+	@Resource
+	private AvailabilityIndex availabilityIndex;
+	@Resource
+	private DataVersions dataVersions;
 
 	@Transactional(readOnly = true)
 	public RoWithPageInfo<LaboratoryVo> queryBy(LaboratoryQo qo) {
@@ -78,6 +121,8 @@ public class LaboratoryBo {
 	public MessageVo doSave(Laboratory laboratory) {
 		try {
 			dao.save(laboratory);
+			availabilityIndex.saved(laboratory);
+			dataVersions.bump(Domain.LABORATORY);
 			return new MessageVo("添加成功！");
 		} catch (Exception e) {
 			log.error("添加实验室信息时出错！", e);
@@ -89,12 +134,15 @@ public class LaboratoryBo {
 	}
 
 	@Transactional
-	public MessageVo doDelete(Integer... ids) {
+	public MessageVo doDelete(Long... ids) {
 		try {
 			String hql = "DELETE FROM Laboratory WHERE id IN (:ids)";
 			Map<String, Object> params = new HashMap<>();
 			params.put("ids", ids);
 			dao.executeUpdate(hql, params);
+			bookingConflictIndex.invalidate();
+			availabilityIndex.removed(ids);
+			dataVersions.bump(Domain.LABORATORY);
 			return new MessageVo("删除成功！");
 		} catch (Exception e) {
 			log.error("删除实验室信息时出错！", e);
@@ -111,6 +159,9 @@ public class LaboratoryBo {
 			Laboratory laboratory = dao.findByLoad(Laboratory.class, vo.getId());
 			BeanPropertyUtil.copy(laboratory, vo);
 			dao.update(laboratory);
+			bookingConflictIndex.invalidate();
+			availabilityIndex.saved(laboratory);
+			dataVersions.bump(Domain.LABORATORY);
 			return new MessageVo("修改成功！");
 		} catch (Exception e) {
 			log.error("修改实验室信息时出错！", e);
@@ -121,6 +172,317 @@ public class LaboratoryBo {
 		}
 	}
 
+	/**
+	 * 添加每周重复开放的实验室，日期范围内的场次通过一次批量插入生成
+	 */
+	@Transactional
+	public MessageVo saveSeries(LaboratorySeriesVo vo) {
+		String invalid = checkSeries(vo);
+		if (invalid != null) {
+			return new MessageVo(invalid);
+		}
+		try {
+			LaboratorySeries series = new LaboratorySeries();
+			copySeries(series, vo);
+			dao.save(series);
+			List<Laboratory> occurrences = new ArrayList<>();
+			for (LocalDate date : expandSeries(series, toLocalDate(series.getFromDate()))) {
+				occurrences.add(newOccurrence(series, date));
+			}
+			dao.saveBatch(occurrences);
+			availabilityIndex.invalidate();
+			dataVersions.bump(Domain.LABORATORY);
+			return new MessageVo("添加成功，共生成" + occurrences.size() + "个场次！");
+		} catch (Exception e) {
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+			log.error("添加重复开放的实验室时出错！", e);
+			if (log.isDebugEnabled()) {
+				e.printStackTrace();
+			}
+			return new MessageVo("添加失败！");
+		}
+	}
+
+	/**
+	 * 修改每周重复开放的实验室，只影响今天及以后的场次，已经过去的场次保持原样
+	 *
+	 * 名称、地点、开放时间和人数用一条UPDATE语句改到所有未来场次上；按新的星期、日期范围和例外日期重新展开后，
+	 * 不再需要的场次用一条DELETE语句删除，其中已有学生预约的场次保留；缺少的场次批量插入。
+	 */
+	@Transactional
+	public MessageVo updateSeries(LaboratorySeriesVo vo) {
+		String invalid = checkSeries(vo);
+		if (invalid != null) {
+			return new MessageVo(invalid);
+		}
+		try {
+			LaboratorySeries series = dao.findByGet(LaboratorySeries.class, vo.getId());
+			if (series == null) {
+				return new MessageVo("重复开放的实验室不存在！");
+			}
+			copySeries(series, vo);
+			dao.update(series);
+
+			LocalDate today = LocalDate.now();
+			Map<String, Object> params = new HashMap<>();
+			params.put("seriesId", series.getId());
+			params.put("today", toDate(today));
+			Set<LocalDate> missing = new LinkedHashSet<>(expandSeries(series, today));
+			List<Long> dropped = new ArrayList<>();
+			for (Object[] occurrence : dao.<Object[]> findBy(FUTURE_OCCURRENCES_HQL, params)) {
+				if (!missing.remove(toLocalDate((Date) occurrence[1]))) {
+					dropped.add((Long) occurrence[0]);
+				}
+			}
+			int deleted = 0;
+			if (!dropped.isEmpty()) {
+				Map<String, Object> deleteParams = new HashMap<>();
+				deleteParams.put("ids", dropped);
+				deleted = dao.executeUpdate(DELETE_UNRESERVED_OCCURRENCES_HQL, deleteParams);
+			}
+			params.put("laboratoryName", series.getLaboratoryName());
+			params.put("laboratoryAddress", series.getLaboratoryAddress());
+			params.put("classTime", series.getClassTime());
+			params.put("minNumber", series.getMinNumber());
+			params.put("maxNumber", series.getMaxNumber());
+			int updated = dao.executeUpdate(UPDATE_FUTURE_OCCURRENCES_HQL, params);
+			List<Laboratory> added = new ArrayList<>(missing.size());
+			for (LocalDate date : missing) {
+				added.add(newOccurrence(series, date));
+			}
+			if (!added.isEmpty()) {
+				dao.saveBatch(added);
+			}
+			bookingConflictIndex.invalidate();
+			availabilityIndex.invalidate();
+			dataVersions.bump(Domain.LABORATORY);
+			String message = "修改成功，更新" + updated + "个场次，新增" + added.size() + "个，删除" + deleted + "个";
+			if (deleted < dropped.size()) {
+				message = message + "，" + (dropped.size() - deleted) + "个已有预约的场次没有删除";
+			}
+			return new MessageVo(message + "！");
+		} catch (Exception e) {
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+			log.error("修改重复开放的实验室时出错！", e);
+			if (log.isDebugEnabled()) {
+				e.printStackTrace();
+			}
+			return new MessageVo("修改失败！");
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public List<LaboratorySeriesVo> listSeries() {
+		List<LaboratorySeries> seriesList = dao.findBy("FROM LaboratorySeries ORDER BY fromDate DESC,id DESC");
+		List<LaboratorySeriesVo> voList = new ArrayList<>(seriesList.size());
+		for (LaboratorySeries series : seriesList) {
+			LaboratorySeriesVo vo = new LaboratorySeriesVo();
+			vo.setId(series.getId());
+			vo.setLaboratoryName(series.getLaboratoryName());
+			vo.setLaboratoryAddress(series.getLaboratoryAddress());
+			vo.setWeekday(series.getWeekday());
+			vo.setClassTime(series.getClassTime());
+			vo.setMinNumber(series.getMinNumber());
+			vo.setMaxNumber(series.getMaxNumber());
+			vo.setFromDate(series.getFromDate());
+			vo.setToDate(series.getToDate());
+			for (LocalDate date : exceptDatesOf(series)) {
+				vo.getExceptDates().add(toDate(date));
+			}
+			voList.add(vo);
+		}
+		return voList;
+	}
+
+	private static String checkSeries(LaboratorySeriesVo vo) {
+		if (vo.getMinNumber() > vo.getMaxNumber()) {
+			return "人数下限不能大于人数上限！";
+		}
+		LocalDate from = toLocalDate(vo.getFromDate());
+		LocalDate to = toLocalDate(vo.getToDate());
+		if (from.isAfter(to)) {
+			return "开始日期不能晚于结束日期！";
+		}
+		if (ChronoUnit.DAYS.between(from, to) >= MAX_SERIES_DAYS) {
+			return "日期范围不能超过一年！";
+		}
+		return null;
+	}
+
+	private static void copySeries(LaboratorySeries series, LaboratorySeriesVo vo) {
+		series.setLaboratoryName(vo.getLaboratoryName());
+		series.setLaboratoryAddress(vo.getLaboratoryAddress());
+		series.setWeekday(vo.getWeekday());
+		series.setClassTime(vo.getClassTime());
+		series.setMinNumber(vo.getMinNumber());
+		series.setMaxNumber(vo.getMaxNumber());
+		series.setFromDate(toDate(toLocalDate(vo.getFromDate())));
+		series.setToDate(toDate(toLocalDate(vo.getToDate())));
+		Set<String> exceptDates = new TreeSet<>();
+		if (vo.getExceptDates() != null) {
+			for (Date date : vo.getExceptDates()) {
+				exceptDates.add(toLocalDate(date).toString());
+			}
+		}
+		series.setExceptDates(exceptDates.isEmpty() ? null : String.join(",", exceptDates));
+	}
+
+	/**
+	 * @return 从start（不早于fromDate）到toDate之间每逢weekday的日期，不含例外日期
+	 */
+	private static List<LocalDate> expandSeries(LaboratorySeries series, LocalDate start) {
+		Set<LocalDate> exceptDates = exceptDatesOf(series);
+		LocalDate from = toLocalDate(series.getFromDate());
+		LocalDate to = toLocalDate(series.getToDate());
+		List<LocalDate> dates = new ArrayList<>();
+		LocalDate date = (from.isBefore(start) ? start : from)
+				.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(series.getWeekday())));
+		for (; !date.isAfter(to); date = date.plusWeeks(1)) {
+			if (!exceptDates.contains(date)) {
+				dates.add(date);
+			}
+		}
+		return dates;
+	}
+
+	private static Set<LocalDate> exceptDatesOf(LaboratorySeries series) {
+		Set<LocalDate> dates = new TreeSet<>();
+		if (StringUtil.hasText(series.getExceptDates())) {
+			for (String date : series.getExceptDates().split(",")) {
+				dates.add(LocalDate.parse(date));
+			}
+		}
+		return dates;
+	}
+
+	private static Laboratory newOccurrence(LaboratorySeries series, LocalDate date) {
+		Laboratory laboratory = new Laboratory(series.getLaboratoryName(), series.getLaboratoryAddress(), toDate(date),
+				series.getMinNumber(), series.getMaxNumber(), series.getClassTime());
+		laboratory.setSeriesId(series.getId());
+		return laboratory;
+	}
+
+	// 从数据库读出的可能是java.sql.Timestamp或java.sql.Date，统一按毫秒数转换
+	private static LocalDate toLocalDate(Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+	private static Date toDate(LocalDate date) {
+		return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	/**
+	 * 从XLSX或CSV文件批量导入实验室场次，列的顺序与exportData导出的相同，第一行为表头
+	 *
+	 * 文件逐行读取，每行先校验，通过校验的行每IMPORT_BATCH_SIZE条以JDBC批量插入一次；未通过校验的行不导入，
+	 * 在结果中按行号列出原因。所有行在同一个事务中导入，数据库出错时全部回滚。
+	 */
+	@Transactional
+	public ImportReportVo importData(InputStream in, String fileName) {
+		ImportReportVo report = new ImportReportVo();
+		List<Laboratory> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+		try {
+			SheetRowReader.read(in, fileName, (rowNum, cells) -> {
+				if (rowNum == 1) {
+					return;
+				}
+				report.setTotal(report.getTotal() + 1);
+				List<String> messages = new ArrayList<>();
+				Set<String> unparsed = new HashSet<>();
+				LaboratoryImportRow row = toImportRow(cells, messages, unparsed);
+				for (ConstraintViolation<LaboratoryImportRow> violation : ValidateUtil.getValidator().validate(row)) {
+					// 格式不正确的列已经有了消息，不再重复提示为空
+					if (!unparsed.contains(violation.getPropertyPath().toString())) {
+						messages.add(violation.getMessage());
+					}
+				}
+				if (messages.isEmpty() && row.getMinNumber() > row.getMaxNumber()) {
+					messages.add("人数下限不能大于人数上限");
+				}
+				if (!messages.isEmpty()) {
+					report.addError(rowNum, messages);
+					return;
+				}
+				batch.add(row.toLaboratory());
+				if (batch.size() == IMPORT_BATCH_SIZE) {
+					dao.saveBatch(batch);
+					report.setImported(report.getImported() + batch.size());
+					batch.clear();
+				}
+			});
+			if (!batch.isEmpty()) {
+				dao.saveBatch(batch);
+				report.setImported(report.getImported() + batch.size());
+			}
+			availabilityIndex.invalidate();
+			dataVersions.bump(Domain.LABORATORY);
+			return report;
+		} catch (IllegalArgumentException | IOException e) {
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+			return failedImport(e.getMessage());
+		} catch (Exception e) {
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+			log.error("导入实验室信息时出错！", e);
+			if (log.isDebugEnabled()) {
+				e.printStackTrace();
+			}
+			return failedImport("导入失败，没有导入任何数据！");
+		}
+	}
+
+	private static ImportReportVo failedImport(String message) {
+		ImportReportVo report = new ImportReportVo();
+		report.addError(0, Collections.singletonList(message));
+		return report;
+	}
+
+	private static LaboratoryImportRow toImportRow(List<String> cells, List<String> messages, Set<String> unparsed) {
+		LaboratoryImportRow row = new LaboratoryImportRow();
+		row.setLaboratoryName(cellAt(cells, 1));
+		row.setLaboratoryAddress(cellAt(cells, 2));
+		String orderTime = cellAt(cells, 3);
+		if (!orderTime.isEmpty()) {
+			row.setOrderTime(parseImportDate(orderTime));
+			if (row.getOrderTime() == null) {
+				messages.add("可预约时间格式不正确：" + orderTime);
+				unparsed.add("orderTime");
+			}
+		}
+		row.setMinNumber(parseImportNumber(cellAt(cells, 4), "minNumber", "人数下限", messages, unparsed));
+		row.setMaxNumber(parseImportNumber(cellAt(cells, 5), "maxNumber", "人数上限", messages, unparsed));
+		row.setClassTime(cellAt(cells, 6));
+		return row;
+	}
+
+	private static String cellAt(List<String> cells, int index) {
+		return index < cells.size() ? cells.get(index).trim() : "";
+	}
+
+	private static Date parseImportDate(String text) {
+		for (DateTimeFormatter formatter : IMPORT_DATE_FORMATS) {
+			try {
+				return toDate(LocalDate.parse(text, formatter));
+			} catch (DateTimeParseException e) {
+				// 尝试下一种格式
+			}
+		}
+		return null;
+	}
+
+	private static Integer parseImportNumber(String text, String property, String column, List<String> messages,
+			Set<String> unparsed) {
+		if (text.isEmpty()) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(text);
+		} catch (NumberFormatException e) {
+			messages.add(column + "必须是整数：" + text);
+			unparsed.add(property);
+			return null;
+		}
+	}
+
 	@Transactional(readOnly = true)
 	public Workbook exportData() {
 		String hql = "SELECT new org.forten.sample.vo.LaboratoryVo(id,laboratoryName,laboratoryAddress,orderTime,minNumber,maxNumber,classTime) "
@@ -150,7 +512,7 @@ public class LaboratoryBo {
 	}
 
 	@Transactional(readOnly = true)
-	public Workbook exportForStudent(int id) {
+	public Workbook exportForStudent(long id) {
 		String sql = "SELECT email,gender,number,name FROM test_student WHERE id IN (SELECT student_id FROM test_student_laboratory_relation WHERE laboratory_id=:id)";
 		Map<String, Object> params = new HashMap<>();
 		params.put("id", id);
@@ -214,7 +576,7 @@ public class LaboratoryBo {
 	}
 
 	@Transactional(readOnly = true)
-	public List<Student> studentList(int id) {
+	public List<Student> studentList(long id) {
 		String sql = "SELECT email,gender,number,name FROM test_student WHERE id IN (SELECT student_id FROM test_student_laboratory_relation WHERE laboratory_id=:id AND laboratoryOrderStatus=2)";
 		Map<String, Object> params = new HashMap<>();
 		params.put("id", id);
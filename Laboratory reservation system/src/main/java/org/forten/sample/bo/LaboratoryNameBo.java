@@ -11,6 +11,7 @@ import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.dao.HibernateDao;
 import org.forten.sample.entity.LaboratoryName;
 import org.forten.sample.vo.LaboratoryNameVo;
@@ -25,6 +26,8 @@ public class LaboratoryNameBo {
 
 	@Resource
 	private HibernateDao dao;
+	@Resource
+	private DataVersions dataVersions;
 
 	@Transactional(readOnly = true)
 	public List<LaboratoryNameVo> queryAll() {
@@ -36,6 +39,7 @@ public class LaboratoryNameBo {
 	public MessageVo doSave(LaboratoryName laboratoryName) {
 		try {
 			dao.save(laboratoryName);
+			dataVersions.bump(Domain.LABORATORY_NAME);
 			return new MessageVo("添加成功！");
 		} catch (Exception e) {
 			log.error("添加实验室时出错！", e);
@@ -47,12 +51,13 @@ public class LaboratoryNameBo {
 	}
 
 	@Transactional
-	public MessageVo doDelete(Integer... ids) {
+	public MessageVo doDelete(Long... ids) {
 		try {
 			String hql = "DELETE FROM LaboratoryName WHERE id IN (:ids)";
 			Map<String, Object> params = new HashMap<>();
 			params.put("ids", ids);
 			dao.executeUpdate(hql, params);
+			dataVersions.bump(Domain.LABORATORY_NAME);
 			return new MessageVo("删除成功！");
 		} catch (Exception e) {
 			log.error("删除实验室时出错！", e);
@@ -69,6 +74,7 @@ public class LaboratoryNameBo {
 			LaboratoryName laboratoryName = dao.findByLoad(LaboratoryName.class, vo.getId());
 			BeanPropertyUtil.copy(laboratoryName, vo);
 			dao.update(laboratoryName);
+			dataVersions.bump(Domain.LABORATORY_NAME);
 			return new MessageVo("修改成功！");
 		} catch (Exception e) {
 			log.error("修改实验室时出错！", e);
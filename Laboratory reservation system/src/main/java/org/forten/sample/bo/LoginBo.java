@@ -45,7 +45,7 @@ public class LoginBo {
 			@Override
 			public LoginedAdminVo mapRow(ResultSet rs, int rowNum) throws SQLException {
 				LoginedAdminVo loginedAdmin = new LoginedAdminVo();
-				loginedAdmin.setId(rs.getInt("Id"));
+				loginedAdmin.setId(rs.getLong("Id"));
 				loginedAdmin.setAdminName(rs.getString("admin_name"));
 				loginedAdmin.setPassword(rs.getString("password"));
 				loginedAdmin.setRoleName(rs.getString("role_name"));
@@ -63,7 +63,7 @@ public class LoginBo {
 				@Override
 				public LoginedAdminVo mapRow(ResultSet rs, int rowNum) throws SQLException {
 					LoginedAdminVo loginedAdmin = new LoginedAdminVo();
-					loginedAdmin.setId(rs.getInt("id"));
+					loginedAdmin.setId(rs.getLong("id"));
 					loginedAdmin.setAdminName(rs.getString("name"));
 					loginedAdmin.setPassword(rs.getString("password"));
 					loginedAdmin.setRoleName(rs.getString("role_name"));
@@ -78,7 +78,7 @@ public class LoginBo {
 	public MessageVo doUpdate(LoginedAdminVo vo) {
 		if(vo.getRoleName().equals("teacher")){
 			try {
-				int id = vo.getId();
+				long id = vo.getId();
 				String adminName = vo.getAdminName();
 				String password = vo.getPassword();
 				Map<String, Object> params = new HashMap<>();
@@ -108,7 +108,7 @@ public class LoginBo {
 			}
 		}
 		try {
-			int id = vo.getId();
+			long id = vo.getId();
 			String email = vo.getEmail();
 			String password = vo.getPassword();
 			Map<String, Object> params = new HashMap<>();
@@ -8,6 +8,7 @@ import javax.annotation.Resource;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.dao.HibernateDao;
 import org.forten.sample.entity.Notebook;
 import org.forten.sample.entity.NotebookResponse;
@@ -24,11 +25,14 @@ public class NotebookBo {
 
 	@Resource
 	private HibernateDao dao;
+	@Resource
+	private DataVersions dataVersions;
 
 	@Transactional
 	public MsgVo doSave(Notebook nb) {
 		try {
 			dao.save(nb);
+			dataVersions.bump(Domain.NOTEBOOK);
 			return new MsgVo("留言成功");
 		} catch (Exception e) {
 			if (log.isErrorEnabled()) {
@@ -42,6 +46,7 @@ public class NotebookBo {
 	public MsgVo doResponse(NotebookResponse nr) {
 		try {
 			dao.save(nr);
+			dataVersions.bump(Domain.NOTEBOOK);
 			return new MsgVo("留言成功");
 		} catch (Exception e) {
 			if (log.isErrorEnabled()) {
@@ -66,7 +71,7 @@ public class NotebookBo {
 	}
 
 	@Transactional(readOnly = true)
-	public NotebookVoForUpdate queryForUpdate(int id) {
+	public NotebookVoForUpdate queryForUpdate(long id) {
 		Notebook n = dao.findByLoad(Notebook.class, id);
 		NotebookVoForUpdate vo = new NotebookVoForUpdate();
 		BeanPropertyUtil.copy(vo, n);
@@ -78,12 +83,14 @@ public class NotebookBo {
 		Notebook n = dao.findByLoad(Notebook.class, vo.getId());
 		BeanPropertyUtil.copy(n, vo);
 		dao.update(n);
+		dataVersions.bump(Domain.NOTEBOOK);
 		return new MsgVo("修改成功");
 	}
 
 	@Transactional
-	public MsgVo doDelete(int id) {
+	public MsgVo doDelete(long id) {
 		dao.delete(Notebook.class, id);
+		dataVersions.bump(Domain.NOTEBOOK);
 		return new MsgVo("留言删除成功");
 	}
 }
@@ -0,0 +1,136 @@
+package org.forten.sample.bo;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+/**
+ * 后台分批归档过期的预约记录
+ *
+ * 由app-core.xml中的task:scheduled定期调用{@link #archive()}，enabled为false时跳过。
+ * 每次运行把可预约时间早于retentionDays天前的实验室场次的预约，以每批batchSize条、每批一个事务的方式搬入归档表，
+ * 批与批之间暂停pauseMillis毫秒，让出数据库给在线请求；单次运行最多maxBatchesPerRun批，剩下的留给下一次。
+ */
+public class ReservationArchiver {
+	private static final Logger log = Logger.getLogger(ReservationArchiver.class);
+
+	private final ArchiveBo archiveBo;
+	private BookingConflictIndex bookingConflictIndex;
+	private AvailabilityIndex availabilityIndex;
+
+	private boolean enabled;
+	private int retentionDays = 180;
+	private int batchSize = 1000;
+	private long pauseMillis = 100;
+	private int maxBatchesPerRun = 100;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final LongAdder archived = new LongAdder();
+	private volatile String lastRun;
+
+	public ReservationArchiver(ArchiveBo archiveBo) {
+		this.archiveBo = archiveBo;
+	}
+
+	public void setBookingConflictIndex(BookingConflictIndex bookingConflictIndex) {
+		this.bookingConflictIndex = bookingConflictIndex;
+	}
+
+	public void setAvailabilityIndex(AvailabilityIndex availabilityIndex) {
+		this.availabilityIndex = availabilityIndex;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void setRetentionDays(int retentionDays) {
+		this.retentionDays = retentionDays;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public void setPauseMillis(long pauseMillis) {
+		this.pauseMillis = pauseMillis;
+	}
+
+	public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+		this.maxBatchesPerRun = maxBatchesPerRun;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return 启动以来归档的预约记录总数
+	 */
+	public long getArchived() {
+		return archived.sum();
+	}
+
+	/**
+	 * @return 最近一次运行的说明，还没有运行过时为null
+	 */
+	public String getLastRun() {
+		return lastRun;
+	}
+
+	public void archive() {
+		if (enabled) {
+			archiveNow();
+		}
+	}
+
+	/**
+	 * 立即运行一次归档，不受enabled限制；已经有归档在运行时直接返回
+	 *
+	 * @return 本次归档的条数
+	 */
+	public int archiveNow() {
+		if (!running.compareAndSet(false, true)) {
+			return 0;
+		}
+		try {
+			Date horizon = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+			long start = System.nanoTime();
+			int total = 0;
+			int batches = 0;
+			try {
+				while (batches < maxBatchesPerRun) {
+					int count = archiveBo.archiveBatch(horizon, batchSize);
+					batches++;
+					total += count;
+					archived.add(count);
+					if (count < batchSize) {
+						break;
+					}
+					Thread.sleep(pauseMillis);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				log.error("归档预约记录时出错，本次运行已归档的批次不受影响", e);
+			}
+			lastRun = String.format("%tF %<tT 归档%d批共%d条，用时%dms", new Date(), batches, total,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			if (total > 0) {
+				log.info(lastRun);
+				if (bookingConflictIndex != null) {
+					bookingConflictIndex.invalidate();
+				}
+				if (availabilityIndex != null) {
+					availabilityIndex.invalidate();
+				}
+			}
+			return total;
+		} finally {
+			running.set(false);
+		}
+	}
+}
@@ -2,31 +2,55 @@ package org.forten.sample.bo;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
 import org.apache.log4j.Logger;
+import org.forten.sample.bo.DataVersions.Domain;
 import org.forten.sample.dao.HibernateDao;
 import org.forten.sample.dao.JDBCDao;
 import org.forten.sample.entity.Student;
 import org.forten.sample.entity.StudentLaboratoryRelation;
+import org.forten.sample.entity.enums.LaboratoryOrderStatus;
+import org.forten.sample.qo.LaboratoryQo;
+import org.forten.sample.vo.LaboratoryAvailabilityVo;
 import org.forten.sample.vo.MessageVo;
 import org.forten.sample.vo.StudentLaboratoryRelationVo;
+import org.forten.utils.common.DateUtil;
+import org.forten.utils.common.StringUtil;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 @Service("studentBo")
 public class StudentBo {
 	private static final Logger log = Logger.getLogger(StudentBo.class);
 
+	private static final String EXISTING_NUMBERS_SQL = "SELECT number FROM test_student WHERE number IN (:numbers)";
+
 	@Resource
 	private HibernateDao dao;
 	@Resource
 	private JDBCDao jdbcDao;
+	@Resource
+	private WaitlistRegistry waitlistRegistry;
+	@Resource
+	private BookingConflictIndex bookingConflictIndex;
+	@Resource
+	private AvailabilityIndex availabilityIndex;
+	@Resource
+	private DataVersions dataVersions;
 
 	@Transactional
 	public void register(Student student) {
@@ -40,10 +64,53 @@ public class StudentBo {
 		}
 	}
 
+	/**
+	 * 批量开通学生账号，学号已经存在的学生跳过
+	 *
+	 * @return 学号已经存在而没有开通的学生
+	 */
+	@Transactional
+	public List<Student> provision(List<Student> students) {
+		List<String> numbers = new ArrayList<>(students.size());
+		for (Student student : students) {
+			numbers.add(student.getNumber());
+		}
+		Map<String, Object> params = new HashMap<>();
+		params.put("numbers", numbers);
+		Set<String> existing = new HashSet<>(jdbcDao.findBy(EXISTING_NUMBERS_SQL, params, new RowMapper<String>() {
+
+			@Override
+			public String mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return rs.getString("number");
+			}
+		}));
+		List<Student> fresh = new ArrayList<>(students.size());
+		List<Student> skipped = new ArrayList<>();
+		for (Student student : students) {
+			(existing.contains(student.getNumber()) ? skipped : fresh).add(student);
+		}
+		if (!fresh.isEmpty()) {
+			dao.saveBatch(fresh);
+		}
+		return skipped;
+	}
+
+	/**
+	 * 预约实验室，与学生已有预约的时间重叠时不保存
+	 */
 	@Transactional
 	public MessageVo doSave(StudentLaboratoryRelation studentLaboratoryRelation) {
 		try {
-			dao.save(studentLaboratoryRelation);
+			String conflict = bookingConflictIndex.tryBook(studentLaboratoryRelation.getStudentId(),
+					studentLaboratoryRelation.getLaboratoryId(), () -> {
+						dao.save(studentLaboratoryRelation);
+						return studentLaboratoryRelation.getId();
+					});
+			if (conflict != null) {
+				return new MessageVo("预约失败，与已预约的" + conflict + "的实验室时间冲突！");
+			}
+			availabilityIndex.reserved(studentLaboratoryRelation.getLaboratoryId());
+			dataVersions.bump(Domain.BOOKING);
 			return new MessageVo("预约成功！");
 		} catch (Exception e) {
 			log.error("预约实验室时出错！", e);
@@ -54,12 +121,26 @@ public class StudentBo {
 		}
 	}
 
+	/**
+	 * 退选预约，退选的是预约成功的名额时在同一事务中递补该场次排队最早的预约
+	 */
 	@Transactional
-	public MessageVo doDelete(int id) {
+	public MessageVo doDelete(long id) {
 		try {
+			StudentLaboratoryRelation relation = dao.findByGet(StudentLaboratoryRelation.class, id);
 			dao.delete(StudentLaboratoryRelation.class, id);
+			if (relation != null) {
+				bookingConflictIndex.cancel(relation.getStudentId(), id);
+				availabilityIndex.released(relation.getLaboratoryId());
+				dataVersions.bump(Domain.BOOKING);
+			}
+			if (relation != null && relation.getLaboratoryOrderStatus() == LaboratoryOrderStatus.SUCCESS) {
+				waitlistRegistry.promoteNext(relation.getLaboratoryId());
+			}
 			return new MessageVo("退选成功！");
 		} catch (Exception e) {
+			// 退选与递补必须一起生效
+			TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
 			log.error("退选预约时出错！", e);
 			if (log.isDebugEnabled()) {
 				e.printStackTrace();
@@ -68,8 +149,25 @@ public class StudentBo {
 		}
 	}
 
+	/**
+	 * 查询日期范围内还有空余名额的实验室场次，没有指定范围时查询今天起30天内的场次
+	 */
+	@Transactional(readOnly = true)
+	public List<LaboratoryAvailabilityVo> queryAvailable(LaboratoryQo qo) {
+		Date from = qo.getFromOrderTime();
+		Date to = qo.getToOrderTime();
+		if (from == null) {
+			from = Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+		}
+		if (to == null) {
+			to = DateUtil.calculateDate(from, 30, Calendar.DAY_OF_MONTH);
+		}
+		String laboratoryName = StringUtil.hasText(qo.getLaboratoryName()) ? qo.getLaboratoryName() : null;
+		return availabilityIndex.queryAvailable(from, to, laboratoryName);
+	}
+
 	@Transactional(readOnly = true)
-	public List<StudentLaboratoryRelationVo> queryAll(Integer adminId) {
+	public List<StudentLaboratoryRelationVo> queryAll(Long adminId) {
 		String sql = "SELECT test_student_laboratory_relation.id,test_student_laboratory_relation.laboratory_id,test_student_laboratory_relation.student_id,test_laboratory.laboratory_name,test_laboratory.laboratory_address,test_laboratory.max_number,test_laboratory.min_number,test_laboratory.class_time,test_student_laboratory_relation.ordered_time,(CASE WHEN test_student_laboratory_relation.laboratoryOrderStatus=0 THEN '已预约' WHEN test_student_laboratory_relation.laboratoryOrderStatus=1 THEN '排队中' WHEN test_student_laboratory_relation.laboratoryOrderStatus=2 THEN '预约成功' "
 				+ " END)laboratoryOrderStatus FROM test_laboratory JOIN test_student_laboratory_relation ON (test_laboratory.id=test_student_laboratory_relation.laboratory_id) WHERE test_student_laboratory_relation.student_id=:adminId";
 		Map<String, Object> params = new HashMap<>();
@@ -79,9 +177,9 @@ public class StudentBo {
 			@Override
 			public StudentLaboratoryRelationVo mapRow(ResultSet rs, int rowNum) throws SQLException {
 				StudentLaboratoryRelationVo studentLaboratoryRelationVo = new StudentLaboratoryRelationVo();
-				studentLaboratoryRelationVo.setId(rs.getInt("id"));
-				studentLaboratoryRelationVo.setLaboratoryId(rs.getInt("laboratory_id"));
-				studentLaboratoryRelationVo.setStudentId(rs.getInt("student_id"));
+				studentLaboratoryRelationVo.setId(rs.getLong("id"));
+				studentLaboratoryRelationVo.setLaboratoryId(rs.getLong("laboratory_id"));
+				studentLaboratoryRelationVo.setStudentId(rs.getLong("student_id"));
 				studentLaboratoryRelationVo.setLaboratoryName(rs.getString("laboratory_name"));
 				studentLaboratoryRelationVo.setLaboratoryAddress(rs.getString("laboratory_address"));
 				studentLaboratoryRelationVo.setMaxNumber(rs.getInt("max_number"));
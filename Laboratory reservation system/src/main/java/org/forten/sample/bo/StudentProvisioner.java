@@ -0,0 +1,232 @@
+package org.forten.sample.bo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.entity.Student;
+import org.forten.sample.util.SheetRowReader;
+import org.forten.sample.vo.ImportErrorVo;
+import org.forten.sample.vo.ProvisionJobVo;
+import org.forten.sample.vo.StudentImportRow;
+import org.forten.utils.system.ValidateUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * 从CSV文件批量开通学生账号的后台任务
+ *
+ * CSV的列依次为学号、姓名、邮箱、性别、密码，第一行为表头，密码为空时以学号作为初始密码。上传的请求只把文件保存为临时文件并提交任务，
+ * 任务由单个后台线程依次执行：逐行读取、校验，每chunkSize行调用一次StudentBo.provision，在一个事务中用一条按学号索引的IN查询排除已有的账号，
+ * 其余批量插入。同一文件中重复的学号只开通第一个。进度通过{@link #progress(String)}查询，最多保留最近maxJobs个任务。
+ */
+public class StudentProvisioner implements InitializingBean, DisposableBean {
+	private static final Logger log = Logger.getLogger(StudentProvisioner.class);
+
+	public static final String WAITING = "等待中";
+	public static final String RUNNING = "进行中";
+	public static final String FINISHED = "已完成";
+	public static final String FAILED = "失败";
+
+	private final StudentBo studentBo;
+	private int chunkSize = 1000;
+	private int maxJobs = 20;
+
+	private ExecutorService executor;
+	private final AtomicLong sequence = new AtomicLong();
+	private final Map<String, ProvisionJobVo> jobs = new LinkedHashMap<String, ProvisionJobVo>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ProvisionJobVo> eldest) {
+			return size() > maxJobs;
+		}
+	};
+
+	public StudentProvisioner(StudentBo studentBo) {
+		this.studentBo = studentBo;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public void setMaxJobs(int maxJobs) {
+		this.maxJobs = maxJobs;
+	}
+
+	/**
+	 * 提交开通任务，任务结束后删除文件
+	 *
+	 * @param csv
+	 *            保存好的CSV临时文件
+	 * @param fileName
+	 *            上传时的文件名
+	 * @return 刚提交的任务
+	 */
+	public ProvisionJobVo submit(File csv, String fileName) {
+		ProvisionJobVo job = new ProvisionJobVo();
+		job.setId(String.valueOf(sequence.incrementAndGet()));
+		job.setFileName(fileName);
+		job.setStatus(WAITING);
+		synchronized (jobs) {
+			jobs.put(job.getId(), job);
+		}
+		executor.execute(() -> run(job, csv));
+		return copyOf(job);
+	}
+
+	/**
+	 * @return 任务的当前进度，任务不存在或已被淘汰时返回null
+	 */
+	public ProvisionJobVo progress(String id) {
+		ProvisionJobVo job;
+		synchronized (jobs) {
+			job = jobs.get(id);
+		}
+		return job == null ? null : copyOf(job);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "StudentProvisioner");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		executor.shutdownNow();
+	}
+
+	private void run(ProvisionJobVo job, File csv) {
+		synchronized (job) {
+			job.setStatus(RUNNING);
+			job.setStartedTime(new Date());
+		}
+		long length = csv.length();
+		long[] read = new long[1];
+		Set<String> seen = new HashSet<>();
+		List<Student> chunk = new ArrayList<>(chunkSize);
+		List<Integer> chunkRows = new ArrayList<>(chunkSize);
+		try (InputStream in = new FilterInputStream(new FileInputStream(csv)) {
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int n = super.read(b, off, len);
+				if (n > 0) {
+					read[0] += n;
+				}
+				return n;
+			}
+		}) {
+			SheetRowReader.readCsv(in, (rowNum, cells) -> {
+				if (rowNum == 1) {
+					return;
+				}
+				StudentImportRow row = toImportRow(cells);
+				List<String> messages = ValidateUtil.validate(row);
+				if (messages.isEmpty() && !seen.add(row.getNumber())) {
+					messages.add("学号在文件中重复：" + row.getNumber());
+				}
+				synchronized (job) {
+					job.setTotal(job.getTotal() + 1);
+					if (!messages.isEmpty()) {
+						job.addError(rowNum, messages);
+					}
+				}
+				if (messages.isEmpty()) {
+					chunk.add(row.toStudent());
+					chunkRows.add(rowNum);
+					if (chunk.size() == chunkSize) {
+						flush(job, chunk, chunkRows, length == 0 ? 100 : (int) (read[0] * 100 / length));
+					}
+				}
+			});
+			flush(job, chunk, chunkRows, 100);
+			synchronized (job) {
+				job.setStatus(FINISHED);
+				job.setFinishedTime(new Date());
+			}
+			log.info(String.format("学生账号开通任务%s完成：共%d行，开通%d个，已存在%d个，有误%d行", job.getId(), job.getTotal(),
+					job.getImported(), job.getDuplicated(), job.getFailed()));
+		} catch (Exception e) {
+			log.error("开通学生账号时出错，任务" + job.getId() + "已经开通的账号不受影响", e);
+			synchronized (job) {
+				job.setStatus(FAILED);
+				job.setMessage((chunkRows.isEmpty() ? "开通中断：" : "开通中断，第" + chunkRows.get(0) + "行之前的账号已经开通：")
+						+ e.getMessage());
+				job.setFinishedTime(new Date());
+			}
+		} finally {
+			try {
+				Files.deleteIfExists(csv.toPath());
+			} catch (IOException e) {
+				log.warn("删除临时文件失败：" + csv);
+			}
+		}
+	}
+
+	private void flush(ProvisionJobVo job, List<Student> chunk, List<Integer> chunkRows, int percent) {
+		List<Student> skipped = chunk.isEmpty() ? chunk : studentBo.provision(chunk);
+		synchronized (job) {
+			job.setImported(job.getImported() + chunk.size() - skipped.size());
+			job.setDuplicated(job.getDuplicated() + skipped.size());
+			job.setPercent(percent);
+		}
+		chunk.clear();
+		chunkRows.clear();
+	}
+
+	private static StudentImportRow toImportRow(List<String> cells) {
+		StudentImportRow row = new StudentImportRow();
+		row.setNumber(cellAt(cells, 0));
+		row.setName(cellAt(cells, 1));
+		row.setEmail(cellAt(cells, 2));
+		row.setGender(cellAt(cells, 3));
+		row.setPassword(cellAt(cells, 4));
+		return row;
+	}
+
+	// 空单元格为null，不参与邮箱、性别的格式校验
+	private static String cellAt(List<String> cells, int index) {
+		String value = index < cells.size() ? cells.get(index).trim() : "";
+		return value.isEmpty() ? null : value;
+	}
+
+	private static ProvisionJobVo copyOf(ProvisionJobVo job) {
+		ProvisionJobVo copy = new ProvisionJobVo();
+		synchronized (job) {
+			copy.setId(job.getId());
+			copy.setFileName(job.getFileName());
+			copy.setStatus(job.getStatus());
+			copy.setMessage(job.getMessage());
+			copy.setPercent(job.getPercent());
+			copy.setTotal(job.getTotal());
+			copy.setImported(job.getImported());
+			copy.setDuplicated(job.getDuplicated());
+			copy.setFailed(job.getFailed());
+			copy.setErrors(new ArrayList<ImportErrorVo>(job.getErrors()));
+			copy.setStartedTime(job.getStartedTime());
+			copy.setFinishedTime(job.getFinishedTime());
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,161 @@
+package org.forten.sample.bo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.aspect.SendEmail;
+import org.forten.sample.dao.JDBCDao;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 排队递补的通知队列
+ *
+ * 递补所在的事务提交后，通知放入容量为capacity的队列，由后台线程查询学生邮箱并发送邮件，退选请求不等待邮件发送；
+ * 队列已满时丢弃通知并输出警告。emailEnabled为false时只写日志，不发送邮件。
+ */
+public class WaitlistNotifier implements InitializingBean, DisposableBean {
+	private static final Logger log = Logger.getLogger(WaitlistNotifier.class);
+
+	private static final String SUBJECT = "您预约的实验室状态通知";
+	private static final String MESSAGE = "您预约的%s（%s，%s）有同学退选，您的预约已由“排队中”递补为“预约成功”，请按时参加实验，感谢您使用中北大学实验室预约系统，本邮件仅用于通知请勿回复。";
+	private static final String QUERY_SQL = "SELECT test_student.email,test_laboratory.laboratory_name,test_laboratory.laboratory_address,test_laboratory.class_time FROM test_student,test_laboratory WHERE test_student.id=:studentId AND test_laboratory.id=:laboratoryId";
+
+	private final JDBCDao jdbcDao;
+	private boolean emailEnabled;
+	private int capacity = 1000;
+
+	private BlockingQueue<Notification> queue;
+	private Thread worker;
+	private final LongAdder delivered = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	public WaitlistNotifier(JDBCDao jdbcDao) {
+		this.jdbcDao = jdbcDao;
+	}
+
+	public void setEmailEnabled(boolean emailEnabled) {
+		this.emailEnabled = emailEnabled;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return 已经处理的通知数
+	 */
+	public long getDelivered() {
+		return delivered.sum();
+	}
+
+	/**
+	 * @return 因队列已满而丢弃的通知数
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * 当前事务提交后把递补通知放入队列，没有事务时立即放入
+	 */
+	public void notifyAfterCommit(long relationId, long studentId, long laboratoryId) {
+		final Notification notification = new Notification(relationId, studentId, laboratoryId);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			enqueue(notification);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				enqueue(notification);
+			}
+		});
+	}
+
+	private void enqueue(Notification notification) {
+		if (!queue.offer(notification)) {
+			dropped.increment();
+			log.warn(String.format("递补通知队列已满，丢弃预约%d的通知", notification.relationId));
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		queue = new ArrayBlockingQueue<>(capacity);
+		worker = new Thread(this::run, "WaitlistNotifier");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		worker.interrupt();
+		worker.join(5000);
+		if (!queue.isEmpty()) {
+			log.warn(String.format("关闭时还有%d条递补通知未发送", queue.size()));
+		}
+	}
+
+	private void run() {
+		while (!Thread.currentThread().isInterrupted()) {
+			Notification notification;
+			try {
+				notification = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				deliver(notification);
+			} catch (RuntimeException e) {
+				log.error("发送递补通知时出错：" + notification.relationId, e);
+			}
+			delivered.increment();
+		}
+	}
+
+	private void deliver(Notification notification) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("studentId", notification.studentId);
+		params.put("laboratoryId", notification.laboratoryId);
+		String[] row = jdbcDao.findSingleObjectBy(QUERY_SQL, params, new RowMapper<String[]>() {
+
+			@Override
+			public String[] mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return new String[] { rs.getString("email"), rs.getString("laboratory_name"),
+						rs.getString("laboratory_address"), rs.getString("class_time") };
+			}
+		});
+		if (row == null) {
+			return;
+		}
+		String msg = String.format(MESSAGE, row[1], row[2], row[3]);
+		if (emailEnabled && row[0] != null) {
+			SendEmail.send(SUBJECT, msg, row[0]);
+		} else {
+			log.info(String.format("递补通知（未发送邮件）：学生%d，预约%d，%s", notification.studentId,
+					notification.relationId, msg));
+		}
+	}
+
+	private static class Notification {
+		final long relationId;
+		final long studentId;
+		final long laboratoryId;
+
+		Notification(long relationId, long studentId, long laboratoryId) {
+			this.relationId = relationId;
+			this.studentId = studentId;
+			this.laboratoryId = laboratoryId;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package org.forten.sample.bo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.dao.JDBCDao;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 各实验室场次的排队名单，用于退选后立即递补
+ *
+ * 每个场次的排队中预约按预约时间（相同时按主键）放在一个小顶堆里，第一次用到时从数据库加载，之后每次递补O(log n)。
+ * 堆里的条目可能已经过时（被退选、被归档或已经递补），递补时用带状态条件的UPDATE确认，更新0行就跳过、取下一个。
+ * 新的排队中预约只由SystemAspect重新计算状态时产生，重新计算后以及递补所在的事务回滚时调用{@link #invalidate()}，
+ * 所有名单在下次使用时重新加载。
+ */
+@Component("waitlistRegistry")
+public class WaitlistRegistry {
+	private static final Logger log = Logger.getLogger(WaitlistRegistry.class);
+
+	private static final String LOAD_SQL = "SELECT id,student_id,ordered_time FROM test_student_laboratory_relation WHERE laboratory_id=:laboratoryId AND laboratoryOrderStatus=1";
+	private static final String PROMOTE_SQL = "UPDATE test_student_laboratory_relation SET laboratoryOrderStatus=2 WHERE id=:id AND laboratoryOrderStatus=1";
+
+	private static final Comparator<Entry> WAITLIST_ORDER = Comparator.comparingLong((Entry e) -> e.orderedTime)
+			.thenComparingLong(e -> e.id);
+
+	@Resource
+	private JDBCDao jdbcDao;
+	@Resource
+	private WaitlistNotifier waitlistNotifier;
+
+	private final ConcurrentMap<Long, Waitlist> waitlists = new ConcurrentHashMap<>();
+	// 每次invalidate加1，加载期间发生过invalidate的名单不会被使用
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * 把实验室场次排队中最早的一条预约改为预约成功，必须在事务中调用
+	 *
+	 * 事务提交后通知被递补的学生；事务回滚时丢弃所有名单。
+	 *
+	 * @param laboratoryId
+	 *            实验室场次ID
+	 * @return 被递补的预约ID，没有排队中的预约时返回null
+	 */
+	public Long promoteNext(long laboratoryId) {
+		Waitlist waitlist = waitlistOf(laboratoryId);
+		Map<String, Object> params = new HashMap<>();
+		Entry promoted = null;
+		synchronized (waitlist) {
+			Entry entry;
+			while ((entry = waitlist.queue.poll()) != null) {
+				params.put("id", entry.id);
+				if (jdbcDao.update(PROMOTE_SQL, params) == 1) {
+					promoted = entry;
+					break;
+				}
+			}
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					invalidate();
+				}
+			}
+		});
+		if (promoted == null) {
+			return null;
+		}
+		if (log.isDebugEnabled()) {
+			log.debug(String.format("实验室场次%d有人退选，递补预约%d", laboratoryId, promoted.id));
+		}
+		waitlistNotifier.notifyAfterCommit(promoted.id, promoted.studentId, laboratoryId);
+		return promoted.id;
+	}
+
+	/**
+	 * 丢弃所有排队名单，下次递补时从数据库重新加载
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+		waitlists.clear();
+	}
+
+	private Waitlist waitlistOf(long laboratoryId) {
+		Waitlist waitlist = waitlists.get(laboratoryId);
+		if (waitlist != null && waitlist.generation == generation.get()) {
+			return waitlist;
+		}
+		long loadedGeneration = generation.get();
+		Map<String, Object> params = new HashMap<>();
+		params.put("laboratoryId", laboratoryId);
+		List<Entry> entries = jdbcDao.findBy(LOAD_SQL, params, new RowMapper<Entry>() {
+
+			@Override
+			public Entry mapRow(ResultSet rs, int rowNum) throws SQLException {
+				Timestamp orderedTime = rs.getTimestamp("ordered_time");
+				return new Entry(rs.getLong("id"), rs.getLong("student_id"),
+						orderedTime == null ? 0 : orderedTime.getTime());
+			}
+		});
+		Waitlist loaded = new Waitlist(loadedGeneration, entries);
+		// 并发加载时以先放入的为准，两份名单内容相同
+		Waitlist existing = waitlists.putIfAbsent(laboratoryId, loaded);
+		if (existing != null && existing.generation == loadedGeneration) {
+			return existing;
+		}
+		if (existing != null) {
+			waitlists.replace(laboratoryId, existing, loaded);
+		}
+		return loaded;
+	}
+
+	private static class Waitlist {
+		final long generation;
+		final PriorityQueue<Entry> queue;
+
+		Waitlist(long generation, List<Entry> entries) {
+			this.generation = generation;
+			this.queue = new PriorityQueue<>(Math.max(1, entries.size()), WAITLIST_ORDER);
+			this.queue.addAll(entries);
+		}
+	}
+
+	private static class Entry {
+		final long id;
+		final long studentId;
+		final long orderedTime;
+
+		Entry(long id, long studentId, long orderedTime) {
+			this.id = id;
+			this.studentId = studentId;
+			this.orderedTime = orderedTime;
+		}
+	}
+}
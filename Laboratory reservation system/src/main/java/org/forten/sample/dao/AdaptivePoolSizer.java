@@ -0,0 +1,144 @@
+package org.forten.sample.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.log4j.Logger;
+
+/**
+ * 按观测到的借用等待时间和SQL平均耗时，在[minActive, maxActive]之间调整主库DBCP连接池的maxActive
+ * 
+ * 由app-core.xml中的task:scheduled定期调用{@link #adjust()}，enabled为false时只跳过调整。每个周期：
+ * 借用连接的平均等待超过waitThresholdMillis或出现超时时，说明连接不够用；此时如果SQL平均耗时没有超过基线的latencyFactor倍，
+ * 瓶颈在连接池，maxActive增加step；如果SQL已经明显变慢，瓶颈在数据库，增加连接只会加重数据库的排队，maxActive减少step。
+ * 连续CALM_INTERVALS个周期没有等待（包括没有任何借用的空闲周期）、且借出连接数的峰值比maxActive少step以上时，maxActive减少step，避免在突发流量下来回调整。
+ * SQL耗时基线是数据库正常周期内平均耗时的指数移动平均。
+ * 借用统计只取自主库连接池的{@link PoolStatisticsDataSource}，从库借不到连接或变慢不会影响主库连接池的大小。
+ */
+public class AdaptivePoolSizer {
+	private static final Logger log = Logger.getLogger(AdaptivePoolSizer.class);
+
+	private static final int CALM_INTERVALS = 3;
+
+	private final InstrumentedDataSource dataSource;
+	private final PoolStatisticsDataSource primaryDataSource;
+
+	private boolean enabled;
+	private int minActive = 10;
+	private int maxActive = 100;
+	private int step = 5;
+	private long waitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(20);
+	private double latencyFactor = 2.0;
+
+	private long lastBorrows;
+	private long lastWaitNanos;
+	private long lastTimeouts;
+	private long lastStatements;
+	private long lastStatementNanos;
+	private double latencyBaselineNanos;
+	private int calmIntervals;
+	private final LongAdder adjustments = new LongAdder();
+	private volatile String lastAdjustment;
+
+	public AdaptivePoolSizer(InstrumentedDataSource dataSource, PoolStatisticsDataSource primaryDataSource) {
+		this.dataSource = dataSource;
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void setMinActive(int minActive) {
+		this.minActive = minActive;
+	}
+
+	public void setMaxActive(int maxActive) {
+		this.maxActive = maxActive;
+	}
+
+	public void setStep(int step) {
+		this.step = step;
+	}
+
+	public void setWaitThresholdMillis(long waitThresholdMillis) {
+		this.waitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(waitThresholdMillis);
+	}
+
+	public void setLatencyFactor(double latencyFactor) {
+		this.latencyFactor = latencyFactor;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long getAdjustments() {
+		return adjustments.sum();
+	}
+
+	public String getLastAdjustment() {
+		return lastAdjustment;
+	}
+
+	public synchronized long getLatencyBaselineMicros() {
+		return TimeUnit.NANOSECONDS.toMicros((long) latencyBaselineNanos);
+	}
+
+	/**
+	 * 根据上次调用以来的统计调整一次maxActive
+	 */
+	public synchronized void adjust() {
+		PoolStatistics statistics = primaryDataSource.getPoolStatistics();
+		long borrows = statistics.getBorrows() - lastBorrows;
+		long waitNanos = statistics.getBorrowWaitNanos() - lastWaitNanos;
+		long timeouts = statistics.getTimeouts() - lastTimeouts;
+		long statements = dataSource.getStatementCount() - lastStatements;
+		long statementNanos = dataSource.getStatementNanos() - lastStatementNanos;
+		int peakBorrowed = statistics.getThenResetPeakBorrowed();
+		lastBorrows += borrows;
+		lastWaitNanos += waitNanos;
+		lastTimeouts += timeouts;
+		lastStatements += statements;
+		lastStatementNanos += statementNanos;
+
+		BasicDataSource pool = primaryDataSource.getBasicDataSource();
+		if (!enabled || pool == null) {
+			return;
+		}
+		// 空闲周期没有等待可言，只计入平静周期
+		boolean idle = borrows + timeouts == 0;
+		double meanWaitNanos = idle ? 0 : (double) waitNanos / (borrows + timeouts);
+		double latencyNanos = statements == 0 ? 0 : (double) statementNanos / statements;
+		boolean databaseSlow = latencyBaselineNanos > 0 && latencyNanos > latencyBaselineNanos * latencyFactor;
+		if (!databaseSlow && statements > 0) {
+			latencyBaselineNanos = latencyBaselineNanos == 0 ? latencyNanos
+					: latencyBaselineNanos * 0.8 + latencyNanos * 0.2;
+		}
+		boolean starved = !idle && (timeouts > 0 || meanWaitNanos > waitThresholdNanos);
+
+		int current = pool.getMaxActive();
+		int target = current;
+		if (starved) {
+			calmIntervals = 0;
+			target = databaseSlow ? current - step : current + step;
+		} else if (peakBorrowed + step < current) {
+			if (++calmIntervals >= CALM_INTERVALS) {
+				calmIntervals = 0;
+				target = current - step;
+			}
+		} else {
+			calmIntervals = 0;
+		}
+		target = Math.max(minActive, Math.min(maxActive, target));
+		if (target != current) {
+			pool.setMaxActive(target);
+			adjustments.increment();
+			lastAdjustment = String.format("maxActive %d->%d，平均等待%.1fms，超时%d次，SQL平均耗时%.2fms（基线%.2fms），借出峰值%d",
+					current, target, meanWaitNanos / 1e6, timeouts, latencyNanos / 1e6, latencyBaselineNanos / 1e6,
+					peakBorrowed);
+			log.info("调整连接池：" + lastAdjustment);
+		}
+	}
+}
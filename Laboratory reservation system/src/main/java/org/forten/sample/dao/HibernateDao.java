@@ -26,6 +26,18 @@ public class HibernateDao {
 		getSession().save(entity);
 	}
 
+	/**
+	 * 保存一批实体后立即flush并清空Session，配合hibernate.jdbc.batch_size以JDBC批量插入，Session中不积累实体
+	 */
+	public <T> void saveBatch(Collection<T> entities) {
+		Session session = getSession();
+		for (T entity : entities) {
+			session.save(entity);
+		}
+		session.flush();
+		session.clear();
+	}
+
 	public <T> void update(T entity) {
 		getSession().update(entity);
 	}
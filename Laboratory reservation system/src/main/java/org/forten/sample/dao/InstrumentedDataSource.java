@@ -0,0 +1,282 @@
+package org.forten.sample.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+import org.forten.sample.vo.SqlMetricsVo;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 统计SQL执行情况的数据源，包装app-core.xml中的读写分离数据源，统计包括发往从库的语句
+ * 
+ * 连接、Statement和ResultSet都以JDK动态代理包装：每次execute*按SQL指纹记录耗时与成败，ResultSet每读取一行计一行。
+ * 超过slowQueryMillis的语句写入slowQuery日志。
+ * 在{@link #beginRequest(String)}与{@link #endRequest()}之间，当前线程执行的语句还会记录到请求级的{@link RequestSqlTrace}，
+ * 同一指纹在一次请求中执行达到repeatedQueryThreshold次时判定为疑似N+1查询并输出警告。
+ * 请求中借用连接的等待时间和持有时间也按请求累计；各连接池自身的借用统计见{@link PoolStatisticsDataSource}。
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+	private static final Logger log = Logger.getLogger(InstrumentedDataSource.class);
+	private static final Logger slowQueryLog = Logger.getLogger("slowQuery");
+
+	private static final String OTHER_FINGERPRINT = "(other)";
+	// 按原始SQL缓存指纹统计对象的上限，拼接了常量的SQL超出后每次重新计算指纹
+	private static final int MAX_CACHED_SQL = 4096;
+
+	private static final ThreadLocal<RequestSqlTrace> currentTrace = new ThreadLocal<>();
+
+	private final ConcurrentMap<String, SqlStatistics> statisticsBySql = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, SqlStatistics> statisticsByFingerprint = new ConcurrentHashMap<>();
+	private final SqlStatistics otherStatistics = new SqlStatistics(OTHER_FINGERPRINT);
+	private final LongAdder statements = new LongAdder();
+	private final LongAdder statementNanos = new LongAdder();
+
+	private long slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(200);
+	private int repeatedQueryThreshold = 10;
+	private int maxFingerprints = 1000;
+
+	public InstrumentedDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	public void setSlowQueryMillis(long slowQueryMillis) {
+		this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+	}
+
+	public void setRepeatedQueryThreshold(int repeatedQueryThreshold) {
+		this.repeatedQueryThreshold = repeatedQueryThreshold;
+	}
+
+	public void setMaxFingerprints(int maxFingerprints) {
+		this.maxFingerprints = maxFingerprints;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return borrow(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return borrow(username, password);
+	}
+
+	private Connection borrow(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		Connection connection = username == null ? getTargetDataSource().getConnection()
+				: getTargetDataSource().getConnection(username, password);
+		long borrowedAt = System.nanoTime();
+		RequestSqlTrace trace = currentTrace.get();
+		if (trace != null) {
+			trace.recordBorrow(borrowedAt - start);
+		}
+		return wrapConnection(connection, borrowedAt, trace);
+	}
+
+	/**
+	 * 开始记录当前线程的请求级SQL统计
+	 * 
+	 * @param handler
+	 *            处理请求的方法名，用于日志
+	 */
+	public void beginRequest(String handler) {
+		currentTrace.set(new RequestSqlTrace(handler));
+	}
+
+	/**
+	 * 结束当前线程的请求级SQL统计，并检查N+1查询
+	 * 
+	 * @return 本次请求的SQL统计，没有调用beginRequest时返回null
+	 */
+	public RequestSqlTrace endRequest() {
+		RequestSqlTrace trace = currentTrace.get();
+		if (trace == null) {
+			return null;
+		}
+		currentTrace.remove();
+		for (Entry<SqlStatistics, int[]> entry : trace.getExecutions().entrySet()) {
+			int count = entry.getValue()[0];
+			if (count >= repeatedQueryThreshold) {
+				entry.getKey().recordNPlusOneSuspect();
+				log.warn(String.format("疑似N+1查询：%s在一次请求中执行了%d次[%s]", trace.getHandler(), count,
+						entry.getKey().getFingerprint()));
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * @return 经过本数据源执行的语句总数，一次批量提交计为一条
+	 */
+	public long getStatementCount() {
+		return statements.sum();
+	}
+
+	/**
+	 * @return 所有语句的累计执行纳秒数
+	 */
+	public long getStatementNanos() {
+		return statementNanos.sum();
+	}
+
+	/**
+	 * @return 按总耗时从高到低排列的各SQL指纹统计
+	 */
+	public List<SqlMetricsVo> snapshot() {
+		List<SqlMetricsVo> list = new ArrayList<>(statisticsByFingerprint.size() + 1);
+		for (SqlStatistics statistics : statisticsByFingerprint.values()) {
+			list.add(statistics.toVo());
+		}
+		SqlMetricsVo other = otherStatistics.toVo();
+		if (other.getExecutions() > 0) {
+			list.add(other);
+		}
+		list.sort((a, b) -> Long.compare(b.getSumMicros(), a.getSumMicros()));
+		return list;
+	}
+
+	private SqlStatistics statisticsOf(String sql) {
+		if (sql == null) {
+			return otherStatistics;
+		}
+		SqlStatistics statistics = statisticsBySql.get(sql);
+		if (statistics != null) {
+			return statistics;
+		}
+		String fingerprint = SqlFingerprint.of(sql);
+		statistics = statisticsByFingerprint.get(fingerprint);
+		if (statistics == null) {
+			if (statisticsByFingerprint.size() >= maxFingerprints) {
+				return otherStatistics;
+			}
+			statistics = statisticsByFingerprint.computeIfAbsent(fingerprint, SqlStatistics::new);
+		}
+		if (statisticsBySql.size() < MAX_CACHED_SQL) {
+			statisticsBySql.putIfAbsent(sql, statistics);
+		}
+		return statistics;
+	}
+
+	private SqlStatistics record(String sql, long nanos, boolean error) {
+		SqlStatistics statistics = statisticsOf(sql);
+		boolean slow = nanos >= slowQueryNanos;
+		statistics.recordExecution(nanos, error, slow);
+		statements.increment();
+		statementNanos.add(nanos);
+		RequestSqlTrace trace = currentTrace.get();
+		if (trace != null) {
+			trace.recordExecution(statistics, nanos);
+		}
+		if (slow) {
+			slowQueryLog.warn(String.format("%dms %s %s", TimeUnit.NANOSECONDS.toMillis(nanos),
+					trace == null ? "-" : trace.getHandler(), sql));
+		}
+		return statistics;
+	}
+
+	private Connection wrapConnection(Connection connection, long borrowedAt, RequestSqlTrace trace) {
+		boolean[] closed = new boolean[1];
+		return (Connection) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					if ("close".equals(method.getName()) && !closed[0]) {
+						closed[0] = true;
+						if (trace != null) {
+							trace.recordRelease(System.nanoTime() - borrowedAt);
+						}
+					}
+					Object result = invoke(connection, method, args);
+					if (result instanceof Statement) {
+						String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+								: null;
+						return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+								statementInterfaces(method.getReturnType()), new StatementHandler((Statement) result, sql));
+					}
+					return result;
+				});
+	}
+
+	// 按声明的返回类型代理，PreparedStatement、CallableStatement上的方法才能被调用
+	private static Class<?>[] statementInterfaces(Class<?> returnType) {
+		if (returnType.isInterface() && Statement.class.isAssignableFrom(returnType)) {
+			return new Class<?>[] { returnType };
+		}
+		return new Class<?>[] { Statement.class };
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	private class StatementHandler implements InvocationHandler {
+		private final Statement target;
+		// PreparedStatement创建时的SQL，或普通Statement最近一次addBatch的SQL
+		private String sql;
+		private SqlStatistics lastStatistics;
+
+		StatementHandler(Statement target, String sql) {
+			this.target = target;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("execute")) {
+				String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+				long start = System.nanoTime();
+				boolean error = true;
+				Object result;
+				try {
+					result = InstrumentedDataSource.invoke(target, method, args);
+					error = false;
+				} finally {
+					lastStatistics = record(executed, System.nanoTime() - start, error);
+				}
+				return result instanceof ResultSet ? wrapResultSet((ResultSet) result, lastStatistics) : result;
+			}
+			if ("addBatch".equals(name) && args != null && args.length == 1) {
+				sql = (String) args[0];
+			}
+			Object result = InstrumentedDataSource.invoke(target, method, args);
+			if ("getResultSet".equals(name) && result != null) {
+				return wrapResultSet((ResultSet) result, lastStatistics != null ? lastStatistics : otherStatistics);
+			}
+			return result;
+		}
+	}
+
+	private ResultSet wrapResultSet(ResultSet resultSet, SqlStatistics statistics) {
+		RequestSqlTrace trace = currentTrace.get();
+		return (ResultSet) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+					Object result = invoke(resultSet, method, args);
+					if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+						statistics.recordRow();
+						if (trace != null) {
+							trace.recordRow();
+						}
+					}
+					return result;
+				});
+	}
+}
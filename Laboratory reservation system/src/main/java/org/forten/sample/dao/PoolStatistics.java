@@ -0,0 +1,90 @@
+package org.forten.sample.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forten.sample.vo.PoolMetricsVo;
+import org.forten.utils.system.LatencyHistogram;
+
+/**
+ * 连接池的借用统计：等待时间与持有时间直方图、超时和其他借用失败次数、当前借出的连接数及其峰值
+ */
+public class PoolStatistics {
+	private final LatencyHistogram borrowWait = new LatencyHistogram();
+	private final LatencyHistogram hold = new LatencyHistogram();
+	private final LongAdder borrowWaitNanos = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder borrowErrors = new LongAdder();
+	private final AtomicInteger borrowed = new AtomicInteger();
+	// 由AdaptivePoolSizer每个周期读取并清零
+	private final LongAccumulator intervalPeakBorrowed = new LongAccumulator(Math::max, 0);
+
+	void recordBorrow(long waitNanos) {
+		borrowWait.record(waitNanos);
+		borrowWaitNanos.add(waitNanos);
+		intervalPeakBorrowed.accumulate(borrowed.incrementAndGet());
+	}
+
+	void recordBorrowFailure(long waitNanos, boolean timeout) {
+		borrowWaitNanos.add(waitNanos);
+		if (timeout) {
+			timeouts.increment();
+		} else {
+			borrowErrors.increment();
+		}
+	}
+
+	void recordRelease(long holdNanos) {
+		borrowed.decrementAndGet();
+		hold.record(holdNanos);
+	}
+
+	/**
+	 * @return 成功借用连接的次数
+	 */
+	public long getBorrows() {
+		return borrowWait.getCount();
+	}
+
+	/**
+	 * @return 借用连接（包括失败的借用）的累计等待纳秒数
+	 */
+	public long getBorrowWaitNanos() {
+		return borrowWaitNanos.sum();
+	}
+
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+
+	/**
+	 * 返回上次调用以来同时借出的连接数的峰值，并开始新的统计周期
+	 */
+	public int getThenResetPeakBorrowed() {
+		int peak = (int) intervalPeakBorrowed.getThenReset();
+		return Math.max(peak, borrowed.get());
+	}
+
+	public PoolMetricsVo toVo() {
+		long[] waits = borrowWait.getValuesAtPercentiles(50, 99);
+		long[] holds = hold.getValuesAtPercentiles(50, 99);
+		PoolMetricsVo vo = new PoolMetricsVo();
+		vo.setBorrowed(borrowed.get());
+		vo.setBorrows(borrowWait.getCount());
+		vo.setTimeouts(timeouts.sum());
+		vo.setBorrowErrors(borrowErrors.sum());
+		vo.setWaitP50Micros(toMicros(waits[0]));
+		vo.setWaitP99Micros(toMicros(waits[1]));
+		vo.setWaitMaxMicros(toMicros(borrowWait.getMax()));
+		vo.setHoldP50Micros(toMicros(holds[0]));
+		vo.setHoldP99Micros(toMicros(holds[1]));
+		vo.setHoldMaxMicros(toMicros(hold.getMax()));
+		return vo;
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
@@ -0,0 +1,95 @@
+package org.forten.sample.dao;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.forten.sample.vo.PoolMetricsVo;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 统计一个连接池借用情况的数据源：借用连接的等待时间、超时次数和连接的持有时间记录在{@link PoolStatistics}中
+ *
+ * app-core.xml中直接包装主库的DBCP连接池，位于读写分离数据源之下，统计和{@link AdaptivePoolSizer}的调整都只涉及主库；
+ * 各从库的连接池由{@link ReplicaRoutingDataSource}分别包装，统计互不混合。
+ */
+public class PoolStatisticsDataSource extends DelegatingDataSource {
+	private final PoolStatistics poolStatistics = new PoolStatistics();
+
+	public PoolStatisticsDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return borrow(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return borrow(username, password);
+	}
+
+	private Connection borrow(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		Connection connection;
+		try {
+			connection = username == null ? getTargetDataSource().getConnection()
+					: getTargetDataSource().getConnection(username, password);
+		} catch (SQLException e) {
+			// DBCP在maxWait内借不到连接时抛出以NoSuchElementException为原因的SQLException
+			poolStatistics.recordBorrowFailure(System.nanoTime() - start, e.getCause() instanceof NoSuchElementException);
+			throw e;
+		}
+		long borrowedAt = System.nanoTime();
+		poolStatistics.recordBorrow(borrowedAt - start);
+		return wrapConnection(connection, borrowedAt);
+	}
+
+	public PoolStatistics getPoolStatistics() {
+		return poolStatistics;
+	}
+
+	/**
+	 * @return 被包装的DBCP连接池，目标数据源不是BasicDataSource时返回null
+	 */
+	public BasicDataSource getBasicDataSource() {
+		DataSource target = getTargetDataSource();
+		return target instanceof BasicDataSource ? (BasicDataSource) target : null;
+	}
+
+	/**
+	 * @return 连接池的借用统计，以及DBCP报告的活动连接数和空闲连接数
+	 */
+	public PoolMetricsVo poolSnapshot() {
+		PoolMetricsVo vo = poolStatistics.toVo();
+		BasicDataSource pool = getBasicDataSource();
+		if (pool != null) {
+			vo.setActive(pool.getNumActive());
+			vo.setIdle(pool.getNumIdle());
+			vo.setMaxActive(pool.getMaxActive());
+		}
+		return vo;
+	}
+
+	private Connection wrapConnection(Connection connection, long borrowedAt) {
+		boolean[] closed = new boolean[1];
+		return (Connection) Proxy.newProxyInstance(PoolStatisticsDataSource.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					if ("close".equals(method.getName()) && !closed[0]) {
+						closed[0] = true;
+						poolStatistics.recordRelease(System.nanoTime() - borrowedAt);
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+	}
+}
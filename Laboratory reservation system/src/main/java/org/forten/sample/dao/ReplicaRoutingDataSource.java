@@ -0,0 +1,280 @@
+package org.forten.sample.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.log4j.Logger;
+import org.forten.sample.vo.ReplicaMetricsVo;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离数据源：只读事务中借用的连接发往从库，其余连接发往主库
+ *
+ * 是否只读由{@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}判断，事务开始时该标志还没有设置，
+ * 所以app-core.xml在外层套了LazyConnectionDataSourceProxy，连接推迟到事务中第一次执行SQL时才借用。
+ * 从库连接池按replicaUrls逐个创建，驱动、用户名、密码和池大小与主库的DBCP连接池相同；
+ * selection为ROUND_ROBIN时依次轮询，为LEAST_LOADED时选择活动连接最少的从库。
+ * 每个从库的连接池各自包装一个{@link PoolStatisticsDataSource}，借用统计与主库分开记录。
+ *
+ * 复制延迟由app-core.xml中的task:scheduled定期调用{@link #checkReplicationLag()}检查：向主库的心跳表写入当前时间，
+ * 再从各从库读出已经复制过去的心跳时间，两者之差超过maxLagMillis或查询失败的从库暂停使用，直到下一次检查恢复正常。
+ * 启动后第一次检查之前、没有可用从库或从库借不到连接时，只读事务回退到主库。
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+	private static final Logger log = Logger.getLogger(ReplicaRoutingDataSource.class);
+
+	private static final String UPDATE_HEARTBEAT_SQL = "update test_replica_heartbeat set beat_time=? where id=1";
+	private static final String INSERT_HEARTBEAT_SQL = "insert into test_replica_heartbeat (id, beat_time) values (1, ?)";
+	private static final String SELECT_HEARTBEAT_SQL = "select beat_time from test_replica_heartbeat where id=1";
+
+	/**
+	 * 从库的选择策略
+	 */
+	public enum Selection {
+		ROUND_ROBIN, LEAST_LOADED
+	}
+
+	private final DataSource primary;
+	private String replicaUrls;
+	private Selection selection = Selection.ROUND_ROBIN;
+	private long maxLagMillis = 5000;
+
+	private List<Replica> replicas = Collections.emptyList();
+	private final AtomicInteger nextReplica = new AtomicInteger();
+	private final LongAdder readOnlyConnections = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+
+	public ReplicaRoutingDataSource(DataSource primary) {
+		this.primary = primary;
+	}
+
+	/**
+	 * @param replicaUrls
+	 *            以逗号分隔的从库JDBC URL，为空时所有连接都发往主库
+	 */
+	public void setReplicaUrls(String replicaUrls) {
+		this.replicaUrls = replicaUrls;
+	}
+
+	public void setSelection(Selection selection) {
+		this.selection = selection;
+	}
+
+	public void setMaxLagMillis(long maxLagMillis) {
+		this.maxLagMillis = maxLagMillis;
+	}
+
+	public DataSource getPrimary() {
+		return primary;
+	}
+
+	/**
+	 * @return 在只读事务中借用的连接数，包括回退到主库的
+	 */
+	public long getReadOnlyConnections() {
+		return readOnlyConnections.sum();
+	}
+
+	/**
+	 * @return 只读事务因为没有可用从库而使用主库的次数
+	 */
+	public long getFallbacks() {
+		return fallbacks.sum();
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (replicaUrls == null || replicaUrls.trim().isEmpty()) {
+			return;
+		}
+		DataSource target = primary instanceof PoolStatisticsDataSource
+				? ((PoolStatisticsDataSource) primary).getTargetDataSource() : primary;
+		if (!(target instanceof BasicDataSource)) {
+			throw new BeanCreationException("配置了从库时主库必须是DBCP连接池，从库连接池按主库的参数创建");
+		}
+		BasicDataSource template = (BasicDataSource) target;
+		List<Replica> list = new ArrayList<>();
+		for (String url : replicaUrls.split(",")) {
+			url = url.trim();
+			if (url.isEmpty()) {
+				continue;
+			}
+			BasicDataSource pool = new BasicDataSource();
+			pool.setDriverClassName(template.getDriverClassName());
+			pool.setUrl(url);
+			pool.setUsername(template.getUsername());
+			pool.setPassword(template.getPassword());
+			pool.setInitialSize(template.getInitialSize());
+			pool.setMaxActive(template.getMaxActive());
+			pool.setMaxWait(template.getMaxWait());
+			pool.setMaxIdle(template.getMaxIdle());
+			pool.setMinIdle(template.getMinIdle());
+			pool.setDefaultReadOnly(true);
+			list.add(new Replica(url, pool));
+		}
+		replicas = Collections.unmodifiableList(list);
+		log.info(String.format("读写分离：%d个从库，选择策略%s，最大复制延迟%dms", replicas.size(), selection, maxLagMillis));
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		for (Replica replica : replicas) {
+			replica.pool.close();
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		if (!replicas.isEmpty() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			readOnlyConnections.increment();
+			Replica replica = choose();
+			if (replica != null) {
+				try {
+					Connection connection = username == null ? replica.dataSource.getConnection()
+							: replica.dataSource.getConnection(username, password);
+					replica.connections.increment();
+					return connection;
+				} catch (SQLException e) {
+					replica.update(-1, false, e.getMessage());
+				}
+			}
+			fallbacks.increment();
+		}
+		return username == null ? primary.getConnection() : primary.getConnection(username, password);
+	}
+
+	private Replica choose() {
+		int size = replicas.size();
+		if (selection == Selection.LEAST_LOADED) {
+			Replica chosen = null;
+			int chosenActive = Integer.MAX_VALUE;
+			for (Replica replica : replicas) {
+				int active;
+				if (replica.healthy && (active = replica.pool.getNumActive()) < chosenActive) {
+					chosen = replica;
+					chosenActive = active;
+				}
+			}
+			return chosen;
+		}
+		int start = nextReplica.getAndIncrement();
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get(Math.floorMod(start + i, size));
+			if (replica.healthy) {
+				return replica;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 向主库写入心跳，并按各从库读到的心跳时间更新从库的可用状态
+	 *
+	 * 测得的延迟以检查间隔为精度，maxLagMillis应大于检查间隔。
+	 */
+	public void checkReplicationLag() {
+		if (replicas.isEmpty()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		try (Connection connection = primary.getConnection()) {
+			writeHeartbeat(connection, now);
+		} catch (SQLException e) {
+			log.warn("写入主库心跳失败：" + e.getMessage());
+		}
+		for (Replica replica : replicas) {
+			try (Connection connection = replica.dataSource.getConnection();
+					PreparedStatement ps = connection.prepareStatement(SELECT_HEARTBEAT_SQL);
+					ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					long lag = Math.max(0, now - rs.getLong(1));
+					replica.update(lag, lag <= maxLagMillis, "复制延迟" + lag + "ms");
+				} else {
+					replica.update(-1, false, "心跳尚未复制到从库");
+				}
+			} catch (SQLException e) {
+				replica.update(-1, false, e.getMessage());
+			}
+		}
+	}
+
+	private static void writeHeartbeat(Connection connection, long now) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(UPDATE_HEARTBEAT_SQL)) {
+			ps.setLong(1, now);
+			if (ps.executeUpdate() > 0) {
+				return;
+			}
+		}
+		try (PreparedStatement ps = connection.prepareStatement(INSERT_HEARTBEAT_SQL)) {
+			ps.setLong(1, now);
+			ps.executeUpdate();
+		}
+	}
+
+	/**
+	 * @return 各从库的可用状态、复制延迟、已借出的连接数和各自连接池的借用统计
+	 */
+	public List<ReplicaMetricsVo> snapshot() {
+		List<ReplicaMetricsVo> list = new ArrayList<>(replicas.size());
+		for (Replica replica : replicas) {
+			ReplicaMetricsVo vo = new ReplicaMetricsVo();
+			vo.setUrl(replica.url);
+			vo.setHealthy(replica.healthy);
+			vo.setLagMillis(replica.lagMillis);
+			vo.setConnections(replica.connections.sum());
+			vo.setActive(replica.pool.getNumActive());
+			vo.setIdle(replica.pool.getNumIdle());
+			vo.setPool(replica.dataSource.poolSnapshot());
+			list.add(vo);
+		}
+		return list;
+	}
+
+	private static class Replica {
+		final String url;
+		final BasicDataSource pool;
+		final PoolStatisticsDataSource dataSource;
+		final LongAdder connections = new LongAdder();
+		// 第一次检查复制延迟之前不使用
+		volatile boolean healthy;
+		volatile long lagMillis = -1;
+
+		Replica(String url, BasicDataSource pool) {
+			this.url = url;
+			this.pool = pool;
+			this.dataSource = new PoolStatisticsDataSource(pool);
+		}
+
+		synchronized void update(long lagMillis, boolean healthy, String reason) {
+			this.lagMillis = lagMillis;
+			if (this.healthy == healthy) {
+				return;
+			}
+			this.healthy = healthy;
+			if (healthy) {
+				log.info(String.format("从库%s恢复使用：%s", url, reason));
+			} else {
+				log.warn(String.format("从库%s暂停使用：%s", url, reason));
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package org.forten.sample.dao;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 一次请求内执行的SQL：语句数、总耗时、读取的行数，以及每个SQL指纹的执行次数；
+ * 同时累计借用连接的次数、等待时间和持有时间
+ * 
+ * 只在处理请求的线程上访问，不需要同步。
+ */
+public class RequestSqlTrace {
+	private final String handler;
+	private final Map<SqlStatistics, int[]> executions = new IdentityHashMap<>();
+	private int statements;
+	private long nanos;
+	private long rows;
+	private int connections;
+	private long connectionWaitNanos;
+	private long connectionHoldNanos;
+
+	RequestSqlTrace(String handler) {
+		this.handler = handler;
+	}
+
+	void recordExecution(SqlStatistics statistics, long nanos) {
+		statements++;
+		this.nanos += nanos;
+		int[] count = executions.get(statistics);
+		if (count == null) {
+			executions.put(statistics, new int[] { 1 });
+		} else {
+			count[0]++;
+		}
+	}
+
+	void recordRow() {
+		rows++;
+	}
+
+	void recordBorrow(long waitNanos) {
+		connections++;
+		connectionWaitNanos += waitNanos;
+	}
+
+	void recordRelease(long holdNanos) {
+		connectionHoldNanos += holdNanos;
+	}
+
+	Map<SqlStatistics, int[]> getExecutions() {
+		return executions;
+	}
+
+	public String getHandler() {
+		return handler;
+	}
+
+	public int getStatements() {
+		return statements;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public int getConnections() {
+		return connections;
+	}
+
+	public long getConnectionWaitNanos() {
+		return connectionWaitNanos;
+	}
+
+	public long getConnectionHoldNanos() {
+		return connectionHoldNanos;
+	}
+}
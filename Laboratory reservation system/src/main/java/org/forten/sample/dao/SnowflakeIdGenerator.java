@@ -0,0 +1,47 @@
+package org.forten.sample.dao;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.forten.utils.system.SnowflakeKeyBuilder;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * 基于SnowflakeKeyBuilder的Hibernate主键生成器
+ * 
+ * 节点号从Hibernate属性hibernate.id.node_id中读取，集群中每个节点必须不同。
+ * 使用5位节点号、7位序列号的布局，生成的主键不超过53位，前端JavaScript可以无损处理。
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator, Configurable {
+	public static final String NAME = "snowflake";
+	public static final String NODE_ID = "hibernate.id.node_id";
+
+	private static final int NODE_BITS = 5;
+	private static final int SEQUENCE_BITS = 7;
+
+	private SnowflakeKeyBuilder keyBuilder;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		int nodeId = ConfigurationHelper.getInt(NODE_ID,
+				serviceRegistry.getService(ConfigurationService.class).getSettings(), 0);
+		try {
+			keyBuilder = SnowflakeKeyBuilder.getInstance(nodeId, NODE_BITS, SEQUENCE_BITS);
+		} catch (IllegalArgumentException e) {
+			throw new MappingException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public Serializable generate(SessionImplementor session, Object object) throws HibernateException {
+		return keyBuilder.nextPK();
+	}
+}
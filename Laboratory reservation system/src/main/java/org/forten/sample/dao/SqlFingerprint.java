@@ -0,0 +1,26 @@
+package org.forten.sample.dao;
+
+import java.util.regex.Pattern;
+
+/**
+ * 把SQL归一化为指纹：字符串和数字常量替换为?，IN列表折叠为一个?，空白合并，关键字转为小写
+ * 
+ * 只有参数不同的语句得到相同的指纹，用来按语句聚合统计和识别N+1查询。
+ */
+public final class SqlFingerprint {
+	private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*(?:''[^']*)*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	// 用字符类而不是分组重复匹配IN列表，分组每重复一次递归一层，上千个参数时会栈溢出
+	private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?[\\s,?]*\\)");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private SqlFingerprint() {
+	}
+
+	public static String of(String sql) {
+		String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+		fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+		fingerprint = IN_LIST.matcher(fingerprint).replaceAll("in (?)");
+		return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim().toLowerCase();
+	}
+}
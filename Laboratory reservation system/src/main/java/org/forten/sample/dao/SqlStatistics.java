@@ -0,0 +1,61 @@
+package org.forten.sample.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forten.sample.vo.SqlMetricsVo;
+import org.forten.utils.system.LatencyHistogram;
+
+/**
+ * 同一SQL指纹的累计统计：执行次数与耗时、错误数、读取的行数、慢查询次数和被判定为N+1的请求数
+ */
+public class SqlStatistics {
+	private final String fingerprint;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder slowQueries = new LongAdder();
+	private final LongAdder nPlusOneSuspects = new LongAdder();
+
+	public SqlStatistics(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	void recordExecution(long nanos, boolean error, boolean slow) {
+		latency.record(nanos);
+		if (error) {
+			errors.increment();
+		}
+		if (slow) {
+			slowQueries.increment();
+		}
+	}
+
+	void recordRow() {
+		rows.increment();
+	}
+
+	void recordNPlusOneSuspect() {
+		nPlusOneSuspects.increment();
+	}
+
+	public SqlMetricsVo toVo() {
+		long[] percentiles = latency.getValuesAtPercentiles(50, 99);
+		SqlMetricsVo vo = new SqlMetricsVo();
+		vo.setFingerprint(fingerprint);
+		vo.setExecutions(latency.getCount());
+		vo.setErrors(errors.sum());
+		vo.setRows(rows.sum());
+		vo.setSumMicros(TimeUnit.NANOSECONDS.toMicros(latency.getSum()));
+		vo.setP50Micros(TimeUnit.NANOSECONDS.toMicros(percentiles[0]));
+		vo.setP99Micros(TimeUnit.NANOSECONDS.toMicros(percentiles[1]));
+		vo.setMaxMicros(TimeUnit.NANOSECONDS.toMicros(latency.getMax()));
+		vo.setSlowQueries(slowQueries.sum());
+		vo.setSuspectedNPlusOne(nPlusOneSuspects.sum());
+		return vo;
+	}
+}
@@ -5,16 +5,24 @@ import java.util.Date;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
+import org.forten.sample.dao.SnowflakeIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 @Entity
-@Table(name = "test_laboratory")
+@Table(name = "test_laboratory", indexes = { @Index(name = "idx_laboratory_order_time", columnList = "order_time"),
+		@Index(name = "idx_laboratory_series", columnList = "series_id,order_time") })
 public class Laboratory implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	private int id;
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
 	@Column(name = "laboratory_name")
 	private String laboratoryName;
 	@Column(name = "laboratory_address")
@@ -27,6 +35,9 @@ public class Laboratory implements Serializable {
 	private int minNumber;
 	@Column(name = "max_number")
 	private int maxNumber;
+	// 由LaboratorySeries生成的场次指向其重复规则，单独添加的场次为null
+	@Column(name = "series_id")
+	private Long seriesId;
 
 	public Laboratory() {
 		super();
@@ -43,7 +54,7 @@ public class Laboratory implements Serializable {
 		this.classTime = classTime;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
@@ -95,11 +106,19 @@ public class Laboratory implements Serializable {
 		this.classTime = classTime;
 	}
 
+	public Long getSeriesId() {
+		return seriesId;
+	}
+
+	public void setSeriesId(Long seriesId) {
+		this.seriesId = seriesId;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + id;
+		result = prime * result + (int) (id ^ (id >>> 32));
 		return result;
 	}
 
@@ -121,7 +140,7 @@ public class Laboratory implements Serializable {
 	public String toString() {
 		return "Laboratory [id=" + id + ", laboratoryName=" + laboratoryName + ", laboratoryAddress="
 				+ laboratoryAddress + ", orderTime=" + orderTime + ", minNumber=" + minNumber + ", maxNumber="
-				+ maxNumber + ", classTime=" + classTime + "]";
+				+ maxNumber + ", classTime=" + classTime + ", seriesId=" + seriesId + "]";
 	}
 
 }
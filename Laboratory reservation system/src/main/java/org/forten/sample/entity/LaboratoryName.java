@@ -4,9 +4,12 @@ import java.io.Serializable;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.forten.sample.dao.SnowflakeIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotBlank;
 
@@ -15,7 +18,9 @@ import org.hibernate.validator.constraints.NotBlank;
 public class LaboratoryName implements Serializable {
 	private static final long serialVersionUID = 1L;
 	@Id
-	private int id;
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
 	@Column(name = "laboratory_name")
 	@NotBlank(message = "实验室名称不能为空")
 	@Length(min = 4, max = 12, message = "字符长度为4~12之间")
@@ -38,7 +43,7 @@ public class LaboratoryName implements Serializable {
 		this.laboratoryName = LaboratoryName;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
@@ -46,7 +51,7 @@ public class LaboratoryName implements Serializable {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + id;
+		result = prime * result + (int) (id ^ (id >>> 32));
 		return result;
 	}
 
@@ -0,0 +1,158 @@
+package org.forten.sample.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.forten.sample.dao.SnowflakeIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * 每周重复开放的实验室，在fromDate到toDate之间每逢weekday生成一个Laboratory场次，exceptDates中的日期除外
+ *
+ * weekday按ISO取1（星期一）到7（星期日）；exceptDates为逗号分隔的yyyy-MM-dd日期。
+ */
+@Entity
+@Table(name = "test_laboratory_series")
+public class LaboratorySeries implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
+	@Column(name = "laboratory_name")
+	private String laboratoryName;
+	@Column(name = "laboratory_address")
+	private String laboratoryAddress;
+	@Column
+	private int weekday;
+	@Column(name = "class_time")
+	private String classTime;
+	@Column(name = "min_number")
+	private int minNumber;
+	@Column(name = "max_number")
+	private int maxNumber;
+	@Column(name = "from_date")
+	private Date fromDate;
+	@Column(name = "to_date")
+	private Date toDate;
+	@Column(name = "except_dates", length = 2000)
+	private String exceptDates;
+
+	public LaboratorySeries() {
+		super();
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getLaboratoryName() {
+		return laboratoryName;
+	}
+
+	public void setLaboratoryName(String laboratoryName) {
+		this.laboratoryName = laboratoryName;
+	}
+
+	public String getLaboratoryAddress() {
+		return laboratoryAddress;
+	}
+
+	public void setLaboratoryAddress(String laboratoryAddress) {
+		this.laboratoryAddress = laboratoryAddress;
+	}
+
+	public int getWeekday() {
+		return weekday;
+	}
+
+	public void setWeekday(int weekday) {
+		this.weekday = weekday;
+	}
+
+	public String getClassTime() {
+		return classTime;
+	}
+
+	public void setClassTime(String classTime) {
+		this.classTime = classTime;
+	}
+
+	public int getMinNumber() {
+		return minNumber;
+	}
+
+	public void setMinNumber(int minNumber) {
+		this.minNumber = minNumber;
+	}
+
+	public int getMaxNumber() {
+		return maxNumber;
+	}
+
+	public void setMaxNumber(int maxNumber) {
+		this.maxNumber = maxNumber;
+	}
+
+	public Date getFromDate() {
+		return fromDate;
+	}
+
+	public void setFromDate(Date fromDate) {
+		this.fromDate = fromDate;
+	}
+
+	public Date getToDate() {
+		return toDate;
+	}
+
+	public void setToDate(Date toDate) {
+		this.toDate = toDate;
+	}
+
+	public String getExceptDates() {
+		return exceptDates;
+	}
+
+	public void setExceptDates(String exceptDates) {
+		this.exceptDates = exceptDates;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (id ^ (id >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LaboratorySeries other = (LaboratorySeries) obj;
+		if (id != other.id)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "LaboratorySeries [id=" + id + ", laboratoryName=" + laboratoryName + ", laboratoryAddress="
+				+ laboratoryAddress + ", weekday=" + weekday + ", classTime=" + classTime + ", minNumber=" + minNumber
+				+ ", maxNumber=" + maxNumber + ", fromDate=" + fromDate + ", toDate=" + toDate + ", exceptDates="
+				+ exceptDates + "]";
+	}
+
+}
@@ -5,16 +5,22 @@ import java.util.Date;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.forten.sample.dao.SnowflakeIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 @Entity
 @Table(name="test_notebook")
 public class Notebook implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	private int id;
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
 	@Column
 	private String title;
 	@Column
@@ -60,7 +66,7 @@ public class Notebook implements Serializable {
 		this.contentText = contentText;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
@@ -72,7 +78,7 @@ public class Notebook implements Serializable {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + id;
+		result = prime * result + (int) (id ^ (id >>> 32));
 		return result;
 	}
 
@@ -4,18 +4,24 @@ import java.io.Serializable;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.forten.sample.dao.SnowflakeIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 @Entity
 @Table(name = "test_notebook_response")
 public class NotebookResponse implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	private int id;
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
 	@Column(name = "notebook_id")
-	private int notebookId;
+	private long notebookId;
 	@Column(name = "context_text")
 	private String contentText;
 
@@ -23,17 +29,17 @@ public class NotebookResponse implements Serializable {
 		super();
 	}
 
-	public NotebookResponse(int notebookId, String contentText) {
+	public NotebookResponse(long notebookId, String contentText) {
 		super();
 		this.notebookId = notebookId;
 		this.contentText = contentText;
 	}
 
-	public int getNotebookId() {
+	public long getNotebookId() {
 		return notebookId;
 	}
 
-	public void setNotebookId(int notebookId) {
+	public void setNotebookId(long notebookId) {
 		this.notebookId = notebookId;
 	}
 
@@ -45,7 +51,7 @@ public class NotebookResponse implements Serializable {
 		this.contentText = contentText;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
@@ -0,0 +1,49 @@
+package org.forten.sample.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 复制延迟心跳表，只有一行（id=1）
+ * 
+ * 表结构由Hibernate生成，ReplicaRoutingDataSource直接用JDBC在主库写入心跳时间，再从各从库读出。
+ */
+@Entity
+@Table(name = "test_replica_heartbeat")
+public class ReplicaHeartbeat implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private int id;
+	@Column(name = "beat_time")
+	private long beatTime;
+
+	public ReplicaHeartbeat() {
+		super();
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public long getBeatTime() {
+		return beatTime;
+	}
+
+	public void setBeatTime(long beatTime) {
+		this.beatTime = beatTime;
+	}
+
+	@Override
+	public String toString() {
+		return "ReplicaHeartbeat [id=" + id + ", beatTime=" + beatTime + "]";
+	}
+}
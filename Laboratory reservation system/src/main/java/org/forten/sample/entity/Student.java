@@ -4,16 +4,23 @@ import java.io.Serializable;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
+import org.forten.sample.dao.SnowflakeIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
+
 @Entity
-@Table(name = "test_student")
+@Table(name = "test_student", indexes = @Index(name = "idx_student_number", columnList = "number"))
 public class Student implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	private int id;
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
 	@Column
 	private String number;
 	@Column
@@ -81,7 +88,7 @@ public class Student implements Serializable {
 		this.gender = gender;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
@@ -6,21 +6,29 @@ import java.util.Date;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
+import org.forten.sample.dao.SnowflakeIdGenerator;
 import org.forten.sample.entity.enums.LaboratoryOrderStatus;
+import org.hibernate.annotations.GenericGenerator;
 
 @Entity
-@Table(name = "test_student_laboratory_relation")
+@Table(name = "test_student_laboratory_relation", indexes = {
+		@Index(name = "idx_relation_laboratory", columnList = "laboratory_id"),
+		@Index(name = "idx_relation_student", columnList = "student_id") })
 public class StudentLaboratoryRelation implements Serializable {
 	private static final long serialVersionUID = 1L;
 	@Id
-	private int id;
+	@GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = "org.forten.sample.dao.SnowflakeIdGenerator")
+	private long id;
 	@Column(name = "laboratory_id")
-	private int laboratoryId;
+	private long laboratoryId;
 	@Column(name = "student_id")
-	private int studentId;
+	private long studentId;
 	@Column(name = "ordered_time")
 	private Date orderedTime;
 	@Column
@@ -33,31 +41,31 @@ public class StudentLaboratoryRelation implements Serializable {
 		this.laboratoryOrderStatus = LaboratoryOrderStatus.SUBMIT;
 	}
 
-	public StudentLaboratoryRelation(int laboratoryId) {
+	public StudentLaboratoryRelation(long laboratoryId) {
 		this();
 		this.laboratoryId = laboratoryId;
 	}
 
-	public StudentLaboratoryRelation(int id, int laboratoryId, int studentId) {
+	public StudentLaboratoryRelation(long id, long laboratoryId, long studentId) {
 		this();
 		this.id = id;
 		this.laboratoryId = laboratoryId;
 		this.studentId = studentId;
 	}
 
-	public int getStudentId() {
+	public long getStudentId() {
 		return studentId;
 	}
 
-	public void setStudentId(int studentId) {
+	public void setStudentId(long studentId) {
 		this.studentId = studentId;
 	}
 
-	public int getLaboratoryId() {
+	public long getLaboratoryId() {
 		return laboratoryId;
 	}
 
-	public void setLaboratoryId(int laboratoryId) {
+	public void setLaboratoryId(long laboratoryId) {
 		this.laboratoryId = laboratoryId;
 	}
 
@@ -77,11 +85,11 @@ public class StudentLaboratoryRelation implements Serializable {
 		this.laboratoryOrderStatus = laboratoryOrderStatus;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
@@ -89,7 +97,7 @@ public class StudentLaboratoryRelation implements Serializable {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + id;
+		result = prime * result + (int) (id ^ (id >>> 32));
 		return result;
 	}
 
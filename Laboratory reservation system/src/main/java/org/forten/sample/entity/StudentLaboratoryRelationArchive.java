@@ -0,0 +1,119 @@
+package org.forten.sample.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.forten.sample.entity.enums.LaboratoryOrderStatus;
+
+/**
+ * 已归档的预约记录，由ArchiveBo从test_student_laboratory_relation整行搬入，主键保持不变
+ */
+@Entity
+@Table(name = "test_student_laboratory_relation_archive", indexes = {
+		@Index(name = "idx_archive_laboratory", columnList = "laboratory_id"),
+		@Index(name = "idx_archive_student", columnList = "student_id") })
+public class StudentLaboratoryRelationArchive implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private long id;
+	@Column(name = "laboratory_id")
+	private long laboratoryId;
+	@Column(name = "student_id")
+	private long studentId;
+	@Column(name = "ordered_time")
+	private Date orderedTime;
+	@Column
+	@Enumerated
+	private LaboratoryOrderStatus laboratoryOrderStatus;
+	@Column(name = "archived_time")
+	private Date archivedTime;
+
+	public StudentLaboratoryRelationArchive() {
+		super();
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public long getLaboratoryId() {
+		return laboratoryId;
+	}
+
+	public void setLaboratoryId(long laboratoryId) {
+		this.laboratoryId = laboratoryId;
+	}
+
+	public long getStudentId() {
+		return studentId;
+	}
+
+	public void setStudentId(long studentId) {
+		this.studentId = studentId;
+	}
+
+	public Date getOrderedTime() {
+		return orderedTime;
+	}
+
+	public void setOrderedTime(Date orderedTime) {
+		this.orderedTime = orderedTime;
+	}
+
+	public LaboratoryOrderStatus getLaboratoryOrderStatus() {
+		return laboratoryOrderStatus;
+	}
+
+	public void setLaboratoryOrderStatus(LaboratoryOrderStatus laboratoryOrderStatus) {
+		this.laboratoryOrderStatus = laboratoryOrderStatus;
+	}
+
+	public Date getArchivedTime() {
+		return archivedTime;
+	}
+
+	public void setArchivedTime(Date archivedTime) {
+		this.archivedTime = archivedTime;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (id ^ (id >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		StudentLaboratoryRelationArchive other = (StudentLaboratoryRelationArchive) obj;
+		if (id != other.id)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "StudentLaboratoryRelationArchive [id=" + id + ", laboratoryId=" + laboratoryId + ", studentId="
+				+ studentId + ", orderedTime=" + orderedTime + ", laboratoryOrderStatus=" + laboratoryOrderStatus
+				+ ", archivedTime=" + archivedTime + "]";
+	}
+}
@@ -0,0 +1,25 @@
+package org.forten.sample.interceptor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.forten.sample.bo.DataVersions.Domain;
+
+/**
+ * 标记返回内容只随所列数据变化的GET接口，由{@link ConditionalGetInterceptor}处理条件请求
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+	/**
+	 * 返回内容依赖的数据
+	 */
+	Domain[] value();
+
+	/**
+	 * 返回内容是否包含session中的登录用户，为true时ETag区分用户
+	 */
+	boolean perUser() default false;
+}
@@ -0,0 +1,61 @@
+package org.forten.sample.interceptor;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.forten.sample.bo.DataVersions;
+import org.forten.sample.bo.DataVersions.Domain;
+import org.forten.sample.vo.LoginedAdminVo;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * 处理标有{@link ConditionalGet}的GET请求的ETag和Last-Modified
+ *
+ * ETag由DataVersions中所列数据的版本号和当天日期组成（首页按当月筛选日期，内容每天可能变化），
+ * 与请求的If-None-Match相同时直接返回304，不调用处理器方法，也就没有查询和JSON序列化。
+ * 响应带Cache-Control: private, no-cache，浏览器每次都带上ETag重新验证。
+ */
+@Component("conditionalGetInterceptor")
+public class ConditionalGetInterceptor extends HandlerInterceptorAdapter {
+	@Resource
+	private DataVersions dataVersions;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!(handler instanceof HandlerMethod)) {
+			return true;
+		}
+		ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+		if (conditionalGet == null || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+			return true;
+		}
+		Domain[] domains = conditionalGet.value();
+		LocalDate today = LocalDate.now();
+		StringBuilder etag = new StringBuilder("\"").append(dataVersions.etag(domains)).append('-')
+				.append(today.toEpochDay());
+		if (conditionalGet.perUser()) {
+			HttpSession session = request.getSession(false);
+			LoginedAdminVo loginedAdmin = session == null ? null
+					: (LoginedAdminVo) session.getAttribute("loginedAdmin");
+			if (loginedAdmin != null) {
+				etag.append('-').append(loginedAdmin.getId()).append('-')
+						.append(Integer.toHexString(String.valueOf(loginedAdmin.getAdminName()).hashCode()));
+			}
+		}
+		etag.append('"');
+		long startOfToday = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		long lastModified = Math.max(dataVersions.lastModified(domains), startOfToday);
+		response.setHeader("Cache-Control", "private, no-cache");
+		// 只按ETag判断：这个版本的checkNotModified(etag, lastModified)要求If-Modified-Since也同时满足
+		response.setDateHeader("Last-Modified", lastModified);
+		return !new ServletWebRequest(request, response).checkNotModified(etag.toString());
+	}
+}
@@ -0,0 +1,82 @@
+package org.forten.sample.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forten.sample.dao.RequestSqlTrace;
+import org.forten.sample.vo.EndpointMetricsVo;
+import org.forten.utils.system.LatencyHistogram;
+
+/**
+ * 一个处理器方法的请求统计：延迟直方图（纳秒）、错误数、正在处理的请求数，以及请求中执行的SQL语句数、读取的行数、
+ * 借用连接的等待时间和持有连接的时间
+ */
+public class EndpointMetrics {
+	private final String handler;
+	private final String pattern;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder inFlight = new LongAdder();
+	private final LongAdder sqlStatements = new LongAdder();
+	private final LongAdder sqlRows = new LongAdder();
+	private final LongAdder connectionWaitNanos = new LongAdder();
+	private final LongAdder connectionHoldNanos = new LongAdder();
+	private final LongAccumulator maxSqlStatements = new LongAccumulator(Long::max, 0);
+
+	public EndpointMetrics(String handler, String pattern) {
+		this.handler = handler;
+		this.pattern = pattern;
+	}
+
+	public String getHandler() {
+		return handler;
+	}
+
+	public void begin() {
+		inFlight.increment();
+	}
+
+	public void end(long nanos, boolean error) {
+		inFlight.decrement();
+		latency.record(nanos);
+		if (error) {
+			errors.increment();
+		}
+	}
+
+	public void recordSql(RequestSqlTrace trace) {
+		sqlStatements.add(trace.getStatements());
+		sqlRows.add(trace.getRows());
+		maxSqlStatements.accumulate(trace.getStatements());
+		connectionWaitNanos.add(trace.getConnectionWaitNanos());
+		connectionHoldNanos.add(trace.getConnectionHoldNanos());
+	}
+
+	public EndpointMetricsVo toVo() {
+		long[] percentiles = latency.getValuesAtPercentiles(50, 90, 99, 99.9);
+		EndpointMetricsVo vo = new EndpointMetricsVo();
+		vo.setHandler(handler);
+		vo.setPattern(pattern);
+		vo.setRequests(latency.getCount());
+		vo.setErrors(errors.sum());
+		vo.setInFlight(inFlight.sum());
+		vo.setSumMicros(toMicros(latency.getSum()));
+		vo.setMeanMicros(latency.getMean() / 1000);
+		vo.setP50Micros(toMicros(percentiles[0]));
+		vo.setP90Micros(toMicros(percentiles[1]));
+		vo.setP99Micros(toMicros(percentiles[2]));
+		vo.setP999Micros(toMicros(percentiles[3]));
+		vo.setMaxMicros(toMicros(latency.getMax()));
+		vo.setSqlStatements(sqlStatements.sum());
+		vo.setSqlRows(sqlRows.sum());
+		vo.setMaxSqlStatements(maxSqlStatements.get());
+		vo.setConnectionWaitMicros(toMicros(connectionWaitNanos.sum()));
+		vo.setConnectionHoldMicros(toMicros(connectionHoldNanos.sum()));
+		return vo;
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
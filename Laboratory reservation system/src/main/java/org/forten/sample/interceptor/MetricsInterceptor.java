@@ -0,0 +1,83 @@
+package org.forten.sample.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.forten.sample.dao.InstrumentedDataSource;
+import org.forten.sample.dao.RequestSqlTrace;
+import org.forten.sample.vo.EndpointMetricsVo;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * 按处理器方法统计*.do请求的延迟、请求数、错误数和正在处理的请求数
+ * 
+ * 开始时间和统计对象放在request属性中，afterCompletion时记录到无锁直方图，整个过程不加锁，
+ * 每个请求的开销在1微秒以内。抛出异常或响应状态码为5xx的请求计为错误。
+ * 同时在数据源上开始和结束请求级的SQL统计，把语句数与读取的行数计入处理器方法的统计。
+ */
+@Component("metricsInterceptor")
+public class MetricsInterceptor extends HandlerInterceptorAdapter {
+	private static final String METRICS_ATTRIBUTE = MetricsInterceptor.class.getName() + ".METRICS";
+	private static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".START";
+
+	@Resource
+	private InstrumentedDataSource instrumentedDataSource;
+
+	private final ConcurrentMap<Method, EndpointMetrics> metricsMap = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod) {
+			EndpointMetrics metrics = metricsOf((HandlerMethod) handler, request);
+			metrics.begin();
+			instrumentedDataSource.beginRequest(metrics.getHandler());
+			request.setAttribute(METRICS_ATTRIBUTE, metrics);
+			request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		EndpointMetrics metrics = (EndpointMetrics) request.getAttribute(METRICS_ATTRIBUTE);
+		if (metrics != null) {
+			long start = (Long) request.getAttribute(START_ATTRIBUTE);
+			metrics.end(System.nanoTime() - start, ex != null || response.getStatus() >= 500);
+			RequestSqlTrace trace = instrumentedDataSource.endRequest();
+			if (trace != null) {
+				metrics.recordSql(trace);
+			}
+		}
+	}
+
+	public List<EndpointMetricsVo> snapshot() {
+		List<EndpointMetricsVo> list = new ArrayList<>(metricsMap.size());
+		for (EndpointMetrics metrics : metricsMap.values()) {
+			list.add(metrics.toVo());
+		}
+		list.sort((a, b) -> a.getHandler().compareTo(b.getHandler()));
+		return list;
+	}
+
+	private EndpointMetrics metricsOf(HandlerMethod handler, HttpServletRequest request) {
+		Method method = handler.getMethod();
+		EndpointMetrics metrics = metricsMap.get(method);
+		if (metrics == null) {
+			String name = handler.getBeanType().getSimpleName() + "." + method.getName();
+			String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			metrics = metricsMap.computeIfAbsent(method, m -> new EndpointMetrics(name, pattern));
+		}
+		return metrics;
+	}
+}
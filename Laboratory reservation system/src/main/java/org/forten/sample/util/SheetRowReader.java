@@ -0,0 +1,202 @@
+package org.forten.sample.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * 逐行读取XLSX或CSV文件，不在内存中构建整个工作表
+ *
+ * XLSX只读取第一个工作表，用SAX解析工作表XML，只有共享字符串表整体加载；上传的流先写入临时文件，以免解压整个文件到内存。
+ * CSV按UTF-8读取（忽略BOM），支持双引号包围的字段、字段中的逗号、换行以及用两个双引号表示的双引号。
+ * 行号从1开始，与表格软件中看到的一致；空行不回调。
+ */
+public class SheetRowReader {
+	/**
+	 * 每读到一行回调一次
+	 */
+	public interface RowHandler {
+		/**
+		 * @param rowNum
+		 *            行号，从1开始
+		 * @param cells
+		 *            各列的文本，空单元格为空字符串
+		 */
+		void row(int rowNum, List<String> cells);
+	}
+
+	private SheetRowReader() {
+	}
+
+	/**
+	 * 按文件扩展名选择格式读取
+	 *
+	 * @throws IllegalArgumentException
+	 *             扩展名既不是xlsx也不是csv
+	 */
+	public static void read(InputStream in, String fileName, RowHandler handler) throws IOException {
+		String name = fileName == null ? "" : fileName.toLowerCase();
+		if (name.endsWith(".xlsx")) {
+			readXlsx(in, handler);
+		} else if (name.endsWith(".csv")) {
+			readCsv(in, handler);
+		} else {
+			throw new IllegalArgumentException("只支持xlsx或csv格式的文件");
+		}
+	}
+
+	public static void readCsv(InputStream in, RowHandler handler) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		List<String> cells = new ArrayList<>();
+		StringBuilder cell = new StringBuilder();
+		boolean quoted = false;
+		int rowNum = 0;
+		int startRow = 1;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			rowNum++;
+			if (rowNum == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+				line = line.substring(1);
+			}
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c != '"') {
+						cell.append(c);
+					} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						cell.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					cells.add(cell.toString());
+					cell.setLength(0);
+				} else {
+					cell.append(c);
+				}
+			}
+			if (quoted) {
+				// 引号中的换行属于字段内容，继续读下一行
+				cell.append('\n');
+				continue;
+			}
+			cells.add(cell.toString());
+			cell.setLength(0);
+			emit(startRow, cells, handler);
+			cells = new ArrayList<>();
+			startRow = rowNum + 1;
+		}
+		if (quoted) {
+			cells.add(cell.toString());
+			emit(startRow, cells, handler);
+		}
+	}
+
+	public static void readXlsx(InputStream in, RowHandler handler) throws IOException {
+		File file = File.createTempFile("sheet", ".xlsx");
+		try {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			OPCPackage pkg = null;
+			try {
+				pkg = OPCPackage.open(file.getPath(), PackageAccess.READ);
+				XSSFReader reader = new XSSFReader(pkg);
+				ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+				Iterator<InputStream> sheets = reader.getSheetsData();
+				if (!sheets.hasNext()) {
+					return;
+				}
+				try (InputStream sheet = sheets.next()) {
+					XMLReader parser = newXmlReader();
+					parser.setContentHandler(
+							new XSSFSheetXMLHandler(reader.getStylesTable(), strings, new RowCollector(handler), false));
+					parser.parse(new InputSource(sheet));
+				}
+			} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+				throw new IOException("无法读取xlsx文件：" + e.getMessage(), e);
+			} finally {
+				// 只读打开的文件用revert关闭，close会试图保存
+				if (pkg != null) {
+					pkg.revert();
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	private static XMLReader newXmlReader() throws SAXException, ParserConfigurationException {
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		factory.setNamespaceAware(true);
+		factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+		return factory.newSAXParser().getXMLReader();
+	}
+
+	private static void emit(int rowNum, List<String> cells, RowHandler handler) {
+		for (String cell : cells) {
+			if (!cell.trim().isEmpty()) {
+				handler.row(rowNum, cells);
+				return;
+			}
+		}
+	}
+
+	private static class RowCollector implements SheetContentsHandler {
+		private final RowHandler handler;
+		private List<String> cells = new ArrayList<>();
+
+		RowCollector(RowHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			cells = new ArrayList<>();
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			emit(rowNum + 1, cells, handler);
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			// 空单元格不会出现在工作表XML中，按列号补齐
+			int col = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+			while (cells.size() < col) {
+				cells.add("");
+			}
+			cells.add(formattedValue == null ? "" : formattedValue);
+		}
+
+		@Override
+		public void headerFooter(String text, boolean isHeader, String tagName) {
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package org.forten.sample.vo;
+
+public class EndpointMetricsVo {
+	private String handler;
+	private String pattern;
+	private long requests;
+	private long errors;
+	private long inFlight;
+	private long sumMicros;
+	private double meanMicros;
+	private long p50Micros;
+	private long p90Micros;
+	private long p99Micros;
+	private long p999Micros;
+	private long maxMicros;
+	private long sqlStatements;
+	private long sqlRows;
+	private long maxSqlStatements;
+	private long connectionWaitMicros;
+	private long connectionHoldMicros;
+
+	public String getHandler() {
+		return handler;
+	}
+
+	public void setHandler(String handler) {
+		this.handler = handler;
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	public void setPattern(String pattern) {
+		this.pattern = pattern;
+	}
+
+	public long getRequests() {
+		return requests;
+	}
+
+	public void setRequests(long requests) {
+		this.requests = requests;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public void setErrors(long errors) {
+		this.errors = errors;
+	}
+
+	public long getInFlight() {
+		return inFlight;
+	}
+
+	public void setInFlight(long inFlight) {
+		this.inFlight = inFlight;
+	}
+
+	public long getSumMicros() {
+		return sumMicros;
+	}
+
+	public void setSumMicros(long sumMicros) {
+		this.sumMicros = sumMicros;
+	}
+
+	public double getMeanMicros() {
+		return meanMicros;
+	}
+
+	public void setMeanMicros(double meanMicros) {
+		this.meanMicros = meanMicros;
+	}
+
+	public long getP50Micros() {
+		return p50Micros;
+	}
+
+	public void setP50Micros(long p50Micros) {
+		this.p50Micros = p50Micros;
+	}
+
+	public long getP90Micros() {
+		return p90Micros;
+	}
+
+	public void setP90Micros(long p90Micros) {
+		this.p90Micros = p90Micros;
+	}
+
+	public long getP99Micros() {
+		return p99Micros;
+	}
+
+	public void setP99Micros(long p99Micros) {
+		this.p99Micros = p99Micros;
+	}
+
+	public long getP999Micros() {
+		return p999Micros;
+	}
+
+	public void setP999Micros(long p999Micros) {
+		this.p999Micros = p999Micros;
+	}
+
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+
+	public void setMaxMicros(long maxMicros) {
+		this.maxMicros = maxMicros;
+	}
+
+	public long getSqlStatements() {
+		return sqlStatements;
+	}
+
+	public void setSqlStatements(long sqlStatements) {
+		this.sqlStatements = sqlStatements;
+	}
+
+	public long getSqlRows() {
+		return sqlRows;
+	}
+
+	public void setSqlRows(long sqlRows) {
+		this.sqlRows = sqlRows;
+	}
+
+	public long getMaxSqlStatements() {
+		return maxSqlStatements;
+	}
+
+	public void setMaxSqlStatements(long maxSqlStatements) {
+		this.maxSqlStatements = maxSqlStatements;
+	}
+
+	public long getConnectionWaitMicros() {
+		return connectionWaitMicros;
+	}
+
+	public void setConnectionWaitMicros(long connectionWaitMicros) {
+		this.connectionWaitMicros = connectionWaitMicros;
+	}
+
+	public long getConnectionHoldMicros() {
+		return connectionHoldMicros;
+	}
+
+	public void setConnectionHoldMicros(long connectionHoldMicros) {
+		this.connectionHoldMicros = connectionHoldMicros;
+	}
+}
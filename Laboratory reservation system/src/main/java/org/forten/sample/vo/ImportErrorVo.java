@@ -0,0 +1,32 @@
+package org.forten.sample.vo;
+
+public class ImportErrorVo {
+	private int rowNum;
+	private String message;
+
+	public ImportErrorVo() {
+		super();
+	}
+
+	public ImportErrorVo(int rowNum, String message) {
+		super();
+		this.rowNum = rowNum;
+		this.message = message;
+	}
+
+	public int getRowNum() {
+		return rowNum;
+	}
+
+	public void setRowNum(int rowNum) {
+		this.rowNum = rowNum;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
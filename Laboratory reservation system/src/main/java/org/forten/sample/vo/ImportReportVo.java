@@ -0,0 +1,55 @@
+package org.forten.sample.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入的结果，errors最多保留MAX_ERRORS行，之后的错误行只计数
+ */
+public class ImportReportVo {
+	public static final int MAX_ERRORS = 1000;
+
+	private int total;
+	private int imported;
+	private int failed;
+	private List<ImportErrorVo> errors = new ArrayList<>();
+
+	public void addError(int rowNum, List<String> messages) {
+		failed++;
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(new ImportErrorVo(rowNum, String.join("；", messages)));
+		}
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public void setTotal(int total) {
+		this.total = total;
+	}
+
+	public int getImported() {
+		return imported;
+	}
+
+	public void setImported(int imported) {
+		this.imported = imported;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<ImportErrorVo> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<ImportErrorVo> errors) {
+		this.errors = errors;
+	}
+}
@@ -0,0 +1,25 @@
+package org.forten.sample.vo;
+
+import java.util.Date;
+
+public class LaboratoryAvailabilityVo extends LaboratoryVo {
+	private int freeNumber;
+
+	public LaboratoryAvailabilityVo() {
+		super();
+	}
+
+	public LaboratoryAvailabilityVo(long id, String laboratoryName, String laboratoryAddress, Date orderTime,
+			int minNumber, int maxNumber, String classTime, int freeNumber) {
+		super(id, laboratoryName, laboratoryAddress, orderTime, minNumber, maxNumber, classTime);
+		this.freeNumber = freeNumber;
+	}
+
+	public int getFreeNumber() {
+		return freeNumber;
+	}
+
+	public void setFreeNumber(int freeNumber) {
+		this.freeNumber = freeNumber;
+	}
+}
@@ -0,0 +1,88 @@
+package org.forten.sample.vo;
+
+import java.util.Date;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.forten.sample.entity.Laboratory;
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.NotBlank;
+
+/**
+ * 批量导入的一行实验室场次
+ */
+public class LaboratoryImportRow {
+	@NotBlank(message = "实验室不能为空")
+	@Length(max = 255, message = "实验室不能超过255个字符")
+	private String laboratoryName;
+	@NotBlank(message = "实验室地点不能为空")
+	@Length(max = 255, message = "实验室地点不能超过255个字符")
+	private String laboratoryAddress;
+	@NotNull(message = "可预约时间不能为空")
+	private Date orderTime;
+	@NotNull(message = "人数下限不能为空")
+	@Min(value = 1, message = "人数下限至少为1")
+	@Max(value = 1000, message = "人数下限不能超过1000")
+	private Integer minNumber;
+	@NotNull(message = "人数上限不能为空")
+	@Min(value = 1, message = "人数上限至少为1")
+	@Max(value = 1000, message = "人数上限不能超过1000")
+	private Integer maxNumber;
+	@NotBlank(message = "开放时间不能为空")
+	@Length(max = 255, message = "开放时间不能超过255个字符")
+	private String classTime;
+
+	public String getLaboratoryName() {
+		return laboratoryName;
+	}
+
+	public void setLaboratoryName(String laboratoryName) {
+		this.laboratoryName = laboratoryName;
+	}
+
+	public String getLaboratoryAddress() {
+		return laboratoryAddress;
+	}
+
+	public void setLaboratoryAddress(String laboratoryAddress) {
+		this.laboratoryAddress = laboratoryAddress;
+	}
+
+	public Date getOrderTime() {
+		return orderTime;
+	}
+
+	public void setOrderTime(Date orderTime) {
+		this.orderTime = orderTime;
+	}
+
+	public Integer getMinNumber() {
+		return minNumber;
+	}
+
+	public void setMinNumber(Integer minNumber) {
+		this.minNumber = minNumber;
+	}
+
+	public Integer getMaxNumber() {
+		return maxNumber;
+	}
+
+	public void setMaxNumber(Integer maxNumber) {
+		this.maxNumber = maxNumber;
+	}
+
+	public String getClassTime() {
+		return classTime;
+	}
+
+	public void setClassTime(String classTime) {
+		this.classTime = classTime;
+	}
+
+	public Laboratory toLaboratory() {
+		return new Laboratory(laboratoryName, laboratoryAddress, orderTime, minNumber, maxNumber, classTime);
+	}
+}
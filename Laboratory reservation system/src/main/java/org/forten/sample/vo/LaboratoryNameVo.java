@@ -4,7 +4,7 @@ import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotBlank;
 
 public class LaboratoryNameVo {
-	private int id;
+	private long id;
 	@NotBlank(message = "实验室名称不能为空")
 	@Length(min = 4, max = 12, message = "字符长度为4~12之间")
 	private String laboratoryName;
@@ -13,17 +13,17 @@ public class LaboratoryNameVo {
 		super();
 	}
 
-	public LaboratoryNameVo(int id, String laboratoryName) {
+	public LaboratoryNameVo(long id, String laboratoryName) {
 		super();
 		this.id = id;
 		this.laboratoryName = laboratoryName;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
@@ -0,0 +1,126 @@
+package org.forten.sample.vo;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.NotBlank;
+
+/**
+ * 每周重复开放的实验室，添加、修改时作为请求体，列表中作为返回值
+ */
+public class LaboratorySeriesVo {
+	private long id;
+	@NotBlank(message = "实验室不能为空")
+	@Length(max = 255, message = "实验室不能超过255个字符")
+	private String laboratoryName;
+	@NotBlank(message = "实验室地点不能为空")
+	@Length(max = 255, message = "实验室地点不能超过255个字符")
+	private String laboratoryAddress;
+	@Min(value = 1, message = "星期只能是1~7")
+	@Max(value = 7, message = "星期只能是1~7")
+	private int weekday;
+	@NotBlank(message = "开放时间不能为空")
+	@Length(max = 255, message = "开放时间不能超过255个字符")
+	private String classTime;
+	@Min(value = 1, message = "人数下限至少为1")
+	@Max(value = 1000, message = "人数下限不能超过1000")
+	private int minNumber;
+	@Min(value = 1, message = "人数上限至少为1")
+	@Max(value = 1000, message = "人数上限不能超过1000")
+	private int maxNumber;
+	@NotNull(message = "开始日期不能为空")
+	private Date fromDate;
+	@NotNull(message = "结束日期不能为空")
+	private Date toDate;
+	private List<Date> exceptDates = new ArrayList<>();
+
+	public LaboratorySeriesVo() {
+		super();
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getLaboratoryName() {
+		return laboratoryName;
+	}
+
+	public void setLaboratoryName(String laboratoryName) {
+		this.laboratoryName = laboratoryName;
+	}
+
+	public String getLaboratoryAddress() {
+		return laboratoryAddress;
+	}
+
+	public void setLaboratoryAddress(String laboratoryAddress) {
+		this.laboratoryAddress = laboratoryAddress;
+	}
+
+	public int getWeekday() {
+		return weekday;
+	}
+
+	public void setWeekday(int weekday) {
+		this.weekday = weekday;
+	}
+
+	public String getClassTime() {
+		return classTime;
+	}
+
+	public void setClassTime(String classTime) {
+		this.classTime = classTime;
+	}
+
+	public int getMinNumber() {
+		return minNumber;
+	}
+
+	public void setMinNumber(int minNumber) {
+		this.minNumber = minNumber;
+	}
+
+	public int getMaxNumber() {
+		return maxNumber;
+	}
+
+	public void setMaxNumber(int maxNumber) {
+		this.maxNumber = maxNumber;
+	}
+
+	public Date getFromDate() {
+		return fromDate;
+	}
+
+	public void setFromDate(Date fromDate) {
+		this.fromDate = fromDate;
+	}
+
+	public Date getToDate() {
+		return toDate;
+	}
+
+	public void setToDate(Date toDate) {
+		this.toDate = toDate;
+	}
+
+	public List<Date> getExceptDates() {
+		return exceptDates;
+	}
+
+	public void setExceptDates(List<Date> exceptDates) {
+		this.exceptDates = exceptDates;
+	}
+}
@@ -5,7 +5,7 @@ import java.util.Date;
 import org.forten.utils.common.DateUtil;
 
 public class LaboratoryVo {
-	private int id;
+	private long id;
 	private String laboratoryName;
 	private String laboratoryAddress;
 	private Date orderTime;
@@ -17,7 +17,7 @@ public class LaboratoryVo {
 		super();
 	}
 
-	public LaboratoryVo(int id, String laboratoryName, String laboratoryAddress, Date orderTime, int minNumber,
+	public LaboratoryVo(long id, String laboratoryName, String laboratoryAddress, Date orderTime, int minNumber,
 			int maxNumber, String classTime) {
 		super();
 		this.id = id;
@@ -29,11 +29,11 @@ public class LaboratoryVo {
 		this.classTime = classTime;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
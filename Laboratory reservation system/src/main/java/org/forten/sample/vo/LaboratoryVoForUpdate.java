@@ -3,7 +3,7 @@ package org.forten.sample.vo;
 import java.util.Date;
 
 public class LaboratoryVoForUpdate {
-	private int id;
+	private long id;
 	private String laboratoryName;
 	private String laboratoryAddress;
 	private Date orderTime;
@@ -15,7 +15,7 @@ public class LaboratoryVoForUpdate {
 		super();
 	}
 
-	public LaboratoryVoForUpdate(int id, String laboratoryName, String laboratoryAddress, Date orderTime, int minNumber,
+	public LaboratoryVoForUpdate(long id, String laboratoryName, String laboratoryAddress, Date orderTime, int minNumber,
 			int maxNumber, String classTime) {
 		super();
 		this.id = id;
@@ -27,11 +27,11 @@ public class LaboratoryVoForUpdate {
 		this.classTime = classTime;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
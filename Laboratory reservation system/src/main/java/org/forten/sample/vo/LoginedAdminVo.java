@@ -1,7 +1,7 @@
 package org.forten.sample.vo;
 
 public class LoginedAdminVo {
-	private int id;
+	private long id;
 	private String adminName;
 	private String password;
 	private String roleName;
@@ -11,14 +11,14 @@ public class LoginedAdminVo {
 		super();
 	}
 
-	public LoginedAdminVo(int id, String adminName, String password) {
+	public LoginedAdminVo(long id, String adminName, String password) {
 		super();
 		this.id = id;
 		this.adminName = adminName;
 		this.password = password;
 	}
 
-	public LoginedAdminVo(int id, String adminName, String password, String roleName) {
+	public LoginedAdminVo(long id, String adminName, String password, String roleName) {
 		super();
 		this.id = id;
 		this.adminName = adminName;
@@ -26,11 +26,11 @@ public class LoginedAdminVo {
 		this.roleName = roleName;
 	}
 	
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
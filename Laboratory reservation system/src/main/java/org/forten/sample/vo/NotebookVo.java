@@ -5,25 +5,25 @@ import java.util.Date;
 import org.forten.utils.common.DateUtil;
 
 public class NotebookVo {
-	private int id;
+	private long id;
 	private String title;
 	private String username;
 	private String contentText;
 	private Date createTime;
-	private int notebookId;
+	private long notebookId;
 
 	public NotebookVo() {
 		super();
 	}
 
-	public NotebookVo(int id, String contentText, int notebookId) {
+	public NotebookVo(long id, String contentText, long notebookId) {
 		super();
 		this.id = id;
 		this.contentText = contentText;
 		this.notebookId = notebookId;
 	}
 
-	public NotebookVo(int id, String title, String username, String contentText, Date createTime) {
+	public NotebookVo(long id, String title, String username, String contentText, Date createTime) {
 		super();
 		this.id = id;
 		this.title = title;
@@ -32,11 +32,11 @@ public class NotebookVo {
 		this.createTime = createTime;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
@@ -85,11 +85,11 @@ public class NotebookVo {
 				+ ", createTime=" + createTime + "]";
 	}
 
-	public int getNotebookId() {
+	public long getNotebookId() {
 		return notebookId;
 	}
 
-	public void setNotebookId(int notebookId) {
+	public void setNotebookId(long notebookId) {
 		this.notebookId = notebookId;
 	}
 }
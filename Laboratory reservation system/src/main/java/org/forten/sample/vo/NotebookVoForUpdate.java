@@ -1,7 +1,7 @@
 package org.forten.sample.vo;
 
 public class NotebookVoForUpdate {
-	private int id;
+	private long id;
 	private String title;
 	private String username;
 	private String contentText;
@@ -10,7 +10,7 @@ public class NotebookVoForUpdate {
 		super();
 	}
 
-	public NotebookVoForUpdate(int id, String title, String username, String contentText) {
+	public NotebookVoForUpdate(long id, String title, String username, String contentText) {
 		super();
 		this.id = id;
 		this.title = title;
@@ -18,11 +18,11 @@ public class NotebookVoForUpdate {
 		this.contentText = contentText;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
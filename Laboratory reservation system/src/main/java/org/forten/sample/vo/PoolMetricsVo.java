@@ -0,0 +1,157 @@
+package org.forten.sample.vo;
+
+public class PoolMetricsVo {
+	private int active;
+	private int idle;
+	private int maxActive;
+	private int borrowed;
+	private long borrows;
+	private long timeouts;
+	private long borrowErrors;
+	private long waitP50Micros;
+	private long waitP99Micros;
+	private long waitMaxMicros;
+	private long holdP50Micros;
+	private long holdP99Micros;
+	private long holdMaxMicros;
+	private boolean adaptive;
+	private long adjustments;
+	private String lastAdjustment;
+	private long sqlLatencyBaselineMicros;
+
+	public int getActive() {
+		return active;
+	}
+
+	public void setActive(int active) {
+		this.active = active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	public void setIdle(int idle) {
+		this.idle = idle;
+	}
+
+	public int getMaxActive() {
+		return maxActive;
+	}
+
+	public void setMaxActive(int maxActive) {
+		this.maxActive = maxActive;
+	}
+
+	public int getBorrowed() {
+		return borrowed;
+	}
+
+	public void setBorrowed(int borrowed) {
+		this.borrowed = borrowed;
+	}
+
+	public long getBorrows() {
+		return borrows;
+	}
+
+	public void setBorrows(long borrows) {
+		this.borrows = borrows;
+	}
+
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	public void setTimeouts(long timeouts) {
+		this.timeouts = timeouts;
+	}
+
+	public long getBorrowErrors() {
+		return borrowErrors;
+	}
+
+	public void setBorrowErrors(long borrowErrors) {
+		this.borrowErrors = borrowErrors;
+	}
+
+	public long getWaitP50Micros() {
+		return waitP50Micros;
+	}
+
+	public void setWaitP50Micros(long waitP50Micros) {
+		this.waitP50Micros = waitP50Micros;
+	}
+
+	public long getWaitP99Micros() {
+		return waitP99Micros;
+	}
+
+	public void setWaitP99Micros(long waitP99Micros) {
+		this.waitP99Micros = waitP99Micros;
+	}
+
+	public long getWaitMaxMicros() {
+		return waitMaxMicros;
+	}
+
+	public void setWaitMaxMicros(long waitMaxMicros) {
+		this.waitMaxMicros = waitMaxMicros;
+	}
+
+	public long getHoldP50Micros() {
+		return holdP50Micros;
+	}
+
+	public void setHoldP50Micros(long holdP50Micros) {
+		this.holdP50Micros = holdP50Micros;
+	}
+
+	public long getHoldP99Micros() {
+		return holdP99Micros;
+	}
+
+	public void setHoldP99Micros(long holdP99Micros) {
+		this.holdP99Micros = holdP99Micros;
+	}
+
+	public long getHoldMaxMicros() {
+		return holdMaxMicros;
+	}
+
+	public void setHoldMaxMicros(long holdMaxMicros) {
+		this.holdMaxMicros = holdMaxMicros;
+	}
+
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	public long getAdjustments() {
+		return adjustments;
+	}
+
+	public void setAdjustments(long adjustments) {
+		this.adjustments = adjustments;
+	}
+
+	public String getLastAdjustment() {
+		return lastAdjustment;
+	}
+
+	public void setLastAdjustment(String lastAdjustment) {
+		this.lastAdjustment = lastAdjustment;
+	}
+
+	public long getSqlLatencyBaselineMicros() {
+		return sqlLatencyBaselineMicros;
+	}
+
+	public void setSqlLatencyBaselineMicros(long sqlLatencyBaselineMicros) {
+		this.sqlLatencyBaselineMicros = sqlLatencyBaselineMicros;
+	}
+}
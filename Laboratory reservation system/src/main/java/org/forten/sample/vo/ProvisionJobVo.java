@@ -0,0 +1,81 @@
+package org.forten.sample.vo;
+
+import java.util.Date;
+
+/**
+ * 批量开通学生账号任务的进度，percent按已读取的文件字节数估算
+ */
+public class ProvisionJobVo extends ImportReportVo {
+	private String id;
+	private String fileName;
+	private String status;
+	private String message;
+	private int percent;
+	private int duplicated;
+	private Date startedTime;
+	private Date finishedTime;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public int getPercent() {
+		return percent;
+	}
+
+	public void setPercent(int percent) {
+		this.percent = percent;
+	}
+
+	public int getDuplicated() {
+		return duplicated;
+	}
+
+	public void setDuplicated(int duplicated) {
+		this.duplicated = duplicated;
+	}
+
+	public Date getStartedTime() {
+		return startedTime;
+	}
+
+	public void setStartedTime(Date startedTime) {
+		this.startedTime = startedTime;
+	}
+
+	public Date getFinishedTime() {
+		return finishedTime;
+	}
+
+	public void setFinishedTime(Date finishedTime) {
+		this.finishedTime = finishedTime;
+	}
+}
@@ -0,0 +1,67 @@
+package org.forten.sample.vo;
+
+public class ReplicaMetricsVo {
+	private String url;
+	private boolean healthy;
+	private long lagMillis;
+	private long connections;
+	private int active;
+	private int idle;
+	private PoolMetricsVo pool;
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public boolean isHealthy() {
+		return healthy;
+	}
+
+	public void setHealthy(boolean healthy) {
+		this.healthy = healthy;
+	}
+
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	public void setLagMillis(long lagMillis) {
+		this.lagMillis = lagMillis;
+	}
+
+	public long getConnections() {
+		return connections;
+	}
+
+	public void setConnections(long connections) {
+		this.connections = connections;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public void setActive(int active) {
+		this.active = active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	public void setIdle(int idle) {
+		this.idle = idle;
+	}
+
+	public PoolMetricsVo getPool() {
+		return pool;
+	}
+
+	public void setPool(PoolMetricsVo pool) {
+		this.pool = pool;
+	}
+}
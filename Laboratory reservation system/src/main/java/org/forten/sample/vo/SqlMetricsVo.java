@@ -0,0 +1,94 @@
+package org.forten.sample.vo;
+
+public class SqlMetricsVo {
+	private String fingerprint;
+	private long executions;
+	private long errors;
+	private long rows;
+	private long sumMicros;
+	private long p50Micros;
+	private long p99Micros;
+	private long maxMicros;
+	private long slowQueries;
+	private long suspectedNPlusOne;
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public void setFingerprint(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+	public long getExecutions() {
+		return executions;
+	}
+
+	public void setExecutions(long executions) {
+		this.executions = executions;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public void setErrors(long errors) {
+		this.errors = errors;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public void setRows(long rows) {
+		this.rows = rows;
+	}
+
+	public long getSumMicros() {
+		return sumMicros;
+	}
+
+	public void setSumMicros(long sumMicros) {
+		this.sumMicros = sumMicros;
+	}
+
+	public long getP50Micros() {
+		return p50Micros;
+	}
+
+	public void setP50Micros(long p50Micros) {
+		this.p50Micros = p50Micros;
+	}
+
+	public long getP99Micros() {
+		return p99Micros;
+	}
+
+	public void setP99Micros(long p99Micros) {
+		this.p99Micros = p99Micros;
+	}
+
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+
+	public void setMaxMicros(long maxMicros) {
+		this.maxMicros = maxMicros;
+	}
+
+	public long getSlowQueries() {
+		return slowQueries;
+	}
+
+	public void setSlowQueries(long slowQueries) {
+		this.slowQueries = slowQueries;
+	}
+
+	public long getSuspectedNPlusOne() {
+		return suspectedNPlusOne;
+	}
+
+	public void setSuspectedNPlusOne(long suspectedNPlusOne) {
+		this.suspectedNPlusOne = suspectedNPlusOne;
+	}
+}
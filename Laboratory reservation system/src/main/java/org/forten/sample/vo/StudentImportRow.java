@@ -0,0 +1,80 @@
+package org.forten.sample.vo;
+
+import javax.validation.constraints.Pattern;
+
+import org.forten.sample.entity.Student;
+import org.hibernate.validator.constraints.Email;
+import org.hibernate.validator.constraints.Length;
+import org.hibernate.validator.constraints.NotBlank;
+
+/**
+ * 批量开通账号的一行学生信息
+ */
+public class StudentImportRow {
+	@NotBlank(message = "学号不能为空")
+	@Length(max = 64, message = "学号不能超过64个字符")
+	private String number;
+	@NotBlank(message = "姓名不能为空")
+	@Length(max = 64, message = "姓名不能超过64个字符")
+	private String name;
+	@Email(message = "邮箱格式不正确")
+	@Length(max = 255, message = "邮箱不能超过255个字符")
+	private String email;
+	@Pattern(regexp = "男|女|保密", message = "性别只能是男、女或保密")
+	private String gender;
+	@Length(max = 64, message = "密码不能超过64个字符")
+	private String password;
+
+	public String getNumber() {
+		return number;
+	}
+
+	public void setNumber(String number) {
+		this.number = number;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public String getGender() {
+		return gender;
+	}
+
+	public void setGender(String gender) {
+		this.gender = gender;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	/**
+	 * 没有填写密码时以学号作为初始密码
+	 */
+	public Student toStudent() {
+		Student student = new Student();
+		student.setNumber(number);
+		student.setName(name);
+		student.setEmail(email);
+		student.setGender(gender);
+		student.setPassword(password == null || password.isEmpty() ? number : password);
+		return student;
+	}
+}
@@ -5,8 +5,8 @@ import java.util.Date;
 import org.forten.sample.entity.enums.LaboratoryOrderStatus;
 
 public class StudentLaboratoryRelationVo {
-	private int id;
-	private int laboratoryId;
+	private long id;
+	private long laboratoryId;
 	private String laboratoryName;
 	private String laboratoryAddress;
 	private Date orderedTime;
@@ -15,15 +15,15 @@ public class StudentLaboratoryRelationVo {
 	private String classTime;
 	private String laboratoryOrderStatusDesc;
 	private LaboratoryOrderStatus laboratoryOrderStatus;
-	private int studentId;
+	private long studentId;
 
 	public StudentLaboratoryRelationVo() {
 		super();
 	}
 
-	public StudentLaboratoryRelationVo(int id, int laboratoryId, String laboratoryName, String laboratoryAddress,
+	public StudentLaboratoryRelationVo(long id, long laboratoryId, String laboratoryName, String laboratoryAddress,
 			Date orderedTime, int minNumber, int maxNumber, String classTime, String laboratoryOrderStatusDesc,
-			LaboratoryOrderStatus laboratoryOrderStatus, int studentId) {
+			LaboratoryOrderStatus laboratoryOrderStatus, long studentId) {
 		super();
 		this.id = id;
 		this.laboratoryId = laboratoryId;
@@ -38,19 +38,19 @@ public class StudentLaboratoryRelationVo {
 		this.studentId = studentId;
 	}
 
-	public int getId() {
+	public long getId() {
 		return id;
 	}
 
-	public void setId(int id) {
+	public void setId(long id) {
 		this.id = id;
 	}
 
-	public int getLaboratoryId() {
+	public long getLaboratoryId() {
 		return laboratoryId;
 	}
 
-	public void setLaboratoryId(int laboratoryId) {
+	public void setLaboratoryId(long laboratoryId) {
 		this.laboratoryId = laboratoryId;
 	}
 
@@ -118,11 +118,11 @@ public class StudentLaboratoryRelationVo {
 		this.laboratoryOrderStatus = laboratoryOrderStatus;
 	}
 
-	public int getStudentId() {
+	public long getStudentId() {
 		return studentId;
 	}
 
-	public void setStudentId(int studentId) {
+	public void setStudentId(long studentId) {
 		this.studentId = studentId;
 	}
 